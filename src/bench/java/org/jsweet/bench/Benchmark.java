@@ -0,0 +1,40 @@
+package org.jsweet.bench;
+
+import java.util.function.Supplier;
+
+/**
+ * A named benchmark: a setup step, which is not measured, and the operation
+ * it returns, which is invoked repeatedly.
+ *
+ * <p>
+ * The setup runs again before each warmup and measurement iteration, so
+ * operations may mutate the state they close over, as long as they stay
+ * valid when invoked any number of times.
+ */
+public final class Benchmark {
+
+	/**
+	 * One benchmarked operation. The returned value is handed to
+	 * {@link Blackhole#consume(Object)} so that the engine cannot drop the
+	 * work.
+	 */
+	public interface Operation {
+		Object run() throws Exception;
+	}
+
+	final String group;
+
+	final String name;
+
+	final Supplier<Operation> setup;
+
+	public Benchmark(String group, String name, Supplier<Operation> setup) {
+		this.group = group;
+		this.name = name;
+		this.setup = setup;
+	}
+
+	public String getId() {
+		return group + "." + name;
+	}
+}
@@ -0,0 +1,17 @@
+package org.jsweet.bench;
+
+/**
+ * Entry point of the benchmark bundle, invoked when Node loads it; see
+ * {@link BenchmarkRunner} for the configuration.
+ */
+public class BenchmarkMain {
+
+	public static void main(String[] args) throws Exception {
+		BenchmarkRunner runner = BenchmarkRunner.fromEnvironment();
+		CollectionBenchmarks.register(runner);
+		StreamBenchmarks.register(runner);
+		NioBenchmarks.register(runner);
+		IoBenchmarks.register(runner);
+		runner.run();
+	}
+}
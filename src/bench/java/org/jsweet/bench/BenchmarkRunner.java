@@ -0,0 +1,287 @@
+package org.jsweet.bench;
+
+import static jsweet.util.Lang.$insert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs benchmarks the way JMH does in its simplest setting: a few warmup
+ * iterations, then measured iterations of a fixed duration, each one invoking
+ * the operation as many times as fits.
+ *
+ * <p>
+ * The run is configured through environment variables, since the transpiled
+ * bundle is started by <code>node</code> without arguments:
+ * <ul>
+ * <li><code>J4TS_BENCH_FILTER</code>: only run the benchmarks whose id
+ * contains this string,</li>
+ * <li><code>J4TS_BENCH_WARMUP</code>: warmup iterations (default 3),</li>
+ * <li><code>J4TS_BENCH_ITERATIONS</code>: measured iterations (default
+ * 5),</li>
+ * <li><code>J4TS_BENCH_TIME</code>: duration of an iteration in milliseconds
+ * (default 500),</li>
+ * <li><code>J4TS_BENCH_OUTPUT</code>: file the JSON report is written to, in
+ * addition to the standard output,</li>
+ * <li><code>J4TS_BENCH_BASELINE</code>: JSON report of a previous run to
+ * compare with.</li>
+ * </ul>
+ *
+ * <p>
+ * Allocations are estimated from the growth of the used heap over an
+ * iteration, which is only meaningful when no collection happens in between:
+ * start Node with <code>--expose-gc</code> so that the heap is collected
+ * before each iteration, and read the figure as an order of magnitude.
+ */
+public final class BenchmarkRunner {
+
+	private static final class Result {
+		final Benchmark benchmark;
+		final double[] opsPerSec;
+		final double allocBytesPerOp;
+
+		Result(Benchmark benchmark, double[] opsPerSec, double allocBytesPerOp) {
+			this.benchmark = benchmark;
+			this.opsPerSec = opsPerSec;
+			this.allocBytesPerOp = allocBytesPerOp;
+		}
+
+		double mean() {
+			double sum = 0;
+			for (double value : opsPerSec) {
+				sum += value;
+			}
+			return sum / opsPerSec.length;
+		}
+
+		double stdDev() {
+			if (opsPerSec.length < 2) {
+				return 0;
+			}
+			double mean = mean();
+			double sum = 0;
+			for (double value : opsPerSec) {
+				sum += (value - mean) * (value - mean);
+			}
+			return Math.sqrt(sum / (opsPerSec.length - 1));
+		}
+
+		double min() {
+			double min = Double.POSITIVE_INFINITY;
+			for (double value : opsPerSec) {
+				min = Math.min(min, value);
+			}
+			return min;
+		}
+
+		double max() {
+			double max = 0;
+			for (double value : opsPerSec) {
+				max = Math.max(max, value);
+			}
+			return max;
+		}
+	}
+
+	/**
+	 * The number of invocations between two reads of the clock is doubled up
+	 * to this bound while the iteration is young.
+	 */
+	private static final int MAX_BATCH = 1 << 16;
+
+	private final List<Benchmark> benchmarks = new ArrayList<>();
+
+	private final String filter;
+
+	private final int warmupIterations;
+
+	private final int measurementIterations;
+
+	private final long iterationNanos;
+
+	private final String outputFile;
+
+	private final String baselineFile;
+
+	public BenchmarkRunner(String filter, int warmupIterations, int measurementIterations, long iterationMillis,
+			String outputFile, String baselineFile) {
+		if (measurementIterations < 1 || iterationMillis < 1) {
+			throw new IllegalArgumentException("At least one iteration of at least 1 ms is required");
+		}
+		this.filter = filter;
+		this.warmupIterations = Math.max(warmupIterations, 0);
+		this.measurementIterations = measurementIterations;
+		this.iterationNanos = iterationMillis * 1000000L;
+		this.outputFile = outputFile;
+		this.baselineFile = baselineFile;
+	}
+
+	public static BenchmarkRunner fromEnvironment() {
+		return new BenchmarkRunner(env("J4TS_BENCH_FILTER", null), Integer.parseInt(env("J4TS_BENCH_WARMUP", "3")),
+				Integer.parseInt(env("J4TS_BENCH_ITERATIONS", "5")), Long.parseLong(env("J4TS_BENCH_TIME", "500")),
+				env("J4TS_BENCH_OUTPUT", null), env("J4TS_BENCH_BASELINE", null));
+	}
+
+	public BenchmarkRunner add(String group, String name, Supplier<Benchmark.Operation> setup) {
+		Benchmark benchmark = new Benchmark(group, name, setup);
+		if (filter == null || benchmark.getId().contains(filter)) {
+			benchmarks.add(benchmark);
+		}
+		return this;
+	}
+
+	/**
+	 * Runs the benchmarks, prints progress on the error stream and the JSON
+	 * report on the standard output, and returns the report.
+	 */
+	public String run() throws Exception {
+		List<Result> results = new ArrayList<>();
+		for (Benchmark benchmark : benchmarks) {
+			System.err.println("# " + benchmark.getId());
+			for (int i = 0; i < warmupIterations; i++) {
+				iterate(benchmark, null);
+			}
+			double[] opsPerSec = new double[measurementIterations];
+			double allocated = 0;
+			double operations = 0;
+			for (int i = 0; i < measurementIterations; i++) {
+				double[] allocation = new double[2];
+				opsPerSec[i] = iterate(benchmark, allocation);
+				if (allocation[0] >= 0) {
+					// a negative growth means that the heap was collected
+					allocated += allocation[0];
+					operations += allocation[1];
+				}
+			}
+			Result result = new Result(benchmark, opsPerSec, operations > 0 ? allocated / operations : -1);
+			System.err.println(formatOps(result.mean()) + " ops/s ± " + formatOps(result.stdDev()));
+			results.add(result);
+		}
+		String report = toJson(results, readBaseline());
+		System.out.println(report);
+		System.out.flush();
+		if (outputFile != null) {
+			String path = outputFile;
+			$insert("require('fs').writeFileSync(path, report + '\\n')");
+		}
+		return report;
+	}
+
+	/**
+	 * Runs one iteration and returns its throughput in operations per second.
+	 * When given, <code>allocation</code> receives the heap growth over the
+	 * iteration and the number of operations.
+	 */
+	private double iterate(Benchmark benchmark, double[] allocation) throws Exception {
+		Benchmark.Operation operation = benchmark.setup.get();
+		Runtime runtime = Runtime.getRuntime();
+		runtime.gc();
+		long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+		long operations = 0;
+		int batch = 1;
+		long start = System.nanoTime();
+		long elapsed;
+		do {
+			for (int i = 0; i < batch; i++) {
+				Blackhole.consume(operation.run());
+			}
+			operations += batch;
+			elapsed = System.nanoTime() - start;
+			if (batch < MAX_BATCH && elapsed < iterationNanos / 16) {
+				batch *= 2;
+			}
+		} while (elapsed < iterationNanos);
+		if (allocation != null) {
+			allocation[0] = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+			allocation[1] = operations;
+		}
+		return operations * 1e9 / elapsed;
+	}
+
+	/**
+	 * Returns the throughput of each benchmark of the baseline report, by id.
+	 */
+	private Map<String, Double> readBaseline() {
+		Map<String, Double> baseline = new HashMap<>();
+		if (baselineFile == null) {
+			return baseline;
+		}
+		String path = baselineFile;
+		Object report = $insert("JSON.parse(require('fs').readFileSync(path, 'utf8'))");
+		int count = $insert("report.benchmarks.length");
+		for (int i = 0; i < count; i++) {
+			String id = $insert("report.benchmarks[i].id");
+			double opsPerSec = $insert("report.benchmarks[i].opsPerSec");
+			baseline.put(id, opsPerSec);
+		}
+		return baseline;
+	}
+
+	private String toJson(List<Result> results, Map<String, Double> baseline) {
+		StringBuilder json = new StringBuilder();
+		String engine = System.ENVIRONMENT_IS_NODE ? $insert("process.version") : "unknown";
+		json.append("{\n  \"suite\": \"j4ts\",\n  \"engine\": ").append(quote(engine));
+		json.append(",\n  \"timestamp\": ").append(quote(String.valueOf(System.currentTimeMillis())));
+		json.append(",\n  \"config\": {\"warmupIterations\": ").append(warmupIterations);
+		json.append(", \"measurementIterations\": ").append(measurementIterations);
+		json.append(", \"iterationMillis\": ").append(iterationNanos / 1000000L);
+		json.append("},\n  \"fingerprint\": ").append(Blackhole.fingerprint());
+		json.append(",\n  \"benchmarks\": [");
+		for (int i = 0; i < results.size(); i++) {
+			Result result = results.get(i);
+			double mean = result.mean();
+			json.append(i == 0 ? "\n" : ",\n");
+			json.append("    {\"id\": ").append(quote(result.benchmark.getId()));
+			json.append(", \"group\": ").append(quote(result.benchmark.group));
+			json.append(", \"name\": ").append(quote(result.benchmark.name));
+			json.append(", \"opsPerSec\": ").append(round(mean));
+			json.append(", \"stdDev\": ").append(round(result.stdDev()));
+			json.append(", \"min\": ").append(round(result.min()));
+			json.append(", \"max\": ").append(round(result.max()));
+			json.append(", \"allocBytesPerOp\": ").append(result.allocBytesPerOp < 0 ? "null" : String.valueOf(round(result.allocBytesPerOp)));
+			Double reference = baseline.get(result.benchmark.getId());
+			if (reference != null && reference > 0) {
+				json.append(", \"baselineOpsPerSec\": ").append(round(reference));
+				json.append(", \"change\": ").append(round(mean / reference - 1));
+			}
+			json.append("}");
+		}
+		json.append("\n  ]\n}");
+		return json.toString();
+	}
+
+	private static String env(String name, String defaultValue) {
+		if (!System.ENVIRONMENT_IS_NODE) {
+			return defaultValue;
+		}
+		String value = $insert("process.env[name]");
+		return value == null || value.isEmpty() ? defaultValue : value;
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 1000) / 1000.0;
+	}
+
+	private static String formatOps(double value) {
+		return String.format("%,.1f", value);
+	}
+
+	private static String quote(String value) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') {
+				quoted.append('\\').append(c);
+			} else if (c < ' ') {
+				String hex = Integer.toHexString(c);
+				quoted.append("\\u").append("0000".substring(hex.length())).append(hex);
+			} else {
+				quoted.append(c);
+			}
+		}
+		return quoted.append('"').toString();
+	}
+}
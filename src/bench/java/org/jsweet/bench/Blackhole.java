@@ -0,0 +1,28 @@
+package org.jsweet.bench;
+
+/**
+ * Keeps benchmark results reachable, so that the engine cannot treat the work
+ * producing them as dead code.
+ */
+public final class Blackhole {
+
+	private static Object last;
+
+	private static int count;
+
+	private Blackhole() {
+	}
+
+	public static void consume(Object result) {
+		last = result;
+		count++;
+	}
+
+	/**
+	 * Returns a value depending on everything consumed so far, to be reported
+	 * once the run is over.
+	 */
+	static int fingerprint() {
+		return count ^ (last == null ? 0 : last.hashCode());
+	}
+}
@@ -0,0 +1,217 @@
+package org.jsweet.bench;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * <code>java.util</code> collections. Each operation works on
+ * {@value #SIZE} elements.
+ */
+public final class CollectionBenchmarks {
+
+	static final int SIZE = 1000;
+
+	private CollectionBenchmarks() {
+	}
+
+	/**
+	 * Returns {@value #SIZE} distinct keys, as they would come from user data.
+	 */
+	static String[] stringKeys() {
+		String[] keys = new String[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			keys[i] = "key-" + i;
+		}
+		return keys;
+	}
+
+	static Integer[] shuffledIntegers() {
+		List<Integer> values = new ArrayList<>();
+		for (int i = 0; i < SIZE; i++) {
+			values.add(i);
+		}
+		Collections.shuffle(values, new Random(42));
+		return values.toArray(new Integer[SIZE]);
+	}
+
+	public static void register(BenchmarkRunner runner) {
+		String group = "collections";
+
+		runner.add(group, "ArrayList.add", () -> () -> {
+			List<Integer> list = new ArrayList<>();
+			for (int i = 0; i < SIZE; i++) {
+				list.add(i);
+			}
+			return list;
+		});
+
+		runner.add(group, "ArrayList.get", () -> {
+			List<Integer> list = new ArrayList<>();
+			Collections.addAll(list, shuffledIntegers());
+			return () -> {
+				int sum = 0;
+				for (int i = 0; i < SIZE; i++) {
+					sum += list.get(i);
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "ArrayList.sort", () -> {
+			Integer[] values = shuffledIntegers();
+			return () -> {
+				List<Integer> list = new ArrayList<>(SIZE);
+				Collections.addAll(list, values);
+				Collections.sort(list);
+				return list;
+			};
+		});
+
+		runner.add(group, "HashMap.put.string", () -> {
+			String[] keys = stringKeys();
+			return () -> {
+				Map<String, Integer> map = new HashMap<>();
+				for (int i = 0; i < SIZE; i++) {
+					map.put(keys[i], i);
+				}
+				return map;
+			};
+		});
+
+		runner.add(group, "HashMap.get.string", () -> {
+			String[] keys = stringKeys();
+			Map<String, Integer> map = new HashMap<>();
+			for (int i = 0; i < SIZE; i++) {
+				map.put(keys[i], i);
+			}
+			return () -> {
+				int sum = 0;
+				for (int i = 0; i < SIZE; i++) {
+					sum += map.get(keys[i]);
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "HashMap.put.integer", () -> {
+			Integer[] keys = shuffledIntegers();
+			return () -> {
+				Map<Integer, Integer> map = new HashMap<>();
+				for (int i = 0; i < SIZE; i++) {
+					map.put(keys[i], i);
+				}
+				return map;
+			};
+		});
+
+		runner.add(group, "HashMap.get.integer", () -> {
+			Integer[] keys = shuffledIntegers();
+			Map<Integer, Integer> map = new HashMap<>();
+			for (int i = 0; i < SIZE; i++) {
+				map.put(keys[i], i);
+			}
+			return () -> {
+				int sum = 0;
+				for (int i = 0; i < SIZE; i++) {
+					sum += map.get(keys[i]);
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "HashMap.merge", () -> {
+			String[] keys = stringKeys();
+			return () -> {
+				Map<String, Integer> counts = new HashMap<>();
+				for (int i = 0; i < SIZE; i++) {
+					counts.merge(keys[i % 100], 1, Integer::sum);
+				}
+				return counts;
+			};
+		});
+
+		runner.add(group, "HashMap.iterate", () -> {
+			Map<String, Integer> map = new HashMap<>();
+			String[] keys = stringKeys();
+			for (int i = 0; i < SIZE; i++) {
+				map.put(keys[i], i);
+			}
+			return () -> {
+				int sum = 0;
+				for (Map.Entry<String, Integer> entry : map.entrySet()) {
+					sum += entry.getValue();
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "LinkedHashMap.put", () -> {
+			String[] keys = stringKeys();
+			return () -> {
+				Map<String, Integer> map = new LinkedHashMap<>();
+				for (int i = 0; i < SIZE; i++) {
+					map.put(keys[i], i);
+				}
+				return map;
+			};
+		});
+
+		runner.add(group, "HashSet.add", () -> {
+			Integer[] values = shuffledIntegers();
+			return () -> {
+				Set<Integer> set = new HashSet<>();
+				for (int i = 0; i < SIZE; i++) {
+					set.add(values[i]);
+				}
+				return set;
+			};
+		});
+
+		runner.add(group, "TreeMap.put", () -> {
+			Integer[] keys = shuffledIntegers();
+			return () -> {
+				TreeMap<Integer, Integer> map = new TreeMap<>();
+				for (int i = 0; i < SIZE; i++) {
+					map.put(keys[i], i);
+				}
+				return map;
+			};
+		});
+
+		runner.add(group, "TreeMap.get", () -> {
+			Integer[] keys = shuffledIntegers();
+			TreeMap<Integer, Integer> map = new TreeMap<>();
+			for (int i = 0; i < SIZE; i++) {
+				map.put(keys[i], i);
+			}
+			return () -> {
+				int sum = 0;
+				for (int i = 0; i < SIZE; i++) {
+					sum += map.get(keys[i]);
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "ArrayDeque.offerPoll", () -> () -> {
+			ArrayDeque<Integer> deque = new ArrayDeque<>();
+			int sum = 0;
+			for (int i = 0; i < SIZE; i++) {
+				deque.offer(i);
+				if ((i & 3) == 3) {
+					sum += deque.poll();
+				}
+			}
+			return sum;
+		});
+	}
+}
@@ -0,0 +1,92 @@
+package org.jsweet.bench;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>java.io</code> streams, readers and writers, on a text of
+ * {@value #LINES} lines.
+ */
+public final class IoBenchmarks {
+
+	static final int LINES = 200;
+
+	private IoBenchmarks() {
+	}
+
+	static String text() {
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			text.append("line ").append(i).append(": café – naïve über\n");
+		}
+		return text.toString();
+	}
+
+	public static void register(BenchmarkRunner runner) {
+		String group = "io";
+
+		runner.add(group, "ByteArrayOutputStream.write", () -> {
+			byte[] chunk = new byte[64];
+			return () -> {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				for (int i = 0; i < 64; i++) {
+					out.write(chunk, 0, chunk.length);
+					out.write(i);
+				}
+				return out.toByteArray();
+			};
+		});
+
+		runner.add(group, "BufferedReader.readLine", () -> {
+			String text = text();
+			return () -> {
+				BufferedReader reader = new BufferedReader(new StringReader(text));
+				int count = 0;
+				while (reader.readLine() != null) {
+					count++;
+				}
+				return count;
+			};
+		});
+
+		runner.add(group, "InputStreamReader.read", () -> {
+			byte[] bytes = text().getBytes(StandardCharsets.UTF_8);
+			char[] buffer = new char[512];
+			return () -> {
+				InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(bytes), "UTF-8");
+				int count = 0;
+				for (int n = reader.read(buffer, 0, buffer.length); n > 0; n = reader.read(buffer, 0, buffer.length)) {
+					count += n;
+				}
+				return count;
+			};
+		});
+
+		runner.add(group, "OutputStreamWriter.write", () -> {
+			String text = text();
+			return () -> {
+				ByteArrayOutputStream out = new ByteArrayOutputStream();
+				Writer writer = new OutputStreamWriter(out, "UTF-8");
+				writer.write(text);
+				writer.flush();
+				return out.size();
+			};
+		});
+
+		runner.add(group, "PrintStream.printf", () -> () -> {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			PrintStream printer = new PrintStream(out);
+			for (int i = 0; i < 20; i++) {
+				printer.printf("%5d %-8s %.3f%n", i, "item", i / 7.0);
+			}
+			return out.size();
+		});
+	}
+}
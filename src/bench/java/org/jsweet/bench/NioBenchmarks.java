@@ -0,0 +1,83 @@
+package org.jsweet.bench;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <code>java.nio</code> buffers, on {@value #CAPACITY} bytes.
+ */
+public final class NioBenchmarks {
+
+	static final int CAPACITY = 4096;
+
+	private NioBenchmarks() {
+	}
+
+	public static void register(BenchmarkRunner runner) {
+		String group = "nio";
+
+		runner.add(group, "ByteBuffer.putInt", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+			return () -> {
+				buffer.clear();
+				for (int i = 0; i < CAPACITY / 4; i++) {
+					buffer.putInt(i * 31);
+				}
+				return buffer;
+			};
+		});
+
+		runner.add(group, "ByteBuffer.getInt", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+			for (int i = 0; i < CAPACITY / 4; i++) {
+				buffer.putInt(i * 31);
+			}
+			return () -> {
+				buffer.rewind();
+				int sum = 0;
+				for (int i = 0; i < CAPACITY / 4; i++) {
+					sum += buffer.getInt();
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "ByteBuffer.getLong", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+			for (int i = 0; i < CAPACITY / 8; i++) {
+				buffer.putLong(i * 1000003L);
+			}
+			return () -> {
+				buffer.rewind();
+				long sum = 0;
+				for (int i = 0; i < CAPACITY / 8; i++) {
+					sum += buffer.getLong();
+				}
+				return sum;
+			};
+		});
+
+		runner.add(group, "ByteBuffer.putBytes", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(CAPACITY);
+			byte[] chunk = new byte[256];
+			for (int i = 0; i < chunk.length; i++) {
+				chunk[i] = (byte) i;
+			}
+			return () -> {
+				buffer.clear();
+				while (buffer.remaining() >= chunk.length) {
+					buffer.put(chunk);
+				}
+				return buffer;
+			};
+		});
+
+		runner.add(group, "ByteBuffer.wrapSlice", () -> {
+			byte[] bytes = new byte[CAPACITY];
+			return () -> {
+				ByteBuffer buffer = ByteBuffer.wrap(bytes);
+				buffer.position(CAPACITY / 2);
+				return buffer.slice();
+			};
+		});
+	}
+}
@@ -0,0 +1,49 @@
+package org.jsweet.bench;
+
+import static org.jsweet.bench.CollectionBenchmarks.SIZE;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <code>java.util.stream</code> pipelines over {@value CollectionBenchmarks#SIZE}
+ * elements.
+ */
+public final class StreamBenchmarks {
+
+	private StreamBenchmarks() {
+	}
+
+	public static void register(BenchmarkRunner runner) {
+		String group = "streams";
+
+		runner.add(group, "IntStream.sum", () -> () -> IntStream.range(0, SIZE).map(i -> i * 3).filter(i -> (i & 1) == 0).sum());
+
+		runner.add(group, "Stream.mapFilterToList", () -> {
+			List<Integer> values = new ArrayList<>();
+			Collections.addAll(values, CollectionBenchmarks.shuffledIntegers());
+			return () -> values.stream().map(i -> i * 3).filter(i -> (i & 1) == 0).collect(Collectors.toList());
+		});
+
+		runner.add(group, "Collectors.groupingBy", () -> {
+			List<String> values = new ArrayList<>();
+			Collections.addAll(values, CollectionBenchmarks.stringKeys());
+			return () -> values.stream().collect(Collectors.groupingBy(s -> s.charAt(s.length() - 1)));
+		});
+
+		runner.add(group, "Stream.sorted", () -> {
+			List<Integer> values = new ArrayList<>();
+			Collections.addAll(values, CollectionBenchmarks.shuffledIntegers());
+			return () -> values.stream().sorted().limit(10).collect(Collectors.toList());
+		});
+
+		runner.add(group, "Collectors.joining", () -> {
+			List<String> values = new ArrayList<>();
+			Collections.addAll(values, CollectionBenchmarks.stringKeys());
+			return () -> values.stream().collect(Collectors.joining(","));
+		});
+	}
+}
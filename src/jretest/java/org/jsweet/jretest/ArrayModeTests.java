@@ -0,0 +1,63 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import jsweet.util.Lang;
+
+/**
+ * The kind of JavaScript array behind the primitive arrays that the JRE
+ * allocates or hands to user code, which is only visible from JavaScript:
+ * typed arrays when the <code>jre.arrays.typed</code> system property is
+ * "true", plain arrays otherwise.
+ */
+public final class ArrayModeTests {
+
+	private ArrayModeTests() {
+	}
+
+	private static boolean isTypedArray(Object array) {
+		return Lang.<Boolean> $insert("ArrayBuffer.isView(array)");
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "ArrayMode";
+		boolean typed = "true".equals(System.getProperty("jre.arrays.typed"));
+
+		runner.add(group, "utf8GetBytes", () -> {
+			assertEquals(typed, isTypedArray("a\u00e9".getBytes(StandardCharsets.UTF_8)));
+			assertEquals(typed, isTypedArray("".getBytes(StandardCharsets.UTF_8)));
+		});
+
+		runner.add(group, "latin1GetBytes", () -> {
+			assertEquals(typed, isTypedArray("a\u00e9".getBytes(StandardCharsets.ISO_8859_1)));
+		});
+
+		runner.add(group, "utf8WriterBytes", () -> {
+			int[] writes = new int[1];
+			OutputStream out = new OutputStream() {
+				@Override
+				public void write(int b) throws IOException {
+				}
+
+				@Override
+				public void write(byte[] bytes, int offset, int length) throws IOException {
+					writes[0]++;
+					assertEquals(typed, isTypedArray(bytes));
+				}
+			};
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			writer.write("a\u00e9\u20AC");
+			writer.flush();
+			writer.write("z");
+			writer.close();
+			assertTrue(writes[0] > 0);
+		});
+	}
+}
@@ -0,0 +1,70 @@
+package org.jsweet.jretest;
+
+import static jsweet.util.Lang.$insert;
+
+import java.util.Objects;
+
+/**
+ * The assertions of the JRE test cases, in the manner of JUnit's.
+ */
+public final class Assert {
+
+	private Assert() {
+	}
+
+	public static void fail(String message) {
+		throw new AssertionError(message);
+	}
+
+	public static void assertTrue(String message, boolean condition) {
+		if (!condition) {
+			fail(message);
+		}
+	}
+
+	public static void assertTrue(boolean condition) {
+		assertTrue("expected true", condition);
+	}
+
+	public static void assertFalse(boolean condition) {
+		assertTrue("expected false", !condition);
+	}
+
+	public static void assertEquals(Object expected, Object actual) {
+		assertEquals(null, expected, actual);
+	}
+
+	public static void assertEquals(String message, Object expected, Object actual) {
+		if (!Objects.equals(expected, actual)) {
+			fail((message == null ? "" : message + ": ") + "expected <" + expected + "> but was <" + actual + ">");
+		}
+	}
+
+	/**
+	 * Compares arrays of any kind, plain or typed, element by element.
+	 */
+	public static void assertArrayEquals(Object expected, Object actual) {
+		String expectedElements = describe(expected);
+		String actualElements = describe(actual);
+		if (!expectedElements.equals(actualElements)) {
+			fail("expected " + expectedElements + " but was " + actualElements);
+		}
+	}
+
+	private static String describe(Object array) {
+		return array == null ? "null" : $insert("'[' + Array.prototype.join.call(array, ', ') + ']'");
+	}
+
+	/**
+	 * Runs the given code and returns what it throws, or fails if it throws
+	 * nothing.
+	 */
+	public static Throwable expectThrows(JreTestRunner.Case code) {
+		try {
+			code.run();
+		} catch (Throwable t) {
+			return t;
+		}
+		throw new AssertionError("expected an exception");
+	}
+}
@@ -0,0 +1,186 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.BitSet;
+
+/**
+ * The word-packed <code>BitSet</code>, checked against a plain array of
+ * booleans for random operations, and at the word boundaries.
+ */
+public final class BitSetTests {
+
+	private BitSetTests() {
+	}
+
+	private static final int BITS = 200;
+
+	private static int seed = 12345;
+
+	/**
+	 * A small deterministic generator, so that runs are reproducible; its
+	 * products stay exact in JavaScript numbers.
+	 */
+	private static int nextInt(int bound) {
+		seed = (seed * 75 + 74) % 65537;
+		return seed % bound;
+	}
+
+	private static void assertSame(boolean[] model, BitSet set) {
+		int cardinality = 0;
+		int length = 0;
+		for (int i = 0; i < BITS; i++) {
+			assertEquals("bit " + i, model[i], set.get(i));
+			if (model[i]) {
+				cardinality++;
+				length = i + 1;
+			}
+		}
+		assertEquals("cardinality", cardinality, set.cardinality());
+		assertEquals("length", length, set.length());
+		assertEquals(cardinality == 0, set.isEmpty());
+		for (int from = 0; from < BITS; from += 7) {
+			int next = from;
+			while (next < BITS && !model[next]) {
+				next++;
+			}
+			assertEquals("nextSetBit " + from, next == BITS ? -1 : next, set.nextSetBit(from));
+			next = from;
+			while (next < BITS && model[next]) {
+				next++;
+			}
+			assertEquals("nextClearBit " + from, next, set.nextClearBit(from));
+			int previous = from;
+			while (previous >= 0 && !model[previous]) {
+				previous--;
+			}
+			assertEquals("previousSetBit " + from, previous, set.previousSetBit(from));
+			previous = from;
+			while (previous >= 0 && model[previous]) {
+				previous--;
+			}
+			assertEquals("previousClearBit " + from, previous, set.previousClearBit(from));
+		}
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "BitSet";
+
+		runner.add(group, "randomOperations", () -> {
+			boolean[] model = new boolean[BITS];
+			BitSet set = new BitSet();
+			for (int step = 0; step < 400; step++) {
+				int from = nextInt(BITS);
+				int to = from + nextInt(BITS - from + 1);
+				switch (nextInt(7)) {
+				case 0:
+					set.set(from);
+					model[from] = true;
+					break;
+				case 1:
+					set.clear(from);
+					model[from] = false;
+					break;
+				case 2:
+					set.flip(from);
+					model[from] = !model[from];
+					break;
+				case 3:
+					set.set(from, to);
+					for (int i = from; i < to; i++) {
+						model[i] = true;
+					}
+					break;
+				case 4:
+					set.clear(from, to);
+					for (int i = from; i < to; i++) {
+						model[i] = false;
+					}
+					break;
+				case 5:
+					set.flip(from, to);
+					for (int i = from; i < to; i++) {
+						model[i] = !model[i];
+					}
+					break;
+				default:
+					boolean value = nextInt(2) == 0;
+					set.set(from, to, value);
+					for (int i = from; i < to; i++) {
+						model[i] = value;
+					}
+				}
+				if (step % 20 == 0) {
+					assertSame(model, set);
+				}
+			}
+			assertSame(model, set);
+		});
+
+		runner.add(group, "wordBoundaries", () -> {
+			BitSet set = new BitSet();
+			set.set(31);
+			set.set(32);
+			set.set(63);
+			set.set(64);
+			assertEquals("{31, 32, 63, 64}", set.toString());
+			assertArrayEquals(new long[] { 0x8000000180000000L, 1L }, set.toLongArray());
+			assertEquals(set, BitSet.valueOf(set.toLongArray()));
+			assertEquals(65, set.length());
+			assertEquals("{0, 31}", set.get(32, 64).toString());
+			set.clear(64);
+			assertEquals(64, set.length());
+			set.set(0, 96);
+			assertEquals(96, set.cardinality());
+			assertEquals(96, set.nextClearBit(0));
+			set.clear(30, 70);
+			assertEquals(29, set.previousSetBit(69));
+			assertEquals(70, set.nextSetBit(30));
+		});
+
+		runner.add(group, "logicalOperations", () -> {
+			BitSet a = new BitSet();
+			BitSet b = new BitSet();
+			a.set(0, 40);
+			b.set(20, 100);
+			BitSet and = (BitSet) a.clone();
+			and.and(b);
+			assertEquals(20, and.cardinality());
+			assertEquals(20, and.nextSetBit(0));
+			BitSet or = (BitSet) a.clone();
+			or.or(b);
+			assertEquals(100, or.cardinality());
+			BitSet xor = (BitSet) a.clone();
+			xor.xor(b);
+			assertEquals(80, xor.cardinality());
+			assertFalse(xor.get(25));
+			BitSet andNot = (BitSet) a.clone();
+			andNot.andNot(b);
+			assertEquals(20, andNot.length());
+			assertTrue(a.intersects(b));
+			assertFalse(andNot.intersects(b));
+		});
+
+		runner.add(group, "equalityIgnoresCapacity", () -> {
+			BitSet small = new BitSet(8);
+			BitSet large = new BitSet(1000);
+			small.set(5);
+			large.set(5);
+			large.set(900);
+			large.clear(900);
+			assertEquals(small, large);
+			assertEquals(small.hashCode(), large.hashCode());
+		});
+
+		runner.add(group, "stream", () -> {
+			BitSet set = new BitSet();
+			set.set(3);
+			set.set(40);
+			set.set(1000);
+			assertArrayEquals(new int[] { 3, 40, 1000 }, set.stream().toArray());
+		});
+	}
+}
@@ -0,0 +1,223 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * <code>ByteBuffer</code> slices and duplicates, which are windows of the
+ * memory of their parent at an array offset, and the bulk copies between
+ * buffers and arrays. Only allocated buffers are written through their array,
+ * as wrapped plain arrays are copied.
+ */
+public final class ByteBufferTests {
+
+	private ByteBufferTests() {
+	}
+
+	private static ByteBuffer counting(int capacity) {
+		ByteBuffer buffer = ByteBuffer.allocate(capacity);
+		for (int i = 0; i < capacity; i++) {
+			buffer.put(i, (byte) i);
+		}
+		return buffer;
+	}
+
+	private static byte[] bytes(int... values) {
+		byte[] bytes = new byte[values.length];
+		for (int i = 0; i < values.length; i++) {
+			bytes[i] = (byte) values[i];
+		}
+		return bytes;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "ByteBuffer";
+
+		runner.add(group, "wrapWindow", () -> {
+			ByteBuffer buffer = ByteBuffer.wrap(bytes(1, 2, 3, 4, 5, 6), 2, 3);
+			assertEquals(6, buffer.capacity());
+			assertEquals(2, buffer.position());
+			assertEquals(5, buffer.limit());
+			assertEquals(0, buffer.arrayOffset());
+			assertEquals((byte) 3, buffer.get());
+			assertEquals((byte) 1, buffer.get(0));
+			byte[] dest = new byte[2];
+			buffer.get(dest);
+			assertArrayEquals(bytes(4, 5), dest);
+			assertTrue(expectThrows(buffer::get) instanceof BufferUnderflowException);
+			assertTrue(expectThrows(() -> ByteBuffer.wrap(new byte[4], 3, 2)) instanceof IndexOutOfBoundsException);
+			assertTrue(expectThrows(() -> ByteBuffer.wrap(new byte[4], -1, 2)) instanceof IndexOutOfBoundsException);
+		});
+
+		runner.add(group, "sliceOffsets", () -> {
+			ByteBuffer buffer = counting(16);
+			buffer.position(4);
+			buffer.limit(12);
+			ByteBuffer slice = buffer.slice();
+			assertEquals(4, slice.arrayOffset());
+			assertEquals(8, slice.capacity());
+			assertEquals(0, slice.position());
+			assertEquals(8, slice.limit());
+			assertEquals((byte) 4, slice.get(0));
+			assertEquals((byte) 11, slice.get(7));
+
+			slice.position(2);
+			ByteBuffer nested = slice.slice();
+			assertEquals(6, nested.arrayOffset());
+			assertEquals(6, nested.capacity());
+			assertEquals((byte) 6, nested.get());
+
+			ByteBuffer range = slice.slice(3, 2);
+			assertEquals(7, range.arrayOffset());
+			assertEquals(2, range.capacity());
+			assertEquals(2, range.remaining());
+			assertEquals((byte) 7, range.get(0));
+			assertEquals((byte) 8, range.get(1));
+			assertTrue(expectThrows(() -> slice.slice(7, 2)) instanceof IndexOutOfBoundsException);
+			assertTrue(expectThrows(() -> range.put((byte) 0).put((byte) 0).put((byte) 0))
+					instanceof BufferOverflowException);
+		});
+
+		runner.add(group, "slicesShareMemory", () -> {
+			ByteBuffer buffer = counting(8);
+			buffer.position(2);
+			ByteBuffer slice = buffer.slice();
+			slice.put(0, (byte) 42);
+			assertEquals((byte) 42, buffer.get(2));
+			assertEquals((byte) 42, buffer.array()[2]);
+			assertTrue(slice.array() == buffer.array());
+			buffer.put(3, (byte) 43);
+			assertEquals((byte) 43, slice.get(1));
+			buffer.array()[4] = 44;
+			assertEquals((byte) 44, slice.get(2));
+			assertEquals((byte) 44, slice.slice(1, 3).get(1));
+			slice.slice(1, 3).put(2, (byte) 45);
+			assertEquals((byte) 45, buffer.get(5));
+		});
+
+		runner.add(group, "duplicate", () -> {
+			ByteBuffer buffer = counting(8);
+			buffer.position(3);
+			ByteBuffer slice = buffer.slice();
+			slice.position(1);
+			slice.limit(4);
+			ByteBuffer duplicate = slice.duplicate();
+			assertEquals(3, duplicate.arrayOffset());
+			assertEquals(1, duplicate.position());
+			assertEquals(4, duplicate.limit());
+			assertEquals(5, duplicate.capacity());
+			assertEquals((byte) 4, duplicate.get());
+			assertEquals(1, slice.position());
+			duplicate.put(0, (byte) -1);
+			assertEquals((byte) -1, slice.get(0));
+			assertEquals((byte) -1, buffer.get(3));
+
+			ByteBuffer readOnly = slice.asReadOnlyBuffer();
+			assertEquals((byte) -1, readOnly.get(0));
+			assertTrue(readOnly.isReadOnly());
+			assertTrue(expectThrows(() -> readOnly.put((byte) 0)) instanceof ReadOnlyBufferException);
+			assertTrue(expectThrows(readOnly::compact) instanceof ReadOnlyBufferException);
+			slice.put(1, (byte) -2);
+			assertEquals((byte) -2, readOnly.get(1));
+		});
+
+		runner.add(group, "bulkArrays", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(8);
+			buffer.position(1);
+			ByteBuffer slice = buffer.slice();
+			slice.put(bytes(9, 9, 1, 2, 3, 9), 2, 3);
+			assertEquals(3, slice.position());
+			assertArrayEquals(bytes(0, 1, 2, 3, 0, 0, 0, 0), buffer.array());
+			slice.put(bytes(4, 5, 6, 7));
+			assertArrayEquals(bytes(0, 1, 2, 3, 4, 5, 6, 7), buffer.array());
+			assertTrue(expectThrows(() -> slice.put(new byte[1])) instanceof BufferOverflowException);
+
+			slice.position(1);
+			byte[] dest = bytes(-1, -1, -1, -1, -1);
+			slice.get(dest, 1, 3);
+			assertArrayEquals(bytes(-1, 2, 3, 4, -1), dest);
+			assertEquals(4, slice.position());
+			assertTrue(expectThrows(() -> slice.get(new byte[4])) instanceof BufferUnderflowException);
+			assertEquals(4, slice.position());
+			assertTrue(expectThrows(() -> slice.get(dest, 4, 2)) instanceof IndexOutOfBoundsException);
+		});
+
+		runner.add(group, "bulkBuffers", () -> {
+			ByteBuffer source = counting(10);
+			source.position(2);
+			source.limit(6);
+			ByteBuffer target = ByteBuffer.allocate(10);
+			target.position(5);
+			target.slice().put(source);
+			assertEquals(6, source.position());
+			assertArrayEquals(bytes(0, 0, 0, 0, 0, 2, 3, 4, 5, 0), target.array());
+
+			// overlapping windows of the same memory
+			ByteBuffer buffer = counting(10);
+			buffer.position(2);
+			ByteBuffer from = buffer.slice();
+			from.limit(5);
+			ByteBuffer to = buffer.duplicate();
+			to.position(4);
+			to.put(from);
+			assertArrayEquals(bytes(0, 1, 2, 3, 2, 3, 4, 5, 6, 9), buffer.array());
+
+			ByteBuffer small = ByteBuffer.allocate(2);
+			source.position(2);
+			assertTrue(expectThrows(() -> small.put(source)) instanceof BufferOverflowException);
+			assertEquals(2, source.position());
+			assertTrue(expectThrows(() -> small.put(small)) instanceof IllegalArgumentException);
+		});
+
+		runner.add(group, "compact", () -> {
+			ByteBuffer buffer = counting(10);
+			buffer.position(2);
+			ByteBuffer slice = buffer.slice();
+			slice.position(3);
+			slice.limit(6);
+			slice.compact();
+			assertEquals(3, slice.position());
+			assertEquals(8, slice.limit());
+			assertArrayEquals(bytes(0, 1, 5, 6, 7, 5, 6, 7, 8, 9), buffer.array());
+		});
+
+		runner.add(group, "typedValuesInSlices", () -> {
+			ByteBuffer buffer = ByteBuffer.allocate(32);
+			buffer.position(3);
+			ByteBuffer slice = buffer.slice();
+			slice.putInt(0x01020304);
+			slice.putShort(1, (short) -2);
+			assertEquals((byte) 1, buffer.get(3));
+			assertEquals((byte) -1, buffer.get(4));
+			assertEquals((byte) -2, buffer.get(5));
+			assertEquals((byte) 4, buffer.get(6));
+			assertEquals(0xfffe04, slice.getInt(0) & 0xffffff);
+
+			slice.putDouble(8, 1.5);
+			assertEquals(1.5, buffer.getDouble(11));
+			slice.putLong(16, 0x0102030405060708L);
+			assertEquals(0x0102030405060708L, slice.getLong(16));
+			assertEquals(0x05060708, buffer.getInt(23));
+			slice.putChar(24, '\u20AC');
+			assertEquals('\u20AC', buffer.getChar(27));
+			assertEquals((byte) 0x20, buffer.get(27));
+			slice.putFloat(25, 0.25f);
+			assertEquals(0.25f, slice.getFloat(25));
+
+			ByteBuffer little = buffer.slice(11, 8);
+			little.order(ByteOrder.LITTLE_ENDIAN);
+			little.putShort(0, (short) 0x0102);
+			assertEquals((byte) 2, buffer.get(11));
+			assertEquals((byte) 1, buffer.get(12));
+			assertTrue(expectThrows(() -> little.getInt(6)) instanceof IndexOutOfBoundsException);
+		});
+	}
+}
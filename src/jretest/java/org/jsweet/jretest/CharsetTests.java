@@ -0,0 +1,44 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * String encoding and decoding with the emulated charsets.
+ */
+public final class CharsetTests {
+
+	private CharsetTests() {
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Charset";
+
+		runner.add(group, "utf8GetBytes", () -> {
+			byte[] bytes = "a\u00e9\u20ac\ud83d\ude00".getBytes(StandardCharsets.UTF_8);
+			assertArrayEquals(new byte[] { 97, -61, -87, -30, -126, -84, -16, -97, -104, -128 }, bytes);
+			bytes[0] = -1;
+			assertEquals(-1, (int) bytes[0]);
+			assertEquals(0, "".getBytes(StandardCharsets.UTF_8).length);
+		});
+
+		runner.add(group, "utf8RoundTrip", () -> {
+			StringBuilder text = new StringBuilder();
+			for (int codePoint = 0; codePoint < 0x11000; codePoint += 7) {
+				if (codePoint < 0xd800 || codePoint > 0xdfff) {
+					text.appendCodePoint(codePoint);
+				}
+			}
+			String string = text.toString();
+			assertEquals(string, new String(string.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+		});
+
+		runner.add(group, "latin1", () -> {
+			byte[] bytes = "a\u00e9\u00ff".getBytes(StandardCharsets.ISO_8859_1);
+			assertArrayEquals(new byte[] { 97, -23, -1 }, bytes);
+			assertEquals("a\u00e9\u00ff", new String(bytes, StandardCharsets.ISO_8859_1));
+		});
+	}
+}
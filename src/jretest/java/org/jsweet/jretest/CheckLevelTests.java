@@ -0,0 +1,85 @@
+package org.jsweet.jretest;
+
+import static jsweet.util.Lang.$insert;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import javaemul.internal.InternalPreconditions;
+import jsweet.util.Lang;
+
+/**
+ * The checks that each <code>jre.checks.checkLevel</code> keeps. The level is
+ * the default built into the bundle; the jretest profile also runs this group
+ * against the CRITICAL and NONE variants of the bundle, and tells the
+ * expected level in the <code>J4TS_CHECK_LEVEL</code> environment variable.
+ */
+public final class CheckLevelTests {
+
+	private CheckLevelTests() {
+	}
+
+	private static String expectedLevel() {
+		String level = null;
+		if (System.ENVIRONMENT_IS_NODE) {
+			level = $insert("process.env.J4TS_CHECK_LEVEL");
+		}
+		return level == null || level.isEmpty() ? "FULL" : level;
+	}
+
+	/**
+	 * Runs the given check, and returns what it threw, or null.
+	 */
+	private static Throwable thrownBy(JreTestRunner.Case check) {
+		try {
+			check.run();
+		} catch (Throwable t) {
+			return t;
+		}
+		return null;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "CheckLevel";
+		String level = expectedLevel();
+		boolean full = level.equals("FULL");
+		boolean critical = !level.equals("NONE");
+
+		runner.add(group, "level", () -> {
+			assertTrue(level, full || level.equals("CRITICAL") || level.equals("NONE"));
+			assertEquals(full, InternalPreconditions.isApiChecked());
+		});
+
+		runner.add(group, "criticalChecks", () -> {
+			Throwable thrown = thrownBy(() -> InternalPreconditions.checkCriticalElementIndex(5, 2));
+			assertTrue(String.valueOf(thrown), critical ? thrown instanceof IndexOutOfBoundsException : thrown == null);
+			thrown = thrownBy(() -> InternalPreconditions.checkCriticalPositionIndex(-1, 2));
+			assertTrue(String.valueOf(thrown), critical ? thrown instanceof IndexOutOfBoundsException : thrown == null);
+			thrown = thrownBy(() -> InternalPreconditions.checkCriticalArgument(false));
+			assertTrue(String.valueOf(thrown), critical ? thrown instanceof IllegalArgumentException : thrown == null);
+			InternalPreconditions.checkCriticalElementIndex(1, 2);
+		});
+
+		runner.add(group, "apiChecks", () -> {
+			Throwable thrown = thrownBy(() -> InternalPreconditions.checkElementIndex(5, 2));
+			assertTrue(String.valueOf(thrown), full ? thrown instanceof IndexOutOfBoundsException : thrown == null);
+			thrown = thrownBy(() -> InternalPreconditions.checkArgument(false));
+			assertTrue(String.valueOf(thrown), full ? thrown instanceof IllegalArgumentException : thrown == null);
+			InternalPreconditions.checkElementIndex(1, 2);
+		});
+
+		runner.add(group, "modificationCounts", () -> {
+			Map<Object, String> map = new IdentityHashMap<>();
+			Object key = new Object();
+			map.put(key, "a");
+			map.put(new Object(), "b");
+			map.remove(key);
+			assertEquals(full, Lang.<Boolean> $insert("typeof map._gwt_modCount === 'number'"));
+			assertEquals(full, Lang.<Boolean> $insert("'_gwt_modCount' in map"));
+			assertEquals(1, map.size());
+			assertEquals("b", map.values().iterator().next());
+		});
+	}
+}
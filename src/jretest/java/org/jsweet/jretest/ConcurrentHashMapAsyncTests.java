@@ -0,0 +1,145 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.ConcurrentHashMap;
+import java.util.List;
+
+/**
+ * The traversals of <code>ConcurrentHashMap</code>, mostly the
+ * <code>forEachAsync</code> and <code>reduceAsync</code> extensions, which only
+ * exist in j4ts.
+ */
+public final class ConcurrentHashMapAsyncTests {
+
+	private ConcurrentHashMapAsyncTests() {
+	}
+
+	private static ConcurrentHashMap<Integer, Integer> squares(int size) {
+		ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+		for (int i = 0; i < size; i++) {
+			map.put(i, i * i);
+		}
+		return map;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "ConcurrentHashMapAsync";
+
+		runner.addAsync(group, "forEachAsyncVisitsEveryEntry", done -> {
+			ConcurrentHashMap<Integer, Integer> map = squares(100);
+			List<Integer> keys = new ArrayList<>();
+			map.forEachAsync(10, (key, value) -> {
+				assertEquals(key * key, value);
+				keys.add(key);
+			}, () -> {
+				if (done.check(() -> {
+					assertEquals(100, keys.size());
+					for (int i = 0; i < 100; i++) {
+						assertTrue(keys.contains(i));
+					}
+				})) {
+					done.pass();
+				}
+			});
+			assertTrue("the first chunk runs after the call returns", keys.isEmpty());
+		});
+
+		runner.addAsync(group, "forEachAsyncSeesChangesBetweenChunks", done -> {
+			ConcurrentHashMap<Integer, Integer> map = squares(100);
+			List<Integer> keys = new ArrayList<>();
+			int[] sum = new int[1];
+			map.forEachAsync(10, (key, value) -> {
+				if (keys.isEmpty()) {
+					// whatever the order, most keys are still ahead: remove
+					// half of the others, overwrite the rest and add new ones
+					for (int i = 0; i < 100; i++) {
+						if (i != key) {
+							if (i % 2 == 0) {
+								map.remove(i);
+							} else {
+								map.put(i, -1);
+							}
+						}
+					}
+					for (int i = 100; i < 200; i++) {
+						map.put(i, i);
+					}
+				}
+				keys.add(key);
+				if (!key.equals(keys.get(0))) {
+					sum[0] += value;
+				}
+			}, () -> {
+				if (done.check(() -> {
+					int first = keys.get(0);
+					for (int key : keys) {
+						assertTrue("added during the traversal: " + key, key < 100);
+						assertTrue("removed during the traversal: " + key, key == first || key % 2 != 0);
+					}
+					assertEquals(first % 2 == 0 ? 51 : 50, keys.size());
+					assertEquals(-(keys.size() - 1), sum[0]);
+				})) {
+					done.pass();
+				}
+			});
+		});
+
+		runner.addAsync(group, "forEachAsyncSurvivesClear", done -> {
+			ConcurrentHashMap<Integer, Integer> map = squares(50);
+			int[] visits = new int[1];
+			map.forEachAsync(5, (key, value) -> {
+				visits[0]++;
+				map.clear();
+			}, () -> {
+				if (done.check(() -> {
+					assertEquals(1, visits[0]);
+					assertTrue(map.isEmpty());
+				})) {
+					done.pass();
+				}
+			});
+		});
+
+		runner.addAsync(group, "reduceAsync", done -> {
+			ConcurrentHashMap<Integer, Integer> map = squares(100);
+			map.reduceAsync(7, (key, value) -> key % 3 == 0 ? null : value, Integer::sum, result -> {
+				if (done.check(() -> {
+					int expected = 0;
+					for (int i = 0; i < 100; i++) {
+						if (i % 3 != 0) {
+							expected += i * i;
+						}
+					}
+					assertEquals(expected, result);
+				})) {
+					done.pass();
+				}
+			});
+		});
+
+		runner.addAsync(group, "reduceAsyncOfNothing", done -> {
+			new ConcurrentHashMap<String, String>().reduceAsync(1, (key, value) -> value, (a, b) -> a + b, result -> {
+				if (done.check(() -> assertEquals(null, result))) {
+					done.pass();
+				}
+			});
+		});
+
+		runner.add(group, "forEachIsWeaklyConsistent", () -> {
+			ConcurrentHashMap<Integer, Integer> map = squares(10);
+			map.forEach((key, value) -> {
+				if (key < 100) {
+					map.remove(key);
+					map.put(key + 100, value);
+				}
+			});
+			assertEquals(10, map.size());
+			for (int i = 0; i < 10; i++) {
+				assertEquals(i * i, map.get(i + 100));
+			}
+		});
+	}
+}
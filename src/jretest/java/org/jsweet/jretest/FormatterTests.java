@@ -0,0 +1,58 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.util.Formatter;
+import java.util.IllegalFormatConversionException;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
+
+/**
+ * <code>java.util.Formatter</code>, directly and through
+ * <code>String.format</code>.
+ */
+public final class FormatterTests {
+
+	private FormatterTests() {
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Formatter";
+
+		runner.add(group, "integers", () -> {
+			assertEquals("a=1, b=  2.50, c=ff", String.format("a=%d, b=%6.2f, c=%x", 1, 2.5, 255));
+			assertEquals("[-0042] [+42] [ 42] (42) 52 2A", String.format("[%05d] [%+d] [% d] %(d %o %X", -42, 42, 42, -42, 42, 42));
+			assertEquals("-9,007,199,254,740,991", String.format("%,d", -9007199254740991L));
+		});
+
+		runner.add(group, "strings", () -> {
+			assertEquals("[x   ] [   x] 1,234,567", String.format("[%-4s] [%4s] %,d", "x", "x", 1234567));
+			assertEquals("TRUE false null c ab", String.format("%B %b %s %c %.2s", true, null, null, 'c', "abc"));
+		});
+
+		runner.add(group, "argumentIndexes", () -> {
+			assertEquals("b a a 100%", String.format("%2$s %1$s %<s 100%%", "a", "b"));
+		});
+
+		runner.add(group, "floatingPoint", () -> {
+			assertEquals("1.234560e+03 1235.00 0.000100000", String.format("%e %.2f %g", 1234.56, 1234.995, 0.0001));
+			assertEquals("0.13 -0.5 Infinity NaN", String.format("%.2f %.1f %f %f", 0.125, -0.45, Double.POSITIVE_INFINITY, Double.NaN));
+		});
+
+		runner.add(group, "appendable", () -> {
+			StringBuilder out = new StringBuilder("> ");
+			Formatter formatter = new Formatter(out);
+			formatter.format("%s=%d", "x", 1).format(";%n");
+			assertEquals("> x=1;" + System.lineSeparator(), out.toString());
+			assertEquals(out.toString(), formatter.toString());
+		});
+
+		runner.add(group, "errors", () -> {
+			assertTrue(expectThrows(() -> String.format("%s %s", "a")) instanceof MissingFormatArgumentException);
+			assertTrue(expectThrows(() -> String.format("%q", 1)) instanceof UnknownFormatConversionException);
+			assertTrue(expectThrows(() -> String.format("%d", "x")) instanceof IllegalFormatConversionException);
+		});
+	}
+}
@@ -0,0 +1,217 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <code>HashMap</code> over all its stores: strings, numbers and booleans,
+ * other objects (here with colliding hash codes), and null.
+ */
+public final class HashMapTests {
+
+	private HashMapTests() {
+	}
+
+	/**
+	 * A key whose instances collide by pairs.
+	 */
+	private static final class Key {
+		final int id;
+
+		Key(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id / 2;
+		}
+
+		@Override
+		public String toString() {
+			return "Key" + id;
+		}
+	}
+
+	/**
+	 * A map with the given number of keys of each kind, mapped to their
+	 * position.
+	 */
+	private static Map<Object, Integer> mixed(int perKind) {
+		Map<Object, Integer> map = new HashMap<>();
+		int value = 0;
+		for (int i = 0; i < perKind; i++) {
+			map.put("s" + i, value++);
+			map.put(i + 0.5, value++);
+			map.put(new Key(i), value++);
+		}
+		map.put(null, value++);
+		map.put(true, value++);
+		return map;
+	}
+
+	private static Set<String> entries(Map<Object, Integer> map) {
+		Set<String> entries = new HashSet<>();
+		for (Map.Entry<Object, Integer> entry : map.entrySet()) {
+			entries.add(entry.getKey() + "=" + entry.getValue());
+		}
+		return entries;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "HashMap";
+
+		runner.add(group, "forEachVisitsAllStores", () -> {
+			for (int perKind : new int[] { 1, 10 }) {
+				Map<Object, Integer> map = mixed(perKind);
+				Set<String> visited = new HashSet<>();
+				List<Object> keys = new ArrayList<>();
+				map.forEach((key, value) -> {
+					visited.add(key + "=" + value);
+					keys.add(key);
+				});
+				assertEquals(map.size(), keys.size());
+				assertEquals(entries(map), visited);
+			}
+		});
+
+		runner.add(group, "replaceAll", () -> {
+			for (int perKind : new int[] { 1, 10 }) {
+				Map<Object, Integer> map = mixed(perKind);
+				Map<Object, Integer> expected = new HashMap<>();
+				map.forEach((key, value) -> expected.put(key, value * 2 + (key == null ? 1 : 0)));
+				map.replaceAll((key, value) -> value * 2 + (key == null ? 1 : 0));
+				assertEquals(expected, map);
+				assertEquals(expected.get(null), map.get(null));
+				assertEquals(entries(expected), entries(map));
+			}
+		});
+
+		runner.add(group, "structuralChangesDuringWalks", () -> {
+			for (int perKind : new int[] { 1, 10 }) {
+				Map<Object, Integer> map = mixed(perKind);
+				assertTrue(expectThrows(() -> map.forEach((key, value) -> map.put("new" + value, value)))
+						instanceof ConcurrentModificationException);
+				Map<Object, Integer> other = mixed(perKind);
+				assertTrue(expectThrows(() -> other.replaceAll((key, value) -> {
+					other.remove(key);
+					return value;
+				})) instanceof ConcurrentModificationException);
+				Map<Object, Integer> values = mixed(perKind);
+				values.forEach((key, value) -> values.put(key, -1));
+				assertEquals(3 * perKind + 2, values.size());
+				assertTrue(values.values().stream().allMatch(value -> value == -1));
+			}
+		});
+
+		runner.add(group, "nullArguments", () -> {
+			Map<Object, Integer> map = mixed(1);
+			assertTrue(expectThrows(() -> map.forEach(null)) instanceof NullPointerException);
+			assertTrue(expectThrows(() -> map.replaceAll(null)) instanceof NullPointerException);
+		});
+
+		// small maps keep their entries in a flat array up to 8 keys, then
+		// move them to the hashed stores
+
+		runner.add(group, "growAndShrinkAcrossTheCompactCapacity", () -> {
+			for (int size = 0; size <= 20; size++) {
+				Map<Object, Integer> map = new HashMap<>();
+				List<Object> keys = new ArrayList<>();
+				for (int i = 0; i < size; i++) {
+					Object key = i % 3 == 0 ? "k" + i : i % 3 == 1 ? (Object) i : new Key(i);
+					keys.add(key);
+					assertEquals(null, map.put(key, i));
+					assertEquals(i, map.put(key, i));
+				}
+				assertEquals(size, map.size());
+				for (int i = 0; i < size; i++) {
+					assertEquals(i, map.get(keys.get(i)));
+				}
+				assertTrue(!map.containsKey(new Key(size)));
+				assertTrue(!map.containsKey("k" + size));
+				for (int i = 0; i < size; i++) {
+					assertEquals(i, map.remove(keys.get(i)));
+					assertEquals(null, map.remove(keys.get(i)));
+					assertEquals(size - i - 1, map.size());
+					for (int j = i + 1; j < size; j++) {
+						assertEquals(j, map.get(keys.get(j)));
+					}
+				}
+				assertTrue(map.isEmpty());
+				map.put("again", 1);
+				assertEquals(1, map.get("again"));
+			}
+		});
+
+		runner.add(group, "nullKeyAndValuesAcrossTheCompactCapacity", () -> {
+			Map<Object, Integer> map = new HashMap<>();
+			map.put(null, null);
+			map.put("a", null);
+			assertEquals(2, map.size());
+			assertTrue(map.containsKey(null));
+			assertTrue(map.containsKey("a"));
+			assertTrue(map.containsValue(null));
+			assertTrue(!map.containsKey("b"));
+			for (int i = 0; i < 10; i++) {
+				map.put("s" + i, i);
+			}
+			assertEquals(12, map.size());
+			assertTrue(map.containsKey(null));
+			assertEquals(null, map.get(null));
+			assertEquals(null, map.getOrDefault("a", -1));
+			assertEquals(-1, map.getOrDefault("b", -1));
+			map.remove(null);
+			assertTrue(!map.containsKey(null));
+			assertEquals(11, map.size());
+		});
+
+		runner.add(group, "stringAndNumberKeysStayApart", () -> {
+			for (int size : new int[] { 2, 20 }) {
+				Map<Object, String> map = new HashMap<>();
+				for (int i = 0; i < size / 2; i++) {
+					map.put(i, "number");
+					map.put("" + i, "string");
+				}
+				assertEquals(size, map.size());
+				assertEquals("number", map.get(0));
+				assertEquals("string", map.get("0"));
+			}
+		});
+
+		runner.add(group, "iteratorRemoveAcrossTheCompactCapacity", () -> {
+			Set<Integer> set = new HashSet<>();
+			for (int i = 0; i < 9; i++) {
+				set.add(i);
+			}
+			for (Iterator<Integer> iterator = set.iterator(); iterator.hasNext();) {
+				if (iterator.next() % 2 == 0) {
+					iterator.remove();
+				}
+			}
+			assertEquals(new HashSet<>(Arrays.asList(1, 3, 5, 7)), set);
+			for (int i = 10; i < 20; i++) {
+				set.add(i);
+			}
+			assertEquals(14, set.size());
+			assertTrue(set.contains(7));
+			assertTrue(set.contains(19));
+			assertTrue(!set.contains(8));
+		});
+	}
+}
@@ -0,0 +1,162 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <code>IdentityHashMap</code>, which keys a native Map by reference, and the
+ * identity hash codes.
+ */
+public final class IdentityHashMapTests {
+
+	private IdentityHashMapTests() {
+	}
+
+	private static List<String> list(String... elements) {
+		return new ArrayList<>(Arrays.asList(elements));
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "IdentityHashMap";
+
+		runner.add(group, "equalKeysStayApart", () -> {
+			Map<List<String>, String> map = new IdentityHashMap<>();
+			List<String> first = list("a");
+			List<String> second = list("a");
+			assertEquals(first, second);
+			assertEquals(null, map.put(first, "first"));
+			assertEquals(null, map.put(second, "second"));
+			assertEquals(2, map.size());
+			assertEquals("first", map.get(first));
+			assertEquals("second", map.get(second));
+			assertFalse(map.containsKey(list("a")));
+			assertEquals("first", map.put(first, "again"));
+			assertEquals(2, map.size());
+			assertEquals("again", map.remove(first));
+			assertEquals(null, map.remove(first));
+			assertEquals(1, map.size());
+			assertTrue(map.containsKey(second));
+
+			Map<List<String>, String> equalMap = new HashMap<>();
+			equalMap.put(first, "first");
+			equalMap.put(second, "second");
+			assertEquals(1, equalMap.size());
+		});
+
+		runner.add(group, "valuesAreComparedByReference", () -> {
+			Map<Object, List<String>> map = new IdentityHashMap<>();
+			List<String> value = list("v");
+			map.put(new Object(), value);
+			assertTrue(map.containsValue(value));
+			assertFalse(map.containsValue(list("v")));
+		});
+
+		runner.add(group, "nullKeyAndValues", () -> {
+			Map<Object, Object> map = new IdentityHashMap<>();
+			map.put(null, null);
+			assertTrue(map.containsKey(null));
+			assertTrue(map.containsValue(null));
+			assertEquals(1, map.size());
+			Object key = new Object();
+			map.put(key, null);
+			assertTrue(map.containsKey(key));
+			assertEquals(null, map.get(key));
+			assertEquals(null, map.remove(null));
+			assertFalse(map.containsKey(null));
+			assertEquals(1, map.size());
+		});
+
+		runner.add(group, "iteration", () -> {
+			Map<Object, Integer> map = new IdentityHashMap<>();
+			List<Object> keys = new ArrayList<>();
+			for (int i = 0; i < 10; i++) {
+				Object key = new Object();
+				keys.add(key);
+				map.put(key, i);
+			}
+			int sum = 0;
+			for (Iterator<Map.Entry<Object, Integer>> iterator = map.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Object, Integer> entry = iterator.next();
+				assertEquals(keys.indexOf(entry.getKey()), entry.getValue());
+				sum += entry.getValue();
+				if (entry.getValue() % 2 == 0) {
+					iterator.remove();
+				} else {
+					entry.setValue(-entry.getValue());
+				}
+			}
+			assertEquals(45, sum);
+			assertEquals(5, map.size());
+			assertEquals(-3, map.get(keys.get(3)));
+			assertFalse(map.containsKey(keys.get(4)));
+			Iterator<Object> iterator = map.keySet().iterator();
+			iterator.next();
+			map.put(new Object(), 0);
+			assertTrue(expectThrows(iterator::next) instanceof ConcurrentModificationException);
+		});
+
+		runner.add(group, "forEachAndReplaceAll", () -> {
+			Map<Object, Integer> map = new IdentityHashMap<>();
+			for (int i = 0; i < 10; i++) {
+				map.put(new Object(), i);
+			}
+			int[] sum = new int[1];
+			map.forEach((key, value) -> sum[0] += value);
+			assertEquals(45, sum[0]);
+			map.replaceAll((key, value) -> value * 2);
+			sum[0] = 0;
+			map.values().forEach(value -> sum[0] += value);
+			assertEquals(90, sum[0]);
+
+			assertTrue(expectThrows(() -> map.forEach((key, value) -> map.put(new Object(), value)))
+					instanceof ConcurrentModificationException);
+			assertTrue(expectThrows(() -> map.replaceAll((key, value) -> {
+				map.remove(key);
+				return value;
+			})) instanceof ConcurrentModificationException);
+		});
+
+		runner.add(group, "equalsAndHashCode", () -> {
+			Object a = new Object();
+			Object b = new Object();
+			Map<Object, Object> map = new IdentityHashMap<>();
+			map.put(a, b);
+			Map<Object, Object> same = new IdentityHashMap<>();
+			same.put(a, b);
+			assertEquals(map, same);
+			assertEquals(map.hashCode(), same.hashCode());
+			same.put(a, new Object());
+			assertFalse(map.equals(same));
+		});
+
+		runner.add(group, "identityHashCodesAreStable", () -> {
+			List<Object> objects = new ArrayList<>();
+			List<Integer> hashCodes = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				Object object = new Object();
+				objects.add(object);
+				hashCodes.add(System.identityHashCode(object));
+				assertEquals(object.hashCode(), System.identityHashCode(object));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals(hashCodes.get(i), System.identityHashCode(objects.get(i)));
+			}
+			List<String> list = list("a");
+			int identity = System.identityHashCode(list);
+			list.add("b");
+			assertEquals(identity, System.identityHashCode(list));
+			assertEquals(0, System.identityHashCode(null));
+		});
+	}
+}
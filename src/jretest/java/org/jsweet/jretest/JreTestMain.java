@@ -0,0 +1,33 @@
+package org.jsweet.jretest;
+
+/**
+ * Entry point of the test bundle, invoked when Node loads it; see
+ * {@link JreTestRunner} for the configuration.
+ */
+public class JreTestMain {
+
+	public static void main(String[] args) throws Exception {
+		JreTestRunner runner = JreTestRunner.fromEnvironment();
+		FormatterTests.register(runner);
+		RuntimeTests.register(runner);
+		StreamTests.register(runner);
+		BitSetTests.register(runner);
+		SortTests.register(runner);
+		TreeMapTests.register(runner);
+		HashMapTests.register(runner);
+		LinkedHashMapTests.register(runner);
+		ConcurrentHashMapAsyncTests.register(runner);
+		ReentrantComputeTests.register(runner);
+		NumberKeyTests.register(runner);
+		WeakHashMapTests.register(runner);
+		IdentityHashMapTests.register(runner);
+		TimerTests.register(runner);
+		RegexTests.register(runner);
+		CharsetTests.register(runner);
+		ReaderWriterTests.register(runner);
+		ByteBufferTests.register(runner);
+		ArrayModeTests.register(runner);
+		CheckLevelTests.register(runner);
+		runner.run();
+	}
+}
@@ -0,0 +1,167 @@
+package org.jsweet.jretest;
+
+import static jsweet.util.Lang.$insert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs test cases against the transpiled JRE, one after the other, and
+ * reports them on the error stream. Asynchronous cases (timers, executors)
+ * are given a {@link Done} callback and a timeout, and the next case only
+ * starts once they are over.
+ *
+ * <p>
+ * The <code>J4TS_TEST_FILTER</code> environment variable restricts the run to
+ * the cases whose id contains it. On Node, the process exits with status 1
+ * when a case failed.
+ */
+public final class JreTestRunner {
+
+	public interface Case {
+		void run() throws Exception;
+	}
+
+	public interface AsyncCase {
+		void run(Done done) throws Exception;
+	}
+
+	/**
+	 * Ends an asynchronous case.
+	 */
+	public interface Done {
+		void pass();
+
+		void fail(Throwable failure);
+
+		/**
+		 * Runs the given checks, from a timer for instance, and fails the
+		 * case if they throw.
+		 */
+		default boolean check(Case checks) {
+			try {
+				checks.run();
+				return true;
+			} catch (Throwable t) {
+				fail(t);
+				return false;
+			}
+		}
+	}
+
+	private static final int ASYNC_TIMEOUT = 5000;
+
+	private final List<String> ids = new ArrayList<>();
+
+	private final List<AsyncCase> cases = new ArrayList<>();
+
+	private final String filter;
+
+	private int next;
+
+	private int passed;
+
+	private final List<String> failures = new ArrayList<>();
+
+	public JreTestRunner(String filter) {
+		this.filter = filter;
+	}
+
+	public static JreTestRunner fromEnvironment() {
+		String filter = null;
+		if (System.ENVIRONMENT_IS_NODE) {
+			filter = $insert("process.env.J4TS_TEST_FILTER");
+		}
+		return new JreTestRunner(filter == null || filter.isEmpty() ? null : filter);
+	}
+
+	public JreTestRunner add(String group, String name, Case testCase) {
+		return addAsync(group, name, done -> {
+			testCase.run();
+			done.pass();
+		});
+	}
+
+	public JreTestRunner addAsync(String group, String name, AsyncCase testCase) {
+		String id = group + "." + name;
+		if (filter == null || id.contains(filter)) {
+			ids.add(id);
+			cases.add(testCase);
+		}
+		return this;
+	}
+
+	/**
+	 * Runs the cases; the last of them may end after this method returns.
+	 */
+	public void run() {
+		runNext();
+	}
+
+	private void runNext() {
+		while (next < cases.size()) {
+			int index = next++;
+			String id = ids.get(index);
+			// ended, ended asynchronously
+			boolean[] over = new boolean[2];
+			Object[] timeout = new Object[1];
+			Done done = new Done() {
+				@Override
+				public void pass() {
+					end(null);
+				}
+
+				@Override
+				public void fail(Throwable failure) {
+					end(failure);
+				}
+
+				private void end(Throwable failure) {
+					if (over[0]) {
+						return;
+					}
+					over[0] = true;
+					if (timeout[0] != null) {
+						Object handle = timeout[0];
+						$insert("clearTimeout(handle)");
+					}
+					if (failure == null) {
+						passed++;
+						System.err.println("ok   " + id);
+					} else {
+						failures.add(id);
+						System.err.println("FAIL " + id + ": " + failure);
+					}
+					if (over[1]) {
+						// the case ended asynchronously: resume from here
+						runNext();
+					}
+				}
+			};
+			try {
+				cases.get(index).run(done);
+			} catch (Throwable t) {
+				done.fail(t);
+			}
+			if (!over[0]) {
+				over[1] = true;
+				Runnable expire = () -> done.fail(new AssertionError("timed out after " + ASYNC_TIMEOUT + " ms"));
+				int delay = ASYNC_TIMEOUT;
+				timeout[0] = $insert("setTimeout(expire, delay)");
+				return;
+			}
+		}
+		report();
+	}
+
+	private void report() {
+		System.err.println(passed + " passed, " + failures.size() + " failed");
+		for (String id : failures) {
+			System.err.println("  " + id);
+		}
+		System.err.flush();
+		if (System.ENVIRONMENT_IS_NODE && !failures.isEmpty()) {
+			$insert("process.exitCode = 1");
+		}
+	}
+}
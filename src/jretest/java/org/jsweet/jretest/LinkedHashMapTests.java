@@ -0,0 +1,132 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The iteration orders of <code>LinkedHashMap</code>, whether it relies on
+ * the native order of its inherited tables or on its chain.
+ */
+public final class LinkedHashMapTests {
+
+	private LinkedHashMapTests() {
+	}
+
+	private static List<Object> keys(Map<Object, ?> map) {
+		return new ArrayList<>(map.keySet());
+	}
+
+	private static List<Object> forEachKeys(Map<Object, ?> map) {
+		List<Object> keys = new ArrayList<>();
+		map.forEach((key, value) -> keys.add(key));
+		return keys;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "LinkedHashMap";
+
+		runner.add(group, "insertionOrderOfStrings", () -> {
+			// past the compact mode, with removals on both sides of it
+			Map<Object, Integer> map = new LinkedHashMap<>();
+			List<Object> expected = new ArrayList<>();
+			for (int i = 20; i > 0; i--) {
+				map.put("k" + i, i);
+				expected.add("k" + i);
+				if (i % 5 == 0) {
+					map.remove("k" + (i + 2));
+					expected.remove("k" + (i + 2));
+				}
+			}
+			map.put("k20", 0);
+			map.remove("k1");
+			map.put("k1", 1);
+			expected.remove("k1");
+			expected.add("k1");
+			assertEquals(expected, keys(map));
+			assertEquals(expected, forEachKeys(map));
+			assertEquals(0, map.get("k20"));
+		});
+
+		runner.add(group, "insertionOrderOfMixedKeys", () -> {
+			Map<Object, Integer> map = new LinkedHashMap<>();
+			map.put("b", 1);
+			map.put("a", 2);
+			map.put(3, 3);
+			map.put("c", 4);
+			List<Integer> list = Arrays.asList(1, 2);
+			map.put(list, 5);
+			map.put(1.5, 6);
+			map.remove("a");
+			map.put("a", 7);
+			assertEquals(Arrays.asList("b", 3, "c", list, 1.5, "a"), keys(map));
+			assertEquals(Arrays.asList("b", 3, "c", list, 1.5, "a"), forEachKeys(map));
+			assertEquals(Arrays.asList(1, 3, 4, 5, 6, 7), new ArrayList<>(map.values()));
+			map.replaceAll((key, value) -> value * 10);
+			assertEquals(Arrays.asList(10, 30, 40, 50, 60, 70), new ArrayList<>(map.values()));
+			assertTrue(map.containsValue(50));
+			map.clear();
+			map.put("z", 1);
+			map.put("y", 2);
+			assertEquals(Arrays.asList("z", "y"), keys(map));
+		});
+
+		runner.add(group, "accessOrder", () -> {
+			Map<Object, Integer> map = new LinkedHashMap<>(16, 0.75f, true);
+			for (int i = 0; i < 5; i++) {
+				map.put("k" + i, i);
+			}
+			map.get("k1");
+			map.put("k0", 10);
+			map.getOrDefault("k3", -1);
+			map.get("missing");
+			map.putIfAbsent("k2", -1);
+			map.computeIfPresent("k4", (key, value) -> value + 1);
+			assertEquals(Arrays.asList("k1", "k0", "k3", "k2", "k4"), keys(map));
+			assertEquals(5, map.get("k4"));
+		});
+
+		runner.add(group, "removeEldestEntry", () -> {
+			Map<Object, Integer> cache = new LinkedHashMap<Object, Integer>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<Object, Integer> eldest) {
+					return size() > 3;
+				}
+			};
+			for (int i = 0; i < 4; i++) {
+				cache.put(i, i);
+			}
+			assertEquals(Arrays.asList(1, 2, 3), keys(cache));
+			cache.get(1);
+			cache.put(4, 4);
+			assertEquals(Arrays.asList(3, 1, 4), keys(cache));
+			cache.computeIfAbsent(5, key -> 5);
+			assertEquals(Arrays.asList(1, 4, 5), keys(cache));
+		});
+
+		runner.add(group, "iteratorRemove", () -> {
+			for (boolean accessOrder : new boolean[] { false, true }) {
+				Map<Object, Integer> map = new LinkedHashMap<>(16, 0.75f, accessOrder);
+				for (int i = 0; i < 12; i++) {
+					map.put(i % 2 == 0 ? "k" + i : (Object) i, i);
+				}
+				Iterator<Map.Entry<Object, Integer>> iterator = map.entrySet().iterator();
+				while (iterator.hasNext()) {
+					if (iterator.next().getValue() % 3 != 0) {
+						iterator.remove();
+					}
+				}
+				assertEquals(Arrays.asList("k0", 3, "k6", 9), keys(map));
+				assertEquals(4, map.size());
+				assertFalse(map.containsKey(1));
+			}
+		});
+	}
+}
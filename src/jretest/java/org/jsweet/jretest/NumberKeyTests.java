@@ -0,0 +1,88 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Number keys in the hash maps, where a boxed number of any type is a
+ * JavaScript number: unlike in the JDK, 0.0 and -0.0 are the same key, so
+ * that an integral 0 computed as -0 still finds 0.
+ */
+public final class NumberKeyTests {
+
+	private NumberKeyTests() {
+	}
+
+	/**
+	 * Fills the map past the size of the compact mode.
+	 */
+	private static Map<Object, String> hashMode(Map<Object, String> map) {
+		for (int i = 0; i < 16; i++) {
+			map.put("pad" + i, "pad");
+		}
+		return map;
+	}
+
+	private static List<Map<Object, String>> bothModes() {
+		return Arrays.asList(new HashMap<>(), hashMode(new HashMap<>()));
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "NumberKey";
+
+		runner.add(group, "negativeZero", () -> {
+			for (Map<Object, String> map : bothModes()) {
+				int size = map.size();
+				int zero = 0;
+				int negativeZero = -zero;
+				map.put(0, "zero");
+				assertEquals("zero", map.get(negativeZero));
+				assertEquals("zero", map.get(-0.0));
+				assertEquals("zero", map.put(-0.0, "negative zero"));
+				assertEquals(size + 1, map.size());
+				assertEquals("negative zero", map.remove(0.0));
+				assertEquals(size, map.size());
+			}
+		});
+
+		runner.add(group, "promotionKeepsNegativeZero", () -> {
+			Map<Object, String> map = new HashMap<>();
+			map.put(-0.0, "zero");
+			hashMode(map);
+			assertEquals("zero", map.get(0));
+			assertEquals(17, map.size());
+		});
+
+		runner.add(group, "nanAndBooleans", () -> {
+			for (Map<Object, String> map : bothModes()) {
+				int size = map.size();
+				map.put(Double.NaN, "nan");
+				map.put(0.0 / 0.0, "still nan");
+				map.put(true, "true");
+				map.put(1, "one");
+				assertEquals(size + 3, map.size());
+				assertEquals("still nan", map.get(Double.NaN));
+				assertEquals("true", map.get(Boolean.TRUE));
+				assertEquals("one", map.get(1.0));
+			}
+		});
+
+		runner.add(group, "hashSet", () -> {
+			Set<Object> set = new HashSet<>();
+			for (int i = -20; i <= 20; i++) {
+				set.add(i * 0.5);
+			}
+			set.add(-0.0);
+			assertEquals(41, set.size());
+			assertTrue(set.contains(0));
+			assertTrue(set.contains(10));
+		});
+	}
+}
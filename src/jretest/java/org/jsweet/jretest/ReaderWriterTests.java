@@ -0,0 +1,163 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <code>InputStreamReader</code> and <code>OutputStreamWriter</code>, whose
+ * charset codecs keep the sequences split between reads or writes.
+ */
+public final class ReaderWriterTests {
+
+	private ReaderWriterTests() {
+	}
+
+	/**
+	 * Serves its bytes by chunks of the given sizes, in turn.
+	 */
+	private static final class ChunkedInputStream extends InputStream {
+		private final byte[] bytes;
+		private final int[] chunkSizes;
+		private int position;
+		private int reads;
+
+		ChunkedInputStream(byte[] bytes, int... chunkSizes) {
+			this.bytes = bytes;
+			this.chunkSizes = chunkSizes;
+		}
+
+		@Override
+		public int read() {
+			return position < bytes.length ? bytes[position++] & 0xff : -1;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			if (position == bytes.length) {
+				return -1;
+			}
+			int count = Math.min(Math.min(length, chunkSizes[reads++ % chunkSizes.length]), bytes.length - position);
+			System.arraycopy(bytes, position, buffer, offset, count);
+			position += count;
+			return count;
+		}
+	}
+
+	private static final String TEXT = "a\u00e9\u20AC\uD83D\uDE00z\n\u00E7a va\n\uD83D\uDE00\uD83D\uDE01";
+
+	private static String readAll(Reader reader, int bufferSize) throws IOException {
+		StringBuilder text = new StringBuilder();
+		char[] buffer = new char[bufferSize];
+		for (int count = reader.read(buffer, 0, bufferSize); count >= 0; count = reader.read(buffer, 0,
+				bufferSize)) {
+			text.append(buffer, 0, count);
+		}
+		return text.toString();
+	}
+
+	private static String longText() {
+		StringBuilder text = new StringBuilder();
+		for (int codePoint = 0; text.length() < 100000; codePoint = (codePoint + 97) % 0x11000) {
+			if (codePoint < 0xd800 || codePoint > 0xdfff) {
+				text.appendCodePoint(codePoint);
+			}
+		}
+		return text.toString();
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "ReaderWriter";
+
+		runner.add(group, "decodeByteByByte", () -> {
+			byte[] bytes = TEXT.getBytes(StandardCharsets.UTF_8);
+			assertEquals(TEXT, readAll(new InputStreamReader(new ChunkedInputStream(bytes, 1)), 1));
+			assertEquals(TEXT, readAll(new InputStreamReader(new ChunkedInputStream(bytes, 1), "UTF-8"), 100));
+			Reader reader = new InputStreamReader(new ChunkedInputStream(bytes, 1), StandardCharsets.UTF_8);
+			StringBuilder text = new StringBuilder();
+			for (int c = reader.read(); c >= 0; c = reader.read()) {
+				text.append((char) c);
+			}
+			assertEquals(TEXT, text.toString());
+		});
+
+		runner.add(group, "decodeUnevenChunks", () -> {
+			String text = longText();
+			byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+			assertEquals(text, readAll(new InputStreamReader(new ChunkedInputStream(bytes, 1, 2, 3, 5, 7, 11)), 13));
+			assertEquals(text, readAll(new InputStreamReader(new ChunkedInputStream(bytes, 10000, 3)), 4096));
+			assertEquals(text, readAll(new InputStreamReader(new ByteArrayInputStream(bytes)), 100000));
+		});
+
+		runner.add(group, "readLines", () -> {
+			BufferedReader reader = new BufferedReader(
+					new InputStreamReader(new ChunkedInputStream(TEXT.getBytes(StandardCharsets.UTF_8), 2, 1)));
+			assertEquals("a\u00e9\u20AC\uD83D\uDE00z", reader.readLine());
+			assertEquals("\u00E7a va", reader.readLine());
+			assertEquals("\uD83D\uDE00\uD83D\uDE01", reader.readLine());
+			assertEquals(null, reader.readLine());
+		});
+
+		runner.add(group, "truncatedSequence", () -> {
+			byte[] bytes = { 97, -30, -126 };
+			assertEquals("a\uFFFD", readAll(new InputStreamReader(new ChunkedInputStream(bytes, 1)), 8));
+		});
+
+		runner.add(group, "latin1", () -> {
+			byte[] bytes = { 97, -23, -1 };
+			assertEquals("a\u00e9\u00FF",
+					readAll(new InputStreamReader(new ChunkedInputStream(bytes, 1), StandardCharsets.ISO_8859_1), 2));
+			assertTrue(expectThrows(() -> new InputStreamReader(new ByteArrayInputStream(bytes), "no-such-charset"))
+					instanceof UnsupportedEncodingException);
+		});
+
+		runner.add(group, "encodeCharByChar", () -> {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter(out);
+			for (int i = 0; i < TEXT.length(); i++) {
+				// a surrogate pair is written in two calls
+				writer.write(TEXT.charAt(i));
+			}
+			writer.close();
+			assertArrayEquals(TEXT.getBytes(StandardCharsets.UTF_8), out.toByteArray());
+		});
+
+		runner.add(group, "encodeChunks", () -> {
+			String text = longText();
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+			int chunk = 1;
+			for (int index = 0; index < text.length(); index += chunk, chunk = chunk % 7 + 1) {
+				int end = Math.min(index + chunk, text.length());
+				if (chunk % 2 == 0) {
+					writer.write(text, index, end - index);
+				} else {
+					writer.write(text.substring(index, end).toCharArray(), 0, end - index);
+				}
+			}
+			writer.close();
+			assertEquals(text, new String(out.toByteArray(), StandardCharsets.UTF_8));
+		});
+
+		runner.add(group, "encodeLatin1", () -> {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			Writer writer = new OutputStreamWriter(out, "ISO-8859-1");
+			writer.write("a\u00e9\u20AC");
+			writer.close();
+			assertArrayEquals(new byte[] { 97, -23, 63 }, out.toByteArray());
+		});
+	}
+}
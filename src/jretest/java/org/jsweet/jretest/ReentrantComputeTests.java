@@ -0,0 +1,257 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The compute operations of the hash maps when their function modifies the
+ * map. The JDK throws a <code>ConcurrentModificationException</code> there,
+ * whereas j4ts looks the key up again, so these cases only hold in j4ts.
+ */
+public final class ReentrantComputeTests {
+
+	private ReentrantComputeTests() {
+	}
+
+	/**
+	 * A key whose instances all collide, so that they share one chain.
+	 */
+	private static final class Key {
+		final int id;
+
+		Key(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Key && ((Key) o).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return 42;
+		}
+	}
+
+	/**
+	 * Fills the map past the size of the compact mode, so that the cases run
+	 * against the hash tables.
+	 */
+	private static <V> Map<Object, V> hashMode(Map<Object, V> map, V padding) {
+		for (int i = 0; i < 16; i++) {
+			map.put("pad" + i, padding);
+		}
+		return map;
+	}
+
+	/**
+	 * Checks that the size and lookups of the map agree with its iteration.
+	 */
+	private static void assertConsistent(Map<?, ?> map) {
+		int count = 0;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			count++;
+			assertTrue("lost " + entry.getKey(), map.containsKey(entry.getKey()));
+			assertEquals(entry.getValue(), map.get(entry.getKey()));
+		}
+		assertEquals("size", count, map.size());
+	}
+
+	private static long numberFibonacci(Map<Object, Long> memo, int n) {
+		if (n < 2) {
+			return n;
+		}
+		return memo.computeIfAbsent(n, k -> numberFibonacci(memo, n - 1) + numberFibonacci(memo, n - 2));
+	}
+
+	private static long stringFibonacci(Map<Object, Long> memo, String n) {
+		int i = Integer.parseInt(n);
+		if (i < 2) {
+			return i;
+		}
+		return memo.computeIfAbsent(n, k -> stringFibonacci(memo, "" + (i - 1)) + stringFibonacci(memo, "" + (i - 2)));
+	}
+
+	private static long keyFibonacci(Map<Object, Long> memo, Key n) {
+		if (n.id < 2) {
+			return n.id;
+		}
+		return memo.computeIfAbsent(n, k -> keyFibonacci(memo, new Key(n.id - 1)) + keyFibonacci(memo, new Key(n.id - 2)));
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "ReentrantCompute";
+
+		runner.add(group, "memoizedNumberKeys", () -> {
+			Map<Object, Long> memo = hashMode(new HashMap<>(), 0L);
+			assertEquals(12586269025L, numberFibonacci(memo, 50));
+			assertEquals(16 + 49, memo.size());
+			assertConsistent(memo);
+		});
+
+		runner.add(group, "memoizedStringKeys", () -> {
+			Map<Object, Long> memo = hashMode(new HashMap<>(), 0L);
+			assertEquals(12586269025L, stringFibonacci(memo, "50"));
+			assertEquals(16 + 49, memo.size());
+			assertConsistent(memo);
+		});
+
+		runner.add(group, "memoizedCollidingKeys", () -> {
+			Map<Object, Long> memo = hashMode(new HashMap<>(), 0L);
+			assertEquals(832040L, keyFibonacci(memo, new Key(30)));
+			assertEquals(16 + 29, memo.size());
+			assertConsistent(memo);
+		});
+
+		runner.add(group, "memoizedFromCompactMode", () -> {
+			// the map leaves the compact mode in the middle of the recursion
+			Map<Object, Long> memo = new HashMap<>();
+			assertEquals(12586269025L, numberFibonacci(memo, 50));
+			assertEquals(49, memo.size());
+			assertConsistent(memo);
+		});
+
+		runner.add(group, "compactComputeIfAbsentOutgrowingTheCompactMode", () -> {
+			Map<Object, Integer> map = new HashMap<>();
+			map.put("a", 1);
+			assertEquals(2, map.computeIfAbsent("b", k -> {
+				for (int i = 0; i < 10; i++) {
+					map.put(i, i);
+				}
+				return 2;
+			}));
+			assertEquals(12, map.size());
+			assertEquals(1, map.get("a"));
+			assertEquals(2, map.get("b"));
+			assertConsistent(map);
+		});
+
+		runner.add(group, "compactComputeShiftingTheEntries", () -> {
+			Map<Object, Integer> map = new HashMap<>();
+			map.put("a", 1);
+			map.put("b", 2);
+			map.put("c", 3);
+			assertEquals(13, map.compute("c", (k, v) -> {
+				map.remove("a");
+				return v + 10;
+			}));
+			assertEquals(null, map.merge("b", 1, (a, b) -> {
+				map.remove("c");
+				return null;
+			}));
+			assertEquals(0, map.size());
+			map.put("a", 1);
+			map.put("b", 2);
+			assertEquals(4, map.computeIfPresent("b", (k, v) -> {
+				map.remove("a");
+				map.put("d", 4);
+				return v + 2;
+			}));
+			assertEquals(2, map.size());
+			assertEquals(4, map.get("b"));
+			assertEquals(4, map.get("d"));
+			assertConsistent(map);
+		});
+
+		runner.add(group, "memoizedLinkedHashMap", () -> {
+			Map<Object, Long> memo = new LinkedHashMap<>(16, 0.75f, true);
+			assertEquals(12586269025L, numberFibonacci(memo, 50));
+			assertEquals(49, memo.size());
+			assertEquals(49, new ArrayList<>(memo.keySet()).size());
+		});
+
+		runner.add(group, "linkedHashMapLinkedByTheFunction", () -> {
+			// string keys use the native order until another key comes in
+			Map<Object, Integer> map = new LinkedHashMap<>();
+			map.put("a", 1);
+			assertEquals(2, map.computeIfAbsent("b", k -> {
+				map.put(3, 3);
+				return 2;
+			}));
+			assertEquals(4, map.merge("a", 3, (a, b) -> {
+				map.put(5, 5);
+				map.remove(3);
+				return a + b;
+			}));
+			assertEquals(Arrays.asList("a", "b", 5), new ArrayList<>(map.keySet()));
+			assertEquals(Arrays.asList(4, 2, 5), new ArrayList<>(map.values()));
+			assertConsistent(map);
+		});
+
+		runner.add(group, "linkedHashMapComputeRemovingItsKey", () -> {
+			Map<Object, Integer> map = new LinkedHashMap<>();
+			map.put(1, 1);
+			map.put(2, 2);
+			assertEquals(12, map.compute(2, (k, v) -> {
+				map.remove(k);
+				map.put(3, 3);
+				return v + 10;
+			}));
+			assertEquals(Arrays.asList(1, 3, 2), new ArrayList<>(map.keySet()));
+			assertConsistent(map);
+		});
+
+		runner.add(group, "computeRemovingItsKey", () -> {
+			for (Object key : new Object[] { "k", 7, new Key(7) }) {
+				Map<Object, Integer> map = hashMode(new HashMap<>(), 0);
+				map.put(key, 1);
+				assertEquals(2, map.compute(key, (k, v) -> {
+					map.remove(k);
+					return v + 1;
+				}));
+				assertEquals(2, map.get(key));
+				assertEquals(17, map.size());
+				assertConsistent(map);
+			}
+		});
+
+		runner.add(group, "computeIfPresentRemovingItsKey", () -> {
+			for (Object key : new Object[] { "k", 7, new Key(7) }) {
+				Map<Object, Integer> map = hashMode(new HashMap<>(), 0);
+				map.put(key, 1);
+				assertEquals(null, map.computeIfPresent(key, (k, v) -> {
+					map.remove(k);
+					return null;
+				}));
+				assertFalse(map.containsKey(key));
+				assertEquals(16, map.size());
+				assertConsistent(map);
+			}
+		});
+
+		runner.add(group, "computeAddingItsKey", () -> {
+			for (Object key : new Object[] { "k", 7, new Key(7) }) {
+				Map<Object, Integer> map = hashMode(new HashMap<>(), 0);
+				assertEquals(3, map.compute(key, (k, v) -> {
+					map.put(k, 2);
+					return 3;
+				}));
+				assertEquals(3, map.get(key));
+				assertEquals(17, map.size());
+				assertConsistent(map);
+			}
+		});
+
+		runner.add(group, "mergeClearingTheMap", () -> {
+			for (Object key : new Object[] { "k", 7, new Key(7) }) {
+				Map<Object, Integer> map = hashMode(new HashMap<>(), 0);
+				map.put(key, 1);
+				assertEquals(3, map.merge(key, 2, (a, b) -> {
+					map.clear();
+					return a + b;
+				}));
+				assertEquals(3, map.get(key));
+				assertEquals(1, map.size());
+				assertConsistent(map);
+			}
+		});
+	}
+}
@@ -0,0 +1,198 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <code>Matcher</code> offsets, which come from the match indices, and the
+ * splits and replacements of <code>Pattern</code> and <code>Matcher</code>,
+ * some of which skip the regexp for literals. <code>String.split</code> and
+ * the like are mapped by the transpiler, and left out.
+ */
+public final class RegexTests {
+
+	private RegexTests() {
+	}
+
+	/**
+	 * The start, end and group of each match, for each group.
+	 */
+	private static List<String> finds(String regex, String text) {
+		List<String> finds = new ArrayList<>();
+		Matcher matcher = Pattern.compile(regex).matcher(text);
+		while (matcher.find()) {
+			StringBuilder find = new StringBuilder();
+			for (int i = 0; i <= matcher.groupCount(); i++) {
+				if (i > 0) {
+					find.append(' ');
+				}
+				if (matcher.start(i) == -1) {
+					assertEquals(-1, matcher.end(i));
+					assertTrue(matcher.group(i) == null);
+					find.append('-');
+				} else {
+					assertEquals(text.substring(matcher.start(i), matcher.end(i)), matcher.group(i));
+					find.append(matcher.start(i)).append(':').append(matcher.end(i));
+				}
+			}
+			finds.add(find.toString());
+		}
+		return finds;
+	}
+
+	private static String[] split(String regex, String text) {
+		return Pattern.compile(regex).split(text);
+	}
+
+	private static String[] split(String regex, String text, int limit) {
+		return Pattern.compile(regex).split(text, limit);
+	}
+
+	private static String replaceAll(String regex, String text, String replacement) {
+		return Pattern.compile(regex).matcher(text).replaceAll(replacement);
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Regex";
+
+		runner.add(group, "groupOffsets", () -> {
+			assertEquals(Arrays.asList("0:7 0:1 2:3 4:7", "9:14 9:11 12:14 -", "16:23 16:17 18:19 20:23"),
+					finds("(\\w+)@(\\w+)(?:\\.(com|org))?", "a@b.com, cc@dd, e@f.org"));
+			assertEquals(Arrays.asList("1:4 1:4 2:4 3:4 -"), finds("(a(b(c)))(d)?", "xabcx"));
+			assertEquals(Arrays.asList("1:5 2:3 3:5", "5:10 6:7 8:10"), finds("(?:x)(a)(?:y)?(bc)", "xxabcxaybc"));
+			assertEquals(Arrays.asList("0:2", "10:12"), finds("\\d+(?=px)", "10px 20em 30px"));
+			assertEquals(Arrays.asList("5:8 5:6"), finds("(?<=\\$)(\\d)\\.\\d", "1.5 $2.5"));
+		});
+
+		runner.add(group, "emptyMatches", () -> {
+			assertEquals(Arrays.asList("0:0", "1:3", "3:3", "4:4"), finds("a*", "baab"));
+			assertEquals(Arrays.asList("0:0", "1:1", "2:2"), finds("", "ab"));
+			assertEquals(Arrays.asList("0:0 -", "1:1 -"), finds("(x)?", "a"));
+		});
+
+		runner.add(group, "manyFinds", () -> {
+			StringBuilder text = new StringBuilder();
+			for (int i = 0; i < 10000; i++) {
+				text.append("k").append(i).append("=v;");
+			}
+			Matcher matcher = Pattern.compile("k(\\d+)=(v)").matcher(text);
+			int count = 0;
+			int lastStart = -1;
+			while (matcher.find()) {
+				assertTrue(matcher.start() > lastStart);
+				lastStart = matcher.start();
+				count++;
+			}
+			assertEquals(10000, count);
+			assertEquals(text.length() - "k9999=v;".length(), lastStart);
+		});
+
+		runner.add(group, "matcherState", () -> {
+			Matcher matcher = Pattern.compile("(?<year>\\d{4})-(?<month>\\d\\d)").matcher("in 2016-03 and 2020-11");
+			assertTrue(matcher.find());
+			assertEquals("2016", matcher.group("year"));
+			assertEquals("03", matcher.group("month"));
+			assertEquals(2, matcher.groupCount());
+			assertTrue(matcher.find(10));
+			assertEquals(15, matcher.start());
+			assertEquals("11", matcher.group(2));
+			assertFalse(matcher.find());
+			matcher.reset();
+			assertTrue(matcher.find());
+			assertEquals(3, matcher.start());
+			assertFalse(matcher.matches());
+			assertTrue(Pattern.compile("\\d+").matcher("123").matches());
+			assertTrue(Pattern.compile("\\d+").matcher("123abc").lookingAt());
+			assertFalse(Pattern.compile("\\d+").matcher("abc123").lookingAt());
+			assertEquals("03/2016 and 11/2020",
+					Pattern.compile("(\\d{4})-(\\d\\d)").matcher("2016-03 and 2020-11").replaceAll("$2/$1"));
+			assertEquals("03/2016 and 2020-11",
+					Pattern.compile("(\\d{4})-(\\d\\d)").matcher("2016-03 and 2020-11").replaceFirst("$2/$1"));
+			assertEquals("03/2016",
+					Pattern.compile("(?<year>\\d{4})-(?<month>\\d\\d)").matcher("2016-03").replaceAll("${month}/${year}"));
+			assertEquals("$2:2016", Pattern.compile("(\\d{4})").matcher("2016").replaceFirst("\\$2:$1"));
+			assertEquals("[a]b[a]", replaceAll("(a)", "aba", "[$0]"));
+			assertEquals("<12>-34", Pattern.compile("\\d+").matcher("12-34").replaceFirst("<$0>"));
+			assertEquals("aa$0", replaceAll("a", "a", "$0a\\$0"));
+		});
+
+		runner.add(group, "multilineMatchesWholeText", () -> {
+			// line anchors must not let a match start or end at a line break
+			assertFalse(Pattern.compile("a", Pattern.MULTILINE).matcher("a\nb").matches());
+			assertFalse(Pattern.compile("a$", Pattern.MULTILINE).matcher("a\nb").matches());
+			assertTrue(Pattern.compile("a|a\nb", Pattern.MULTILINE).matcher("a\nb").matches());
+			assertTrue(Pattern.compile("a$\nb", Pattern.MULTILINE).matcher("a\nb").matches());
+			assertFalse(Pattern.compile("b", Pattern.MULTILINE).matcher("a\nb").lookingAt());
+			assertFalse(Pattern.compile("^b", Pattern.MULTILINE).matcher("a\nb").lookingAt());
+			Matcher matcher = Pattern.compile("a", Pattern.MULTILINE).matcher("a\nb");
+			assertTrue(matcher.lookingAt());
+			assertEquals(0, matcher.start());
+			assertEquals(1, matcher.end());
+			assertTrue(Pattern.compile("^b$", Pattern.MULTILINE).matcher("a\nb").find());
+		});
+
+		runner.add(group, "splitWithLimit", () -> {
+			String text = "a,b,,c,,";
+			assertArrayEquals(new String[] { "a", "b", "", "c" }, split(",", text));
+			assertArrayEquals(new String[] { "a", "b", "", "c" }, split(",", text, 0));
+			assertArrayEquals(new String[] { "a", "b", "", "c", "", "" }, split(",", text, -1));
+			assertArrayEquals(new String[] { "a", "b,,c,," }, split(",", text, 2));
+			assertArrayEquals(new String[] { "a", "b", ",c,," }, split(",", text, 3));
+			assertArrayEquals(new String[] { "a,b,,c,," }, split(",", text, 1));
+			assertArrayEquals(new String[] { "", "a" }, split(",", ",a"));
+			assertArrayEquals(new String[] { "" }, split(",", ""));
+			assertArrayEquals(new String[] { "a", "b", "c" }, split("\\d+", "a1b22c"));
+			assertArrayEquals(new String[] { "a", "b22c" }, split("\\d+", "a1b22c", 2));
+			assertArrayEquals(new String[] { "a", "b", "c" }, split("", "abc"));
+		});
+
+		runner.add(group, "splitLiterals", () -> {
+			// single characters and strings without metacharacters skip the
+			// regexp; the others are still patterns
+			assertArrayEquals(new String[] { "a", "b", "c" }, split("--", "a--b--c"));
+			assertArrayEquals(new String[] { "a", "b--c" }, split("--", "a--b--c", 2));
+			assertArrayEquals(new String[] { "a", "b" }, split(" ", "a b"));
+			assertArrayEquals(new String[] { "a", "b" }, split("\\.", "a.b"));
+			assertArrayEquals(new String[0], split(".", "a.b"));
+			assertArrayEquals(new String[] { "a", "|", "b" }, split("|", "a|b"));
+			assertArrayEquals(new String[] { "a", "b" }, split("\\|", "a|b"));
+			assertArrayEquals(new String[] { "a", "b" }, split("\\$", "a$b"));
+			assertArrayEquals(new String[] { "a", "", "b" }, split("X", "aXXb"));
+		});
+
+		runner.add(group, "replaceLiterals", () -> {
+			// without group references, literal patterns skip the regexp
+			assertEquals("a-b-c", replaceAll("\\.", "a.b.c", "-"));
+			assertEquals("a$b$c", replaceAll("\\.", "a.b.c", "\\$"));
+			assertEquals("a\\b\\c", replaceAll("\\.", "a.b.c", "\\\\"));
+			assertEquals("ba", replaceAll("aa", "aaa", "b"));
+			assertEquals("a, b, c", replaceAll(",", "a,b,c", ", "));
+			assertEquals("xxxxx", replaceAll(".", "a.b.c", "x"));
+			assertEquals("(a).(b)", replaceAll("(\\w)", "a.b", "($1)"));
+			assertEquals("a-b.c", Pattern.compile("\\.").matcher("a.b.c").replaceFirst("-"));
+			assertEquals("a.b.c", Pattern.compile(",").matcher("a.b.c").replaceFirst("-"));
+			assertEquals("A-A", Pattern.compile("a", Pattern.CASE_INSENSITIVE).matcher("a-A").replaceAll("A"));
+		});
+
+		runner.add(group, "compiledPatternsAreReused", () -> {
+			for (int i = 0; i < 100; i++) {
+				assertTrue(Pattern.matches("\\d+", "12"));
+				assertFalse(Pattern.matches("\\d+", "1a"));
+				assertTrue(Pattern.compile("[a-c]+").matcher("abc").matches());
+				assertEquals(3, split(",", "a,b,c" + (i % 2 == 0 ? "" : ",")).length);
+			}
+			// the flags are part of the key
+			assertTrue(Pattern.compile("a", Pattern.CASE_INSENSITIVE).matcher("A").matches());
+			assertFalse(Pattern.compile("a").matcher("A").matches());
+			assertTrue(Pattern.compile("a", Pattern.CASE_INSENSITIVE).matcher("A").matches());
+		});
+	}
+}
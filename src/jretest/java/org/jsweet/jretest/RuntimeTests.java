@@ -0,0 +1,48 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertTrue;
+
+/**
+ * <code>System.nanoTime</code> and <code>java.lang.Runtime</code>.
+ */
+public final class RuntimeTests {
+
+	private RuntimeTests() {
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Runtime";
+
+		runner.add(group, "nanoTimeIsMonotonic", () -> {
+			long previous = System.nanoTime();
+			for (int i = 0; i < 1000; i++) {
+				long now = System.nanoTime();
+				assertTrue(now >= previous);
+				previous = now;
+			}
+		});
+
+		runner.add(group, "nanoTimeFollowsTheClock", () -> {
+			long start = System.nanoTime();
+			long startMillis = System.currentTimeMillis();
+			while (System.currentTimeMillis() - startMillis < 20) {
+				// spin
+			}
+			long elapsed = System.nanoTime() - start;
+			assertTrue("elapsed " + elapsed, elapsed >= 10_000_000L && elapsed < 10_000_000_000L);
+		});
+
+		runner.add(group, "processors", () -> {
+			assertTrue(Runtime.getRuntime().availableProcessors() >= 1);
+		});
+
+		runner.add(group, "memory", () -> {
+			Runtime runtime = Runtime.getRuntime();
+			assertTrue(runtime.maxMemory() > 0);
+			assertTrue(runtime.totalMemory() >= 0);
+			assertTrue(runtime.freeMemory() >= 0);
+			assertTrue(runtime.freeMemory() <= runtime.totalMemory());
+			assertTrue(runtime.totalMemory() <= runtime.maxMemory());
+		});
+	}
+}
@@ -0,0 +1,236 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * The stable sort of object arrays and lists: <code>TimSort</code> with a
+ * comparator, and the native sort for strings and numbers in their natural
+ * order.
+ */
+public final class SortTests {
+
+	private SortTests() {
+	}
+
+	/**
+	 * An element ordered by its key only, which remembers its initial position
+	 * to check stability.
+	 */
+	private static final class Item implements Comparable<Item> {
+		final int key;
+		final int position;
+
+		Item(int key, int position) {
+			this.key = key;
+			this.position = position;
+		}
+
+		@Override
+		public int compareTo(Item other) {
+			return Integer.compare(key, other.key);
+		}
+
+		@Override
+		public String toString() {
+			return key + "@" + position;
+		}
+	}
+
+	private static final Comparator<Item> BY_KEY = (a, b) -> Integer.compare(a.key, b.key);
+
+	private static int seed = 1;
+
+	/**
+	 * A small generator, as numbers do not wrap around like Java ints here.
+	 */
+	private static int next(int bound) {
+		seed = (seed * 75 + 74) % 65537;
+		return seed % bound;
+	}
+
+	private static Item[] items(int[] keys) {
+		Item[] items = new Item[keys.length];
+		for (int i = 0; i < keys.length; i++) {
+			items[i] = new Item(keys[i], i);
+		}
+		return items;
+	}
+
+	/**
+	 * Keys of the given shape: random, few distinct, ascending, descending,
+	 * ascending runs, and runs that alternately win the merges by large
+	 * blocks.
+	 */
+	private static int[] keys(String shape, int length) {
+		int[] keys = new int[length];
+		for (int i = 0; i < length; i++) {
+			switch (shape) {
+			case "random":
+				keys[i] = next(1000);
+				break;
+			case "fewDistinct":
+				keys[i] = next(4);
+				break;
+			case "ascending":
+				keys[i] = i / 3;
+				break;
+			case "descending":
+				keys[i] = (length - i) / 3;
+				break;
+			case "runs":
+				keys[i] = i % 100 + next(3);
+				break;
+			case "blocks":
+				// two sorted halves whose blocks of 50 interleave
+				int half = i < length / 2 ? i : i - length / 2;
+				keys[i] = (half / 50) * 100 + (i < length / 2 ? 0 : 50) + half % 50;
+				break;
+			default:
+				throw new IllegalArgumentException(shape);
+			}
+		}
+		return keys;
+	}
+
+	private static void assertSortedAndStable(Item[] items, int fromIndex, int toIndex) {
+		for (int i = fromIndex + 1; i < toIndex; i++) {
+			Item previous = items[i - 1];
+			Item current = items[i];
+			assertTrue(previous + " before " + current, previous.key < current.key
+					|| previous.key == current.key && previous.position < current.position);
+		}
+	}
+
+	private static boolean isNegativeZero(double value) {
+		return value == 0 && 1 / value < 0;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Sort";
+		String[] shapes = { "random", "fewDistinct", "ascending", "descending", "runs", "blocks" };
+		int[] lengths = { 0, 1, 2, 31, 32, 33, 64, 65, 1000, 5000 };
+
+		runner.add(group, "stableWithComparator", () -> {
+			for (String shape : shapes) {
+				for (int length : lengths) {
+					Item[] items = items(keys(shape, length));
+					Arrays.sort(items, BY_KEY);
+					assertSortedAndStable(items, 0, length);
+				}
+			}
+		});
+
+		runner.add(group, "stableInNaturalOrder", () -> {
+			for (String shape : shapes) {
+				Item[] items = items(keys(shape, 2000));
+				Arrays.sort(items);
+				assertSortedAndStable(items, 0, items.length);
+			}
+		});
+
+		runner.add(group, "range", () -> {
+			for (String shape : shapes) {
+				Item[] items = items(keys(shape, 500));
+				Item[] original = items.clone();
+				Arrays.sort(items, 100, 400, BY_KEY);
+				assertSortedAndStable(items, 100, 400);
+				for (int i = 0; i < 500; i++) {
+					if (i < 100 || i >= 400) {
+						assertTrue(items[i] == original[i]);
+					}
+				}
+			}
+		});
+
+		runner.add(group, "galloping", () -> {
+			// one half entirely before the other, then halves interleaving by
+			// blocks, so that the merges switch in and out of galloping
+			int length = 4000;
+			int[] keys = new int[length];
+			for (int i = 0; i < length; i++) {
+				keys[i] = i < length / 2 ? i + length : i;
+			}
+			Item[] items = items(keys);
+			Arrays.sort(items, BY_KEY);
+			assertSortedAndStable(items, 0, length);
+			assertEquals(length / 2, items[0].key);
+			assertEquals(length / 2, items[0].position);
+
+			Item[] blocks = items(keys("blocks", length));
+			Arrays.sort(blocks, BY_KEY.reversed().reversed());
+			assertSortedAndStable(blocks, 0, length);
+		});
+
+		runner.add(group, "lists", () -> {
+			int[] keys = keys("runs", 1000);
+			List<Item> arrayList = new ArrayList<>(Arrays.asList(items(keys)));
+			arrayList.sort(BY_KEY);
+			assertSortedAndStable(arrayList.toArray(new Item[0]), 0, keys.length);
+
+			List<Item> linkedList = new LinkedList<>(Arrays.asList(items(keys)));
+			Collections.sort(linkedList);
+			assertSortedAndStable(linkedList.toArray(new Item[0]), 0, keys.length);
+
+			List<Item> outer = new ArrayList<>(Arrays.asList(items(keys)));
+			outer.subList(200, 800).sort(BY_KEY);
+			assertSortedAndStable(outer.toArray(new Item[0]), 200, 800);
+			assertEquals(0, outer.get(0).position);
+			assertEquals(999, outer.get(999).position);
+
+			List<String> strings = new ArrayList<>(Arrays.asList("b", "c", "a"));
+			Collections.sort(strings, Collections.reverseOrder());
+			assertEquals(Arrays.asList("c", "b", "a"), strings);
+		});
+
+		runner.add(group, "nativeStrings", () -> {
+			// by UTF-16 code units: upper case first, surrogates before U+FFFF
+			String[] strings = { "b", "a", "\uFFFF", "\uD83D\uDE00", "B", "", "ab", "a" };
+			Arrays.sort(strings);
+			assertArrayEquals(new String[] { "", "B", "a", "a", "ab", "b", "\uD83D\uDE00", "\uFFFF" }, strings);
+			String[] range = { "z", "y", "x", "w" };
+			Arrays.sort(range, 1, 3);
+			assertArrayEquals(new String[] { "z", "x", "y", "w" }, range);
+		});
+
+		runner.add(group, "nativeNumbers", () -> {
+			Double[] numbers = { 1.0, Double.NaN, 0.0, -0.0, Double.NEGATIVE_INFINITY, -1.5, 0.0, -0.0,
+					Double.POSITIVE_INFINITY, Double.NaN, 10.0, 2.0 };
+			Arrays.sort(numbers);
+			assertEquals(Double.NEGATIVE_INFINITY, numbers[0]);
+			assertEquals(-1.5, numbers[1]);
+			assertTrue(isNegativeZero(numbers[2]));
+			assertTrue(isNegativeZero(numbers[3]));
+			assertTrue(numbers[4] == 0 && !isNegativeZero(numbers[4]));
+			assertTrue(numbers[5] == 0 && !isNegativeZero(numbers[5]));
+			assertEquals(1.0, numbers[6]);
+			assertEquals(2.0, numbers[7]);
+			assertEquals(10.0, numbers[8]);
+			assertEquals(Double.POSITIVE_INFINITY, numbers[9]);
+			assertTrue(Double.isNaN(numbers[10]));
+			assertTrue(Double.isNaN(numbers[11]));
+
+			// not by their strings, as the default native sort would
+			Integer[] integers = { 10, 9, -1, 100, 0 };
+			Arrays.sort(integers);
+			assertArrayEquals(new Integer[] { -1, 0, 9, 10, 100 }, integers);
+			List<Integer> list = new ArrayList<>(Arrays.asList(3, 20, 1));
+			Collections.sort(list);
+			assertEquals(Arrays.asList(1, 3, 20), list);
+		});
+
+		runner.add(group, "numbersWithComparator", () -> {
+			Double[] numbers = { 2.0, -1.5, 10.0, 2.0, 0.5 };
+			Arrays.sort(numbers, Comparator.reverseOrder());
+			assertArrayEquals(new Double[] { 10.0, 2.0, 2.0, 0.5, -1.5 }, numbers);
+		});
+	}
+}
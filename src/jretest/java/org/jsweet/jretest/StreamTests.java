@@ -0,0 +1,106 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertArrayEquals;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * The lazy object and primitive stream pipelines.
+ */
+public final class StreamTests {
+
+	private StreamTests() {
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "Stream";
+
+		runner.add(group, "limitPullsNoExtraItem", () -> {
+			int[] pulled = new int[1];
+			assertArrayEquals(new int[] { 0, 1, 2 },
+					IntStream.iterate(0, i -> i + 1).peek(i -> pulled[0]++).limit(3).toArray());
+			assertEquals(3, pulled[0]);
+			pulled[0] = 0;
+			assertEquals(Arrays.asList("a", "b"),
+					Stream.generate(() -> "ab".substring(pulled[0], ++pulled[0])).limit(2).collect(Collectors.toList()));
+			assertEquals(2, pulled[0]);
+			pulled[0] = 0;
+			assertEquals(9L, LongStream.range(0, 100).peek(i -> pulled[0]++).skip(2).limit(3).sum());
+			assertEquals(5, pulled[0]);
+		});
+
+		runner.add(group, "shortCircuits", () -> {
+			int[] pulled = new int[1];
+			assertTrue(IntStream.iterate(1, i -> i * 2).peek(i -> pulled[0]++).anyMatch(i -> i > 100));
+			assertEquals(8, pulled[0]);
+			pulled[0] = 0;
+			assertFalse(IntStream.range(0, 1000).peek(i -> pulled[0]++).allMatch(i -> i < 10));
+			assertEquals(11, pulled[0]);
+			assertEquals(7, IntStream.rangeClosed(5, Integer.MAX_VALUE).filter(i -> i % 7 == 0).findFirst().getAsInt());
+		});
+
+		runner.add(group, "ranges", () -> {
+			assertEquals(0L, IntStream.range(5, 5).count());
+			assertEquals(1L, IntStream.rangeClosed(5, 5).count());
+			assertEquals(0L, IntStream.rangeClosed(6, 5).count());
+			assertArrayEquals(new int[] { Integer.MAX_VALUE - 1, Integer.MAX_VALUE },
+					IntStream.rangeClosed(Integer.MAX_VALUE - 1, Integer.MAX_VALUE).toArray());
+			assertEquals(5050L, LongStream.rangeClosed(1, 100).sum());
+		});
+
+		runner.add(group, "primitiveViews", () -> {
+			assertEquals(Arrays.asList("0", "1", "4"), IntStream.range(0, 3).map(i -> i * i).mapToObj(String::valueOf)
+					.collect(Collectors.toList()));
+			assertEquals(6, Stream.of("a", "bb", "ccc").mapToInt(String::length).sum());
+			List<Integer> boxed = IntStream.of(3, 1, 2).sorted().boxed().collect(Collectors.toList());
+			assertEquals(Arrays.asList(1, 2, 3), boxed);
+			assertEquals(4.5, IntStream.of(1, 2, 3).asDoubleStream().map(d -> d * 0.75).sum());
+			assertArrayEquals(new int[] { 1, 2, 3 }, IntStream.of(1, 2, 2, 3, 3, 3).distinct().toArray());
+		});
+
+		runner.add(group, "reductions", () -> {
+			assertEquals(2.0, IntStream.of(1, 2, 3).average().getAsDouble());
+			assertFalse(IntStream.empty().average().isPresent());
+			assertEquals(24, IntStream.rangeClosed(1, 4).reduce(1, (a, b) -> a * b));
+			assertFalse(LongStream.empty().max().isPresent());
+			IntSummaryStatistics ints = IntStream.of(4, -2, 7).summaryStatistics();
+			assertEquals(3L, ints.getCount());
+			assertEquals(-2, ints.getMin());
+			assertEquals(7, ints.getMax());
+			assertEquals(9L, ints.getSum());
+			DoubleSummaryStatistics doubles = DoubleStream.of(0.5, 1.5).summaryStatistics();
+			assertEquals(1.0, doubles.getAverage());
+			assertEquals(Double.POSITIVE_INFINITY, new DoubleSummaryStatistics().getMin());
+		});
+
+		runner.add(group, "iterator", () -> {
+			PrimitiveIterator.OfInt iterator = IntStream.iterate(1, i -> i * 3).limit(4).iterator();
+			assertEquals(1, iterator.nextInt());
+			assertEquals(3, iterator.nextInt());
+			assertEquals(9, iterator.nextInt());
+			assertEquals(27, iterator.nextInt());
+			assertFalse(iterator.hasNext());
+		});
+
+		runner.add(group, "allMatchAndCollect", () -> {
+			assertTrue(Stream.of(2, 4, 6).allMatch(i -> i % 2 == 0));
+			assertTrue(Stream.<Integer> empty().allMatch(i -> false));
+			assertEquals(Arrays.asList(1, 2), Stream.of(2, 1).collect(Collectors.collectingAndThen(Collectors.toList(), list -> {
+				list.sort(null);
+				return list;
+			})));
+		});
+	}
+}
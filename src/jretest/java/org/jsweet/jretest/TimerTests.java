@@ -0,0 +1,244 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <code>Timer</code> and the scheduled executors built on it: the order in
+ * which tasks run, cancellation, periodic tasks and futures. The checks only
+ * rely on the order of the deadlines, never on how late the host runs them:
+ * a deadline is either absolute, or later than the ones scheduled before it.
+ */
+public final class TimerTests {
+
+	private TimerTests() {
+	}
+
+	private static TimerTask task(Runnable body) {
+		return new TimerTask() {
+			@Override
+			public void run() {
+				body.run();
+			}
+		};
+	}
+
+	/**
+	 * A delay long enough for a task never to run during a test.
+	 */
+	private static final long NEVER = TimeUnit.HOURS.toMillis(1);
+
+	public static void register(JreTestRunner runner) {
+		String group = "Timer";
+
+		runner.addAsync(group, "runsInDeadlineOrder", done -> {
+			Timer timer = new Timer(true);
+			List<String> runs = new ArrayList<>();
+			String[] labels = { "d", "a", "c", "start", "b" };
+			int[] offsets = { 40, 10, 30, 0, 20 };
+			long base = System.currentTimeMillis();
+			for (int i = 0; i < labels.length; i++) {
+				String label = labels[i];
+				timer.schedule(task(() -> runs.add(label)), new Date(base + offsets[i]));
+			}
+			timer.schedule(task(() -> {
+				if (done.check(() -> assertEquals(Arrays.asList("start", "a", "b", "c", "d"), runs))) {
+					done.pass();
+				}
+				timer.cancel();
+			}), new Date(base + 60));
+		});
+
+		runner.addAsync(group, "manyTasks", done -> {
+			Timer timer = new Timer(true);
+			List<Long> times = new ArrayList<>();
+			int count = 1000;
+			for (int i = 0; i < count; i++) {
+				TimerTask[] self = new TimerTask[1];
+				self[0] = task(() -> times.add(self[0].scheduledExecutionTime()));
+				timer.schedule(self[0], (i * 7) % 50);
+			}
+			timer.schedule(task(() -> {
+				if (done.check(() -> {
+					assertEquals(count, times.size());
+					for (int i = 1; i < count; i++) {
+						assertTrue(times.get(i - 1) <= times.get(i));
+					}
+				})) {
+					done.pass();
+				}
+				timer.cancel();
+			}), 80);
+		});
+
+		runner.addAsync(group, "cancel", done -> {
+			Timer timer = new Timer(true);
+			List<String> runs = new ArrayList<>();
+			TimerTask second = task(() -> runs.add("second"));
+			TimerTask third = task(() -> runs.add("third"));
+			TimerTask first = task(() -> {
+				runs.add("first");
+				// third is due after first, as it was scheduled later for later
+				third.cancel();
+			});
+			timer.schedule(first, 10);
+			timer.schedule(second, NEVER);
+			timer.schedule(third, 20);
+			assertTrue(second.cancel());
+			assertFalse(second.cancel());
+			assertEquals(1, timer.purge());
+			assertEquals(0, timer.purge());
+			assertTrue(expectThrows(() -> timer.schedule(second, 10)) instanceof IllegalStateException);
+			assertTrue(expectThrows(() -> timer.schedule(task(() -> {
+			}), -1)) instanceof IllegalArgumentException);
+			timer.schedule(task(() -> {
+				if (done.check(() -> {
+					assertEquals(Arrays.asList("first"), runs);
+					assertFalse(first.cancel());
+					assertFalse(third.cancel());
+				})) {
+					done.pass();
+				}
+				timer.cancel();
+				timer.cancel();
+			}), 30);
+		});
+
+		runner.add(group, "cancelTimer", () -> {
+			Timer timer = new Timer(true);
+			TimerTask task = task(() -> {
+				throw new AssertionError("ran after the timer was cancelled");
+			});
+			timer.schedule(task, NEVER);
+			timer.cancel();
+			assertTrue(expectThrows(() -> timer.schedule(task(() -> {
+			}), 10)) instanceof IllegalStateException);
+		});
+
+		runner.addAsync(group, "periodic", done -> {
+			Timer timer = new Timer(true);
+			List<Long> times = new ArrayList<>();
+			TimerTask[] self = new TimerTask[1];
+			self[0] = task(() -> {
+				times.add(self[0].scheduledExecutionTime());
+				if (times.size() == 3) {
+					self[0].cancel();
+					if (done.check(() -> {
+						assertTrue(times.get(0) < times.get(1));
+						assertTrue(times.get(1) < times.get(2));
+					})) {
+						done.pass();
+					}
+					timer.cancel();
+				}
+			});
+			timer.scheduleAtFixedRate(self[0], 0, 5);
+		});
+
+		group = "ScheduledExecutor";
+
+		runner.addAsync(group, "futures", done -> {
+			ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+			List<String> runs = new ArrayList<>();
+			// each deadline is later than the previous ones
+			ScheduledFuture<String> sooner = executor.schedule(() -> {
+				runs.add("sooner");
+				return "sooner";
+			}, 10, TimeUnit.MILLISECONDS);
+			ScheduledFuture<String> later = executor.schedule(() -> {
+				runs.add("later");
+				return "later";
+			}, 20, TimeUnit.MILLISECONDS);
+			ScheduledFuture<?> cancelled = executor.schedule(() -> runs.add("cancelled"), NEVER,
+					TimeUnit.MILLISECONDS);
+			ScheduledFuture<Object> failing = executor.schedule(() -> {
+				throw new IllegalStateException("failing");
+			}, 5, TimeUnit.MILLISECONDS);
+			assertTrue(sooner.getDelay(TimeUnit.MILLISECONDS) <= 10);
+			assertTrue(sooner.compareTo(later) < 0);
+			assertTrue(cancelled.cancel(false));
+			assertTrue(cancelled.isCancelled());
+			assertTrue(cancelled.isDone());
+			assertTrue(expectThrows(cancelled::get) instanceof CancellationException);
+			executor.schedule(() -> {
+				if (done.check(() -> {
+					assertEquals(Arrays.asList("sooner", "later"), runs);
+					assertTrue(sooner.isDone());
+					assertFalse(sooner.isCancelled());
+					assertFalse(sooner.cancel(false));
+					assertEquals("sooner", sooner.get());
+					assertEquals("later", later.get(1, TimeUnit.MILLISECONDS));
+					assertTrue(failing.isDone());
+				Throwable failure = expectThrows(failing::get);
+					assertTrue(failure instanceof ExecutionException);
+					assertTrue(failure.getCause() instanceof IllegalStateException);
+				})) {
+					done.pass();
+				}
+				executor.shutdown();
+			}, 40, TimeUnit.MILLISECONDS);
+		});
+
+		runner.addAsync(group, "fixedRate", done -> {
+			ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
+			int[] runs = new int[1];
+			List<ScheduledFuture<?>> self = new ArrayList<>();
+			self.add(executor.scheduleAtFixedRate(() -> {
+				if (++runs[0] == 3) {
+					self.get(0).cancel(false);
+					if (done.check(() -> assertTrue(self.get(0).isCancelled()))) {
+						done.pass();
+					}
+					executor.shutdown();
+				}
+			}, 5, 5, TimeUnit.MILLISECONDS));
+		});
+
+		runner.addAsync(group, "shutdown", done -> {
+			ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+			List<String> runs = new ArrayList<>();
+			executor.schedule(() -> runs.add("delayed"), 10, TimeUnit.MILLISECONDS);
+			ScheduledFuture<?> periodic = executor.scheduleWithFixedDelay(() -> runs.add("periodic"), 5, 5,
+					TimeUnit.MILLISECONDS);
+			executor.shutdown();
+			assertTrue(executor.isShutdown());
+			assertFalse(executor.isTerminated());
+			assertTrue(periodic.isCancelled());
+			assertTrue(expectThrows(() -> executor.execute(() -> {
+			})) instanceof RejectedExecutionException);
+
+			ScheduledExecutorService other = Executors.newSingleThreadScheduledExecutor();
+			other.schedule(() -> runs.add("dropped"), NEVER, TimeUnit.MILLISECONDS);
+			assertEquals(1, other.shutdownNow().size());
+			assertTrue(other.awaitTermination(1, TimeUnit.SECONDS));
+
+			// polls, as the executor may run on a thread of its own
+			Timer timer = new Timer(true);
+			timer.schedule(task(() -> {
+				if (!executor.isTerminated()) {
+					return;
+				}
+				if (done.check(() -> assertEquals(Arrays.asList("delayed"), runs))) {
+					done.pass();
+				}
+				timer.cancel();
+			}), 10, 5);
+		});
+	}
+}
@@ -0,0 +1,142 @@
+package org.jsweet.jretest;
+
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * The incremental entry iterators of <code>TreeMap</code> and its views,
+ * checked against sorted lists.
+ */
+public final class TreeMapTests {
+
+	private TreeMapTests() {
+	}
+
+	/**
+	 * A map of the even numbers below 200, inserted in a scrambled order.
+	 */
+	private static TreeMap<Integer, String> evens() {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for (int i = 0; i < 100; i++) {
+			int key = (i * 37) % 100 * 2;
+			map.put(key, "v" + key);
+		}
+		return map;
+	}
+
+	/**
+	 * The even numbers in the given range, in the given direction.
+	 */
+	private static List<Integer> expected(int from, boolean fromInclusive, int to, boolean toInclusive,
+			boolean descending) {
+		List<Integer> keys = new ArrayList<>();
+		for (int key = 0; key < 200; key += 2) {
+			if ((key > from || fromInclusive && key == from) && (key < to || toInclusive && key == to)) {
+				keys.add(key);
+			}
+		}
+		if (descending) {
+			Collections.reverse(keys);
+		}
+		return keys;
+	}
+
+	private static List<Integer> keys(Map<Integer, String> map) {
+		List<Integer> keys = new ArrayList<>();
+		for (Map.Entry<Integer, String> entry : map.entrySet()) {
+			assertEquals("v" + entry.getKey(), entry.getValue());
+			keys.add(entry.getKey());
+		}
+		return keys;
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "TreeMap";
+
+		runner.add(group, "fullIteration", () -> {
+			TreeMap<Integer, String> map = evens();
+			assertEquals(expected(-1, false, 200, false, false), keys(map));
+			assertEquals(expected(-1, false, 200, false, true), keys(map.descendingMap()));
+			assertEquals(expected(-1, false, 200, false, true), new ArrayList<>(map.descendingKeySet()));
+			assertEquals(0, keys(new TreeMap<Integer, String>()).size());
+		});
+
+		runner.add(group, "subMapBounds", () -> {
+			TreeMap<Integer, String> map = evens();
+			int[][] bounds = { { 10, 20 }, { 11, 21 }, { 9, 9 }, { 10, 10 }, { -5, 3 }, { 190, 250 }, { 300, 400 } };
+			for (int[] bound : bounds) {
+				for (int inclusion = 0; inclusion < 4; inclusion++) {
+					boolean fromInclusive = (inclusion & 1) != 0;
+					boolean toInclusive = (inclusion & 2) != 0;
+					NavigableMap<Integer, String> sub = map.subMap(bound[0], fromInclusive, bound[1], toInclusive);
+					String id = bound[0] + (fromInclusive ? "=" : "") + ".." + (toInclusive ? "=" : "") + bound[1];
+					assertEquals(id, expected(bound[0], fromInclusive, bound[1], toInclusive, false), keys(sub));
+					assertEquals(id, expected(bound[0], fromInclusive, bound[1], toInclusive, true),
+							keys(sub.descendingMap()));
+				}
+			}
+		});
+
+		runner.add(group, "headAndTailMaps", () -> {
+			TreeMap<Integer, String> map = evens();
+			assertEquals(expected(-1, false, 50, false, false), keys(map.headMap(50)));
+			assertEquals(expected(-1, false, 50, true, true), keys(map.headMap(50, true).descendingMap()));
+			assertEquals(expected(151, true, 200, false, false), keys(map.tailMap(151)));
+			assertEquals(expected(150, false, 200, false, true), keys(map.tailMap(150, false).descendingMap()));
+			assertEquals(expected(20, true, 40, false, true), keys(map.headMap(40, false).tailMap(20, true).descendingMap()));
+		});
+
+		runner.add(group, "iteratorRemove", () -> {
+			TreeMap<Integer, String> map = evens();
+			List<Integer> remaining = new ArrayList<>();
+			Iterator<Map.Entry<Integer, String>> iterator = map.entrySet().iterator();
+			int index = 0;
+			while (iterator.hasNext()) {
+				int key = iterator.next().getKey();
+				// remove two keys out of three, which rebalances the tree under
+				// the iterator
+				if (index++ % 3 != 0) {
+					iterator.remove();
+				} else {
+					remaining.add(key);
+				}
+			}
+			assertEquals(remaining, keys(map));
+			Iterator<Integer> descending = map.descendingKeySet().iterator();
+			descending.next();
+			descending.remove();
+			assertEquals(remaining.subList(0, remaining.size() - 1), new ArrayList<>(map.keySet()));
+			Iterator<Integer> sub = map.subMap(30, 90).keySet().iterator();
+			while (sub.hasNext()) {
+				sub.next();
+				sub.remove();
+			}
+			assertTrue(map.subMap(30, 90).isEmpty());
+			assertFalse(map.isEmpty());
+		});
+
+		runner.add(group, "iteratorErrors", () -> {
+			TreeMap<Integer, String> map = evens();
+			Iterator<Integer> iterator = map.keySet().iterator();
+			assertTrue(expectThrows(iterator::remove) instanceof IllegalStateException);
+			iterator.next();
+			map.put(1, "v1");
+			assertTrue(expectThrows(iterator::next) instanceof ConcurrentModificationException);
+			Iterator<Integer> empty = map.subMap(2, 2).keySet().iterator();
+			assertFalse(empty.hasNext());
+			assertTrue(expectThrows(empty::next) instanceof NoSuchElementException);
+		});
+	}
+}
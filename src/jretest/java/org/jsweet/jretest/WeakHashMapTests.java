@@ -0,0 +1,240 @@
+package org.jsweet.jretest;
+
+import static jsweet.util.Lang.$insert;
+import static org.jsweet.jretest.Assert.assertEquals;
+import static org.jsweet.jretest.Assert.assertFalse;
+import static org.jsweet.jretest.Assert.assertTrue;
+import static org.jsweet.jretest.Assert.expectThrows;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import jsweet.util.Lang;
+
+/**
+ * <code>WeakHashMap</code> and the references, on the native
+ * <code>WeakMap</code>, <code>WeakRef</code> and
+ * <code>FinalizationRegistry</code>. Object keys are matched by identity
+ * there, unlike in the JDK.
+ * <p>
+ * The collection cases need the <code>gc</code> function that Node exposes
+ * with <code>--expose-gc</code>, and pass trivially without it.
+ */
+public final class WeakHashMapTests {
+
+	private static final int POLLS = 100;
+
+	private WeakHashMapTests() {
+	}
+
+	/**
+	 * Collects the garbage, if the engine lets us.
+	 */
+	private static boolean collectGarbage() {
+		return Lang.<Boolean> $insert("typeof gc === 'function' && (gc(), true)");
+	}
+
+	/**
+	 * Runs the task from a later turn of the event loop: the engine keeps the
+	 * targets of the <code>WeakRef</code>s read during a turn until it ends.
+	 */
+	private static void later(Runnable task) {
+		Runnable step = () -> task.run();
+		$insert("setTimeout(step, 10)");
+	}
+
+	/**
+	 * Puts keys that nothing else refers to.
+	 */
+	private static void putGarbage(Map<Object, String> map, int count) {
+		for (int i = 0; i < count; i++) {
+			map.put(new Object(), "garbage" + i);
+		}
+	}
+
+	private static WeakReference<Object> garbageReference(ReferenceQueue<Object> queue) {
+		return new WeakReference<>(new Object(), queue);
+	}
+
+	/**
+	 * Collects the garbage until the given condition holds, then runs the
+	 * checks; fails the case when the condition never holds.
+	 */
+	private static final class Poll implements Runnable {
+		private final JreTestRunner.Done done;
+		private final JreTestRunner.Case condition;
+		private final JreTestRunner.Case checks;
+		private int polls;
+
+		Poll(JreTestRunner.Done done, JreTestRunner.Case condition, JreTestRunner.Case checks) {
+			this.done = done;
+			this.condition = condition;
+			this.checks = checks;
+		}
+
+		@Override
+		public void run() {
+			collectGarbage();
+			try {
+				condition.run();
+			} catch (Throwable t) {
+				if (++polls < POLLS) {
+					later(this);
+				} else {
+					done.fail(t);
+				}
+				return;
+			}
+			if (done.check(checks)) {
+				done.pass();
+			}
+		}
+	}
+
+	public static void register(JreTestRunner runner) {
+		String group = "WeakHashMap";
+
+		runner.add(group, "valueKeysUseEquals", () -> {
+			WeakHashMap<Object, String> map = new WeakHashMap<>();
+			String ab = "a";
+			ab += "b";
+			map.put(ab, "string");
+			map.put(1, "number");
+			map.put(true, "boolean");
+			map.put(null, "null");
+			assertEquals(4, map.size());
+			assertEquals("string", map.get("ab"));
+			assertEquals("number", map.get(1));
+			assertEquals("boolean", map.get(true));
+			assertEquals("null", map.get(null));
+			assertEquals("string", map.put("ab", "again"));
+			assertEquals(4, map.size());
+			assertEquals("number", map.remove(1));
+			assertFalse(map.containsKey(1));
+			assertEquals(3, map.size());
+		});
+
+		runner.add(group, "objectKeysUseIdentity", () -> {
+			WeakHashMap<Object, String> map = new WeakHashMap<>();
+			List<String> first = new ArrayList<>(Arrays.asList("a"));
+			List<String> second = new ArrayList<>(Arrays.asList("a"));
+			assertEquals(first, second);
+			map.put(first, "first");
+			map.put(second, "second");
+			assertEquals(2, map.size());
+			assertEquals("first", map.get(first));
+			assertEquals("second", map.get(second));
+			assertEquals(null, map.get(new ArrayList<>(first)));
+			assertEquals("first", map.put(first, "again"));
+			assertEquals("again", map.remove(first));
+			assertEquals(null, map.remove(first));
+			assertEquals(1, map.size());
+		});
+
+		runner.add(group, "iteration", () -> {
+			WeakHashMap<Object, String> map = new WeakHashMap<>();
+			List<Object> keys = new ArrayList<>();
+			for (int i = 0; i < 5; i++) {
+				Object key = new Object();
+				keys.add(key);
+				map.put(key, "object" + i);
+				map.put("s" + i, "string" + i);
+			}
+			assertEquals(10, map.size());
+			assertEquals(10, new HashSet<>(map.values()).size());
+			for (Iterator<Map.Entry<Object, String>> iterator = map.entrySet().iterator(); iterator.hasNext();) {
+				Map.Entry<Object, String> entry = iterator.next();
+				assertEquals(map.get(entry.getKey()), entry.getValue());
+				if (entry.getValue().endsWith("0")) {
+					iterator.remove();
+				} else if (entry.getValue().endsWith("1")) {
+					entry.setValue("one");
+				}
+			}
+			assertEquals(8, map.size());
+			assertFalse(map.containsKey(keys.get(0)));
+			assertFalse(map.containsKey("s0"));
+			assertEquals("one", map.get(keys.get(1)));
+			assertEquals("one", map.get("s1"));
+			Iterator<Object> iterator = map.keySet().iterator();
+			assertTrue(expectThrows(iterator::remove) instanceof IllegalStateException);
+			map.clear();
+			assertTrue(map.isEmpty());
+			assertFalse(map.keySet().iterator().hasNext());
+			assertEquals(null, map.get(keys.get(2)));
+			map.put(keys.get(2), "back");
+			assertEquals(1, map.size());
+		});
+
+		runner.add(group, "references", () -> {
+			Object referent = new Object();
+			ReferenceQueue<Object> queue = new ReferenceQueue<>();
+			WeakReference<Object> weak = new WeakReference<>(referent, queue);
+			assertTrue(weak.get() == referent);
+			assertTrue(weak.refersTo(referent));
+			assertFalse(weak.refersTo(null));
+			assertTrue(new WeakReference<Object>("value").get() == "value");
+			assertTrue(new SoftReference<>(referent).get() == referent);
+			weak.clear();
+			assertEquals(null, weak.get());
+			assertTrue(weak.refersTo(null));
+			assertEquals(null, queue.poll());
+			assertTrue(weak.enqueue());
+			assertFalse(weak.enqueue());
+			assertTrue(queue.poll() == weak);
+			assertEquals(null, queue.poll());
+		});
+
+		runner.addAsync(group, "collectedKeysDisappear", done -> {
+			if (!collectGarbage()) {
+				done.pass();
+				return;
+			}
+			WeakHashMap<Object, String> map = new WeakHashMap<>();
+			Object kept = new Object();
+			map.put(kept, "kept");
+			map.put("s", "string");
+			putGarbage(map, 100);
+			assertEquals(102, map.size());
+			later(new Poll(done, () -> assertEquals(2, map.size()), () -> {
+				assertEquals("kept", map.get(kept));
+				assertEquals("string", map.get("s"));
+				assertEquals(new HashSet<>(Arrays.asList("kept", "string")), new HashSet<>(map.values()));
+			}));
+		});
+
+		runner.addAsync(group, "collectedReferentsAreEnqueued", done -> {
+			if (!collectGarbage()) {
+				done.pass();
+				return;
+			}
+			ReferenceQueue<Object> queue = new ReferenceQueue<>();
+			WeakReference<Object> reference = garbageReference(queue);
+			Object kept = new Object();
+			WeakReference<Object> keptReference = new WeakReference<>(kept, queue);
+			SoftReference<Object> soft = new SoftReference<>(new Object());
+			Reference<?>[] enqueued = new Reference<?>[1];
+			later(new Poll(done, () -> {
+				if (enqueued[0] == null) {
+					enqueued[0] = queue.poll();
+				}
+				assertTrue(enqueued[0] != null);
+			}, () -> {
+				assertTrue(enqueued[0] == reference);
+				assertEquals(null, reference.get());
+				assertEquals(null, queue.poll());
+				assertTrue(keptReference.get() == kept);
+				assertTrue("soft references hold until memory runs short", soft.get() != null);
+			}));
+		});
+	}
+}
@@ -19,6 +19,8 @@
 
 package java.io;
 
+import javaemul.internal.ArrayHelper;
+
 /**
  * A specialized {@link OutputStream} for class for writing content to an
  * (internal) byte array. As bytes are written to this stream, the byte array
@@ -44,7 +46,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 * array will expand.
 	 */
 	public ByteArrayOutputStream() {
-		buf = new byte[32];
+		buf = ArrayHelper.newByteArray(32);
 	}
 
 	/**
@@ -60,7 +62,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 */
 	public ByteArrayOutputStream(int size) {
 		if (size >= 0) {
-			buf = new byte[size];
+			buf = ArrayHelper.newByteArray(size);
 		} else {
 			throw new IllegalArgumentException("size < 0");
 		}
@@ -88,7 +90,7 @@ public class ByteArrayOutputStream extends OutputStream {
 			return;
 		}
 
-		byte[] newbuf = new byte[(count + i) * 2];
+		byte[] newbuf = ArrayHelper.newByteArray((count + i) * 2);
 		System.arraycopy(buf, 0, newbuf, 0, count);
 		buf = newbuf;
 	}
@@ -119,7 +121,7 @@ public class ByteArrayOutputStream extends OutputStream {
 	 * @return this stream's current contents as a byte array.
 	 */
 	public byte[] toByteArray() {
-		byte[] newArray = new byte[count];
+		byte[] newArray = ArrayHelper.newByteArray(count);
 		System.arraycopy(buf, 0, newArray, 0, count);
 		return newArray;
 	}
@@ -1,26 +1,49 @@
 package java.io;
 
-import static jsweet.util.Lang.any;
-import static jsweet.util.Lang.string;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static javaemul.internal.InternalPreconditions.checkPositionIndexes;
 
 import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+import javaemul.internal.ArrayHelper;
+import javaemul.internal.EmulatedCharset;
 
 /**
  * JSweet implementation.
+ *
+ * <p>
+ * Bytes are read in chunks into a buffer reused from one read to the next, and
+ * decoded by a streaming decoder of the charset (UTF-8 by default), which
+ * keeps the bytes of a character split between two chunks for the next one.
  */
 
 public class InputStreamReader extends Reader {
 
+	private static final int BUFFER_SIZE = 8192;
+
 	InputStream in;
 
+	private final EmulatedCharset.Decoder decoder;
+
+	private byte[] bytes;
+
+	/**
+	 * The decoded characters that have not been read yet, from
+	 * <code>nextChar</code> on.
+	 */
+	private String chars = "";
+
+	private int nextChar;
+
+	private boolean endOfInput;
+
 	public InputStreamReader(InputStream in) {
-		super(in);
-		this.in = in;
+		this(in, EmulatedCharset.UTF_8);
 	}
 
 	public InputStreamReader(InputStream in, String charsetName) throws UnsupportedEncodingException {
-		super(in);
-		this.in = in;
+		this(in, forName(charsetName));
 	}
 
 	public InputStreamReader(InputStream in, Charset cs) {
@@ -28,23 +51,58 @@ public class InputStreamReader extends Reader {
 		this.in = in;
 		if (cs == null)
 			throw new NullPointerException("charset");
+		this.decoder = ((EmulatedCharset) cs).newDecoder();
 	}
 
-	public int read(char cbuf[], int offset, int length) throws IOException {
-		byte[] buf = new byte[length - offset];
-		int success = in.read(buf, 0, length);
+	private static Charset forName(String charsetName) throws UnsupportedEncodingException {
+		if (charsetName == null)
+			throw new NullPointerException("charsetName");
+		try {
+			return Charset.forName(charsetName);
+		} catch (UnsupportedCharsetException e) {
+			throw new UnsupportedEncodingException(charsetName);
+		}
+	}
 
-		if (success > 0) {
-			for (int i = 0; i < success; ++i) {
-				cbuf[i + offset] = string(def.js.String.fromCharCode(buf[i])).charAt(0); // TODO switch to charset converter
+	public int read(char cbuf[], int offset, int length) throws IOException {
+		checkNotNull(cbuf);
+		checkPositionIndexes(offset, offset + length, cbuf.length);
+		if (length == 0) {
+			return 0;
+		}
+		while (nextChar == chars.length()) {
+			if (endOfInput) {
+				return -1;
 			}
+			fill();
+		}
+		int count = Math.min(length, chars.length() - nextChar);
+		for (int i = 0; i < count; i++) {
+			cbuf[offset + i] = chars.charAt(nextChar++);
 		}
+		return count;
+	}
 
-		return success;
+	/**
+	 * Reads and decodes the next chunk of bytes; it may decode to no
+	 * character.
+	 */
+	private void fill() throws IOException {
+		if (bytes == null) {
+			bytes = ArrayHelper.newByteArray(BUFFER_SIZE);
+		}
+		int count = in.read(bytes, 0, bytes.length);
+		if (count < 0) {
+			endOfInput = true;
+			chars = decoder.decode(bytes, 0, 0, true);
+		} else {
+			chars = decoder.decode(bytes, 0, count, false);
+		}
+		nextChar = 0;
 	}
 
 	public boolean ready() throws IOException {
-		return in.available()>0;
+		return nextChar < chars.length() || in.available()>0;
 	}
 
 	public void close() throws IOException {
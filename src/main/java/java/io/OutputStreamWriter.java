@@ -1,19 +1,23 @@
 package java.io;
 
-import static jsweet.util.Lang.any;
-import static jsweet.util.Lang.string;
-
 import java.nio.charset.Charset;
+import java.nio.charset.UnsupportedCharsetException;
+
+import javaemul.internal.EmulatedCharset;
 
 /**
  * JSweet implementation (partial).
  * 
- * TODO: actual support of charsets.
+ * Characters are encoded by a streaming encoder of the charset (UTF-8 by
+ * default), which reuses its byte buffer from one write to the next and keeps
+ * a high surrogate ending a write for the next one.
  */
 public class OutputStreamWriter extends Writer {
 
     private final OutputStream out;
 
+    private final EmulatedCharset.Encoder encoder;
+
     public OutputStreamWriter(OutputStream out, String charsetName)
         throws UnsupportedEncodingException
     {
@@ -21,11 +25,15 @@ public class OutputStreamWriter extends Writer {
         if (charsetName == null)
             throw new NullPointerException("charsetName");
         this.out = out;
+        try {
+            this.encoder = ((EmulatedCharset) Charset.forName(charsetName)).newEncoder();
+        } catch (UnsupportedCharsetException e) {
+            throw new UnsupportedEncodingException(charsetName);
+        }
     }
 
     public OutputStreamWriter(OutputStream out) {
-        super(out);
-        this.out = out;
+        this(out, EmulatedCharset.UTF_8);
     }
 
     public OutputStreamWriter(OutputStream out, Charset cs) {
@@ -33,6 +41,7 @@ public class OutputStreamWriter extends Writer {
         if (cs == null)
             throw new NullPointerException("charset");
         this.out = out;
+        this.encoder = ((EmulatedCharset) cs).newEncoder();
     }
 
     void flushBuffer() throws IOException {
@@ -40,19 +49,22 @@ public class OutputStreamWriter extends Writer {
     }
 
     public void write(int c) throws IOException {
-        out.write(c);
+        writeChars(String.valueOf((char) c), false);
     }
 
     public void write(char cbuf[], int off, int len) throws IOException {
-    	byte[] buf = new byte[len];
-    	for (int i = 0; i < len; ++i)
-    	    buf[i] = (byte) string(cbuf[i + off]).charCodeAt(0); // TODO switch to charset converter
-
-        out.write(buf, 0, len);
+        writeChars(String.valueOf(cbuf, off, len), false);
     }
 
     public void write(String str, int off, int len) throws IOException {
-        out.write(str.getBytes(), off, len);
+        writeChars(str.substring(off, off + len), false);
+    }
+
+    private void writeChars(String chars, boolean endOfInput) throws IOException {
+        int count = encoder.encode(chars, endOfInput);
+        if (count > 0) {
+            out.write(encoder.getBytes(), 0, count);
+        }
     }
 
     public void flush() throws IOException {
@@ -60,6 +72,7 @@ public class OutputStreamWriter extends Writer {
     }
 
     public void close() throws IOException {
+        writeChars("", true);
         out.close();
     }
 }
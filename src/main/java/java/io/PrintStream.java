@@ -15,6 +15,10 @@
  */
 package java.io;
 
+import java.util.Locale;
+
+import javaemul.internal.EmulatedCharset;
+
 /**
  * @skip
  */
@@ -24,14 +28,20 @@ public class PrintStream extends FilterOutputStream {
     super(out);
   }
 
-  public void print(String s) {
+  @Override
+  public void write(byte[] buffer, int offset, int length) {
     try {
-      write(s.getBytes());
+      out.write(buffer, offset, length);
     } catch (IOException e) {
       e.printStackTrace();
     }
   }
 
+  public void print(String s) {
+    byte[] bytes = EmulatedCharset.UTF_8.getBytes(String.valueOf(s));
+    write(bytes, 0, bytes.length);
+  }
+
   public void println(String s) {
     print(s + System.lineSeparator());
   }
@@ -103,4 +113,22 @@ public class PrintStream extends FilterOutputStream {
   public void println(Object x) {
     println(String.valueOf(x));
   }
+
+  public PrintStream format(String format, Object... args) {
+    print(String.format(format, args));
+    return this;
+  }
+
+  public PrintStream format(Locale l, String format, Object... args) {
+    print(String.format(l, format, args));
+    return this;
+  }
+
+  public PrintStream printf(String format, Object... args) {
+    return format(format, args);
+  }
+
+  public PrintStream printf(Locale l, String format, Object... args) {
+    return format(l, format, args);
+  }
 }
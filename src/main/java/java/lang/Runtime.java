@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.lang;
+
+import static def.js.Globals.eval;
+import static jsweet.util.Lang.$insert;
+import static jsweet.util.Lang.function;
+import static jsweet.util.Lang.typeof;
+
+import java.util.Objects;
+
+import def.js.Function;
+
+/**
+ * The JavaScript runtime, as far as it can be observed.
+ *
+ * <p>
+ * On Node, processors come from the <code>os</code> module and memory figures
+ * from <code>process.memoryUsage()</code> and the <code>v8</code> module. In
+ * browsers, processors come from <code>navigator.hardwareConcurrency</code>
+ * and memory figures from the non-standard <code>performance.memory</code>
+ * when present. When a figure is not available, {@link #totalMemory()} and
+ * {@link #freeMemory()} return 0 and {@link #maxMemory()} returns
+ * {@link Long#MAX_VALUE}, the JDK's value for "no inherent limit".
+ */
+public class Runtime {
+
+	private static final Runtime currentRuntime = new Runtime();
+
+	public static Runtime getRuntime() {
+		return currentRuntime;
+	}
+
+	private Runtime() {
+	}
+
+	public int availableProcessors() {
+		if (System.ENVIRONMENT_IS_NODE) {
+			def.js.Object os = eval("global.os || (global.os = require(\"os\"))");
+			if (Objects.equals(typeof(os.$get("availableParallelism")), "function")) {
+				return ((Function) os.$get("availableParallelism")).$apply();
+			}
+			int cpus = $insert("os.cpus().length");
+			return Math.max(cpus, 1);
+		}
+		int concurrency = $insert("typeof navigator === 'object' && navigator.hardwareConcurrency || 1");
+		return concurrency;
+	}
+
+	public long totalMemory() {
+		if (System.ENVIRONMENT_IS_NODE) {
+			return $insert("process.memoryUsage().heapTotal");
+		}
+		return $insert("typeof performance === 'object' && performance.memory && performance.memory.totalJSHeapSize || 0");
+	}
+
+	public long freeMemory() {
+		if (System.ENVIRONMENT_IS_NODE) {
+			return $insert("(function(usage) { return usage.heapTotal - usage.heapUsed; })(process.memoryUsage())");
+		}
+		return $insert("typeof performance === 'object' && performance.memory"
+				+ " && (performance.memory.totalJSHeapSize - performance.memory.usedJSHeapSize) || 0");
+	}
+
+	public long maxMemory() {
+		double limit;
+		if (System.ENVIRONMENT_IS_NODE) {
+			def.js.Object v8 = eval("global.v8 || (global.v8 = require(\"v8\"))");
+			limit = $insert("v8.getHeapStatistics().heap_size_limit");
+		} else {
+			limit = $insert("typeof performance === 'object' && performance.memory && performance.memory.jsHeapSizeLimit || 0");
+		}
+		return limit > 0 ? (long) limit : Long.MAX_VALUE;
+	}
+
+	/**
+	 * Runs the garbage collector if the engine exposes it, e.g. Node started
+	 * with <code>--expose-gc</code>; does nothing otherwise.
+	 */
+	public void gc() {
+		function(() -> {
+			Function gcFun = eval("this.gc");
+			if (Objects.equals(typeof(gcFun), "function")) {
+				gcFun.$apply();
+			}
+		}).apply(null); // this forces to use "global" this context
+	}
+
+	public void exit(int status) {
+		System.exit(status);
+	}
+}
@@ -17,12 +17,11 @@ package java.lang;
 
 import def.js.Function;
 import javaemul.internal.ArrayHelper;
+import javaemul.internal.ConsoleOutputStream;
 import javaemul.internal.DateUtil;
 import javaemul.internal.HashCodes;
 
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.URL;
 import java.util.HashMap;
@@ -140,61 +139,9 @@ public final class System {
 		propertyMap.put("os.arch", osArch);
 
 
-		out = new PrintStream(new OutputStream() {
-			private final String sep = propertyMap.get("line.separator");
-
-			String toOut = "";
-
-			@Override
-			public void write(int i) throws IOException {
-				toOut += string(def.js.String.fromCharCode(i)); // TODO it handles as a character, and not as a byte
-
-				if (toOut.endsWith(sep)) {
-					flush();
-				}
-			}
-
-			@Override
-			public void flush() throws IOException {
-				super.flush();
+		out = new PrintStream(new ConsoleOutputStream(false));
 
-				if (!toOut.isEmpty()) {
-					if (toOut.endsWith(sep)) {
-						toOut = toOut.substring(0, toOut.length() - sep.length());
-					}
-					console.info(toOut);
-					toOut = "";
-				}
-			}
-		});
-
-		err = new PrintStream(new OutputStream() {
-			private final String sep = propertyMap.get("line.separator");
-
-			String toOut = "";
-
-			@Override
-			public void write(int i) throws IOException {
-				toOut += string(def.js.String.fromCharCode(i)); // TODO it handles as a character, and not as a byte
-
-				if (toOut.endsWith(sep)) {
-					flush();
-				}
-			}
-
-			@Override
-			public void flush() throws IOException {
-				super.flush();
-
-				if (!toOut.isEmpty()) {
-					if (toOut.endsWith(sep)) {
-						toOut = toOut.substring(0, toOut.length() - sep.length());
-					}
-					console.error(toOut);
-					toOut = "";
-				}
-			}
-		});
+		err = new PrintStream(new ConsoleOutputStream(true));
 
 		in = new InputStream() {
 			private char[] readData;
@@ -321,13 +268,12 @@ public final class System {
 		return (long) DateUtil.now();
 	}
 
+	public static long nanoTime() {
+		return (long) DateUtil.nanoTime();
+	}
+
 	public static void gc() {
-		function(() -> {
-			Function gcFun = eval("this.gc");
-			if (Objects.equals(typeof(gcFun), "function")) {
-				gcFun.$apply();
-			}
-		}).apply(null); // this forces to use "global" this context
+		Runtime.getRuntime().gc();
 	}
 
 	public static String getProperty(String key) {
@@ -339,6 +285,17 @@ public final class System {
 		return prop == null ? def : prop;
 	}
 
+	public static String setProperty(String key, String value) {
+		checkNotNull(key, "key");
+		checkNotNull(value, "value");
+		return propertyMap.put(key, value);
+	}
+
+	public static String clearProperty(String key) {
+		checkNotNull(key, "key");
+		return propertyMap.remove(key);
+	}
+
 	public static int identityHashCode(Object o) {
 		return HashCodes.getIdentityHashCode(o);
 	}
@@ -16,25 +16,141 @@
  */
 package java.lang.ref;
 
+import static jsweet.util.Lang.$insert;
+
+import javaemul.internal.JsUtils;
+import jsweet.util.Lang;
+
 /**
- * This implements the reference API in a minimal way. In JavaScript, there is
- * no control over the reference and the GC. So this implementation's only
- * purpose is for compilation.
+ * The reference API, on top of the JavaScript <code>WeakRef</code>: an object
+ * referent is held weakly, and the reference is enqueued, if it has a queue,
+ * once the engine has collected the referent. Referents that cannot be held
+ * weakly (strings, numbers and booleans), and all referents on engines
+ * without <code>WeakRef</code>, are held strongly and never cleared by the
+ * collector.
  */
 public abstract class Reference<T> {
 
+	private static final boolean WEAK_REFS = Lang.<Boolean> $insert("typeof WeakRef === 'function'");
+
+	/**
+	 * Returns whether the given object can be held weakly.
+	 */
+	static boolean canHoldWeakly(Object object) {
+		String type = JsUtils.typeOf(object);
+		return WEAK_REFS && object != null && ("object".equals(type) || "function".equals(type));
+	}
+
+	/**
+	 * Returns a <code>WeakRef</code> to an object that can be held weakly.
+	 */
+	static Object newWeakRef(Object object) {
+		return $insert("new WeakRef(object)");
+	}
+
+	/**
+	 * Returns the target of a <code>WeakRef</code>, or null once it has been
+	 * collected.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T deref(Object weakRef) {
+		Object target = $insert("weakRef.deref()");
+		return JsUtils.isUndefined(target) ? null : (T) target;
+	}
+
+	/**
+	 * The strong hold on the referent, if any.
+	 */
 	private T referent;
 
+	/**
+	 * The <code>WeakRef</code> to the referent, if it is held weakly.
+	 */
+	private Object weakReferent;
+
+	final ReferenceQueue<? super T> queue;
+
+	/**
+	 * The next reference in the queue, while enqueued.
+	 */
+	Reference<?> next;
+
+	boolean enqueued;
+
 	Reference(T referent) {
-		this.referent = referent;
+		this(referent, null);
+	}
+
+	Reference(T referent, ReferenceQueue<? super T> queue) {
+		this.queue = queue;
+		if (canHoldWeakly(referent)) {
+			weakReferent = newWeakRef(referent);
+			if (queue != null) {
+				queue.register(referent, this);
+			}
+		} else {
+			this.referent = referent;
+		}
 	}
 
 	public T get() {
-		return this.referent;
+		if (referent != null || weakReferent == null) {
+			return referent;
+		}
+		return deref(weakReferent);
+	}
+
+	public final boolean refersTo(T obj) {
+		return get() == obj;
 	}
 
 	public void clear() {
-		this.referent = null;
+		referent = null;
+		if (weakReferent != null) {
+			weakReferent = null;
+			if (queue != null) {
+				queue.unregister(this);
+			}
+		}
+	}
+
+	public boolean isEnqueued() {
+		return enqueued;
+	}
+
+	public boolean enqueue() {
+		clear();
+		return queue != null && queue.enqueue(this);
+	}
+
+	/**
+	 * Holds the referent strongly as well, if it is still there.
+	 */
+	void retain() {
+		if (weakReferent != null) {
+			referent = deref(weakReferent);
+		}
+	}
+
+	/**
+	 * Drops the strong hold on a referent that is also held weakly, leaving it
+	 * to the collector.
+	 */
+	void release() {
+		if (weakReferent != null) {
+			referent = null;
+		}
+	}
+
+	/**
+	 * Called once the referent is gone.
+	 */
+	void collected() {
+		referent = null;
+		weakReferent = null;
+		if (queue != null) {
+			queue.enqueue(this);
+		}
 	}
 
 }
@@ -0,0 +1,102 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.lang.ref;
+
+import static jsweet.util.Lang.$insert;
+
+import java.util.function.Consumer;
+
+import jsweet.util.Lang;
+
+/**
+ * The queue to which references are appended once their referents are gone,
+ * fed by a JavaScript <code>FinalizationRegistry</code>. The engine reports
+ * collected referents from its event loop, so a reference cannot show up in
+ * the queue before the current task completes. As JavaScript cannot block,
+ * the <code>remove</code> methods do not wait either and behave as
+ * {@link #poll()}.
+ */
+public class ReferenceQueue<T> {
+
+	private static final boolean FINALIZATION_REGISTRIES = Lang
+			.<Boolean> $insert("typeof FinalizationRegistry === 'function'");
+
+	/**
+	 * The registry watching the referents held weakly, with their references
+	 * as held values and unregister tokens; null on engines without one.
+	 */
+	private final Object registry;
+
+	private Reference<? extends T> head;
+
+	public ReferenceQueue() {
+		if (FINALIZATION_REGISTRIES) {
+			Consumer<Reference<?>> cleanup = reference -> reference.collected();
+			registry = $insert("new FinalizationRegistry(cleanup)");
+		} else {
+			registry = null;
+		}
+	}
+
+	void register(Object referent, Reference<?> reference) {
+		if (registry != null) {
+			Object registry = this.registry;
+			$insert("registry.register(referent, reference, reference)");
+		}
+	}
+
+	void unregister(Reference<?> reference) {
+		if (registry != null) {
+			Object registry = this.registry;
+			$insert("registry.unregister(reference)");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	boolean enqueue(Reference<?> reference) {
+		if (reference.enqueued) {
+			return false;
+		}
+		reference.enqueued = true;
+		reference.next = head;
+		head = (Reference<? extends T>) reference;
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	public Reference<? extends T> poll() {
+		Reference<? extends T> reference = head;
+		if (reference != null) {
+			head = (Reference<? extends T>) reference.next;
+			reference.next = null;
+			reference.enqueued = false;
+		}
+		return reference;
+	}
+
+	public Reference<? extends T> remove(long timeout) throws IllegalArgumentException, InterruptedException {
+		if (timeout < 0) {
+			throw new IllegalArgumentException("Negative timeout value");
+		}
+		return poll();
+	}
+
+	public Reference<? extends T> remove() throws InterruptedException {
+		return poll();
+	}
+
+}
@@ -0,0 +1,105 @@
+/* 
+ * JSweet - http://www.jsweet.org
+ * Copyright (C) 2015 CINCHEO SAS <renaud.pawlak@cincheo.fr>
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package java.lang.ref;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A reference that holds its referent strongly until the heap runs short:
+ * when the used heap goes over a share of its limit, all the soft references
+ * drop their strong hold and leave their referents to the collector. Until
+ * the referent is actually collected, {@link #get()} still returns it and
+ * holds it strongly again.
+ * <p>
+ * The share is the <code>jre.ref.softHeapRatio</code> system property, 0.75
+ * by default. The heap is measured as by {@link Runtime#totalMemory()},
+ * {@link Runtime#freeMemory()} and {@link Runtime#maxMemory()}, i.e. with
+ * <code>v8.getHeapStatistics()</code> on Node, at most once per
+ * {@value #CHECK_INTERVAL} ms, when soft references are created or read.
+ * Where the heap limit cannot be read, or referents cannot be held weakly,
+ * soft references are never cleared.
+ */
+public class SoftReference<T> extends Reference<T> {
+
+	private static final double HEAP_RATIO = Double
+			.parseDouble(System.getProperty("jre.ref.softHeapRatio", "0.75"));
+
+	private static final long CHECK_INTERVAL = 1000;
+
+	/**
+	 * <code>WeakRef</code>s to the soft references created so far, so that
+	 * they can be released under pressure without being kept alive.
+	 */
+	private static final List<Object> instances = new ArrayList<>();
+
+	private static int pruneSize = 64;
+
+	private static long lastCheck;
+
+	private static void track(SoftReference<?> reference) {
+		if (instances.size() >= pruneSize) {
+			instances.removeIf(weakRef -> deref(weakRef) == null);
+			pruneSize = Math.max(64, instances.size() * 2);
+		}
+		instances.add(newWeakRef(reference));
+	}
+
+	private static void checkHeap() {
+		long now = System.currentTimeMillis();
+		if (now - lastCheck < CHECK_INTERVAL) {
+			return;
+		}
+		lastCheck = now;
+		Runtime runtime = Runtime.getRuntime();
+		long max = runtime.maxMemory();
+		if (max != Long.MAX_VALUE && runtime.totalMemory() - runtime.freeMemory() > max * HEAP_RATIO) {
+			instances.removeIf(weakRef -> {
+				SoftReference<?> reference = deref(weakRef);
+				if (reference == null) {
+					return true;
+				}
+				reference.release();
+				return false;
+			});
+		}
+	}
+
+	public SoftReference(T referent) {
+		this(referent, null);
+	}
+
+	public SoftReference(T referent, ReferenceQueue<? super T> q) {
+		super(referent, q);
+		if (canHoldWeakly(referent)) {
+			retain();
+			track(this);
+		}
+		checkHeap();
+	}
+
+	@Override
+	public T get() {
+		checkHeap();
+		T referent = super.get();
+		if (referent != null) {
+			retain();
+		}
+		return referent;
+	}
+
+}
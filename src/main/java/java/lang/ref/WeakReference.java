@@ -17,14 +17,17 @@
 package java.lang.ref;
 
 /**
- * This implements the reference API in a minimal way. In JavaScript, there is
- * no control over the reference and the GC. So this implementation's only
- * purpose is for compilation.
+ * A reference that does not keep its referent alive; see {@link Reference}
+ * for which referents can actually be collected.
  */
 public class WeakReference<T> extends Reference<T> {
 
     public WeakReference(T referent) {
         super(referent);
     }
-	
+
+    public WeakReference(T referent, ReferenceQueue<? super T> q) {
+        super(referent, q);
+    }
+
 }
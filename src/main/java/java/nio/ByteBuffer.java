@@ -1,27 +1,47 @@
 package java.nio;
 
+import static jsweet.util.Lang.$insert;
 import static jsweet.util.Lang.any;
 import static jsweet.util.Lang.string;
 
 import java.util.Objects;
 
-import def.js.Array;
 import def.js.ArrayBuffer;
 import def.js.DataView;
 import def.js.Int8Array;
 import jsweet.util.Lang;
 
+/**
+ * A byte buffer over a window of an <code>Int8Array</code>, its backing
+ * array, starting at {@link #arrayOffset()}. Slices, duplicates and buffers
+ * wrapping typed arrays share the memory of their backing array; bulk
+ * transfers use the native <code>set</code>, <code>subarray</code> and
+ * <code>copyWithin</code> of typed arrays.
+ */
 public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	public final ArrayBuffer _buffer;
+	/**
+	 * The window of the backing array, from the array offset on, that indices
+	 * of this buffer are relative to.
+	 */
 	public final Int8Array _array;
 	public final DataView _data;
 	public ByteOrder _order = ByteOrder.BIG_ENDIAN;
+	private final Int8Array _backing;
+	private final int _offset;
 
 	public ByteBuffer(ArrayBuffer _buffer, boolean readOnly) {
-		super((int) _buffer.byteLength, readOnly);
-		this._buffer = _buffer;
-		this._array = new Int8Array(_buffer);
-		this._data = new DataView(_buffer);
+		this(new Int8Array(_buffer), 0, (int) _buffer.byteLength, readOnly);
+	}
+
+	private ByteBuffer(Int8Array backing, int offset, int capacity, boolean readOnly) {
+		super(capacity, readOnly);
+		this._buffer = backing.buffer;
+		this._backing = backing;
+		this._offset = offset;
+		int byteOffset = (int) backing.byteOffset + offset;
+		this._array = new Int8Array(_buffer, byteOffset, capacity);
+		this._data = new DataView(_buffer, byteOffset, capacity);
 	}
 
 	public static ByteBuffer allocate(int capacity) {
@@ -30,11 +50,16 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 
 	@Override
 	public byte[] array() {
-		return any(_array);
+		return any(_backing);
+	}
+
+	@Override
+	public int arrayOffset() {
+		return _offset;
 	}
 
 	public ByteBuffer asReadOnlyBuffer() {
-		ByteBuffer byteBuffer = new ByteBuffer(_buffer, true);
+		ByteBuffer byteBuffer = new ByteBuffer(_backing, _offset, capacity(), true);
 		byteBuffer.limit(limit());
 		byteBuffer.position(position());
 		byteBuffer._mark = _mark;
@@ -45,13 +70,13 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 		if (isReadOnly())
 			throw new ReadOnlyBufferException();
 
-		int current = position();
-		for (int i = current; i < limit(); ++i) {
-			put(i - current, get(i));
-		}
+		Int8Array array = _array;
+		int start = position();
+		int end = limit();
+		$insert("array.copyWithin(0, start, end)");
 
-		position(limit() - position());
 		limit(capacity());
+		position(end - start);
 		_mark = -1;
 
 		return this;
@@ -63,7 +88,7 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer duplicate() {
-		ByteBuffer byteBuffer = new ByteBuffer(_buffer, isReadOnly());
+		ByteBuffer byteBuffer = new ByteBuffer(_backing, _offset, capacity(), isReadOnly());
 		byteBuffer.limit(limit());
 		byteBuffer.position(position());
 		byteBuffer._mark = _mark;
@@ -89,12 +114,18 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer get(byte[] dest, int offset, int length) {
+		checkBounds(offset, length, dest.length);
 		if (remaining() < length)
 			throw new BufferUnderflowException();
 
-		for (int i = offset; i < offset + length; i++)
-			dest[i] = get();
-
+		Int8Array array = _array;
+		int start = position();
+		if (isTypedArray(dest)) {
+			$insert("dest.set(array.subarray(start, start + length), offset)");
+		} else {
+			$insert("for (var i = 0; i < length; i++) { dest[offset + i] = array[start + i]; }");
+		}
+		position(start + length);
 		return this;
 	}
 
@@ -250,12 +281,40 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 		if (isReadOnly())
 			throw new ReadOnlyBufferException();
 
+		checkBounds(offset, length, src.length);
 		if (remaining() < length)
 			throw new BufferOverflowException();
 
-		for (int i = offset; i < offset + length; i++)
-			put(src[i]);
+		Int8Array array = _array;
+		int start = position();
+		if (isTypedArray(src)) {
+			$insert("array.set(src.subarray(offset, offset + length), start)");
+		} else {
+			$insert("for (var i = 0; i < length; i++) { array[start + i] = src[offset + i]; }");
+		}
+		position(start + length);
+		return this;
+	}
+
+	public ByteBuffer put(ByteBuffer src) {
+		if (src == this)
+			throw new IllegalArgumentException("The source buffer is this buffer");
 
+		if (isReadOnly())
+			throw new ReadOnlyBufferException();
+
+		int length = src.remaining();
+		if (remaining() < length)
+			throw new BufferOverflowException();
+
+		// set copies the source first when both share memory
+		Int8Array array = _array;
+		Int8Array source = src._array;
+		int from = src.position();
+		int start = position();
+		$insert("array.set(source.subarray(from, from + length), start)");
+		src.position(from + length);
+		position(start + length);
 		return this;
 	}
 
@@ -429,7 +488,12 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 	}
 
 	public ByteBuffer slice() {
-		return new ByteBuffer(_buffer, isReadOnly());
+		return new ByteBuffer(_backing, _offset + position(), remaining(), isReadOnly());
+	}
+
+	public ByteBuffer slice(int index, int length) {
+		checkBounds(index, length, limit());
+		return new ByteBuffer(_backing, _offset + index, length, isReadOnly());
 	}
 
 	@Override
@@ -441,20 +505,37 @@ public class ByteBuffer extends Buffer implements Comparable<ByteBuffer> {
 		return wrap(array, 0, array.length);
 	}
 
-	@SuppressWarnings({ "rawtypes", "unchecked" })
-	private static ByteBuffer wrap(byte[] array, int offset, int length) {
-		ArrayBuffer buffer = new ArrayBuffer(length);
-		Int8Array bytes = new Int8Array(buffer);
-		bytes.set(Int8Array.from((Array) Lang.array(array).slice(offset, offset + length)));
-		return new ByteBuffer(buffer, true); // currently can not able to write back. This is why it is a read-only
-												// buffer
+	/**
+	 * Wraps a typed array without copying it: the buffer and the array share
+	 * their content. A plain array cannot be written back, so it is copied
+	 * into a read-only buffer.
+	 */
+	public static ByteBuffer wrap(byte[] array, int offset, int length) {
+		checkBounds(offset, length, array.length);
+		ByteBuffer byteBuffer;
+		if (isTypedArray(array)) {
+			byteBuffer = new ByteBuffer(Lang.<Int8Array> any(array), 0, array.length, false);
+		} else {
+			byteBuffer = new ByteBuffer(Lang.<Int8Array> $insert("Int8Array.from(array)"), 0, array.length, true);
+		}
+		byteBuffer.limit(offset + length);
+		byteBuffer.position(offset);
+		return byteBuffer;
 	}
 
+	/**
+	 * Wraps the given memory without copying it.
+	 */
 	public static ByteBuffer wrap(ArrayBuffer array) {
-		return wrap(array, 0, array.byteLength);
+		return new ByteBuffer(array, false);
 	}
 
-	private static ByteBuffer wrap(ArrayBuffer array, int offset, double length) {
-		return new ByteBuffer(array.slice(offset, offset + length), false);
+	private static boolean isTypedArray(byte[] array) {
+		return Lang.<Boolean> $insert("ArrayBuffer.isView(array)");
+	}
+
+	private static void checkBounds(int offset, int length, int size) {
+		if ((offset | length | (offset + length) | (size - (offset + length))) < 0)
+			throw new IndexOutOfBoundsException();
 	}
 }
@@ -17,12 +17,19 @@ package java.util;
 
 import static def.js.Globals.undefined;
 import static java.util.ConcurrentModificationDetector.checkStructuralChange;
+import static java.util.ConcurrentModificationDetector.getStructure;
 import static java.util.ConcurrentModificationDetector.recordLastKnownStructure;
 import static java.util.ConcurrentModificationDetector.structureChanged;
 import static javaemul.internal.InternalPreconditions.checkArgument;
 import static javaemul.internal.InternalPreconditions.checkElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
 import javaemul.internal.JsUtils;
 import javaemul.internal.annotations.SpecializeMethod;
 
@@ -79,15 +86,23 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 */
 	private final class EntrySetIterator implements Iterator<Entry<K, V>> {
 		private Iterator<Entry<K, V>> stringMapEntries;
+		private Iterator<Entry<K, V>> numberMapEntries;
 		private Iterator<Entry<K, V>> current;
 		private Iterator<Entry<K, V>> last;
 		private boolean hasNext;
+		private final boolean failFast = isFailFast();
 
 		public EntrySetIterator() {
-			stringMapEntries = stringMap.iterator();
-			current = stringMapEntries;
+			if (compactMap != null) {
+				current = compactMap.iterator();
+			} else {
+				stringMapEntries = stringMap.iterator();
+				current = stringMapEntries;
+			}
 			hasNext = computeHasNext();
-			recordLastKnownStructure(AbstractHashMap.this, this);
+			if (failFast) {
+				recordLastKnownStructure(AbstractHashMap.this, this);
+			}
 		}
 
 		@Override
@@ -99,7 +114,14 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 			if (current.hasNext()) {
 				return true;
 			}
-			if (current != stringMapEntries) {
+			if (current == stringMapEntries) {
+				numberMapEntries = numberMap.iterator();
+				current = numberMapEntries;
+				if (current.hasNext()) {
+					return true;
+				}
+			}
+			if (current != numberMapEntries) {
 				return false;
 			}
 			current = hashCodeMap.iterator();
@@ -108,7 +130,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 
 		@Override
 		public Entry<K, V> next() {
-			checkStructuralChange(AbstractHashMap.this, this);
+			if (failFast) {
+				checkStructuralChange(AbstractHashMap.this, this);
+			}
 			checkElement(hasNext());
 
 			last = current;
@@ -121,26 +145,148 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 		@Override
 		public void remove() {
 			checkState(last != null);
-			checkStructuralChange(AbstractHashMap.this, this);
+			if (failFast) {
+				checkStructuralChange(AbstractHashMap.this, this);
+			}
 
 			last.remove();
 			last = null;
 			hasNext = computeHasNext();
 
-			recordLastKnownStructure(AbstractHashMap.this, this);
+			if (failFast) {
+				recordLastKnownStructure(AbstractHashMap.this, this);
+			}
+		}
+	}
+
+	private final class KeySet extends AbstractSet<K> {
+
+		@Override
+		public void clear() {
+			AbstractHashMap.this.clear();
+		}
+
+		@Override
+		public boolean contains(Object key) {
+			return containsKey(key);
+		}
+
+		@Override
+		public void forEach(Consumer<? super K> action) {
+			checkNotNull(action);
+			AbstractHashMap.this.forEach((key, value) -> action.accept(key));
+		}
+
+		@Override
+		public Iterator<K> iterator() {
+			final Iterator<Entry<K, V>> outerIter = entrySet().iterator();
+			return new Iterator<K>() {
+				@Override
+				public boolean hasNext() {
+					return outerIter.hasNext();
+				}
+
+				@Override
+				public K next() {
+					return outerIter.next().getKey();
+				}
+
+				@Override
+				public void remove() {
+					outerIter.remove();
+				}
+			};
+		}
+
+		@Override
+		public boolean remove(Object key) {
+			if (containsKey(key)) {
+				AbstractHashMap.this.remove(key);
+				return true;
+			}
+			return false;
+		}
+
+		@Override
+		public int size() {
+			return AbstractHashMap.this.size();
+		}
+	}
+
+	private final class Values extends AbstractCollection<V> {
+
+		@Override
+		public void clear() {
+			AbstractHashMap.this.clear();
+		}
+
+		@Override
+		public boolean contains(Object value) {
+			return containsValue(value);
+		}
+
+		@Override
+		public void forEach(Consumer<? super V> action) {
+			checkNotNull(action);
+			AbstractHashMap.this.forEach((key, value) -> action.accept(value));
+		}
+
+		@Override
+		public Iterator<V> iterator() {
+			final Iterator<Entry<K, V>> outerIter = entrySet().iterator();
+			return new Iterator<V>() {
+				@Override
+				public boolean hasNext() {
+					return outerIter.hasNext();
+				}
+
+				@Override
+				public V next() {
+					return outerIter.next().getValue();
+				}
+
+				@Override
+				public void remove() {
+					outerIter.remove();
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return AbstractHashMap.this.size();
 		}
 	}
 
 	/**
-	 * A map of integral hashCodes onto entries.
+	 * The entries while the map is small, or null once it has moved to the
+	 * hash tables below.
+	 */
+	private transient InternalCompactMap<K, V> compactMap;
+
+	/**
+	 * A map of numbers and booleans onto values; null while the map is compact.
+	 */
+	private transient InternalNumberMap<K, V> numberMap;
+
+	/**
+	 * A map of integral hashCodes onto entries; null while the map is compact.
 	 */
 	private transient InternalHashCodeMap<K, V> hashCodeMap;
 
 	/**
-	 * A map of Strings onto values.
+	 * A map of Strings onto values; null while the map is compact.
 	 */
 	private transient InternalStringMap<K, V> stringMap;
 
+	/**
+	 * The number of structural changes, maintained whatever the check level
+	 * (unlike the count of {@link ConcurrentModificationDetector}): the
+	 * compute operations compare it across their function to know whether the
+	 * slot they looked up is still valid.
+	 */
+	transient int structureChanges;
+
 	public AbstractHashMap() {
 		reset();
 	}
@@ -170,20 +316,48 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	}
 
 	private void reset() {
+		if (supportsCompactMode()) {
+			compactMap = new InternalCompactMap<K, V>(this);
+			hashCodeMap = null;
+			stringMap = null;
+			numberMap = null;
+		} else {
+			createHashTables();
+		}
+		structureChanges++;
+		structureChanged(this);
+	}
+
+	private void createHashTables() {
 		hashCodeMap = new InternalHashCodeMap<K, V>(this);
 		stringMap = new InternalStringMap<K, V>(this);
-		structureChanged(this);
+		numberMap = new InternalNumberMap<K, V>(this);
+	}
+
+	/**
+	 * Moves the entries of the compact map, which is full, to the hash tables.
+	 */
+	private void promote() {
+		InternalCompactMap<K, V> entries = compactMap;
+		compactMap = null;
+		createHashTables();
+		entries.forEach((key, value) -> putValue(key, value));
 	}
 
 	@SpecializeMethod(params = { String.class }, target = "hasStringValue")
 	@Override
 	public boolean containsKey(Object key) {
-		return key instanceof String ? hasStringValue(JsUtils.unsafeCastToString(key)) : hasHashValue(key);
+		return key instanceof String ? hasStringValue(JsUtils.unsafeCastToString(key))
+				: InternalNumberMap.accepts(key) ? hasNumberValue(key) : hasHashValue(key);
 	}
 
 	@Override
 	public boolean containsValue(Object value) {
-		return _containsValue(value, stringMap) || _containsValue(value, hashCodeMap);
+		if (compactMap != null) {
+			return _containsValue(value, compactMap);
+		}
+		return _containsValue(value, stringMap) || _containsValue(value, numberMap)
+				|| _containsValue(value, hashCodeMap);
 	}
 
 	private boolean _containsValue(Object value, Iterable<Entry<K, V>> entries) {
@@ -200,29 +374,177 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 		return new EntrySet();
 	}
 
+	/**
+	 * Walks the backing maps and chains in place: unlike an iteration over
+	 * {@link #entrySet()}, this allocates no entry. The walk stops at the first
+	 * structural change made by the action, which fails fast as an iterator
+	 * would; maps with weakly consistent iterators walk their entry set instead.
+	 */
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		checkNotNull(action);
+		if (!isFailFast()) {
+			super.forEach(action);
+			return;
+		}
+		int structure = getStructure(this);
+		int changes = structureChanges;
+		if (compactMap != null) {
+			compactMap.forEach(action);
+		} else {
+			stringMap.forEach(action);
+			if (structureChanges == changes) {
+				numberMap.forEach(action);
+			}
+			if (structureChanges == changes) {
+				hashCodeMap.forEach(action);
+			}
+		}
+		checkStructuralChange(this, structure);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		checkNotNull(function);
+		if (!isFailFast()) {
+			super.replaceAll(function);
+			return;
+		}
+		int structure = getStructure(this);
+		int changes = structureChanges;
+		if (compactMap != null) {
+			compactMap.replaceAll(function);
+		} else {
+			stringMap.replaceAll(function);
+			if (structureChanges == changes) {
+				numberMap.replaceAll(function);
+			}
+			if (structureChanges == changes) {
+				hashCodeMap.replaceAll(function);
+			}
+		}
+		checkStructuralChange(this, structure);
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return new KeySet();
+	}
+
+	@Override
+	public Collection<V> values() {
+		return new Values();
+	}
+
 	@SpecializeMethod(params = { String.class }, target = "getStringValue")
 	@Override
 	public V get(Object key) {
-		V v = key instanceof String ? getStringValue(JsUtils.unsafeCastToString(key)) : getHashValue(key);
+		V v = key instanceof String ? getStringValue(JsUtils.unsafeCastToString(key))
+				: InternalNumberMap.accepts(key) ? getNumberValue(key) : getHashValue(key);
 		return v == undefined ? null : v;
 	}
 
 	@SpecializeMethod(params = { String.class, Object.class }, target = "putStringValue")
 	@Override
 	public V put(K key, V value) {
-		return key instanceof String ? putStringValue(JsUtils.unsafeCastToString(key), value)
-				: putHashValue(key, value);
+		return putValue(key, value);
 	}
 
 	@SpecializeMethod(params = { String.class }, target = "removeStringValue")
 	@Override
 	public V remove(Object key) {
-		return key instanceof String ? removeStringValue(JsUtils.unsafeCastToString(key)) : removeHashValue(key);
+		return key instanceof String ? removeStringValue(JsUtils.unsafeCastToString(key))
+				: InternalNumberMap.accepts(key) ? removeNumberValue(key) : removeHashValue(key);
+	}
+
+	/*
+	 * The lookup-then-update operations below find the key's slot once and
+	 * update it in place, instead of going through the get/containsKey/put
+	 * calls of the Map defaults, which hash the key each time. Where the JDK
+	 * throws a ConcurrentModificationException when the function modifies the
+	 * map, these notice it from structureChanges and store the outcome through
+	 * put or remove instead, which look the key up again: a memoizing
+	 * computeIfAbsent may recurse into the map.
+	 */
+
+	@SpecializeMethod(params = { String.class, Object.class }, target = "getOrDefaultStringValue")
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		return key instanceof String ? getOrDefaultStringValue(JsUtils.unsafeCastToString(key), defaultValue)
+				: InternalNumberMap.accepts(key) ? getOrDefaultNumberValue(key, defaultValue)
+				: getOrDefaultHashValue(key, defaultValue);
+	}
+
+	@SpecializeMethod(params = { String.class, Object.class }, target = "putIfAbsentStringValue")
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return key instanceof String ? putIfAbsentStringValue(JsUtils.unsafeCastToString(key), value)
+				: InternalNumberMap.accepts(key) ? putIfAbsentNumberValue(key, value)
+				: putIfAbsentHashValue(key, value);
+	}
+
+	@SpecializeMethod(params = { String.class, Function.class }, target = "computeIfAbsentStringValue")
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		checkNotNull(mappingFunction);
+		return key instanceof String ? computeIfAbsentStringValue(JsUtils.unsafeCastToString(key), mappingFunction)
+				: InternalNumberMap.accepts(key) ? computeIfAbsentNumberValue(key, mappingFunction)
+				: computeIfAbsentHashValue(key, mappingFunction);
+	}
+
+	@SpecializeMethod(params = { String.class, BiFunction.class }, target = "computeIfPresentStringValue")
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		checkNotNull(remappingFunction);
+		return key instanceof String
+				? computeIfPresentStringValue(JsUtils.unsafeCastToString(key), remappingFunction)
+				: InternalNumberMap.accepts(key) ? computeIfPresentNumberValue(key, remappingFunction)
+				: computeIfPresentHashValue(key, remappingFunction);
+	}
+
+	@SpecializeMethod(params = { String.class, BiFunction.class }, target = "computeStringValue")
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		checkNotNull(remappingFunction);
+		return key instanceof String ? computeStringValue(JsUtils.unsafeCastToString(key), remappingFunction)
+				: InternalNumberMap.accepts(key) ? computeNumberValue(key, remappingFunction)
+				: computeHashValue(key, remappingFunction);
+	}
+
+	@SpecializeMethod(params = { String.class, Object.class, BiFunction.class }, target = "mergeStringValue")
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		checkNotNull(value);
+		checkNotNull(remappingFunction);
+		return key instanceof String ? mergeStringValue(JsUtils.unsafeCastToString(key), value, remappingFunction)
+				: InternalNumberMap.accepts(key) ? mergeNumberValue(key, value, remappingFunction)
+				: mergeHashValue(key, value, remappingFunction);
 	}
 
 	@Override
 	public int size() {
-		return hashCodeMap.size() + stringMap.getSize();
+		return compactMap != null ? compactMap.size()
+				: hashCodeMap.size() + stringMap.getSize() + numberMap.getSize();
+	}
+
+	/**
+	 * Returns whether iterators throw a
+	 * <code>ConcurrentModificationException</code> when the map is
+	 * structurally modified behind their back. Subclasses with weakly
+	 * consistent iterators override to return false.
+	 */
+	boolean isFailFast() {
+		return true;
+	}
+
+	/**
+	 * Returns whether the map keeps its first entries in an
+	 * {@link InternalCompactMap}, before it needs the hash tables. Subclasses
+	 * whose iterators must stay weakly consistent override to return false, as
+	 * removals shift the entries of the compact map.
+	 */
+	boolean supportsCompactMode() {
+		return true;
 	}
 
 	/**
@@ -243,6 +565,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * <code>null</code> if no such Map.Entry exists at the specified hashCode.
 	 */
 	private V getHashValue(Object key) {
+		if (compactMap != null) {
+			return getCompactValue(key);
+		}
 		return getEntryValueOrNull(hashCodeMap.getEntry(key));
 	}
 
@@ -251,6 +576,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * <code>null</code> if the specified key does not exist.
 	 */
 	private V getStringValue(String key) {
+		if (compactMap != null) {
+			return getCompactValue(key);
+		}
 		return key == null ? getHashValue(null) : stringMap.get(key);
 	}
 
@@ -260,6 +588,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * <code>hashCode</code>.
 	 */
 	private boolean hasHashValue(Object key) {
+		if (compactMap != null) {
+			return compactMap.indexOf(key) != -1;
+		}
 		return hashCodeMap.getEntry(key) != null;
 	}
 
@@ -267,6 +598,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * Returns true if the given key exists in the stringMap.
 	 */
 	private boolean hasStringValue(String key) {
+		if (compactMap != null) {
+			return compactMap.indexOf(key) != -1;
+		}
 		return key == null ? hasHashValue(null) : stringMap.contains(key);
 	}
 
@@ -276,6 +610,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * specified key did not exist.
 	 */
 	private V putHashValue(K key, V value) {
+		if (compactMap != null) {
+			return putCompactValue(key, value);
+		}
 		return hashCodeMap.put(key, value);
 	}
 
@@ -284,7 +621,11 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * the value previously at that key. Returns <code>null</code> if the
 	 * specified key did not exist.
 	 */
+	@SuppressWarnings("unchecked")
 	private V putStringValue(String key, V value) {
+		if (compactMap != null) {
+			return putCompactValue((K) key, value);
+		}
 		return key == null ? putHashValue(null, value) : stringMap.put(key, value);
 	}
 
@@ -295,6 +636,9 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * removed key, or null if no such key existed.
 	 */
 	private V removeHashValue(Object key) {
+		if (compactMap != null) {
+			return removeCompactValue(key);
+		}
 		return hashCodeMap.remove(key);
 	}
 
@@ -304,6 +648,491 @@ abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
 	 * not exist.
 	 */
 	private V removeStringValue(String key) {
+		if (compactMap != null) {
+			return removeCompactValue(key);
+		}
 		return key == null ? removeHashValue(null) : stringMap.remove(key);
 	}
+
+	private V getOrDefaultHashValue(Object key, V defaultValue) {
+		if (compactMap != null) {
+			return getOrDefaultCompactValue(key, defaultValue);
+		}
+		Entry<K, V> entry = hashCodeMap.getEntry(key);
+		return entry == null ? defaultValue : entry.getValue();
+	}
+
+	private V getOrDefaultStringValue(String key, V defaultValue) {
+		if (key == null) {
+			return getOrDefaultHashValue(null, defaultValue);
+		}
+		if (compactMap != null) {
+			return getOrDefaultCompactValue(key, defaultValue);
+		}
+		V value = stringMap.get(key);
+		return JsUtils.isUndefined(value) ? defaultValue : value;
+	}
+
+	private V putIfAbsentHashValue(K key, V value) {
+		if (compactMap != null) {
+			return putIfAbsentCompactValue(key, value);
+		}
+		int hashCode = hashCodeMap.hash(key);
+		Entry<K, V> entry = hashCodeMap.getEntry(key, hashCode);
+		if (entry == null) {
+			hashCodeMap.add(hashCode, key, value);
+			return null;
+		}
+		V current = entry.getValue();
+		if (current == null) {
+			entry.setValue(value);
+		}
+		return current;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V putIfAbsentStringValue(String key, V value) {
+		if (key == null) {
+			return putIfAbsentHashValue(null, value);
+		}
+		if (compactMap != null) {
+			return putIfAbsentCompactValue((K) key, value);
+		}
+		V current = stringMap.get(key);
+		if (JsUtils.isUndefined(current)) {
+			stringMap.add(key, value);
+			return null;
+		}
+		if (current == null) {
+			stringMap.replace(key, value);
+		}
+		return current;
+	}
+
+	private V computeIfAbsentHashValue(K key, Function<? super K, ? extends V> mappingFunction) {
+		if (compactMap != null) {
+			return computeIfAbsentCompactValue(key, mappingFunction);
+		}
+		int hashCode = hashCodeMap.hash(key);
+		Entry<K, V> entry = hashCodeMap.getEntry(key, hashCode);
+		V value = getEntryValueOrNull(entry);
+		if (value == null) {
+			int changes = structureChanges;
+			value = mappingFunction.apply(key);
+			if (value != null) {
+				if (structureChanges != changes) {
+					put(key, value);
+				} else if (entry == null) {
+					hashCodeMap.add(hashCode, key, value);
+				} else {
+					entry.setValue(value);
+				}
+			}
+		}
+		return value;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V computeIfAbsentStringValue(String key, Function<? super K, ? extends V> mappingFunction) {
+		if (key == null) {
+			return computeIfAbsentHashValue(null, mappingFunction);
+		}
+		if (compactMap != null) {
+			return computeIfAbsentCompactValue((K) key, mappingFunction);
+		}
+		V current = stringMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		if (present && current != null) {
+			return current;
+		}
+		int changes = structureChanges;
+		V value = mappingFunction.apply((K) key);
+		if (value != null) {
+			if (structureChanges != changes) {
+				put((K) key, value);
+			} else if (!present) {
+				stringMap.add(key, value);
+			} else {
+				stringMap.replace(key, value);
+			}
+		}
+		return value;
+	}
+
+	private V computeIfPresentHashValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return computeIfPresentCompactValue(key, remappingFunction);
+		}
+		int hashCode = hashCodeMap.hash(key);
+		Entry<K, V> entry = hashCodeMap.getEntry(key, hashCode);
+		V current = getEntryValueOrNull(entry);
+		if (current == null) {
+			return null;
+		}
+		int changes = structureChanges;
+		return updateHashValue(changes, hashCode, key, entry, remappingFunction.apply(key, current));
+	}
+
+	@SuppressWarnings("unchecked")
+	private V computeIfPresentStringValue(String key,
+			BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null) {
+			return computeIfPresentHashValue(null, remappingFunction);
+		}
+		if (compactMap != null) {
+			return computeIfPresentCompactValue((K) key, remappingFunction);
+		}
+		V current = stringMap.get(key);
+		if (JsUtils.isUndefined(current) || current == null) {
+			return null;
+		}
+		int changes = structureChanges;
+		return updateStringValue(changes, key, true, remappingFunction.apply((K) key, current));
+	}
+
+	private V computeHashValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return computeCompactValue(key, remappingFunction);
+		}
+		int hashCode = hashCodeMap.hash(key);
+		Entry<K, V> entry = hashCodeMap.getEntry(key, hashCode);
+		int changes = structureChanges;
+		return updateHashValue(changes, hashCode, key, entry, remappingFunction.apply(key, getEntryValueOrNull(entry)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private V computeStringValue(String key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null) {
+			return computeHashValue(null, remappingFunction);
+		}
+		if (compactMap != null) {
+			return computeCompactValue((K) key, remappingFunction);
+		}
+		V current = stringMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		int changes = structureChanges;
+		return updateStringValue(changes, key, present, remappingFunction.apply((K) key, present ? current : null));
+	}
+
+	private V mergeHashValue(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return mergeCompactValue(key, value, remappingFunction);
+		}
+		int hashCode = hashCodeMap.hash(key);
+		Entry<K, V> entry = hashCodeMap.getEntry(key, hashCode);
+		V current = getEntryValueOrNull(entry);
+		int changes = structureChanges;
+		return updateHashValue(changes, hashCode, key, entry,
+				current == null ? value : remappingFunction.apply(current, value));
+	}
+
+	@SuppressWarnings("unchecked")
+	private V mergeStringValue(String key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (key == null) {
+			return mergeHashValue(null, value, remappingFunction);
+		}
+		if (compactMap != null) {
+			return mergeCompactValue((K) key, value, remappingFunction);
+		}
+		V current = stringMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		int changes = structureChanges;
+		return updateStringValue(changes, key, present,
+				!present || current == null ? value : remappingFunction.apply(current, value));
+	}
+
+	/**
+	 * Stores the outcome of a remapping in the hashCodeMap: the entry found by
+	 * the lookup, if any, is updated or removed in place, unless the structure
+	 * changed since <code>changes</code>. Returns the new value.
+	 */
+	private V updateHashValue(int changes, int hashCode, K key, Entry<K, V> entry, V value) {
+		if (structureChanges != changes) {
+			return updateValue(key, value);
+		}
+		if (value == null) {
+			if (entry != null) {
+				hashCodeMap.removeEntry(hashCode, entry);
+			}
+		} else if (entry == null) {
+			hashCodeMap.add(hashCode, key, value);
+		} else {
+			entry.setValue(value);
+		}
+		return value;
+	}
+
+	/**
+	 * Stores the outcome of a remapping in the stringMap, given whether the
+	 * lookup found the key there, unless the structure changed since
+	 * <code>changes</code>. Returns the new value.
+	 */
+	@SuppressWarnings("unchecked")
+	private V updateStringValue(int changes, String key, boolean present, V value) {
+		if (structureChanges != changes) {
+			return updateValue((K) key, value);
+		}
+		if (value == null) {
+			if (present) {
+				stringMap.remove(key);
+			}
+		} else if (!present) {
+			stringMap.add(key, value);
+		} else {
+			stringMap.replace(key, value);
+		}
+		return value;
+	}
+
+	/*
+	 * The number counterparts of the String operations above.
+	 */
+
+	private V getNumberValue(Object key) {
+		return compactMap != null ? getCompactValue(key) : numberMap.get(key);
+	}
+
+	private boolean hasNumberValue(Object key) {
+		return compactMap != null ? compactMap.indexOf(key) != -1 : numberMap.contains(key);
+	}
+
+	private V putNumberValue(K key, V value) {
+		return compactMap != null ? putCompactValue(key, value) : numberMap.put(key, value);
+	}
+
+	private V removeNumberValue(Object key) {
+		return compactMap != null ? removeCompactValue(key) : numberMap.remove(key);
+	}
+
+	private V getOrDefaultNumberValue(Object key, V defaultValue) {
+		if (compactMap != null) {
+			return getOrDefaultCompactValue(key, defaultValue);
+		}
+		V value = numberMap.get(key);
+		return JsUtils.isUndefined(value) ? defaultValue : value;
+	}
+
+	private V putIfAbsentNumberValue(K key, V value) {
+		if (compactMap != null) {
+			return putIfAbsentCompactValue(key, value);
+		}
+		V current = numberMap.get(key);
+		if (JsUtils.isUndefined(current)) {
+			numberMap.add(key, value);
+			return null;
+		}
+		if (current == null) {
+			numberMap.replace(key, value);
+		}
+		return current;
+	}
+
+	private V computeIfAbsentNumberValue(K key, Function<? super K, ? extends V> mappingFunction) {
+		if (compactMap != null) {
+			return computeIfAbsentCompactValue(key, mappingFunction);
+		}
+		V current = numberMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		if (present && current != null) {
+			return current;
+		}
+		int changes = structureChanges;
+		V value = mappingFunction.apply(key);
+		if (value != null) {
+			if (structureChanges != changes) {
+				put(key, value);
+			} else if (!present) {
+				numberMap.add(key, value);
+			} else {
+				numberMap.replace(key, value);
+			}
+		}
+		return value;
+	}
+
+	private V computeIfPresentNumberValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return computeIfPresentCompactValue(key, remappingFunction);
+		}
+		V current = numberMap.get(key);
+		if (JsUtils.isUndefined(current) || current == null) {
+			return null;
+		}
+		int changes = structureChanges;
+		return updateNumberValue(changes, key, true, remappingFunction.apply(key, current));
+	}
+
+	private V computeNumberValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return computeCompactValue(key, remappingFunction);
+		}
+		V current = numberMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		int changes = structureChanges;
+		return updateNumberValue(changes, key, present, remappingFunction.apply(key, present ? current : null));
+	}
+
+	private V mergeNumberValue(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (compactMap != null) {
+			return mergeCompactValue(key, value, remappingFunction);
+		}
+		V current = numberMap.get(key);
+		boolean present = !JsUtils.isUndefined(current);
+		int changes = structureChanges;
+		return updateNumberValue(changes, key, present,
+				!present || current == null ? value : remappingFunction.apply(current, value));
+	}
+
+	private V updateNumberValue(int changes, K key, boolean present, V value) {
+		if (structureChanges != changes) {
+			return updateValue(key, value);
+		}
+		if (value == null) {
+			if (present) {
+				numberMap.remove(key);
+			}
+		} else if (!present) {
+			numberMap.add(key, value);
+		} else {
+			numberMap.replace(key, value);
+		}
+		return value;
+	}
+
+	/**
+	 * Stores the outcome of a remapping whose function changed the structure
+	 * of the map, through the public put and remove. Returns the new value.
+	 */
+	private V updateValue(K key, V value) {
+		if (value == null) {
+			remove(key);
+		} else {
+			put(key, value);
+		}
+		return value;
+	}
+
+	private V putValue(K key, V value) {
+		return key instanceof String ? putStringValue(JsUtils.unsafeCastToString(key), value)
+				: InternalNumberMap.accepts(key) ? putNumberValue(key, value) : putHashValue(key, value);
+	}
+
+	/*
+	 * The compact counterparts of the operations above, used while the map is
+	 * small. A key that is not in the compact map yet goes through
+	 * addCompactValue, which moves the map to the hash tables when the compact
+	 * map is full.
+	 */
+
+	private V getCompactValue(Object key) {
+		int index = compactMap.indexOf(key);
+		return index == -1 ? null : compactMap.valueAt(index);
+	}
+
+	private V putCompactValue(K key, V value) {
+		int index = compactMap.indexOf(key);
+		if (index == -1) {
+			addCompactValue(key, value);
+			return null;
+		}
+		return compactMap.setValueAt(index, value);
+	}
+
+	private V removeCompactValue(Object key) {
+		int index = compactMap.indexOf(key);
+		return index == -1 ? null : compactMap.removeAt(index);
+	}
+
+	private V getOrDefaultCompactValue(Object key, V defaultValue) {
+		int index = compactMap.indexOf(key);
+		return index == -1 ? defaultValue : compactMap.valueAt(index);
+	}
+
+	private V putIfAbsentCompactValue(K key, V value) {
+		int index = compactMap.indexOf(key);
+		if (index == -1) {
+			addCompactValue(key, value);
+			return null;
+		}
+		V current = compactMap.valueAt(index);
+		if (current == null) {
+			compactMap.setValueAt(index, value);
+		}
+		return current;
+	}
+
+	private V computeIfAbsentCompactValue(K key, Function<? super K, ? extends V> mappingFunction) {
+		int index = compactMap.indexOf(key);
+		V value = index == -1 ? null : compactMap.valueAt(index);
+		if (value == null) {
+			int changes = structureChanges;
+			value = mappingFunction.apply(key);
+			if (value != null) {
+				if (structureChanges != changes) {
+					put(key, value);
+				} else if (index == -1) {
+					addCompactValue(key, value);
+				} else {
+					compactMap.setValueAt(index, value);
+				}
+			}
+		}
+		return value;
+	}
+
+	private V computeIfPresentCompactValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		int index = compactMap.indexOf(key);
+		V current = index == -1 ? null : compactMap.valueAt(index);
+		if (current == null) {
+			return null;
+		}
+		int changes = structureChanges;
+		return updateCompactValue(changes, index, key, remappingFunction.apply(key, current));
+	}
+
+	private V computeCompactValue(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		int index = compactMap.indexOf(key);
+		V current = index == -1 ? null : compactMap.valueAt(index);
+		int changes = structureChanges;
+		return updateCompactValue(changes, index, key, remappingFunction.apply(key, current));
+	}
+
+	private V mergeCompactValue(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		int index = compactMap.indexOf(key);
+		V current = index == -1 ? null : compactMap.valueAt(index);
+		int changes = structureChanges;
+		return updateCompactValue(changes, index, key,
+				current == null ? value : remappingFunction.apply(current, value));
+	}
+
+	/**
+	 * Stores the outcome of a remapping in the compactMap, given the index
+	 * found by the lookup, unless the structure changed since
+	 * <code>changes</code>: the function may have shifted the entries or
+	 * moved them to the hash tables. Returns the new value.
+	 */
+	private V updateCompactValue(int changes, int index, K key, V value) {
+		if (structureChanges != changes) {
+			return updateValue(key, value);
+		}
+		if (value == null) {
+			if (index != -1) {
+				compactMap.removeAt(index);
+			}
+		} else if (index == -1) {
+			addCompactValue(key, value);
+		} else {
+			compactMap.setValueAt(index, value);
+		}
+		return value;
+	}
+
+	private void addCompactValue(K key, V value) {
+		if (compactMap.isFull()) {
+			promote();
+			putValue(key, value);
+		} else {
+			compactMap.add(key, value);
+		}
+	}
 }
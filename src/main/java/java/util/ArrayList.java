@@ -230,6 +230,14 @@ public class ArrayList<E> extends AbstractList<E> implements List<E>,
     return out;
   }
 
+  /*
+   * Sorts the backing array in place, rather than a copy of it.
+   */
+  @Override
+  public void sort(Comparator<? super E> c) {
+    Arrays.sortObjects(array, 0, array.length, c);
+  }
+
   public void trimToSize() {
     // We are always trimmed to size.
   }
@@ -31,6 +31,7 @@ import java.util.stream.Stream;
 
 import def.js.Array;
 import javaemul.internal.ArrayHelper;
+import javaemul.internal.JsUtils;
 import javaemul.internal.LongCompareHolder;
 
 /**
@@ -457,7 +458,7 @@ public class Arrays {
 
   public static byte[] copyOfRange(byte[] original, int from, int to) {
     int len = getCopyLength(original, from, to);
-    byte[] copy = new byte[to - from];
+    byte[] copy = ArrayHelper.newByteArray(to - from);
     ArrayHelper.copy(original, from, copy, 0, len);
     return copy;
   }
@@ -471,21 +472,21 @@ public class Arrays {
 
   public static double[] copyOfRange(double[] original, int from, int to) {
     int len = getCopyLength(original, from, to);
-    double[] copy = new double[to - from];
+    double[] copy = ArrayHelper.newDoubleArray(to - from);
     ArrayHelper.copy(original, from, copy, 0, len);
     return copy;
   }
 
   public static float[] copyOfRange(float[] original, int from, int to) {
     int len = getCopyLength(original, from, to);
-    float[] copy = new float[to - from];
+    float[] copy = ArrayHelper.newFloatArray(to - from);
     ArrayHelper.copy(original, from, copy, 0, len);
     return copy;
   }
 
   public static int[] copyOfRange(int[] original, int from, int to) {
     int len = getCopyLength(original, from, to);
-    int[] copy = new int[to - from];
+    int[] copy = ArrayHelper.newIntArray(to - from);
     ArrayHelper.copy(original, from, copy, 0, len);
     return copy;
   }
@@ -499,7 +500,7 @@ public class Arrays {
 
   public static short[] copyOfRange(short[] original, int from, int to) {
     int len = getCopyLength(original, from, to);
-    short[] copy = new short[to - from];
+    short[] copy = ArrayHelper.newShortArray(to - from);
     ArrayHelper.copy(original, from, copy, 0, len);
     return copy;
   }
@@ -791,6 +792,10 @@ public class Arrays {
   }
 
   public static void fill(byte[] a, int fromIndex, int toIndex, byte val) {
+    if (ArrayHelper.isTypedArray(a)) {
+      ArrayHelper.fillTypedArray(a, fromIndex, toIndex, val);
+      return;
+    }
     for (int i = fromIndex; i < toIndex; ++i) {
       a[i] = val;
     }
@@ -811,6 +816,10 @@ public class Arrays {
   }
 
   public static void fill(double[] a, int fromIndex, int toIndex, double val) {
+    if (ArrayHelper.isTypedArray(a)) {
+      ArrayHelper.fillTypedArray(a, fromIndex, toIndex, val);
+      return;
+    }
     for (int i = fromIndex; i < toIndex; ++i) {
       a[i] = val;
     }
@@ -821,6 +830,10 @@ public class Arrays {
   }
 
   public static void fill(float[] a, int fromIndex, int toIndex, float val) {
+    if (ArrayHelper.isTypedArray(a)) {
+      ArrayHelper.fillTypedArray(a, fromIndex, toIndex, val);
+      return;
+    }
     for (int i = fromIndex; i < toIndex; ++i) {
       a[i] = val;
     }
@@ -831,6 +844,10 @@ public class Arrays {
   }
 
   public static void fill(int[] a, int fromIndex, int toIndex, int val) {
+    if (ArrayHelper.isTypedArray(a)) {
+      ArrayHelper.fillTypedArray(a, fromIndex, toIndex, val);
+      return;
+    }
     for (int i = fromIndex; i < toIndex; ++i) {
       a[i] = val;
     }
@@ -857,6 +874,10 @@ public class Arrays {
   }
 
   public static void fill(short[] a, int fromIndex, int toIndex, short val) {
+    if (ArrayHelper.isTypedArray(a)) {
+      ArrayHelper.fillTypedArray(a, fromIndex, toIndex, val);
+      return;
+    }
     for (int i = fromIndex; i < toIndex; ++i) {
       a[i] = val;
     }
@@ -1029,11 +1050,12 @@ public class Arrays {
   }
 
   public static void sort(Object[] array) {
-    mergeSort(array, 0, array.length, Comparators.natural());
+    sortObjects(array, 0, array.length, null);
   }
 
   public static void sort(Object[] x, int fromIndex, int toIndex) {
-    mergeSort(x, fromIndex, toIndex, Comparators.natural());
+    checkPositionIndexes(fromIndex, toIndex, x.length);
+    sortObjects(x, fromIndex, toIndex, null);
   }
 
   public static void sort(short[] array) {
@@ -1046,13 +1068,13 @@ public class Arrays {
   }
 
   public static <T> void sort(T[] x, Comparator<? super T> c) {
-    mergeSort(x, 0, x.length, c);
+    sortObjects(x, 0, x.length, c);
   }
 
   public static <T> void sort(T[] x, int fromIndex, int toIndex,
       Comparator<? super T> c) {
     checkPositionIndexes(fromIndex, toIndex, x.length);
-    mergeSort(x, fromIndex, toIndex, c);
+    sortObjects(x, fromIndex, toIndex, c);
   }
 
   public static String toString(boolean[] a) {
@@ -1209,109 +1231,55 @@ public class Arrays {
   }
 
   /**
-   * Sort a small subsection of an array by insertion sort.
-   *
-   * @param array array to sort
-   * @param low lower bound of range to sort
-   * @param high upper bound of range to sort
-   * @param comp comparator to use
-   */
-  private static void insertionSort(Object[] array, int low, int high,
-      Comparator<Object> comp) {
-    for (int i = low + 1; i < high; ++i) {
-      for (int j = i; j > low && comp.compare(array[j - 1], array[j]) > 0; --j) {
-        Object t = array[j];
-        array[j] = array[j - 1];
-        array[j - 1] = t;
-      }
-    }
-  }
-
-  /**
-   * Merge the two sorted subarrays (srcLow,srcMid] and (srcMid,srcHigh] into
-   * dest.
-   *
-   * @param src source array for merge
-   * @param srcLow lower bound of bottom sorted half
-   * @param srcMid upper bound of bottom sorted half & lower bound of top sorted
-   *          half
-   * @param srcHigh upper bound of top sorted half
-   * @param dest destination array for merge
-   * @param destLow lower bound of destination
-   * @param destHigh upper bound of destination
-   * @param comp comparator to use
-   */
-  private static void merge(Object[] src, int srcLow, int srcMid, int srcHigh,
-      Object[] dest, int destLow, int destHigh, Comparator<Object> comp) {
-    // can't destroy srcMid because we need it as a bound on the lower half
-    int topIdx = srcMid;
-    while (destLow < destHigh) {
-      if (topIdx >= srcHigh
-          || (srcLow < srcMid && comp.compare(src[srcLow], src[topIdx]) <= 0)) {
-        dest[destLow++] = src[srcLow++];
-      } else {
-        dest[destLow++] = src[topIdx++];
-      }
-    }
-  }
-
-  /**
-   * Performs a merge sort on the specified portion of an object array.
-   *
-   * Uses O(n) temporary space to perform the merge, but is stable.
+   * Performs a stable sort on the specified portion of an object array.
+   * <p>
+   * Under natural ordering, a range of only strings, or of only numbers, goes
+   * to the native sort, with no comparator calls through Java; other ranges
+   * go to {@link TimSort}.
    */
   @SuppressWarnings("unchecked")
-  private static void mergeSort(Object[] x, int fromIndex, int toIndex, Comparator<?> comp) {
-    if (comp == null) {
+  static void sortObjects(Object[] x, int fromIndex, int toIndex, Comparator<?> comp) {
+    if (comp == null || comp == Comparators.natural()) {
+      if (nativeObjectSort(x, fromIndex, toIndex)) {
+        return;
+      }
       comp = Comparators.natural();
     }
-    Object[] temp = copyOfRange(x, fromIndex, toIndex);
-    mergeSort(temp, x, fromIndex, toIndex, -fromIndex,
-        (Comparator<Object>) comp);
+    TimSort.sort(x, fromIndex, toIndex, (Comparator<Object>) comp);
   }
 
   /**
-   * Recursive helper function for
-   * {@link Arrays#mergeSort(Object[], int, int, Comparator)}.
-   *
-   * @param temp temporary space, as large as the range of elements being
-   *          sorted. On entry, temp should contain a copy of the sort range
-   *          from array.
-   * @param array array to sort
-   * @param low lower bound of range to sort
-   * @param high upper bound of range to sort
-   * @param ofs offset to convert an array index into a temp index
-   * @param comp comparison function
+   * Sorts a range of strings by their UTF-16 code units, or a range of numbers
+   * as {@link Double#compare} does, with the native sort; returns false, and
+   * leaves the array alone, if the range holds anything else. Equal strings
+   * or numbers cannot be told apart, so stability does not matter here.
    */
-  private static void mergeSort(Object[] temp, Object[] array, int low,
-      int high, int ofs, Comparator<Object> comp) {
-    int length = high - low;
-
-    // insertion sort for small arrays
-    if (length < 7) {
-      insertionSort(array, low, high, comp);
-      return;
+  private static boolean nativeObjectSort(Object[] array, int fromIndex, int toIndex) {
+    if (toIndex - fromIndex < 2) {
+      return true;
     }
-
-    // recursively sort both halves, using the array as temp space
-    int tempLow = low + ofs;
-    int tempHigh = high + ofs;
-    int tempMid = tempLow + ((tempHigh - tempLow) >> 1);
-    mergeSort(array, temp, tempLow, tempMid, -ofs, comp);
-    mergeSort(array, temp, tempMid, tempHigh, -ofs, comp);
-
-    // Skip merge if already in order - just copy from temp
-    if (comp.compare(temp[tempMid - 1], temp[tempMid]) <= 0) {
-      // TODO(jat): use System.arraycopy when that is implemented and more
-      // efficient than this
-      while (low < high) {
-        array[low++] = temp[tempLow++];
+    String type = JsUtils.typeOf(array[fromIndex]);
+    if (!"string".equals(type) && !"number".equals(type)) {
+      return false;
+    }
+    for (int i = fromIndex + 1; i < toIndex; i++) {
+      if (!type.equals(JsUtils.typeOf(array[i]))) {
+        return false;
       }
-      return;
     }
-
-    // merge sorted halves
-    merge(temp, tempLow, tempMid, tempHigh, array, low, high, comp);
+    Object range = fromIndex == 0 && toIndex == array.length ? array
+        : ArrayHelper.unsafeClone(array, fromIndex, toIndex);
+    if ("string".equals(type)) {
+      $insert("range.sort()");
+    } else {
+      $insert("range.sort(function(a, b) { return a < b ? -1 : a > b ? 1 : a === b"
+          + " ? (a !== 0 ? 0 : 1 / a < 1 / b ? -1 : 1 / a > 1 / b ? 1 : 0)"
+          + " : a === a ? -1 : b === b ? 1 : 0; })");
+    }
+    if (range != array) {
+      ArrayHelper.copy(range, 0, array, fromIndex, toIndex - fromIndex);
+    }
+    return true;
   }
 
   /**
@@ -1334,6 +1302,10 @@ public class Arrays {
    * Sort an entire array of number primitives.
    */
   private static void nativeNumberSort(Object array) {
+    if (ArrayHelper.isTypedArray(array)) {
+      ArrayHelper.sortTypedArray(array, 0, ArrayHelper.getLength(array));
+      return;
+    }
     $insert("array.sort(function(a, b) { return a - b; })");
   };
 
@@ -1341,6 +1313,10 @@ public class Arrays {
    * Sort a subset of an array of number primitives.
    */
   private static void nativeNumberSort(Object array, int fromIndex, int toIndex) {
+    if (ArrayHelper.isTypedArray(array)) {
+      ArrayHelper.sortTypedArray(array, fromIndex, toIndex);
+      return;
+    }
     Object temp = ArrayHelper.unsafeClone(array, fromIndex, toIndex);
     nativeNumberSort(temp);
     ArrayHelper.copy(temp, 0, array, fromIndex, toIndex - fromIndex);
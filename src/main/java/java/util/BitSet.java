@@ -1,58 +1,182 @@
 /*
  * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
- * 
+ *
  * Apache 2 license.
  */
 
 package java.util;
 
-import static jsweet.util.Lang.$loose;
-import static jsweet.util.Lang.array;
+import static javaemul.internal.Coercions.ensureInt;
+import static jsweet.util.Lang.any;
 
-import def.js.Array;
+import java.util.stream.IntStream;
+
+import def.js.Int32Array;
+import javaemul.internal.stream.IntStreamHelper;
 
 /**
- * Incomplete and naive implementation of the BitSet utility (mainly for
- * compatibility/compilation purpose).
- * 
+ * Implementation of the BitSet utility, packing the bits in 32-bit words held
+ * by an <code>Int32Array</code> that grows on demand. Bulk operations work a
+ * word at a time.
+ *
  * @author Renaud Pawlak
  */
 @SuppressWarnings("serial")
 public class BitSet implements Cloneable, java.io.Serializable {
 
-	private Boolean[] bits = {};
+	private static final int ADDRESS_BITS_PER_WORD = 5;
+	private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+	private static final int WORD_MASK = 0xffffffff;
+
+	/**
+	 * The words, actually an <code>Int32Array</code> so that each word is stored
+	 * unboxed on 32 bits.
+	 */
+	private int[] words;
+
+	/**
+	 * The number of words in the logical size of this set (index of the highest
+	 * non-zero word + 1).
+	 */
+	private int wordsInUse = 0;
 
 	public BitSet() {
+		words = newWords(1);
 	}
 
 	public BitSet(int nbits) {
-		while (nbits > 0) {
-			array(bits).push(false);
-			nbits--;
+		if (nbits < 0) {
+			throw new NegativeArraySizeException("nbits < 0: " + nbits);
+		}
+		words = newWords(wordIndex(nbits - 1) + 1);
+	}
+
+	private static BitSet fromWords(int[] words) {
+		BitSet bs = new BitSet(0);
+		bs.words = words;
+		bs.wordsInUse = words.length;
+		bs.recalculateWordsInUse();
+		return bs;
+	}
+
+	private static int[] newWords(int length) {
+		return any(new Int32Array(length));
+	}
+
+	private static Int32Array typed(int[] words) {
+		return any(words);
+	}
+
+	private static int wordIndex(int bitIndex) {
+		return bitIndex >> ADDRESS_BITS_PER_WORD;
+	}
+
+	private static void checkIndex(int bitIndex) {
+		if (bitIndex < 0) {
+			throw new IndexOutOfBoundsException("bitIndex < 0: " + bitIndex);
+		}
+	}
+
+	private static void checkRange(int fromIndex, int toIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+		}
+		if (toIndex < 0) {
+			throw new IndexOutOfBoundsException("toIndex < 0: " + toIndex);
+		}
+		if (fromIndex > toIndex) {
+			throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + " > toIndex: " + toIndex);
+		}
+	}
+
+	private void recalculateWordsInUse() {
+		int i;
+		for (i = wordsInUse - 1; i >= 0; i--) {
+			if (words[i] != 0) {
+				break;
+			}
+		}
+		wordsInUse = i + 1;
+	}
+
+	private void ensureCapacity(int wordsRequired) {
+		if (words.length < wordsRequired) {
+			Int32Array grown = new Int32Array(Math.max(2 * words.length, wordsRequired));
+			grown.set(typed(words));
+			words = any(grown);
+		}
+	}
+
+	private void expandTo(int wordIndex) {
+		int wordsRequired = wordIndex + 1;
+		if (wordsInUse < wordsRequired) {
+			ensureCapacity(wordsRequired);
+			wordsInUse = wordsRequired;
 		}
 	}
 
 	public static BitSet valueOf(long[] longs) {
-		BitSet bs = new BitSet();
-		bs.bits = array(new Array<Boolean>(longs.length * 64));
-		for (int n = 0; n < longs.length * 64; n++) {
-			bs.bits[n] = ((longs[n / 64] & (1L << (n % 64))) != 0);
+		int n = longs.length;
+		while (n > 0 && longs[n - 1] == 0) {
+			n--;
 		}
-		return bs;
+		int[] words = newWords(Math.max(1, 2 * n));
+		for (int i = 0; i < n; i++) {
+			// longs are plain numbers in JS, so take the high word arithmetically
+			// rather than with a 64-bit shift
+			int low = (int) longs[i];
+			words[2 * i] = low;
+			words[2 * i + 1] = (int) ((longs[i] - (low < 0 ? low + 4294967296L : low)) / 4294967296L);
+		}
+		return fromWords(words);
+	}
+
+	public long[] toLongArray() {
+		long[] longs = new long[(wordsInUse + 1) / 2];
+		for (int i = 0; i < longs.length; i++) {
+			int low = words[2 * i];
+			int high = 2 * i + 1 < wordsInUse ? words[2 * i + 1] : 0;
+			longs[i] = high * 4294967296L + (low < 0 ? low + 4294967296L : low);
+		}
+		return longs;
 	}
 
 	public void flip(int bitIndex) {
-		bits[bitIndex] = !bits[bitIndex];
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		expandTo(wordIndex);
+		words[wordIndex] ^= (1 << bitIndex);
+		recalculateWordsInUse();
 	}
 
 	public void flip(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			flip(i);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		expandTo(endWordIndex);
+
+		int firstWordMask = WORD_MASK << fromIndex;
+		int lastWordMask = WORD_MASK >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] ^= (firstWordMask & lastWordMask);
+		} else {
+			words[startWordIndex] ^= firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] ^= WORD_MASK;
+			}
+			words[endWordIndex] ^= lastWordMask;
 		}
+		recalculateWordsInUse();
 	}
 
 	public void set(int bitIndex) {
-		bits[bitIndex] = true;
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		expandTo(wordIndex);
+		words[wordIndex] |= (1 << bitIndex);
 	}
 
 	public void set(int bitIndex, boolean value) {
@@ -64,8 +188,24 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public void set(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			set(i);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		int endWordIndex = wordIndex(toIndex - 1);
+		expandTo(endWordIndex);
+
+		int firstWordMask = WORD_MASK << fromIndex;
+		int lastWordMask = WORD_MASK >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] |= (firstWordMask & lastWordMask);
+		} else {
+			words[startWordIndex] |= firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] = WORD_MASK;
+			}
+			words[endWordIndex] |= lastWordMask;
 		}
 	}
 
@@ -78,73 +218,270 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public void clear(int bitIndex) {
-		bits[bitIndex] = false;
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		if (wordIndex >= wordsInUse) {
+			return;
+		}
+		words[wordIndex] &= ~(1 << bitIndex);
+		recalculateWordsInUse();
 	}
 
 	public void clear(int fromIndex, int toIndex) {
-		for (int i = fromIndex; i <= toIndex; i++) {
-			clear(i);
+		checkRange(fromIndex, toIndex);
+		if (fromIndex == toIndex) {
+			return;
+		}
+		int startWordIndex = wordIndex(fromIndex);
+		if (startWordIndex >= wordsInUse) {
+			return;
+		}
+		int endWordIndex = wordIndex(toIndex - 1);
+		if (endWordIndex >= wordsInUse) {
+			toIndex = length();
+			endWordIndex = wordsInUse - 1;
+		}
+
+		int firstWordMask = WORD_MASK << fromIndex;
+		int lastWordMask = WORD_MASK >>> -toIndex;
+		if (startWordIndex == endWordIndex) {
+			words[startWordIndex] &= ~(firstWordMask & lastWordMask);
+		} else {
+			words[startWordIndex] &= ~firstWordMask;
+			for (int i = startWordIndex + 1; i < endWordIndex; i++) {
+				words[i] = 0;
+			}
+			words[endWordIndex] &= ~lastWordMask;
 		}
+		recalculateWordsInUse();
 	}
 
 	public void clear() {
-		bits = new Boolean[0];
+		while (wordsInUse > 0) {
+			words[--wordsInUse] = 0;
+		}
 	}
 
 	public boolean get(int bitIndex) {
-		return bits[bitIndex];
+		checkIndex(bitIndex);
+		int wordIndex = wordIndex(bitIndex);
+		return wordIndex < wordsInUse && (words[wordIndex] & (1 << bitIndex)) != 0;
 	}
 
 	public BitSet get(int fromIndex, int toIndex) {
-		BitSet bs = new BitSet();
-		for (int i = fromIndex; i <= toIndex; i++) {
-			array(bs.bits).push(bits[i]);
+		checkRange(fromIndex, toIndex);
+		int len = length();
+		if (len <= fromIndex || fromIndex == toIndex) {
+			return new BitSet(0);
+		}
+		if (toIndex > len) {
+			toIndex = len;
+		}
+
+		int targetWords = wordIndex(toIndex - fromIndex - 1) + 1;
+		int sourceIndex = wordIndex(fromIndex);
+		int shift = fromIndex & (BITS_PER_WORD - 1);
+		int[] result = newWords(targetWords);
+		for (int i = 0; i < targetWords; i++, sourceIndex++) {
+			int word = words[sourceIndex] >>> shift;
+			if (shift != 0 && sourceIndex + 1 < wordsInUse) {
+				word |= words[sourceIndex + 1] << (BITS_PER_WORD - shift);
+			}
+			result[i] = word;
+		}
+		// drop the bits above toIndex in the last word
+		result[targetWords - 1] &= WORD_MASK >>> (fromIndex - toIndex);
+		return fromWords(result);
+	}
+
+	public int nextSetBit(int fromIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return -1;
+		}
+		int word = words[u] & (WORD_MASK << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return (u * BITS_PER_WORD) + Integer.numberOfTrailingZeros(word);
+			}
+			if (++u == wordsInUse) {
+				return -1;
+			}
+			word = words[u];
+		}
+	}
+
+	public int nextClearBit(int fromIndex) {
+		if (fromIndex < 0) {
+			throw new IndexOutOfBoundsException("fromIndex < 0: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return fromIndex;
+		}
+		int word = ~words[u] & (WORD_MASK << fromIndex);
+		while (true) {
+			if (word != 0) {
+				return (u * BITS_PER_WORD) + Integer.numberOfTrailingZeros(word);
+			}
+			if (++u == wordsInUse) {
+				return wordsInUse * BITS_PER_WORD;
+			}
+			word = ~words[u];
+		}
+	}
+
+	public int previousSetBit(int fromIndex) {
+		if (fromIndex < 0) {
+			if (fromIndex == -1) {
+				return -1;
+			}
+			throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return length() - 1;
+		}
+		int word = words[u] & (WORD_MASK >>> -(fromIndex + 1));
+		while (true) {
+			if (word != 0) {
+				return (u + 1) * BITS_PER_WORD - 1 - Integer.numberOfLeadingZeros(word);
+			}
+			if (u-- == 0) {
+				return -1;
+			}
+			word = words[u];
+		}
+	}
+
+	public int previousClearBit(int fromIndex) {
+		if (fromIndex < 0) {
+			if (fromIndex == -1) {
+				return -1;
+			}
+			throw new IndexOutOfBoundsException("fromIndex < -1: " + fromIndex);
+		}
+		int u = wordIndex(fromIndex);
+		if (u >= wordsInUse) {
+			return fromIndex;
+		}
+		int word = ~words[u] & (WORD_MASK >>> -(fromIndex + 1));
+		while (true) {
+			if (word != 0) {
+				return (u + 1) * BITS_PER_WORD - 1 - Integer.numberOfLeadingZeros(word);
+			}
+			if (u-- == 0) {
+				return -1;
+			}
+			word = ~words[u];
 		}
-		return bs;
 	}
 
 	public int length() {
-		return bits.length;
+		if (wordsInUse == 0) {
+			return 0;
+		}
+		return BITS_PER_WORD * (wordsInUse - 1)
+				+ (BITS_PER_WORD - Integer.numberOfLeadingZeros(words[wordsInUse - 1]));
 	}
 
 	public boolean isEmpty() {
-		return bits.length == 0;
+		return wordsInUse == 0;
+	}
+
+	public boolean intersects(BitSet set) {
+		for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+			if ((words[i] & set.words[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public int cardinality() {
 		int sum = 0;
-		for (int i = 0; i < bits.length; i++) {
-			sum += bits[i] ? 1 : 0;
+		for (int i = 0; i < wordsInUse; i++) {
+			sum += Integer.bitCount(words[i]);
 		}
 		return sum;
 	}
 
 	public void and(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] && set.get(i);
+		if (this == set) {
+			return;
+		}
+		while (wordsInUse > set.wordsInUse) {
+			words[--wordsInUse] = 0;
+		}
+		for (int i = 0; i < wordsInUse; i++) {
+			words[i] &= set.words[i];
 		}
+		recalculateWordsInUse();
 	}
 
 	public void or(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] || set.get(i);
+		if (this == set) {
+			return;
+		}
+		int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+		if (wordsInUse < set.wordsInUse) {
+			ensureCapacity(set.wordsInUse);
+			wordsInUse = set.wordsInUse;
+		}
+		for (int i = 0; i < wordsInCommon; i++) {
+			words[i] |= set.words[i];
+		}
+		for (int i = wordsInCommon; i < set.wordsInUse; i++) {
+			words[i] = set.words[i];
 		}
 	}
 
 	public void xor(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = (bits[i] && !set.get(i)) || (!bits[i] && set.get(i));
+		int wordsInCommon = Math.min(wordsInUse, set.wordsInUse);
+		if (wordsInUse < set.wordsInUse) {
+			ensureCapacity(set.wordsInUse);
+			wordsInUse = set.wordsInUse;
 		}
+		for (int i = 0; i < wordsInCommon; i++) {
+			words[i] ^= set.words[i];
+		}
+		for (int i = wordsInCommon; i < set.wordsInUse; i++) {
+			words[i] = set.words[i];
+		}
+		recalculateWordsInUse();
 	}
 
 	public void andNot(BitSet set) {
-		for (int i = 0; i < bits.length; i++) {
-			bits[i] = bits[i] && !set.get(i);
+		for (int i = Math.min(wordsInUse, set.wordsInUse) - 1; i >= 0; i--) {
+			words[i] &= ~set.words[i];
 		}
+		recalculateWordsInUse();
+	}
+
+	public IntStream stream() {
+		return new IntStreamHelper(head -> {
+			for (int i = nextSetBit(0); i >= 0; i = nextSetBit(i + 1)) {
+				if (!head.item(i)) {
+					break;
+				}
+			}
+		});
 	}
 
 	public int size() {
-		return bits.length;
+		return words.length * BITS_PER_WORD;
+	}
+
+	@Override
+	public int hashCode() {
+		int h = 1234;
+		for (int i = 0; i < wordsInUse; i++) {
+			h = ensureInt(31 * h + words[i]);
+		}
+		return h;
 	}
 
 	public boolean equals(Object obj) {
@@ -155,12 +492,12 @@ public class BitSet implements Cloneable, java.io.Serializable {
 
 		BitSet set = (BitSet) obj;
 
-		if (set.bits.length != bits.length) {
+		if (set.wordsInUse != wordsInUse) {
 			return false;
 		}
 
-		for (int i = 0; i < set.bits.length; i++) {
-			if (!$loose(set.bits[i] == bits[i])) {
+		for (int i = 0; i < wordsInUse; i++) {
+			if (set.words[i] != words[i]) {
 				return false;
 			}
 		}
@@ -169,9 +506,20 @@ public class BitSet implements Cloneable, java.io.Serializable {
 	}
 
 	public Object clone() {
-		BitSet bs = new BitSet();
-		bs.bits = array(array(bits).slice(0, bits.length));
-		return bs;
+		return fromWords((int[]) any(typed(words).slice(0, Math.max(1, wordsInUse))));
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder b = new StringBuilder("{");
+		int i = nextSetBit(0);
+		if (i != -1) {
+			b.append(i);
+			for (i = nextSetBit(i + 1); i >= 0; i = nextSetBit(i + 1)) {
+				b.append(", ").append(i);
+			}
+		}
+		return b.append('}').toString();
 	}
 
 }
@@ -1273,11 +1273,8 @@ public class Collections {
 		sort(target, null);
 	}
 
-	@SuppressWarnings("unchecked")
 	public static <T> void sort(List<T> target, Comparator<? super T> c) {
-		Object[] x = target.toArray();
-		Arrays.sort(x, (Comparator<Object>) c);
-		replaceContents(target, x);
+		target.sort(c);
 	}
 
 	public static void swap(List<?> list, int i, int j) {
@@ -1333,25 +1330,6 @@ public class Collections {
 		return hashCode;
 	}
 
-	/**
-	 * Replace contents of a list from an array.
-	 *
-	 * @param <T>
-	 *            element type
-	 * @param target
-	 *            list to replace contents from an array
-	 * @param x
-	 *            an Object array which can contain only T instances
-	 */
-	@SuppressWarnings("unchecked")
-	private static <T> void replaceContents(List<T> target, Object[] x) {
-		int size = target.size();
-		assert (x.length == size);
-		for (int i = 0; i < size; i++) {
-			target.set(i, (T) x[i]);
-		}
-	}
-
 	private static <T> void swapImpl(List<T> list, int i, int j) {
 		T t = list.get(i);
 		list.set(i, list.get(j));
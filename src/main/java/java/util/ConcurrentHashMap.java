@@ -1,6 +1,705 @@
 package java.util;
 
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Lang.$insert;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToDoubleBiFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntBiFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongBiFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A hash map supporting the <code>ConcurrentMap</code> API.
+ * <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentHashMap.html">[Sun
+ * docs]</a>
+ *
+ * <p>
+ * JavaScript runs a single thread, so every operation is trivially atomic.
+ * Like in the JDK, keys and values cannot be null, and iterators are weakly
+ * consistent: they never throw <code>ConcurrentModificationException</code>.
+ *
+ * <p>
+ * Bulk operations walk the entries in chunks of
+ * <code>parallelismThreshold</code> entries: reductions combine the partial
+ * result of each chunk with the reducer, as the JDK combines the results of
+ * its parallel tasks. The <code>forEachAsync</code> and
+ * <code>reduceAsync</code> variants yield to the event loop between chunks,
+ * so that large maps do not block it.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
 @SuppressWarnings("serial")
-public class ConcurrentHashMap<K, V> extends HashMap<K, V> {
+public class ConcurrentHashMap<K, V> extends HashMap<K, V> implements ConcurrentMap<K, V> {
+
+	/**
+	 * A view of the keys of a {@link ConcurrentHashMap}, which can also add
+	 * keys when it has a mapped value.
+	 */
+	public static class KeySetView<K, V> extends AbstractSet<K> {
+
+		private final ConcurrentHashMap<K, V> map;
+
+		private final V value;
+
+		KeySetView(ConcurrentHashMap<K, V> map, V value) {
+			this.map = map;
+			this.value = value;
+		}
+
+		public ConcurrentHashMap<K, V> getMap() {
+			return map;
+		}
+
+		public V getMappedValue() {
+			return value;
+		}
+
+		@Override
+		public boolean add(K key) {
+			if (value == null) {
+				throw new UnsupportedOperationException();
+			}
+			return map.putIfAbsent(key, value) == null;
+		}
+
+		@Override
+		public void clear() {
+			map.clear();
+		}
+
+		@Override
+		public boolean contains(Object key) {
+			return map.containsKey(key);
+		}
+
+		@Override
+		public Iterator<K> iterator() {
+			return map.keyIterator();
+		}
+
+		@Override
+		public boolean remove(Object key) {
+			return map.remove(key) != null;
+		}
+
+		@Override
+		public int size() {
+			return map.size();
+		}
+	}
+
+	/**
+	 * Visits the entries of a bulk operation; a non-null result ends the
+	 * traversal.
+	 */
+	private interface ChunkVisitor<K, V, R> {
+		R visit(Map.Entry<K, V> entry);
+
+		/**
+		 * Called at the end of each chunk.
+		 */
+		void endChunk();
+	}
+
+	public static <K> KeySetView<K, Boolean> newKeySet() {
+		return new KeySetView<K, Boolean>(new ConcurrentHashMap<K, Boolean>(), Boolean.TRUE);
+	}
+
+	public static <K> KeySetView<K, Boolean> newKeySet(int initialCapacity) {
+		return new KeySetView<K, Boolean>(new ConcurrentHashMap<K, Boolean>(initialCapacity), Boolean.TRUE);
+	}
+
+	public ConcurrentHashMap() {
+	}
+
+	public ConcurrentHashMap(int initialCapacity) {
+		super(initialCapacity);
+	}
+
+	public ConcurrentHashMap(int initialCapacity, float loadFactor) {
+		super(initialCapacity, loadFactor);
+	}
+
+	public ConcurrentHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+		super(initialCapacity, loadFactor);
+		checkArgument(concurrencyLevel > 0, "Non-positive concurrency level");
+	}
+
+	public ConcurrentHashMap(Map<? extends K, ? extends V> toBeCopied) {
+		super(toBeCopied);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return super.containsKey(checkNotNull(key));
+	}
+
+	@Override
+	public boolean containsValue(Object value) {
+		return super.containsValue(checkNotNull(value));
+	}
+
+	public boolean contains(Object value) {
+		return containsValue(value);
+	}
+
+	@Override
+	public V get(Object key) {
+		return super.get(checkNotNull(key));
+	}
+
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		return super.getOrDefault(checkNotNull(key), defaultValue);
+	}
+
+	@Override
+	public V put(K key, V value) {
+		return super.put(checkNotNull(key), checkNotNull(value));
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return super.putIfAbsent(checkNotNull(key), checkNotNull(value));
+	}
+
+	@Override
+	public V remove(Object key) {
+		return super.remove(checkNotNull(key));
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		checkNotNull(key);
+		if (value == null) {
+			return false;
+		}
+		V current = get(key);
+		if (current != null && current.equals(value)) {
+			remove(key);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		checkNotNull(value);
+		return containsKey(key) ? put(key, value) : null;
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		checkNotNull(oldValue);
+		checkNotNull(newValue);
+		V current = get(key);
+		if (current != null && current.equals(oldValue)) {
+			put(key, newValue);
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		return super.computeIfAbsent(checkNotNull(key), mappingFunction);
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return super.computeIfPresent(checkNotNull(key), remappingFunction);
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return super.compute(checkNotNull(key), remappingFunction);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return super.merge(checkNotNull(key), value, remappingFunction);
+	}
+
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		forEach(Long.MAX_VALUE, action);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		checkNotNull(function);
+		for (Map.Entry<K, V> entry : entrySet()) {
+			entry.setValue(checkNotNull(function.apply(entry.getKey(), entry.getValue())));
+		}
+	}
+
+	@Override
+	public KeySetView<K, V> keySet() {
+		return new KeySetView<K, V>(this, null);
+	}
+
+	public KeySetView<K, V> keySet(V mappedValue) {
+		return new KeySetView<K, V>(this, checkNotNull(mappedValue));
+	}
+
+	private Iterator<K> keyIterator() {
+		return super.keySet().iterator();
+	}
+
+	public Enumeration<K> keys() {
+		return Collections.enumeration(keySet());
+	}
+
+	public Enumeration<V> elements() {
+		return Collections.enumeration(values());
+	}
+
+	public long mappingCount() {
+		return size();
+	}
+
+	@Override
+	public Object clone() {
+		return new ConcurrentHashMap<K, V>(this);
+	}
+
+	@Override
+	boolean isFailFast() {
+		return false;
+	}
+
+	@Override
+	boolean supportsCompactMode() {
+		return false;
+	}
+
+	// bulk operations on (key, value) pairs
+
+	public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+		checkNotNull(action);
+		traverse(parallelismThreshold, entry -> {
+			action.accept(entry.getKey(), entry.getValue());
+			return null;
+		});
+	}
+
+	public <U> void forEach(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+			Consumer<? super U> action) {
+		checkNotNull(transformer);
+		checkNotNull(action);
+		forEach(parallelismThreshold, (k, v) -> {
+			U u = transformer.apply(k, v);
+			if (u != null) {
+				action.accept(u);
+			}
+		});
+	}
+
+	public <U> U search(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+		checkNotNull(searchFunction);
+		return traverse(parallelismThreshold, entry -> searchFunction.apply(entry.getKey(), entry.getValue()));
+	}
+
+	public <U> U reduce(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+			BiFunction<? super U, ? super U, ? extends U> reducer) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		return reduceEntries(parallelismThreshold, entry -> transformer.apply(entry.getKey(), entry.getValue()),
+				reducer);
+	}
+
+	public double reduceToDouble(long parallelismThreshold, ToDoubleBiFunction<? super K, ? super V> transformer,
+			double basis, DoubleBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceEntriesToDouble(parallelismThreshold,
+				entry -> transformer.applyAsDouble(entry.getKey(), entry.getValue()), basis, reducer);
+	}
+
+	public long reduceToLong(long parallelismThreshold, ToLongBiFunction<? super K, ? super V> transformer,
+			long basis, LongBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceEntriesToLong(parallelismThreshold,
+				entry -> transformer.applyAsLong(entry.getKey(), entry.getValue()), basis, reducer);
+	}
+
+	public int reduceToInt(long parallelismThreshold, ToIntBiFunction<? super K, ? super V> transformer, int basis,
+			IntBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceEntriesToInt(parallelismThreshold,
+				entry -> transformer.applyAsInt(entry.getKey(), entry.getValue()), basis, reducer);
+	}
+
+	// bulk operations on keys
+
+	public void forEachKey(long parallelismThreshold, Consumer<? super K> action) {
+		checkNotNull(action);
+		forEach(parallelismThreshold, (k, v) -> action.accept(k));
+	}
+
+	public <U> void forEachKey(long parallelismThreshold, Function<? super K, ? extends U> transformer,
+			Consumer<? super U> action) {
+		checkNotNull(transformer);
+		forEach(parallelismThreshold, (k, v) -> transformer.apply(k), action);
+	}
+
+	public <U> U searchKeys(long parallelismThreshold, Function<? super K, ? extends U> searchFunction) {
+		checkNotNull(searchFunction);
+		return search(parallelismThreshold, (k, v) -> searchFunction.apply(k));
+	}
+
+	public K reduceKeys(long parallelismThreshold, BiFunction<? super K, ? super K, ? extends K> reducer) {
+		return reduceKeys(parallelismThreshold, k -> k, reducer);
+	}
+
+	public <U> U reduceKeys(long parallelismThreshold, Function<? super K, ? extends U> transformer,
+			BiFunction<? super U, ? super U, ? extends U> reducer) {
+		checkNotNull(transformer);
+		return reduce(parallelismThreshold, (k, v) -> transformer.apply(k), reducer);
+	}
+
+	public double reduceKeysToDouble(long parallelismThreshold, ToDoubleFunction<? super K> transformer, double basis,
+			DoubleBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToDouble(parallelismThreshold, (k, v) -> transformer.applyAsDouble(k), basis, reducer);
+	}
+
+	public long reduceKeysToLong(long parallelismThreshold, ToLongFunction<? super K> transformer, long basis,
+			LongBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToLong(parallelismThreshold, (k, v) -> transformer.applyAsLong(k), basis, reducer);
+	}
+
+	public int reduceKeysToInt(long parallelismThreshold, ToIntFunction<? super K> transformer, int basis,
+			IntBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToInt(parallelismThreshold, (k, v) -> transformer.applyAsInt(k), basis, reducer);
+	}
+
+	// bulk operations on values
+
+	public void forEachValue(long parallelismThreshold, Consumer<? super V> action) {
+		checkNotNull(action);
+		forEach(parallelismThreshold, (k, v) -> action.accept(v));
+	}
+
+	public <U> void forEachValue(long parallelismThreshold, Function<? super V, ? extends U> transformer,
+			Consumer<? super U> action) {
+		checkNotNull(transformer);
+		forEach(parallelismThreshold, (k, v) -> transformer.apply(v), action);
+	}
+
+	public <U> U searchValues(long parallelismThreshold, Function<? super V, ? extends U> searchFunction) {
+		checkNotNull(searchFunction);
+		return search(parallelismThreshold, (k, v) -> searchFunction.apply(v));
+	}
+
+	public V reduceValues(long parallelismThreshold, BiFunction<? super V, ? super V, ? extends V> reducer) {
+		return reduceValues(parallelismThreshold, v -> v, reducer);
+	}
+
+	public <U> U reduceValues(long parallelismThreshold, Function<? super V, ? extends U> transformer,
+			BiFunction<? super U, ? super U, ? extends U> reducer) {
+		checkNotNull(transformer);
+		return reduce(parallelismThreshold, (k, v) -> transformer.apply(v), reducer);
+	}
+
+	public double reduceValuesToDouble(long parallelismThreshold, ToDoubleFunction<? super V> transformer,
+			double basis, DoubleBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToDouble(parallelismThreshold, (k, v) -> transformer.applyAsDouble(v), basis, reducer);
+	}
+
+	public long reduceValuesToLong(long parallelismThreshold, ToLongFunction<? super V> transformer, long basis,
+			LongBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToLong(parallelismThreshold, (k, v) -> transformer.applyAsLong(v), basis, reducer);
+	}
+
+	public int reduceValuesToInt(long parallelismThreshold, ToIntFunction<? super V> transformer, int basis,
+			IntBinaryOperator reducer) {
+		checkNotNull(transformer);
+		return reduceToInt(parallelismThreshold, (k, v) -> transformer.applyAsInt(v), basis, reducer);
+	}
+
+	// bulk operations on entries
+
+	public void forEachEntry(long parallelismThreshold, Consumer<? super Map.Entry<K, V>> action) {
+		checkNotNull(action);
+		traverse(parallelismThreshold, entry -> {
+			action.accept(entry);
+			return null;
+		});
+	}
+
+	public <U> void forEachEntry(long parallelismThreshold, Function<Map.Entry<K, V>, ? extends U> transformer,
+			Consumer<? super U> action) {
+		checkNotNull(transformer);
+		checkNotNull(action);
+		forEachEntry(parallelismThreshold, entry -> {
+			U u = transformer.apply(entry);
+			if (u != null) {
+				action.accept(u);
+			}
+		});
+	}
+
+	public <U> U searchEntries(long parallelismThreshold, Function<Map.Entry<K, V>, ? extends U> searchFunction) {
+		checkNotNull(searchFunction);
+		return traverse(parallelismThreshold, entry -> searchFunction.apply(entry));
+	}
+
+	public Map.Entry<K, V> reduceEntries(long parallelismThreshold,
+			BiFunction<Map.Entry<K, V>, Map.Entry<K, V>, ? extends Map.Entry<K, V>> reducer) {
+		return reduceEntries(parallelismThreshold, entry -> entry, reducer);
+	}
+
+	public <U> U reduceEntries(long parallelismThreshold, Function<Map.Entry<K, V>, ? extends U> transformer,
+			BiFunction<? super U, ? super U, ? extends U> reducer) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		Reduction<U> reduction = new Reduction<U>(reducer);
+		traverseChunks(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				reduction.add(transformer.apply(entry));
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+				reduction.endChunk();
+			}
+		});
+		return reduction.result;
+	}
+
+	public double reduceEntriesToDouble(long parallelismThreshold, ToDoubleFunction<Map.Entry<K, V>> transformer,
+			double basis, DoubleBinaryOperator reducer) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		double[] acc = { basis, basis };
+		traverseChunks(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				acc[1] = reducer.applyAsDouble(acc[1], transformer.applyAsDouble(entry));
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+				acc[0] = reducer.applyAsDouble(acc[0], acc[1]);
+				acc[1] = basis;
+			}
+		});
+		return acc[0];
+	}
+
+	public long reduceEntriesToLong(long parallelismThreshold, ToLongFunction<Map.Entry<K, V>> transformer,
+			long basis, LongBinaryOperator reducer) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		long[] acc = { basis, basis };
+		traverseChunks(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				acc[1] = reducer.applyAsLong(acc[1], transformer.applyAsLong(entry));
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+				acc[0] = reducer.applyAsLong(acc[0], acc[1]);
+				acc[1] = basis;
+			}
+		});
+		return acc[0];
+	}
+
+	public int reduceEntriesToInt(long parallelismThreshold, ToIntFunction<Map.Entry<K, V>> transformer, int basis,
+			IntBinaryOperator reducer) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		int[] acc = { basis, basis };
+		traverseChunks(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				acc[1] = reducer.applyAsInt(acc[1], transformer.applyAsInt(entry));
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+				acc[0] = reducer.applyAsInt(acc[0], acc[1]);
+				acc[1] = basis;
+			}
+		});
+		return acc[0];
+	}
+
+	// bulk operations yielding to the event loop
+
+	/**
+	 * Like {@link #forEach(long, BiConsumer)}, but yields to the event loop
+	 * after each chunk of <code>parallelismThreshold</code> entries, then runs
+	 * <code>completion</code> (if not null) once all entries were visited.
+	 * Only the keys present at the call are visited, with their current value
+	 * when their chunk runs; the ones removed in between are skipped.
+	 */
+	public void forEachAsync(long parallelismThreshold, BiConsumer<? super K, ? super V> action,
+			Runnable completion) {
+		checkNotNull(action);
+		traverseAsync(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				action.accept(entry.getKey(), entry.getValue());
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+			}
+		}, completion);
+	}
+
+	/**
+	 * Like {@link #reduce(long, BiFunction, BiFunction)}, but yields to the
+	 * event loop after each chunk of <code>parallelismThreshold</code>
+	 * entries, then hands the result (null if there was none) to
+	 * <code>completion</code>.
+	 */
+	public <U> void reduceAsync(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+			BiFunction<? super U, ? super U, ? extends U> reducer, Consumer<? super U> completion) {
+		checkNotNull(transformer);
+		checkNotNull(reducer);
+		checkNotNull(completion);
+		Reduction<U> reduction = new Reduction<U>(reducer);
+		traverseAsync(parallelismThreshold, new ChunkVisitor<K, V, Object>() {
+			@Override
+			public Object visit(Map.Entry<K, V> entry) {
+				reduction.add(transformer.apply(entry.getKey(), entry.getValue()));
+				return null;
+			}
+
+			@Override
+			public void endChunk() {
+				reduction.endChunk();
+			}
+		}, () -> completion.accept(reduction.result));
+	}
+
+	/**
+	 * Folds non-null values chunk by chunk, then folds the chunk results.
+	 */
+	private static final class Reduction<U> {
+		private final BiFunction<? super U, ? super U, ? extends U> reducer;
+		U result;
+		private U chunkResult;
+
+		Reduction(BiFunction<? super U, ? super U, ? extends U> reducer) {
+			this.reducer = reducer;
+		}
+
+		void add(U u) {
+			if (u != null) {
+				chunkResult = chunkResult == null ? u : reducer.apply(chunkResult, u);
+			}
+		}
+
+		void endChunk() {
+			if (chunkResult != null) {
+				result = result == null ? chunkResult : reducer.apply(result, chunkResult);
+				chunkResult = null;
+			}
+		}
+	}
+
+	private <R> R traverse(long parallelismThreshold, Function<Map.Entry<K, V>, R> visitor) {
+		return traverseChunks(parallelismThreshold, new ChunkVisitor<K, V, R>() {
+			@Override
+			public R visit(Map.Entry<K, V> entry) {
+				return visitor.apply(entry);
+			}
+
+			@Override
+			public void endChunk() {
+			}
+		});
+	}
+
+	private <R> R traverseChunks(long parallelismThreshold, ChunkVisitor<K, V, R> visitor) {
+		int chunkSize = chunkSize(parallelismThreshold);
+		Iterator<Map.Entry<K, V>> entries = entrySet().iterator();
+		while (entries.hasNext()) {
+			R result = visitChunk(entries, chunkSize, visitor);
+			if (result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Unlike the synchronous traversals, this one spans several turns of the
+	 * event loop, during which the map may change: rather than keeping an
+	 * iterator alive across them, it takes the keys up front and visits each
+	 * one with its value at the time of its chunk, skipping the keys removed
+	 * in between.
+	 */
+	private void traverseAsync(long parallelismThreshold, ChunkVisitor<K, V, ?> visitor, Runnable completion) {
+		int chunkSize = chunkSize(parallelismThreshold);
+		Iterator<K> keys = new ArrayList<K>(super.keySet()).iterator();
+		Runnable[] step = new Runnable[1];
+		step[0] = () -> {
+			for (int n = 0; n < chunkSize && keys.hasNext();) {
+				K key = keys.next();
+				V value = get(key);
+				if (value != null) {
+					visitor.visit(new AbstractMap.SimpleImmutableEntry<K, V>(key, value));
+					n++;
+				}
+			}
+			visitor.endChunk();
+			if (keys.hasNext()) {
+				yieldThen(step[0]);
+			} else if (completion != null) {
+				completion.run();
+			}
+		};
+		yieldThen(step[0]);
+	}
+
+	private static <K, V, R> R visitChunk(Iterator<Map.Entry<K, V>> entries, int chunkSize,
+			ChunkVisitor<K, V, R> visitor) {
+		for (int n = 0; n < chunkSize && entries.hasNext(); n++) {
+			R result = visitor.visit(entries.next());
+			if (result != null) {
+				return result;
+			}
+		}
+		visitor.endChunk();
+		return null;
+	}
+
+	private static int chunkSize(long parallelismThreshold) {
+		return parallelismThreshold < 1 ? 1
+				: parallelismThreshold > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) parallelismThreshold;
+	}
 
+	private static void yieldThen(Runnable task) {
+		$insert("(typeof setImmediate === 'function' ? setImmediate : setTimeout)(task)");
+	}
 }
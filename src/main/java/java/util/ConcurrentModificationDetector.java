@@ -15,16 +15,18 @@
  */
 package java.util;
 
+import javaemul.internal.InternalPreconditions;
 import javaemul.internal.JsUtils;
 
 /**
  * A helper to detect concurrent modifications to collections. This is implemented as a helper
- * utility so that we could remove the checks easily by a flag.
+ * utility so that we could remove the checks easily by a flag: below the {@code FULL} check level
+ * of {@link InternalPreconditions}, or with {@code jre.checks.api} disabled, no modification count
+ * is written or checked.
  */
 class ConcurrentModificationDetector {
 
-  private static final boolean API_CHECK =
-    System.getProperty("jre.checks.api", "ENABLED").equals("ENABLED");
+  private static final boolean API_CHECK = InternalPreconditions.isApiChecked();
 
   private static final String MOD_COUNT_PROPERTY = "_gwt_modCount";
 
@@ -45,6 +47,26 @@ class ConcurrentModificationDetector {
     JsUtils.setIntProperty(iterator, MOD_COUNT_PROPERTY, modCount);
   }
 
+  /**
+   * Returns the current structure of the host, for walks that do not go
+   * through an iterator.
+   */
+  public static int getStructure(Object host) {
+    if (!API_CHECK) {
+      return 0;
+    }
+    return JsUtils.getIntProperty(host, MOD_COUNT_PROPERTY);
+  }
+
+  public static void checkStructuralChange(Object host, int structure) {
+    if (!API_CHECK) {
+      return;
+    }
+    if (structure != JsUtils.getIntProperty(host, MOD_COUNT_PROPERTY)) {
+      throw new ConcurrentModificationException();
+    }
+  }
+
   public static void checkStructuralChange(Object host, Iterator<?> iterator) {
     if (!API_CHECK) {
       return;
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util;
+
+import java.util.function.DoubleConsumer;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/DoubleSummaryStatistics.html">
+ * the official Java API doc</a> for details.
+ */
+public class DoubleSummaryStatistics implements DoubleConsumer {
+
+  private long count;
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+  private double sum;
+  // Kahan summation compensation, and the naive sum used when it yields NaN
+  private double sumError;
+  private double naiveSum;
+
+  @Override
+  public void accept(double value) {
+    count++;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+    naiveSum += value;
+    sumWithCompensation(value);
+  }
+
+  public void combine(DoubleSummaryStatistics other) {
+    count += other.count;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    naiveSum += other.naiveSum;
+    sumWithCompensation(other.sum);
+    sumWithCompensation(-other.sumError);
+  }
+
+  private void sumWithCompensation(double value) {
+    double y = value - sumError;
+    double t = sum + y;
+    sumError = (t - sum) - y;
+    sum = t;
+  }
+
+  public final double getAverage() {
+    return count > 0 ? getSum() / count : 0d;
+  }
+
+  public final long getCount() {
+    return count;
+  }
+
+  public final double getMin() {
+    return min;
+  }
+
+  public final double getMax() {
+    return max;
+  }
+
+  public final double getSum() {
+    if (Double.isNaN(sum) && Double.isInfinite(naiveSum)) {
+      // infinities of the same sign make the compensated sum NaN
+      return naiveSum;
+    }
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return "DoubleSummaryStatistics[" +
+        "count = " + count +
+        ", avg = " + getAverage() +
+        ", min = " + min +
+        ", max = " + max +
+        ", sum = " + getSum() +
+        "]";
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/FormatFlagsConversionMismatchException.html">
+ * the official Java API doc</a> for details.
+ */
+public class FormatFlagsConversionMismatchException extends IllegalFormatException {
+
+  private final String flags;
+  private final char conversion;
+
+  public FormatFlagsConversionMismatchException(String flags, char conversion) {
+    super("Conversion = " + conversion + ", Flags = " + Objects.requireNonNull(flags));
+    this.flags = flags;
+    this.conversion = conversion;
+  }
+
+  public String getFlags() {
+    return flags;
+  }
+
+  public char getConversion() {
+    return conversion;
+  }
+}
@@ -0,0 +1,685 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+
+import javaemul.internal.GenerationalCache;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/Formatter.html">
+ * the official Java API doc</a> for details.
+ *
+ * <p>Supports the general, character, integral and floating-point conversions
+ * ({@code %b %h %s %c %d %o %x %e %f %g}) as well as {@code %n} and {@code %%},
+ * with argument indexes, flags, width and precision. Date/time and hexadecimal
+ * floating-point conversions are not supported, and the locale is ignored.
+ *
+ * <p>JavaScript does not tell integral and floating-point numbers apart at
+ * runtime, so the integral conversions accept any number with an integral
+ * value, and {@code %o}/{@code %x} render negative values that fit in an int
+ * as 32-bit two's complement.
+ *
+ * <p>Parsed format strings are kept in a {@link GenerationalCache}, so that
+ * formatting with the same template repeatedly only substitutes arguments.
+ */
+public final class Formatter implements Closeable, Flushable {
+
+  private static final int LEFT_JUSTIFY = 1;
+  private static final int ALTERNATE = 2;
+  private static final int PLUS = 4;
+  private static final int LEADING_SPACE = 8;
+  private static final int ZERO_PAD = 16;
+  private static final int GROUP = 32;
+  private static final int PARENTHESES = 64;
+
+  /**
+   * Flag characters, in the order of their bit in the flag constants above.
+   */
+  private static final String FLAG_CHARS = "-#+ 0,(";
+
+  private static final String CONVERSION_CHARS = "bBhHsScCdoxXeEfgGn%";
+
+  private static final String DIGITS = "0123456789abcdef";
+
+  /**
+   * Argument index of a specifier that takes the next ordinary argument.
+   */
+  private static final int ORDINARY_INDEX = 0;
+
+  /**
+   * Argument index of a specifier that reuses the previous argument ('<').
+   */
+  private static final int PREVIOUS_INDEX = -1;
+
+  /**
+   * The parsed format strings, up to <code>jre.formatter.cacheSize</code> per
+   * generation, 128 by default; 0 disables the cache.
+   */
+  private static final GenerationalCache<Object[]> cache = new GenerationalCache<>(
+      Integer.parseInt(System.getProperty("jre.formatter.cacheSize", "128")));
+
+  private final Appendable out;
+  private final Locale locale;
+  private IOException lastException;
+  private boolean closed;
+
+  public Formatter() {
+    this(new StringBuilder(), Locale.getDefault());
+  }
+
+  public Formatter(Appendable a) {
+    this(a, Locale.getDefault());
+  }
+
+  public Formatter(Locale l) {
+    this(new StringBuilder(), l);
+  }
+
+  public Formatter(Appendable a, Locale l) {
+    out = a == null ? new StringBuilder() : a;
+    locale = l;
+  }
+
+  public Locale locale() {
+    ensureOpen();
+    return locale;
+  }
+
+  public Appendable out() {
+    ensureOpen();
+    return out;
+  }
+
+  @Override
+  public String toString() {
+    ensureOpen();
+    return out.toString();
+  }
+
+  @Override
+  public void flush() {
+    ensureOpen();
+    if (out instanceof Flushable) {
+      try {
+        ((Flushable) out).flush();
+      } catch (IOException e) {
+        lastException = e;
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (out instanceof Closeable) {
+      try {
+        ((Closeable) out).close();
+      } catch (IOException e) {
+        lastException = e;
+      }
+    }
+  }
+
+  public IOException ioException() {
+    return lastException;
+  }
+
+  public Formatter format(String format, Object... args) {
+    return format(locale, format, args);
+  }
+
+  public Formatter format(Locale l, String format, Object... args) {
+    ensureOpen();
+    Object[] segments = compile(format);
+    int ordinary = 0;
+    int last = -1;
+    try {
+      for (Object segment : segments) {
+        if (segment instanceof String) {
+          out.append((String) segment);
+          continue;
+        }
+        Specifier spec = (Specifier) segment;
+        Object arg = null;
+        if (spec.takesArgument()) {
+          if (spec.index == PREVIOUS_INDEX) {
+            if (last < 0) {
+              throw new MissingFormatArgumentException(spec.source);
+            }
+          } else if (spec.index == ORDINARY_INDEX) {
+            last = ordinary++;
+          } else {
+            last = spec.index - 1;
+          }
+          if (args != null) {
+            if (last >= args.length) {
+              throw new MissingFormatArgumentException(spec.source);
+            }
+            arg = args[last];
+          }
+        }
+        out.append(spec.print(arg));
+      }
+    } catch (IOException e) {
+      lastException = e;
+    }
+    return this;
+  }
+
+  private void ensureOpen() {
+    if (closed) {
+      throw new FormatterClosedException();
+    }
+  }
+
+  /**
+   * Returns the parsed segments of a format string: literal text as strings,
+   * interleaved with the {@link Specifier}s that consume arguments.
+   */
+  private static Object[] compile(String format) {
+    Object[] segments = cache.get(format);
+    if (segments == null) {
+      segments = parse(format);
+      cache.put(format, segments);
+    }
+    return segments;
+  }
+
+  private static Object[] parse(String format) {
+    List<Object> segments = new ArrayList<>();
+    StringBuilder literal = new StringBuilder();
+    int length = format.length();
+    int i = 0;
+    while (i < length) {
+      int percent = format.indexOf('%', i);
+      if (percent < 0) {
+        literal.append(format, i, length);
+        break;
+      }
+      literal.append(format, i, percent);
+      Specifier spec = new Specifier();
+      int j = percent + 1;
+      int digitsEnd = skipDigits(format, j);
+      if (digitsEnd > j && digitsEnd < length && format.charAt(digitsEnd) == '$') {
+        spec.index = Integer.parseInt(format.substring(j, digitsEnd));
+        j = digitsEnd + 1;
+      }
+      for (; j < length; j++) {
+        char c = format.charAt(j);
+        int flag = FLAG_CHARS.indexOf(c);
+        if (flag >= 0) {
+          spec.flags |= 1 << flag;
+        } else if (c == '<') {
+          spec.index = PREVIOUS_INDEX;
+        } else {
+          break;
+        }
+      }
+      digitsEnd = skipDigits(format, j);
+      if (digitsEnd > j) {
+        spec.width = Integer.parseInt(format.substring(j, digitsEnd));
+        j = digitsEnd;
+      }
+      if (j < length && format.charAt(j) == '.') {
+        digitsEnd = skipDigits(format, ++j);
+        if (digitsEnd == j) {
+          throw new UnknownFormatConversionException(".");
+        }
+        spec.precision = Integer.parseInt(format.substring(j, digitsEnd));
+        j = digitsEnd;
+      }
+      if (j >= length) {
+        throw new UnknownFormatConversionException("%");
+      }
+      char conversion = format.charAt(j);
+      if (CONVERSION_CHARS.indexOf(conversion) < 0) {
+        throw new UnknownFormatConversionException(
+            format.substring(j, conversion == 't' || conversion == 'T'
+                ? Math.min(j + 2, length) : j + 1));
+      }
+      spec.conversion = Character.toLowerCase(conversion);
+      spec.upperCase = conversion != spec.conversion;
+      spec.source = format.substring(percent, j + 1);
+      spec.check();
+      i = j + 1;
+
+      // Constant conversions are folded into the surrounding text.
+      if (spec.conversion == 'n') {
+        literal.append(System.lineSeparator());
+      } else if (spec.conversion == '%' && spec.width < 0) {
+        literal.append('%');
+      } else {
+        if (literal.length() > 0) {
+          segments.add(literal.toString());
+          literal.setLength(0);
+        }
+        segments.add(spec);
+      }
+    }
+    if (literal.length() > 0) {
+      segments.add(literal.toString());
+    }
+    return segments.toArray();
+  }
+
+  private static int skipDigits(String s, int from) {
+    while (from < s.length() && s.charAt(from) >= '0' && s.charAt(from) <= '9') {
+      from++;
+    }
+    return from;
+  }
+
+  private static String flagsToString(int flags) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < FLAG_CHARS.length(); i++) {
+      if ((flags & (1 << i)) != 0) {
+        sb.append(FLAG_CHARS.charAt(i));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * A parsed format specifier.
+   */
+  private static final class Specifier {
+    String source;
+    int index = ORDINARY_INDEX;
+    int flags;
+    int width = -1;
+    int precision = -1;
+    char conversion;
+    boolean upperCase;
+
+    boolean takesArgument() {
+      return conversion != '%' && conversion != 'n';
+    }
+
+    boolean has(int flag) {
+      return (flags & flag) != 0;
+    }
+
+    /**
+     * Rejects the flag, width and precision combinations the JDK rejects.
+     */
+    void check() {
+      int allowed;
+      boolean allowsPrecision = true;
+      switch (conversion) {
+        case 'b':
+        case 'h':
+        case 's':
+          allowed = LEFT_JUSTIFY;
+          break;
+        case 'c':
+        case '%':
+          allowed = LEFT_JUSTIFY;
+          allowsPrecision = false;
+          break;
+        case 'n':
+          allowed = 0;
+          allowsPrecision = false;
+          break;
+        case 'd':
+          allowed = ~ALTERNATE;
+          allowsPrecision = false;
+          break;
+        case 'o':
+        case 'x':
+          allowed = LEFT_JUSTIFY | ALTERNATE | ZERO_PAD;
+          allowsPrecision = false;
+          break;
+        case 'e':
+          allowed = ~GROUP;
+          break;
+        case 'g':
+          allowed = ~ALTERNATE;
+          break;
+        default:
+          allowed = ~0;
+          break;
+      }
+      // same error precedence as the JDK for the common cases
+      boolean numeric = "doxefg".indexOf(conversion) >= 0;
+      if (!allowsPrecision && precision >= 0) {
+        throw new IllegalFormatPrecisionException(precision);
+      }
+      if (!numeric) {
+        checkFlags(allowed);
+      }
+      if ((has(LEFT_JUSTIFY) || has(ZERO_PAD)) && width < 0) {
+        throw new MissingFormatWidthException(source);
+      }
+      if (has(LEFT_JUSTIFY) && has(ZERO_PAD) || has(PLUS) && has(LEADING_SPACE)) {
+        throw new IllegalFormatFlagsException(flagsToString(flags));
+      }
+      if (numeric) {
+        checkFlags(allowed);
+      }
+    }
+
+    private void checkFlags(int allowed) {
+      int mismatch = flags & ~allowed;
+      if (mismatch != 0) {
+        throw new FormatFlagsConversionMismatchException(flagsToString(mismatch), conversion);
+      }
+    }
+
+    String print(Object arg) {
+      switch (conversion) {
+        case 'b':
+          return printGeneral(arg == null ? "false" : arg instanceof Boolean ? arg.toString() : "true");
+        case 'h':
+          return printGeneral(arg == null ? "null" : Integer.toHexString(arg.hashCode()));
+        case 's':
+          return printGeneral(String.valueOf(arg));
+        case 'c':
+          return printCharacter(arg);
+        case 'd':
+        case 'o':
+        case 'x':
+          return arg == null ? printGeneral("null") : printIntegral(arg);
+        case 'e':
+        case 'f':
+        case 'g':
+          return arg == null ? printGeneral("null") : printFloatingPoint(arg);
+        default:
+          return justify("%");
+      }
+    }
+
+    private String printGeneral(String s) {
+      if (precision >= 0 && precision < s.length()) {
+        s = s.substring(0, precision);
+      }
+      return justify(upperCase ? s.toUpperCase() : s);
+    }
+
+    private String printCharacter(Object arg) {
+      if (arg == null || arg instanceof Character) {
+        return printGeneral(String.valueOf(arg));
+      }
+      int codePoint = (int) integralValue(arg);
+      if (!Character.isValidCodePoint(codePoint)) {
+        throw new IllegalFormatConversionException(conversion, arg.getClass());
+      }
+      return printGeneral(String.valueOf(Character.toChars(codePoint)));
+    }
+
+    private String printIntegral(Object arg) {
+      long value = integralValue(arg);
+      if (conversion == 'd') {
+        String digits = String.valueOf(value);
+        boolean negative = value < 0;
+        if (negative) {
+          digits = digits.substring(1);
+        }
+        return printNumber(negative, "", has(GROUP) ? group(digits) : digits, has(ZERO_PAD));
+      }
+      int low = (int) value;
+      int high;
+      if (value < 0 && value >= Integer.MIN_VALUE) {
+        high = 0;
+      } else {
+        // split arithmetically, 64-bit shifts are not available in JavaScript
+        high = (int) ((value - (low < 0 ? low + 4294967296L : low)) / 4294967296L);
+      }
+      String prefix = has(ALTERNATE) ? (conversion == 'o' ? "0" : "0x") : "";
+      return printNumber(false, prefix, toUnsignedString(high, low, conversion == 'o' ? 3 : 4),
+          has(ZERO_PAD));
+    }
+
+    private String printFloatingPoint(Object arg) {
+      if (!(arg instanceof Number)) {
+        throw new IllegalFormatConversionException(conversion, arg.getClass());
+      }
+      double value = ((Number) arg).doubleValue();
+      if (Double.isNaN(value)) {
+        return justify(upperCase ? "NAN" : "NaN");
+      }
+      boolean negative = value < 0 || value == 0 && 1 / value < 0;
+      if (Double.isInfinite(value)) {
+        return printNumber(negative, "", "Infinity", false);
+      }
+      Decimal decimal = Decimal.of(Math.abs(value));
+      int p = precision < 0 ? 6 : precision;
+      String body;
+      switch (conversion) {
+        case 'e':
+          body = scientific(decimal.round(p + 1), p);
+          break;
+        case 'f':
+          body = fixed(decimal.round(decimal.exponent + 1 + p), p);
+          break;
+        default:
+          if (p == 0) {
+            p = 1;
+          }
+          if (decimal.isZero()) {
+            body = fixed(decimal, p - 1);
+          } else {
+            Decimal rounded = decimal.round(p);
+            if (rounded.exponent >= -4 && rounded.exponent < p) {
+              body = fixed(decimal.round(p), p - (rounded.exponent + 1));
+            } else {
+              body = scientific(rounded, p - 1);
+            }
+          }
+          break;
+      }
+      return printNumber(negative, "", body, has(ZERO_PAD));
+    }
+
+    private long integralValue(Object arg) {
+      if (arg instanceof Number) {
+        double value = ((Number) arg).doubleValue();
+        if (value == Math.floor(value) && !Double.isInfinite(value)) {
+          return ((Number) arg).longValue();
+        }
+      }
+      throw new IllegalFormatConversionException(conversion, arg.getClass());
+    }
+
+    private String fixed(Decimal decimal, int fractionDigits) {
+      StringBuilder integer = new StringBuilder();
+      for (int i = 0; i <= decimal.exponent; i++) {
+        integer.append(decimal.digitAt(i));
+      }
+      String body = integer.length() == 0 ? "0" : integer.toString();
+      if (has(GROUP)) {
+        body = group(body);
+      }
+      if (fractionDigits == 0 && !has(ALTERNATE)) {
+        return body;
+      }
+      StringBuilder sb = new StringBuilder(body).append('.');
+      for (int i = 1; i <= fractionDigits; i++) {
+        sb.append(decimal.digitAt(decimal.exponent + i));
+      }
+      return sb.toString();
+    }
+
+    private String scientific(Decimal decimal, int fractionDigits) {
+      StringBuilder sb = new StringBuilder();
+      sb.append(decimal.digitAt(0));
+      if (fractionDigits > 0 || has(ALTERNATE)) {
+        sb.append('.');
+      }
+      for (int i = 1; i <= fractionDigits; i++) {
+        sb.append(decimal.digitAt(i));
+      }
+      int exponent = decimal.isZero() ? 0 : decimal.exponent;
+      sb.append(exponent < 0 ? "e-" : "e+");
+      exponent = Math.abs(exponent);
+      if (exponent < 10) {
+        sb.append('0');
+      }
+      return sb.append(exponent).toString();
+    }
+
+    /**
+     * Adds the sign, prefix and zero padding around a magnitude, then
+     * justifies the result.
+     */
+    private String printNumber(boolean negative, String prefix, String magnitude,
+        boolean zeroPad) {
+      String leading;
+      String trailing = "";
+      if (negative) {
+        if (has(PARENTHESES)) {
+          leading = "(";
+          trailing = ")";
+        } else {
+          leading = "-";
+        }
+      } else if (has(PLUS)) {
+        leading = "+";
+      } else if (has(LEADING_SPACE)) {
+        leading = " ";
+      } else {
+        leading = "";
+      }
+      leading += prefix;
+      StringBuilder sb = new StringBuilder(leading);
+      if (zeroPad) {
+        for (int n = leading.length() + magnitude.length() + trailing.length(); n < width; n++) {
+          sb.append('0');
+        }
+      }
+      String s = sb.append(magnitude).append(trailing).toString();
+      return justify(upperCase ? s.toUpperCase() : s);
+    }
+
+    private String justify(String s) {
+      if (width <= s.length()) {
+        return s;
+      }
+      StringBuilder sb = new StringBuilder(width);
+      if (has(LEFT_JUSTIFY)) {
+        sb.append(s);
+      }
+      for (int n = s.length(); n < width; n++) {
+        sb.append(' ');
+      }
+      if (!has(LEFT_JUSTIFY)) {
+        sb.append(s);
+      }
+      return sb.toString();
+    }
+  }
+
+  private static String group(String digits) {
+    int first = digits.length() % 3;
+    if (first == 0) {
+      first = 3;
+    }
+    StringBuilder sb = new StringBuilder(digits.substring(0, first));
+    for (int i = first; i < digits.length(); i += 3) {
+      sb.append(',').append(digits, i, i + 3);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Renders the unsigned 64-bit value {@code high:low} in base
+   * {@code 1 << shift}, using 32-bit operations only.
+   */
+  private static String toUnsignedString(int high, int low, int shift) {
+    char[] buf = new char[22];
+    int pos = buf.length;
+    int mask = (1 << shift) - 1;
+    do {
+      buf[--pos] = DIGITS.charAt(low & mask);
+      low = (low >>> shift) | (high << (32 - shift));
+      high >>>= shift;
+    } while (low != 0 || high != 0);
+    return String.valueOf(buf, pos, buf.length - pos);
+  }
+
+  /**
+   * The decimal digits of a finite non-negative number, as in
+   * {@code 0.d1d2d3... * 10^(exponent + 1)}. Rounding is HALF_UP on the
+   * shortest representation of the number, as the JDK does.
+   */
+  private static final class Decimal {
+    final String digits;
+    final int exponent;
+
+    Decimal(String digits, int exponent) {
+      this.digits = digits;
+      this.exponent = exponent;
+    }
+
+    static Decimal of(double value) {
+      String s = String.valueOf(value);
+      int exponent = 0;
+      int e = Math.max(s.indexOf('e'), s.indexOf('E'));
+      if (e >= 0) {
+        int from = s.charAt(e + 1) == '+' ? e + 2 : e + 1;
+        exponent = Integer.parseInt(s.substring(from));
+        s = s.substring(0, e);
+      }
+      int dot = s.indexOf('.');
+      if (dot < 0) {
+        dot = s.length();
+      } else {
+        s = s.substring(0, dot) + s.substring(dot + 1);
+      }
+      exponent += dot - 1;
+      int start = 0;
+      while (start < s.length() - 1 && s.charAt(start) == '0') {
+        start++;
+        exponent--;
+      }
+      int end = s.length();
+      while (end > start + 1 && s.charAt(end - 1) == '0') {
+        end--;
+      }
+      s = s.substring(start, end);
+      return new Decimal(s, s.equals("0") ? 0 : exponent);
+    }
+
+    boolean isZero() {
+      return digits.equals("0");
+    }
+
+    char digitAt(int i) {
+      return i >= 0 && i < digits.length() ? digits.charAt(i) : '0';
+    }
+
+    /**
+     * Rounds half up to the given number of significant digits.
+     */
+    Decimal round(int significantDigits) {
+      if (significantDigits >= digits.length() || isZero()) {
+        return this;
+      }
+      if (significantDigits < 0 || significantDigits == 0 && digits.charAt(0) < '5') {
+        return new Decimal("0", 0);
+      }
+      if (digits.charAt(significantDigits) < '5') {
+        return new Decimal(digits.substring(0, significantDigits), exponent);
+      }
+      char[] kept = digits.substring(0, significantDigits).toCharArray();
+      int i = kept.length - 1;
+      while (i >= 0 && kept[i] == '9') {
+        kept[i--] = '0';
+      }
+      if (i < 0) {
+        return new Decimal("1", exponent + 1);
+      }
+      kept[i] = (char) (kept[i] + 1);
+      return new Decimal(String.valueOf(kept), exponent);
+    }
+  }
+}
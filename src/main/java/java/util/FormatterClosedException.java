@@ -0,0 +1,17 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/FormatterClosedException.html">
+ * the official Java API doc</a> for details.
+ */
+public class FormatterClosedException extends IllegalStateException {
+
+  public FormatterClosedException() {
+  }
+}
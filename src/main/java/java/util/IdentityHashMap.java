@@ -15,21 +15,106 @@
  */
 package java.util;
 
+import static java.util.ConcurrentModificationDetector.checkStructuralChange;
+import static java.util.ConcurrentModificationDetector.getStructure;
+import static java.util.ConcurrentModificationDetector.recordLastKnownStructure;
+import static java.util.ConcurrentModificationDetector.structureChanged;
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static javaemul.internal.InternalPreconditions.checkState;
+
 import java.io.Serializable;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
-import javaemul.internal.HashCodes;
+import javaemul.internal.JsUtils;
 
 /**
  * Map using reference equality on keys. <a
  * href="http://java.sun.com/j2se/1.5.0/docs/api/java/util/IdentityHashMap.html">[Sun
  * docs]</a>
+ * <p>
+ * The keys are the keys of a native Map, which compares them by reference,
+ * so no hash code is ever computed. Strings, numbers and booleans are values
+ * in JavaScript, and are compared as such.
  *
  * @param <K> key type
  * @param <V> value type
  */
-public class IdentityHashMap<K, V> extends AbstractHashMap<K, V> implements
+public class IdentityHashMap<K, V> extends AbstractMap<K, V> implements
     Map<K, V>, Cloneable, Serializable {
 
+  private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+    @Override
+    public void clear() {
+      IdentityHashMap.this.clear();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      if (o instanceof Map.Entry) {
+        Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+        V value = backingMap.get(entry.getKey());
+        return !JsUtils.isUndefined(value) && value == entry.getValue();
+      }
+      return false;
+    }
+
+    @Override
+    public Iterator<Entry<K, V>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public boolean remove(Object entry) {
+      if (contains(entry)) {
+        IdentityHashMap.this.remove(((Map.Entry<?, ?>) entry).getKey());
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    public int size() {
+      return IdentityHashMap.this.size();
+    }
+  }
+
+  private final class EntryIterator implements Iterator<Entry<K, V>> {
+    private final InternalJsMap.Iterator<V> entries = backingMap.entries();
+    private InternalJsMap.IteratorEntry<V> current = entries.next();
+    private InternalJsMap.IteratorEntry<V> last;
+
+    public EntryIterator() {
+      recordLastKnownStructure(IdentityHashMap.this, this);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !current.done;
+    }
+
+    @Override
+    public Entry<K, V> next() {
+      checkStructuralChange(IdentityHashMap.this, this);
+      checkElement(hasNext());
+      last = current;
+      current = entries.next();
+      return newMapEntry(last, valueMod);
+    }
+
+    @Override
+    public void remove() {
+      checkState(last != null);
+      checkStructuralChange(IdentityHashMap.this, this);
+      IdentityHashMap.this.remove(last.value[0]);
+      last = null;
+      recordLastKnownStructure(IdentityHashMap.this, this);
+    }
+  }
+
   /**
    * Ensures that RPC will consider type parameter K to be exposed. It will be
    * pruned by dead code elimination.
@@ -44,21 +129,143 @@ public class IdentityHashMap<K, V> extends AbstractHashMap<K, V> implements
   @SuppressWarnings("unused")
   private V exposeValue;
 
+  private transient InternalJsMap<V> backingMap;
+
+  private transient int size;
+
+  /**
+   * A mod count to track 'value' replacements, as in
+   * {@link InternalStringMap}.
+   */
+  private transient int valueMod;
+
+  /**
+   * A mod count to track structural changes, which stop the in-place walks of
+   * {@link #forEach} and {@link #replaceAll}, as in {@link AbstractHashMap}.
+   */
+  private transient int structureChanges;
+
   public IdentityHashMap() {
+    reset();
   }
 
   public IdentityHashMap(int ignored) {
-    super(ignored);
+    // This implementation has no need of an expected size.
+    checkArgument(ignored >= 0, "Negative initial capacity");
+    reset();
   }
 
   public IdentityHashMap(Map<? extends K, ? extends V> toBeCopied) {
-    super(toBeCopied);
+    reset();
+    putAll(toBeCopied);
   }
 
   public Object clone() {
     return new IdentityHashMap<K, V>(this);
   }
 
+  @Override
+  public void clear() {
+    reset();
+  }
+
+  private void reset() {
+    backingMap = InternalJsMapFactory.newJsMap();
+    size = 0;
+    structureChanges++;
+    structureChanged(this);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return !JsUtils.isUndefined(backingMap.get(key));
+  }
+
+  @Override
+  public boolean containsValue(Object value) {
+    InternalJsMap.Iterator<V> entries = backingMap.entries();
+    for (InternalJsMap.IteratorEntry<V> entry = entries.next(); !entry.done; entry = entries.next()) {
+      if (entry.value[1] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public Set<Entry<K, V>> entrySet() {
+    return new EntrySet();
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    checkNotNull(action);
+    int structure = getStructure(this);
+    int changes = structureChanges;
+    backingMap.forEach((value, key) -> {
+      if (structureChanges == changes) {
+        action.accept(keyOf(key), value);
+      }
+    });
+    checkStructuralChange(this, structure);
+  }
+
+  @Override
+  public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+    checkNotNull(function);
+    int structure = getStructure(this);
+    // setting an existing key neither moves it nor disturbs the walk, but
+    // setting a key that the function removed would add it back
+    int changes = structureChanges;
+    backingMap.forEach((value, key) -> {
+      if (structureChanges == changes) {
+        V newValue = function.apply(keyOf(key), value);
+        if (structureChanges == changes) {
+          backingMap.set(key, toNullIfUndefined(newValue));
+        }
+      }
+    });
+    valueMod++;
+    checkStructuralChange(this, structure);
+  }
+
+  @Override
+  public V get(Object key) {
+    return toNullIfUndefined(backingMap.get(key));
+  }
+
+  @Override
+  public V put(K key, V value) {
+    V oldValue = backingMap.get(key);
+    backingMap.set(key, toNullIfUndefined(value));
+    if (JsUtils.isUndefined(oldValue)) {
+      size++;
+      structureChanges++;
+      structureChanged(this);
+      return null;
+    }
+    valueMod++;
+    return oldValue;
+  }
+
+  @Override
+  public V remove(Object key) {
+    V value = backingMap.get(key);
+    if (JsUtils.isUndefined(value)) {
+      return null;
+    }
+    backingMap.delete(key);
+    size--;
+    structureChanges++;
+    structureChanged(this);
+    return value;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
   @Override
   public boolean equals(Object obj) {
     if (obj == this) {
@@ -95,13 +302,36 @@ public class IdentityHashMap<K, V> extends AbstractHashMap<K, V> implements
     return hashCode;
   }
 
-  @Override
-  boolean _equals(Object value1, Object value2) {
-    return value1 == value2;
+  private Entry<K, V> newMapEntry(final InternalJsMap.IteratorEntry<V> entry, final int lastValueMod) {
+    return new AbstractMapEntry<K, V>() {
+      @Override
+      public K getKey() {
+        return keyOf(entry.value[0]);
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public V getValue() {
+        if (valueMod != lastValueMod) {
+          // Let's get a fresh copy as the value may have changed.
+          return get(entry.value[0]);
+        }
+        return (V) entry.value[1];
+      }
+
+      @Override
+      public V setValue(V object) {
+        return put(getKey(), object);
+      }
+    };
   }
 
-  @Override
-  int getHashCode(Object key) {
-    return HashCodes.getObjectIdentityHashCode(key);
+  @SuppressWarnings("unchecked")
+  private static <K> K keyOf(Object key) {
+    return (K) key;
+  }
+
+  private static <T> T toNullIfUndefined(T value) {
+    return JsUtils.isUndefined(value) ? null : value;
   }
 }
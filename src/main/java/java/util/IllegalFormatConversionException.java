@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/IllegalFormatConversionException.html">
+ * the official Java API doc</a> for details.
+ */
+public class IllegalFormatConversionException extends IllegalFormatException {
+
+  private final char conversion;
+  private final Class<?> argumentClass;
+
+  public IllegalFormatConversionException(char conversion, Class<?> argumentClass) {
+    super(conversion + " != " + Objects.requireNonNull(argumentClass).getName());
+    this.conversion = conversion;
+    this.argumentClass = argumentClass;
+  }
+
+  public char getConversion() {
+    return conversion;
+  }
+
+  public Class<?> getArgumentClass() {
+    return argumentClass;
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/IllegalFormatFlagsException.html">
+ * the official Java API doc</a> for details.
+ */
+public class IllegalFormatFlagsException extends IllegalFormatException {
+
+  private final String flags;
+
+  public IllegalFormatFlagsException(String flags) {
+    super("Flags = '" + Objects.requireNonNull(flags) + "'");
+    this.flags = flags;
+  }
+
+  public String getFlags() {
+    return flags;
+  }
+}
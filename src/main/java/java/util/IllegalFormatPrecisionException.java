@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/IllegalFormatPrecisionException.html">
+ * the official Java API doc</a> for details.
+ */
+public class IllegalFormatPrecisionException extends IllegalFormatException {
+
+  private final int precision;
+
+  public IllegalFormatPrecisionException(int precision) {
+    super(String.valueOf(precision));
+    this.precision = precision;
+  }
+
+  public int getPrecision() {
+    return precision;
+  }
+}
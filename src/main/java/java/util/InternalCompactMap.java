@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+import static java.util.ConcurrentModificationDetector.structureChanged;
+import static javaemul.internal.InternalPreconditions.checkState;
+
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import javaemul.internal.JsUtils;
+
+/**
+ * The entries of a small map, kept in insertion order in a flat array of
+ * alternating keys and values and looked up by a linear scan. Up to
+ * {@link #CAPACITY} entries, this is cheaper than the native maps behind
+ * {@link InternalStringMap} and {@link InternalHashCodeMap}.
+ * <p>
+ * Keys match as they would in the hash tables: a String key only ever matches
+ * a String key, a number or boolean key only a key that
+ * {@link InternalNumberMap} would store with it, and other keys are compared
+ * with the host's <code>_equals</code>.
+ */
+class InternalCompactMap<K, V> implements Iterable<Entry<K, V>> {
+
+	/**
+	 * The maximum number of entries. Adding one more is up to the host, which
+	 * moves to its hash tables.
+	 */
+	static final int CAPACITY = 8;
+
+	/**
+	 * Keys at even indices, their values right after; allocated on the first
+	 * addition.
+	 */
+	private Object[] table;
+	private AbstractHashMap<K, V> host;
+	private int size;
+
+	public InternalCompactMap(AbstractHashMap<K, V> host) {
+		this.host = host;
+	}
+
+	/**
+	 * Returns the index of the entry for the given key, or -1 if there is
+	 * none.
+	 */
+	public int indexOf(Object key) {
+		if (key instanceof String) {
+			String string = JsUtils.unsafeCastToString(key);
+			for (int i = 0; i < size; i++) {
+				if (string.equals(table[i * 2])) {
+					return i;
+				}
+			}
+		} else if (InternalNumberMap.accepts(key)) {
+			for (int i = 0; i < size; i++) {
+				if (InternalNumberMap.sameKey(key, table[i * 2])) {
+					return i;
+				}
+			}
+		} else {
+			for (int i = 0; i < size; i++) {
+				Object entryKey = table[i * 2];
+				if (!(entryKey instanceof String) && !InternalNumberMap.accepts(entryKey)
+						&& host._equals(key, entryKey)) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	public K keyAt(int index) {
+		return (K) table[index * 2];
+	}
+
+	@SuppressWarnings("unchecked")
+	public V valueAt(int index) {
+		return (V) table[index * 2 + 1];
+	}
+
+	public V setValueAt(int index, V value) {
+		V oldValue = valueAt(index);
+		table[index * 2 + 1] = value;
+		return oldValue;
+	}
+
+	public boolean isFull() {
+		return size == CAPACITY;
+	}
+
+	/**
+	 * Adds an entry for a key that is not in the map yet; the map must not be
+	 * full.
+	 */
+	public void add(K key, V value) {
+		if (table == null) {
+			table = new Object[CAPACITY * 2];
+		}
+		table[size * 2] = key;
+		table[size * 2 + 1] = value;
+		size++;
+		host.structureChanges++;
+		structureChanged(host);
+	}
+
+	/**
+	 * Removes the entry at the given index, keeping the others in order.
+	 * Returns its value.
+	 */
+	public V removeAt(int index) {
+		V value = valueAt(index);
+		size--;
+		for (int i = index * 2; i < size * 2; i++) {
+			table[i] = table[i + 2];
+		}
+		table[size * 2] = null;
+		table[size * 2 + 1] = null;
+		host.structureChanges++;
+		structureChanged(host);
+		return value;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		int changes = host.structureChanges;
+		for (int i = 0; i < size && host.structureChanges == changes; i++) {
+			action.accept(keyAt(i), valueAt(i));
+		}
+	}
+
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		int changes = host.structureChanges;
+		for (int i = 0; i < size && host.structureChanges == changes; i++) {
+			V value = function.apply(keyAt(i), valueAt(i));
+			if (host.structureChanges == changes) {
+				table[i * 2 + 1] = value;
+			}
+		}
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Entry<K, V>>() {
+			int index = 0;
+			int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				return index < size;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				last = index++;
+				return new CompactEntry(last);
+			}
+
+			@Override
+			public void remove() {
+				checkState(last != -1);
+				removeAt(last);
+				index = last;
+				last = -1;
+			}
+		};
+	}
+
+	/**
+	 * An entry handed out by the iterator. Its key may have moved since, or
+	 * have been removed, in which case the entry keeps its last value.
+	 */
+	private final class CompactEntry extends AbstractMapEntry<K, V> {
+		private final K key;
+		private V value;
+		private int index;
+
+		CompactEntry(int index) {
+			this.key = keyAt(index);
+			this.value = valueAt(index);
+			this.index = index;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			if (locate()) {
+				value = valueAt(index);
+			}
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V oldValue = getValue();
+			if (locate()) {
+				setValueAt(index, value);
+			}
+			this.value = value;
+			return oldValue;
+		}
+
+		private boolean locate() {
+			if (index < 0 || index >= size || table[index * 2] != key) {
+				index = indexOf(key);
+			}
+			return index >= 0;
+		}
+	}
+}
@@ -20,6 +20,8 @@ import static jsweet.util.Lang.$insert;
 
 import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 import javaemul.internal.ArrayHelper;
 
@@ -57,10 +59,26 @@ class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
         return entry.setValue(value);
       }
     }
+    addToChain(chain, key, value);
+    return null;
+  }
+
+  /**
+   * Adds a mapping for a key known to be absent, given its hash code.
+   */
+  public void add(int hashCode, K key, V value) {
+    Entry<K, V>[] chain = getChainOrEmpty(hashCode);
+    if (chain.length == 0) {
+      backingMap.set(hashCode, chain);
+    }
+    addToChain(chain, key, value);
+  }
+
+  private void addToChain(Entry<K, V>[] chain, K key, V value) {
     chain[chain.length] = new SimpleEntry<K, V>(key, value);
     size++;
+    host.structureChanges++;
     structureChanged(host);
-    return null;
   }
 
   public V remove(Object key) {
@@ -69,24 +87,50 @@ class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
     for (int i = 0; i < chain.length; i++) {
       Entry<K, V> entry = chain[i];
       if (host._equals(key, entry.getKey())) {
-        if (chain.length == 1) {
-          ArrayHelper.setLength(chain, 0);
-          // remove the whole array
-          backingMap.delete(hashCode);
-        } else {
-          // splice out the entry we're removing
-          ArrayHelper.removeFrom(chain, i, 1);
-        }
-        size--;
-        structureChanged(host);
+        removeFromChain(hashCode, chain, i);
         return entry.getValue();
       }
     }
     return null;
   }
 
+  /**
+   * Removes an entry previously returned by {@link #getEntry(Object, int)}.
+   */
+  public void removeEntry(int hashCode, Entry<K, V> entry) {
+    Entry<K, V>[] chain = getChainOrEmpty(hashCode);
+    for (int i = 0; i < chain.length; i++) {
+      if (chain[i] == entry) {
+        removeFromChain(hashCode, chain, i);
+        return;
+      }
+    }
+  }
+
+  private void removeFromChain(int hashCode, Entry<K, V>[] chain, int index) {
+    if (chain.length == 1) {
+      ArrayHelper.setLength(chain, 0);
+      // remove the whole array
+      backingMap.delete(hashCode);
+    } else {
+      // splice out the entry we're removing
+      ArrayHelper.removeFrom(chain, index, 1);
+    }
+    size--;
+    host.structureChanges++;
+    structureChanged(host);
+  }
+
   public Map.Entry<K, V> getEntry(Object key) {
-    return findEntryInChain(key, getChainOrEmpty(hash(key)));
+    return getEntry(key, hash(key));
+  }
+
+  /**
+   * Looks a key up given its hash code, so that callers which go on to update
+   * the map only hash the key once.
+   */
+  public Map.Entry<K, V> getEntry(Object key, int hashCode) {
+    return findEntryInChain(key, getChainOrEmpty(hashCode));
   }
 
   private Map.Entry<K, V> findEntryInChain(Object key, Entry<K, V>[] chain) {
@@ -102,6 +146,29 @@ class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
     return size;
   }
 
+  /**
+   * Walks the chains in place, without an iterator.
+   */
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    int changes = host.structureChanges;
+    backingMap.forEach((chain, hashCode) -> {
+      Entry<K, V>[] entries = unsafeCastToArray(chain);
+      for (int i = 0; i < entries.length && host.structureChanges == changes; i++) {
+        action.accept(entries[i].getKey(), entries[i].getValue());
+      }
+    });
+  }
+
+  public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+    int changes = host.structureChanges;
+    backingMap.forEach((chain, hashCode) -> {
+      Entry<K, V>[] entries = unsafeCastToArray(chain);
+      for (int i = 0; i < entries.length && host.structureChanges == changes; i++) {
+        entries[i].setValue(function.apply(entries[i].getKey(), entries[i].getValue()));
+      }
+    });
+  }
+
   @Override
   public Iterator<Entry<K, V>> iterator() {
     return new Iterator<Map.Entry<K,V>>() {
@@ -159,7 +226,7 @@ class InternalHashCodeMap<K, V> implements Iterable<Entry<K, V>> {
    * Returns hash code of the key as calculated by {@link AbstractHashMap#getHashCode(Object)} but
    * also handles null keys as well.
    */
-  private int hash(Object key) {
+  public int hash(Object key) {
     return key == null ? 0 : host.getHashCode(key);
   }
 }
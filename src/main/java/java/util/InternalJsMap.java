@@ -15,6 +15,8 @@
  */
 package java.util;
 
+import java.util.function.BiConsumer;
+
 import jsweet.lang.Ambient;
 
 @Ambient
@@ -34,14 +36,29 @@ class InternalJsMap<V> {
 
 	public native V get(String key);
 
+	/**
+	 * Gets the value of a number or boolean key.
+	 */
+	public native V get(Object key);
+
 	public native void set(int key, V value);
 
 	public native void set(String key, V value);
 
+	public native void set(Object key, V value);
+
 	public native final void delete(int key);
 
 	public native final void delete(String key);
 
+	public native final void delete(Object key);
+
 	public native Iterator<V> entries();
 
+	/**
+	 * Calls the callback with the value and the key of each entry, in
+	 * insertion order.
+	 */
+	public native void forEach(BiConsumer<V, Object> callback);
+
 }
\ No newline at end of file
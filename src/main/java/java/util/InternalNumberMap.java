@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+import static java.util.ConcurrentModificationDetector.structureChanged;
+
+import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import javaemul.internal.JsUtils;
+
+/**
+ * A JsMap keyed by the primitive value of number and boolean keys: boxed
+ * numbers and booleans are JavaScript primitives, and so are enum constants,
+ * which makes them valid native keys, with no hash code or chain to go
+ * through.
+ * <p>
+ * The native map finds NaN, as <code>Double.equals</code> does, but unlike
+ * it, does not tell -0.0 from 0.0, and neither does this map: at runtime, a
+ * <code>Double</code> key cannot be told from an <code>Integer</code> or
+ * <code>Long</code> one, for which -0 is 0. So 0.0 and -0.0 are one key.
+ */
+class InternalNumberMap<K, V> implements Iterable<Entry<K, V>> {
+
+	/**
+	 * Returns whether the given key belongs in a number map.
+	 */
+	static boolean accepts(Object key) {
+		String type = JsUtils.typeOf(key);
+		return "number".equals(type) || "boolean".equals(type);
+	}
+
+	/**
+	 * Returns whether the given keys, the first being accepted by a number
+	 * map, are the same key.
+	 */
+	static boolean sameKey(Object key1, Object key2) {
+		return accepts(key2) && (key1.equals(key2) || isNaN(key1) && isNaN(key2));
+	}
+
+	private static boolean isNaN(Object key) {
+		return key instanceof Double && Double.isNaN((Double) key);
+	}
+
+	private final InternalJsMap<V> backingMap = InternalJsMapFactory.newJsMap();
+	private AbstractHashMap<K, V> host;
+	private int size;
+
+	/**
+	 * A mod count to track 'value' replacements, as in
+	 * {@link InternalStringMap}.
+	 */
+	private int valueMod;
+
+	public InternalNumberMap(AbstractHashMap<K, V> host) {
+		this.host = host;
+	}
+
+	public boolean contains(Object key) {
+		return !JsUtils.isUndefined(backingMap.get(key));
+	}
+
+	public V get(Object key) {
+		return backingMap.get(key);
+	}
+
+	public V put(Object key, V value) {
+		V oldValue = backingMap.get(key);
+		backingMap.set(key, toNullIfUndefined(value));
+
+		if (JsUtils.isUndefined(oldValue)) {
+			size++;
+			host.structureChanges++;
+			structureChanged(host);
+		} else {
+			valueMod++;
+		}
+		return oldValue;
+	}
+
+	/**
+	 * Adds a mapping for a key known to be absent.
+	 */
+	public void add(Object key, V value) {
+		backingMap.set(key, toNullIfUndefined(value));
+		size++;
+		host.structureChanges++;
+		structureChanged(host);
+	}
+
+	/**
+	 * Replaces the value of a key known to be present.
+	 */
+	public void replace(Object key, V value) {
+		backingMap.set(key, toNullIfUndefined(value));
+		valueMod++;
+	}
+
+	public V remove(Object key) {
+		V value = backingMap.get(key);
+		if (!JsUtils.isUndefined(value)) {
+			backingMap.delete(key);
+			size--;
+			host.structureChanges++;
+			structureChanged(host);
+		}
+		return value;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Walks the backing map in place, as {@link InternalStringMap} does.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		int changes = host.structureChanges;
+		backingMap.forEach((value, key) -> {
+			if (host.structureChanges == changes) {
+				action.accept((K) key, value);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		// setting an existing key neither moves it nor disturbs the walk, but
+		// setting a key that the function removed would add it back
+		int changes = host.structureChanges;
+		backingMap.forEach((value, key) -> {
+			if (host.structureChanges == changes) {
+				V newValue = function.apply((K) key, value);
+				if (host.structureChanges == changes) {
+					backingMap.set(key, toNullIfUndefined(newValue));
+				}
+			}
+		});
+		valueMod++;
+	}
+
+	@Override
+	public Iterator<Entry<K, V>> iterator() {
+		return new Iterator<Map.Entry<K, V>>() {
+			InternalJsMap.Iterator<V> entries = backingMap.entries();
+			InternalJsMap.IteratorEntry<V> current = entries.next();
+			InternalJsMap.IteratorEntry<V> last;
+
+			@Override
+			public boolean hasNext() {
+				return !current.done;
+			}
+
+			@Override
+			public Entry<K, V> next() {
+				last = current;
+				current = entries.next();
+				return newMapEntry(last, valueMod);
+			}
+
+			@Override
+			public void remove() {
+				InternalNumberMap.this.remove(last.value[0]);
+			}
+		};
+	}
+
+	private Entry<K, V> newMapEntry(final InternalJsMap.IteratorEntry<V> entry, final int lastValueMod) {
+		return new AbstractMapEntry<K, V>() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public K getKey() {
+				return (K) entry.value[0];
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V getValue() {
+				if (valueMod != lastValueMod) {
+					// Let's get a fresh copy as the value may have changed.
+					return backingMap.get(entry.value[0]);
+				}
+				return (V) entry.value[1];
+			}
+
+			@Override
+			public V setValue(V object) {
+				return put(getKey(), object);
+			}
+		};
+	}
+
+	private static <T> T toNullIfUndefined(T value) {
+		return JsUtils.isUndefined(value) ? null : value;
+	}
+}
@@ -18,6 +18,8 @@ package java.util;
 import static java.util.ConcurrentModificationDetector.structureChanged;
 
 import java.util.Map.Entry;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 
 import javaemul.internal.JsUtils;
 
@@ -26,6 +28,14 @@ import javaemul.internal.JsUtils;
  */
 class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 
+	/**
+	 * When the <code>jre.map.flyweightEntries</code> system property is "true",
+	 * each iterator hands out a single entry, updated at every step, instead
+	 * of a new entry per step. Entries must then not be kept beyond the step
+	 * that returned them.
+	 */
+	private static final boolean FLYWEIGHT_ENTRIES = "true".equals(System.getProperty("jre.map.flyweightEntries"));
+
 	private final InternalJsMap<V> backingMap = InternalJsMapFactory.newJsMap();
 	private AbstractHashMap<K, V> host;
 	private int size;
@@ -56,6 +66,7 @@ class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 
 		if (JsUtils.isUndefined(oldValue)) {
 			size++;
+			host.structureChanges++;
 			structureChanged(host);
 		} else {
 			valueMod++;
@@ -63,11 +74,30 @@ class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 		return oldValue;
 	}
 
+	/**
+	 * Adds a mapping for a key known to be absent.
+	 */
+	public void add(String key, V value) {
+		backingMap.set(key, toNullIfUndefined(value));
+		size++;
+		host.structureChanges++;
+		structureChanged(host);
+	}
+
+	/**
+	 * Replaces the value of a key known to be present.
+	 */
+	public void replace(String key, V value) {
+		backingMap.set(key, toNullIfUndefined(value));
+		valueMod++;
+	}
+
 	public V remove(String key) {
 		V value = backingMap.get(key);
 		if (!JsUtils.isUndefined(value)) {
 			backingMap.delete(key);
 			size--;
+			host.structureChanges++;
 			structureChanged(host);
 		} else {
 			valueMod++;
@@ -80,12 +110,44 @@ class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 		return size;
 	}
 
+	/**
+	 * Walks the backing map in place, without an iterator. The native walk
+	 * would also visit the keys added by the action, so it stops calling the
+	 * action at the first structural change, which the host then reports.
+	 */
+	@SuppressWarnings("unchecked")
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		int changes = host.structureChanges;
+		backingMap.forEach((value, key) -> {
+			if (host.structureChanges == changes) {
+				action.accept((K) key, value);
+			}
+		});
+	}
+
+	@SuppressWarnings("unchecked")
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		// setting an existing key neither moves it nor disturbs the walk, but
+		// setting a key that the function removed would add it back
+		int changes = host.structureChanges;
+		backingMap.forEach((value, key) -> {
+			if (host.structureChanges == changes) {
+				V newValue = function.apply((K) key, value);
+				if (host.structureChanges == changes) {
+					backingMap.set((String) key, toNullIfUndefined(newValue));
+				}
+			}
+		});
+		valueMod++;
+	}
+
 	@Override
 	public Iterator<Entry<K, V>> iterator() {
 		return new Iterator<Map.Entry<K, V>>() {
 			InternalJsMap.Iterator<V> entries = backingMap.entries();
 			InternalJsMap.IteratorEntry<V> current = entries.next();
 			InternalJsMap.IteratorEntry<V> last;
+			FlyweightEntry flyweight = FLYWEIGHT_ENTRIES ? new FlyweightEntry() : null;
 
 			@Override
 			public boolean hasNext() {
@@ -96,6 +158,9 @@ class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 			public Entry<K, V> next() {
 				last = current;
 				current = entries.next();
+				if (flyweight != null) {
+					return flyweight.moveTo(last, valueMod);
+				}
 				return newMapEntry(last, valueMod);
 			}
 
@@ -130,6 +195,41 @@ class InternalStringMap<K, V> implements Iterable<Entry<K, V>> {
 		};
 	}
 
+	/**
+	 * The reusable entry of the flyweight mode.
+	 */
+	private final class FlyweightEntry extends AbstractMapEntry<K, V> {
+		private InternalJsMap.IteratorEntry<V> entry;
+		private int lastValueMod;
+
+		FlyweightEntry moveTo(InternalJsMap.IteratorEntry<V> entry, int lastValueMod) {
+			this.entry = entry;
+			this.lastValueMod = lastValueMod;
+			return this;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public K getKey() {
+			return (K) entry.value[0];
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {
+			if (valueMod != lastValueMod) {
+				// Let's get a fresh copy as the value may have changed.
+				return get((String) entry.value[0]);
+			}
+			return (V) entry.value[1];
+		}
+
+		@Override
+		public V setValue(V object) {
+			return put((String) entry.value[0], object);
+		}
+	}
+
 	private static <T> T toNullIfUndefined(T value) {
 		return JsUtils.isUndefined(value) ? null : value;
 	}
@@ -16,16 +16,33 @@
 package java.util;
 
 import static java.util.ConcurrentModificationDetector.checkStructuralChange;
+import static java.util.ConcurrentModificationDetector.getStructure;
 import static java.util.ConcurrentModificationDetector.recordLastKnownStructure;
 import static javaemul.internal.InternalPreconditions.checkCriticalElement;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
 import static javaemul.internal.InternalPreconditions.checkState;
 
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import jsweet.util.Lang;
+
 /**
  * Hash table implementation of the Map interface with predictable iteration
  * order. <a href=
  * "http://java.sun.com/j2se/1.5.0/docs/api/java/util/LinkedHashMap.html">[Sun
  * docs]</a>
  *
+ * <p>
+ * The entries live in the tables inherited from {@link HashMap}. As long as
+ * all keys are Strings, the map is in insertion order and
+ * {@link #removeEldestEntry(Map.Entry)} is not overridden, the values are
+ * stored as is and the order is the one of the native string table, or of
+ * the compact map while the map is small, both being insertion orders. Otherwise,
+ * the tables map each key to a {@link ChainEntry} linked in iteration order,
+ * so that moving an entry on access stays O(1).
+ *
  * @param <K>
  *            key type.
  * @param <V>
@@ -38,12 +55,8 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 	 * list with a head node. This reduces the special cases we have to deal
 	 * with in the list operations.
 	 *
-	 * Note that we duplicate the key from the underlying hash map so we can
-	 * find the eldest entry. The alternative would have been to modify HashMap
-	 * so more of the code was directly usable here, but this would have added
-	 * some overhead to HashMap, or to reimplement most of the HashMap code here
-	 * with small modifications. Paying a small storage cost only if you use
-	 * LinkedHashMap and minimizing code size seemed like a better tradeoff
+	 * It is stored as the value of its key in the inherited tables, and holds
+	 * the actual value.
 	 */
 	private class ChainEntry extends SimpleEntry<K, V> {
 		private transient ChainEntry next;
@@ -96,7 +109,7 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 
 			public EntryIterator() {
 				next = head.next;
-				recordLastKnownStructure(map, this);
+				recordLastKnownStructure(LinkedHashMap.this, this);
 			}
 
 			@Override
@@ -106,7 +119,7 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 
 			@Override
 			public Map.Entry<K, V> next() {
-				checkStructuralChange(map, this);
+				checkStructuralChange(LinkedHashMap.this, this);
 				checkCriticalElement(hasNext());
 
 				last = next;
@@ -117,11 +130,10 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 			@Override
 			public void remove() {
 				checkState(last != null);
-				checkStructuralChange(map, this);
+				checkStructuralChange(LinkedHashMap.this, this);
 
-				last.remove();
-				map.remove(last.getKey());
-				recordLastKnownStructure(map, this);
+				removeChainEntry(last);
+				recordLastKnownStructure(LinkedHashMap.this, this);
 				last = null;
 			}
 		}
@@ -141,7 +153,7 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 
 		@Override
 		public Iterator<Map.Entry<K, V>> iterator() {
-			return new EntryIterator();
+			return head == null ? nativeIterator() : new EntryIterator();
 		}
 
 		@Override
@@ -166,24 +178,16 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 
 	/*
 	 * The head of the LRU/insert order chain, which is a doubly-linked circular
-	 * list. The key and value of head should never be read.
+	 * list. The key and value of head should never be read. Null while the
+	 * order is the one of the native string table.
 	 *
 	 * The most recently inserted/accessed node is at the end of the chain, ie.
 	 * chain.prev.
 	 */
-	private final transient ChainEntry head;
-
-	/*
-	 * The hashmap that keeps track of our entries and the chain. Note that we
-	 * duplicate the key here to eliminate changes to HashMap and minimize the
-	 * code here, at the expense of additional space.
-	 */
-	private final transient HashMap<K, ChainEntry> map;
+	private transient ChainEntry head;
 
 	public LinkedHashMap() {
-		this.head = new ChainEntry();
-		this.map = new HashMap<K, ChainEntry>();
-		resetChainEntries();
+		linkIfNeeded();
 	}
 
 	public LinkedHashMap(int ignored) {
@@ -192,35 +196,25 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 
 	public LinkedHashMap(int ignored, float alsoIgnored) {
 		super(ignored, alsoIgnored);
-		this.head = new ChainEntry();
-		this.map = new HashMap<K, ChainEntry>();
-		resetChainEntries();
+		linkIfNeeded();
 	}
 
 	public LinkedHashMap(int ignored, float alsoIgnored, boolean accessOrder) {
 		super(ignored, alsoIgnored);
-		this.head = new ChainEntry();
-		this.map = new HashMap<K, ChainEntry>();
 		this.accessOrder = accessOrder;
-		resetChainEntries();
+		linkIfNeeded();
 	}
 
 	public LinkedHashMap(Map<? extends K, ? extends V> toBeCopied) {
-		this.head = new ChainEntry();
-		this.map = new HashMap<K, ChainEntry>();
-		resetChainEntries();
+		linkIfNeeded();
 		this.putAll(toBeCopied);
 	}
 
 	@Override
 	public void clear() {
-		map.clear();
-		resetChainEntries();
-	}
-
-	private void resetChainEntries() {
-		head.prev = head;
-		head.next = head;
+		super.clear();
+		head = null;
+		linkIfNeeded();
 	}
 
 	@Override
@@ -228,13 +222,11 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 		return new LinkedHashMap<K, V>(this);
 	}
 
-	@Override
-	public boolean containsKey(Object key) {
-		return map.containsKey(key);
-	}
-
 	@Override
 	public boolean containsValue(Object value) {
+		if (head == null) {
+			return super.containsValue(value);
+		}
 		ChainEntry node = head.next;
 		while (node != head) {
 			if (Objects.equals(node.getValue(), value)) {
@@ -250,9 +242,42 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 		return new EntrySet();
 	}
 
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		if (head == null) {
+			super.forEach(action);
+			return;
+		}
+		checkNotNull(action);
+		int structure = getStructure(this);
+		int changes = structureChanges;
+		for (ChainEntry node = head.next; node != head && structureChanges == changes; node = node.next) {
+			action.accept(node.getKey(), node.getValue());
+		}
+		checkStructuralChange(this, structure);
+	}
+
+	@Override
+	public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+		if (head == null) {
+			super.replaceAll(function);
+			return;
+		}
+		checkNotNull(function);
+		int structure = getStructure(this);
+		int changes = structureChanges;
+		for (ChainEntry node = head.next; node != head && structureChanges == changes; node = node.next) {
+			node.setValue(function.apply(node.getKey(), node.getValue()));
+		}
+		checkStructuralChange(this, structure);
+	}
+
 	@Override
 	public V get(Object key) {
-		ChainEntry entry = map.get(key);
+		if (head == null) {
+			return super.get(key);
+		}
+		ChainEntry entry = getChainEntry(key);
 		if (entry != null) {
 			recordAccess(entry);
 			return entry.getValue();
@@ -260,18 +285,27 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 		return null;
 	}
 
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		if (head == null) {
+			return super.getOrDefault(key, defaultValue);
+		}
+		ChainEntry entry = getChainEntry(key);
+		if (entry != null) {
+			recordAccess(entry);
+			return entry.getValue();
+		}
+		return defaultValue;
+	}
+
 	@Override
 	public V put(K key, V value) {
-		ChainEntry old = map.get(key);
+		if (usesNativeOrder(key)) {
+			return super.put(key, value);
+		}
+		ChainEntry old = getChainEntry(key);
 		if (old == null) {
-			ChainEntry newEntry = new ChainEntry(key, value);
-			map.put(key, newEntry);
-			newEntry.addToEnd();
-			ChainEntry eldest = head.next;
-			if (removeEldestEntry(eldest)) {
-				eldest.remove();
-				map.remove(eldest.getKey());
-			}
+			addChainEntry(key, value);
 			return null;
 		} else {
 			V oldValue = old.setValue(value);
@@ -281,18 +315,98 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 	}
 
 	@Override
-	public V remove(Object key) {
-		ChainEntry entry = map.remove(key);
-		if (entry != null) {
-			entry.remove();
+	public V putIfAbsent(K key, V value) {
+		if (usesNativeOrder(key)) {
+			return super.putIfAbsent(key, value);
+		}
+		ChainEntry entry = getChainEntry(key);
+		if (entry == null) {
+			addChainEntry(key, value);
+			return null;
+		}
+		V current = entry.getValue();
+		if (current == null) {
+			entry.setValue(value);
+		}
+		recordAccess(entry);
+		return current;
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if (usesNativeOrder(key)) {
+			return super.computeIfAbsent(key, mappingFunction);
+		}
+		checkNotNull(mappingFunction);
+		ChainEntry entry = getChainEntry(key);
+		if (entry != null && entry.getValue() != null) {
+			recordAccess(entry);
 			return entry.getValue();
 		}
-		return null;
+		int changes = structureChanges;
+		V value = mappingFunction.apply(key);
+		if (value != null) {
+			if (structureChanges != changes) {
+				put(key, value);
+			} else if (entry == null) {
+				addChainEntry(key, value);
+			} else {
+				entry.setValue(value);
+				recordAccess(entry);
+			}
+		}
+		return value;
 	}
 
 	@Override
-	public int size() {
-		return map.size();
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (usesNativeOrder(key)) {
+			return super.computeIfPresent(key, remappingFunction);
+		}
+		checkNotNull(remappingFunction);
+		ChainEntry entry = getChainEntry(key);
+		if (entry == null || entry.getValue() == null) {
+			return null;
+		}
+		int changes = structureChanges;
+		return update(changes, key, entry, remappingFunction.apply(key, entry.getValue()));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (usesNativeOrder(key)) {
+			return super.compute(key, remappingFunction);
+		}
+		checkNotNull(remappingFunction);
+		ChainEntry entry = getChainEntry(key);
+		int changes = structureChanges;
+		return update(changes, key, entry, remappingFunction.apply(key, entry == null ? null : entry.getValue()));
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (usesNativeOrder(key)) {
+			return super.merge(key, value, remappingFunction);
+		}
+		checkNotNull(value);
+		checkNotNull(remappingFunction);
+		ChainEntry entry = getChainEntry(key);
+		V current = entry == null ? null : entry.getValue();
+		int changes = structureChanges;
+		return update(changes, key, entry, current == null ? value : remappingFunction.apply(current, value));
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (head == null) {
+			return super.remove(key);
+		}
+		ChainEntry entry = getChainEntry(key);
+		if (entry != null) {
+			removeChainEntry(entry);
+			return entry.getValue();
+		}
+		return null;
 	}
 
 	@SuppressWarnings("unused")
@@ -300,6 +414,102 @@ public class LinkedHashMap<K, V> extends HashMap<K, V> implements Map<K, V> {
 		return false;
 	}
 
+	/**
+	 * Returns whether the operation on the given key can use the native order,
+	 * switching to the chain if it cannot.
+	 */
+	private boolean usesNativeOrder(Object key) {
+		if (head == null) {
+			if (key instanceof String) {
+				return true;
+			}
+			link();
+		}
+		return false;
+	}
+
+	/**
+	 * Switches to the chain when the native order cannot provide the
+	 * iteration order or the eldest entry.
+	 */
+	private void linkIfNeeded() {
+		if (accessOrder || Lang.<Boolean> $insert("this.removeEldestEntry !== LinkedHashMap.prototype.removeEldestEntry")) {
+			link();
+		}
+	}
+
+	/**
+	 * Chains the current entries in their native order, replacing their values
+	 * in the tables with the chain entries.
+	 */
+	@SuppressWarnings("unchecked")
+	private void link() {
+		// the values change from under the operations in progress
+		structureChanges++;
+		head = new ChainEntry();
+		head.prev = head;
+		head.next = head;
+		for (Iterator<Map.Entry<K, V>> it = nativeIterator(); it.hasNext();) {
+			Map.Entry<K, V> entry = it.next();
+			ChainEntry chainEntry = new ChainEntry(entry.getKey(), entry.getValue());
+			chainEntry.addToEnd();
+			entry.setValue((V) chainEntry);
+		}
+	}
+
+	private Iterator<Map.Entry<K, V>> nativeIterator() {
+		return super.entrySet().iterator();
+	}
+
+	@SuppressWarnings("unchecked")
+	private ChainEntry getChainEntry(Object key) {
+		return (ChainEntry) super.get(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addChainEntry(K key, V value) {
+		ChainEntry entry = new ChainEntry(key, value);
+		super.put(key, (V) entry);
+		entry.addToEnd();
+		ChainEntry eldest = head.next;
+		if (removeEldestEntry(eldest)) {
+			removeChainEntry(eldest);
+		}
+	}
+
+	private void removeChainEntry(ChainEntry entry) {
+		entry.remove();
+		super.remove(entry.getKey());
+	}
+
+	/**
+	 * Stores the outcome of a remapping: the entry found by the lookup, if any,
+	 * is updated or removed in place, unless the function changed the
+	 * structure of the map, in which case put or remove look the key up again.
+	 * Returns the new value.
+	 */
+	private V update(int changes, K key, ChainEntry entry, V value) {
+		if (structureChanges != changes) {
+			if (value == null) {
+				remove(key);
+			} else {
+				put(key, value);
+			}
+			return value;
+		}
+		if (value == null) {
+			if (entry != null) {
+				removeChainEntry(entry);
+			}
+		} else if (entry == null) {
+			addChainEntry(key, value);
+		} else {
+			entry.setValue(value);
+			recordAccess(entry);
+		}
+		return value;
+	}
+
 	private void recordAccess(ChainEntry entry) {
 		if (accessOrder) {
 			// Move to the tail of the chain on access.
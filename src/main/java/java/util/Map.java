@@ -15,6 +15,7 @@
  */
 package java.util;
 
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -120,6 +121,40 @@ public interface Map<K, V> {
 		return result;
 	}
 
+	default V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V old = get(key);
+		if (old == null) {
+			return null;
+		}
+		V next = remappingFunction.apply(key, old);
+		if (next == null) {
+			remove(key);
+		} else {
+			put(key, next);
+		}
+		return next;
+	}
+
+	default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V old = get(key);
+		V next = remappingFunction.apply(key, old);
+		if (next == null) {
+			if (old != null || containsKey(key)) {
+				remove(key);
+			}
+		} else {
+			put(key, next);
+		}
+		return next;
+	}
+
+	default void forEach(BiConsumer<? super K, ? super V> action) {
+		Objects.requireNonNull(action);
+		for (Map.Entry<K, V> entry : entrySet()) {
+			action.accept(entry.getKey(), entry.getValue());
+		}
+	}
+
 	default V getOrDefault(Object key, V defaultValue) {
 		V v;
 		return (((v = get(key)) != null) || containsKey(key)) ? v : defaultValue;
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/MissingFormatWidthException.html">
+ * the official Java API doc</a> for details.
+ */
+public class MissingFormatWidthException extends IllegalFormatException {
+
+  private final String formatSpecifier;
+
+  public MissingFormatWidthException(String formatSpecifier) {
+    super(Objects.requireNonNull(formatSpecifier));
+    this.formatSpecifier = formatSpecifier;
+  }
+
+  public String getFormatSpecifier() {
+    return formatSpecifier;
+  }
+}
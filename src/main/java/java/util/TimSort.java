@@ -0,0 +1,585 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * An adaptive, stable merge sort of object arrays, after Tim Peters' sort for
+ * Python.
+ * <p>
+ * The range is cut into runs that are already in order (strictly descending
+ * runs are reversed), short runs being extended by binary insertion sort to a
+ * minimum length. Runs are merged as they are found, under invariants on their
+ * lengths that keep the merges balanced; a merge only copies the shorter of
+ * its two runs aside, and switches to galloping (exponential search) when one
+ * run keeps winning. A sorted or mostly sorted range thus costs close to n
+ * comparisons and little temporary space.
+ */
+final class TimSort {
+
+  /**
+   * Ranges shorter than this are sorted by binary insertion sort alone.
+   */
+  private static final int MIN_MERGE = 32;
+
+  /**
+   * The initial number of consecutive wins of a run before a merge starts
+   * galloping.
+   */
+  private static final int MIN_GALLOP = 7;
+
+  /**
+   * The initial size of the temporary array, unless the range is shorter.
+   */
+  private static final int INITIAL_TMP_LENGTH = 256;
+
+  /**
+   * Sorts the given range of the array in place.
+   */
+  static void sort(Object[] array, int fromIndex, int toIndex, Comparator<Object> comp) {
+    int remaining = toIndex - fromIndex;
+    if (remaining < 2) {
+      return;
+    }
+
+    if (remaining < MIN_MERGE) {
+      int runLength = countRunAndMakeAscending(array, fromIndex, toIndex, comp);
+      binaryInsertionSort(array, fromIndex, toIndex, fromIndex + runLength, comp);
+      return;
+    }
+
+    TimSort sort = new TimSort(array, comp, remaining);
+    int minRun = minRunLength(remaining);
+    int low = fromIndex;
+    do {
+      int runLength = countRunAndMakeAscending(array, low, toIndex, comp);
+      if (runLength < minRun) {
+        int forced = remaining <= minRun ? remaining : minRun;
+        binaryInsertionSort(array, low, low + forced, low + runLength, comp);
+        runLength = forced;
+      }
+      sort.pushRun(low, runLength);
+      sort.mergeCollapse();
+      low += runLength;
+      remaining -= runLength;
+    } while (remaining != 0);
+    sort.mergeForceCollapse();
+  }
+
+  /**
+   * Sorts the range [low, high) by binary insertion, [low, start) being
+   * already sorted.
+   */
+  private static void binaryInsertionSort(Object[] array, int low, int high, int start,
+      Comparator<Object> comp) {
+    if (start == low) {
+      start++;
+    }
+    for (; start < high; start++) {
+      Object pivot = array[start];
+      int left = low;
+      int right = start;
+      while (left < right) {
+        int mid = (left + right) >>> 1;
+        if (comp.compare(pivot, array[mid]) < 0) {
+          right = mid;
+        } else {
+          left = mid + 1;
+        }
+      }
+      // left is past the elements equal to pivot, which keeps the sort stable
+      for (int i = start; i > left; i--) {
+        array[i] = array[i - 1];
+      }
+      array[left] = pivot;
+    }
+  }
+
+  /**
+   * Returns the length of the run starting at low, reversing it first if it is
+   * strictly descending.
+   */
+  private static int countRunAndMakeAscending(Object[] array, int low, int high,
+      Comparator<Object> comp) {
+    int runHigh = low + 1;
+    if (runHigh == high) {
+      return 1;
+    }
+    if (comp.compare(array[runHigh++], array[low]) < 0) {
+      while (runHigh < high && comp.compare(array[runHigh], array[runHigh - 1]) < 0) {
+        runHigh++;
+      }
+      reverseRange(array, low, runHigh);
+    } else {
+      while (runHigh < high && comp.compare(array[runHigh], array[runHigh - 1]) >= 0) {
+        runHigh++;
+      }
+    }
+    return runHigh - low;
+  }
+
+  private static void reverseRange(Object[] array, int low, int high) {
+    high--;
+    while (low < high) {
+      Object t = array[low];
+      array[low++] = array[high];
+      array[high--] = t;
+    }
+  }
+
+  /**
+   * Returns the minimum run length for a range of the given length: a number
+   * between MIN_MERGE / 2 and MIN_MERGE such that the range splits into a
+   * power of two runs, or slightly fewer.
+   */
+  private static int minRunLength(int length) {
+    int lowBits = 0;
+    while (length >= MIN_MERGE) {
+      lowBits |= length & 1;
+      length >>= 1;
+    }
+    return length + lowBits;
+  }
+
+  /**
+   * Returns the index in the sorted range [base, base + length) at which to
+   * insert key, before the elements equal to it; hint is the index, relative
+   * to base, where to start looking.
+   */
+  private static int gallopLeft(Object key, Object[] array, int base, int length, int hint,
+      Comparator<Object> comp) {
+    int lastOffset = 0;
+    int offset = 1;
+    if (comp.compare(key, array[base + hint]) > 0) {
+      // gallop right until array[base + hint + lastOffset] < key <= array[base + hint + offset]
+      int maxOffset = length - hint;
+      while (offset < maxOffset && comp.compare(key, array[base + hint + offset]) > 0) {
+        lastOffset = offset;
+        offset = (offset << 1) + 1;
+        if (offset <= 0) {
+          offset = maxOffset;
+        }
+      }
+      if (offset > maxOffset) {
+        offset = maxOffset;
+      }
+      lastOffset += hint;
+      offset += hint;
+    } else {
+      // gallop left until array[base + hint - offset] < key <= array[base + hint - lastOffset]
+      int maxOffset = hint + 1;
+      while (offset < maxOffset && comp.compare(key, array[base + hint - offset]) <= 0) {
+        lastOffset = offset;
+        offset = (offset << 1) + 1;
+        if (offset <= 0) {
+          offset = maxOffset;
+        }
+      }
+      if (offset > maxOffset) {
+        offset = maxOffset;
+      }
+      int t = lastOffset;
+      lastOffset = hint - offset;
+      offset = hint - t;
+    }
+
+    // binary search in (lastOffset, offset]
+    lastOffset++;
+    while (lastOffset < offset) {
+      int mid = lastOffset + ((offset - lastOffset) >>> 1);
+      if (comp.compare(key, array[base + mid]) > 0) {
+        lastOffset = mid + 1;
+      } else {
+        offset = mid;
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Like {@link #gallopLeft}, but returns the index after the elements equal
+   * to key.
+   */
+  private static int gallopRight(Object key, Object[] array, int base, int length, int hint,
+      Comparator<Object> comp) {
+    int lastOffset = 0;
+    int offset = 1;
+    if (comp.compare(key, array[base + hint]) < 0) {
+      // gallop left until array[base + hint - offset] <= key < array[base + hint - lastOffset]
+      int maxOffset = hint + 1;
+      while (offset < maxOffset && comp.compare(key, array[base + hint - offset]) < 0) {
+        lastOffset = offset;
+        offset = (offset << 1) + 1;
+        if (offset <= 0) {
+          offset = maxOffset;
+        }
+      }
+      if (offset > maxOffset) {
+        offset = maxOffset;
+      }
+      int t = lastOffset;
+      lastOffset = hint - offset;
+      offset = hint - t;
+    } else {
+      // gallop right until array[base + hint + lastOffset] <= key < array[base + hint + offset]
+      int maxOffset = length - hint;
+      while (offset < maxOffset && comp.compare(key, array[base + hint + offset]) >= 0) {
+        lastOffset = offset;
+        offset = (offset << 1) + 1;
+        if (offset <= 0) {
+          offset = maxOffset;
+        }
+      }
+      if (offset > maxOffset) {
+        offset = maxOffset;
+      }
+      lastOffset += hint;
+      offset += hint;
+    }
+
+    // binary search in (lastOffset, offset]
+    lastOffset++;
+    while (lastOffset < offset) {
+      int mid = lastOffset + ((offset - lastOffset) >>> 1);
+      if (comp.compare(key, array[base + mid]) < 0) {
+        offset = mid;
+      } else {
+        lastOffset = mid + 1;
+      }
+    }
+    return offset;
+  }
+
+  /**
+   * Copies a range of elements, the ranges possibly overlapping within the
+   * same array.
+   */
+  private static void copy(Object[] src, int srcOfs, Object[] dest, int destOfs, int length) {
+    if (src == dest && srcOfs < destOfs) {
+      for (int i = length - 1; i >= 0; i--) {
+        dest[destOfs + i] = src[srcOfs + i];
+      }
+    } else {
+      for (int i = 0; i < length; i++) {
+        dest[destOfs + i] = src[srcOfs + i];
+      }
+    }
+  }
+
+  private final Object[] array;
+  private final Comparator<Object> comp;
+  private int minGallop = MIN_GALLOP;
+
+  /**
+   * Temporary space for merges, grown as needed up to half the range.
+   */
+  private Object[] tmp;
+  private final int maxTmpLength;
+
+  /**
+   * The stack of the runs pending merge. Their lengths grow at least as fast
+   * as the Fibonacci numbers from the top down, so 49 runs cover any int
+   * length.
+   */
+  private final int[] runBase = new int[49];
+  private final int[] runLength = new int[49];
+  private int stackSize = 0;
+
+  private TimSort(Object[] array, Comparator<Object> comp, int length) {
+    this.array = array;
+    this.comp = comp;
+    this.maxTmpLength = length >>> 1;
+    this.tmp = new Object[Math.min(INITIAL_TMP_LENGTH, maxTmpLength)];
+  }
+
+  private void pushRun(int base, int length) {
+    runBase[stackSize] = base;
+    runLength[stackSize] = length;
+    stackSize++;
+  }
+
+  /**
+   * Merges the runs at the top of the stack until their lengths satisfy, for
+   * all i, runLength[i - 2] > runLength[i - 1] + runLength[i] and
+   * runLength[i - 1] > runLength[i].
+   */
+  private void mergeCollapse() {
+    while (stackSize > 1) {
+      int n = stackSize - 2;
+      if (n > 0 && runLength[n - 1] <= runLength[n] + runLength[n + 1]
+          || n > 1 && runLength[n - 2] <= runLength[n] + runLength[n - 1]) {
+        if (runLength[n - 1] < runLength[n + 1]) {
+          n--;
+        }
+      } else if (runLength[n] > runLength[n + 1]) {
+        break;
+      }
+      mergeAt(n);
+    }
+  }
+
+  /**
+   * Merges all the runs left on the stack.
+   */
+  private void mergeForceCollapse() {
+    while (stackSize > 1) {
+      int n = stackSize - 2;
+      if (n > 0 && runLength[n - 1] < runLength[n + 1]) {
+        n--;
+      }
+      mergeAt(n);
+    }
+  }
+
+  /**
+   * Merges the runs at stack indices i and i + 1, i being one of the two
+   * runs under the top one.
+   */
+  private void mergeAt(int i) {
+    int base1 = runBase[i];
+    int length1 = runLength[i];
+    int base2 = runBase[i + 1];
+    int length2 = runLength[i + 1];
+
+    runLength[i] = length1 + length2;
+    if (i == stackSize - 3) {
+      runBase[i + 1] = runBase[i + 2];
+      runLength[i + 1] = runLength[i + 2];
+    }
+    stackSize--;
+
+    // the elements of run1 before the first of run2, and those of run2 after
+    // the last of run1, are already in place
+    int k = gallopRight(array[base2], array, base1, length1, 0, comp);
+    base1 += k;
+    length1 -= k;
+    if (length1 == 0) {
+      return;
+    }
+    length2 = gallopLeft(array[base1 + length1 - 1], array, base2, length2, length2 - 1, comp);
+    if (length2 == 0) {
+      return;
+    }
+
+    if (length1 <= length2) {
+      mergeLow(base1, length1, base2, length2);
+    } else {
+      mergeHigh(base1, length1, base2, length2);
+    }
+  }
+
+  /**
+   * Merges two adjacent runs from the left, copying the first, and shorter,
+   * one aside. The first element of run1 must be greater than the first of
+   * run2, and the last of run1 greater than all of run2.
+   */
+  private void mergeLow(int base1, int length1, int base2, int length2) {
+    Object[] array = this.array;
+    Object[] tmp = ensureCapacity(length1);
+    copy(array, base1, tmp, 0, length1);
+
+    int cursor1 = 0;
+    int cursor2 = base2;
+    int dest = base1;
+
+    array[dest++] = array[cursor2++];
+    if (--length2 == 0) {
+      copy(tmp, cursor1, array, dest, length1);
+      return;
+    }
+    if (length1 == 1) {
+      copy(array, cursor2, array, dest, length2);
+      array[dest + length2] = tmp[cursor1];
+      return;
+    }
+
+    Comparator<Object> comp = this.comp;
+    int minGallop = this.minGallop;
+    outer: while (true) {
+      int count1 = 0;
+      int count2 = 0;
+
+      // one element at a time, until a run keeps winning
+      do {
+        if (comp.compare(array[cursor2], tmp[cursor1]) < 0) {
+          array[dest++] = array[cursor2++];
+          count2++;
+          count1 = 0;
+          if (--length2 == 0) {
+            break outer;
+          }
+        } else {
+          array[dest++] = tmp[cursor1++];
+          count1++;
+          count2 = 0;
+          if (--length1 == 1) {
+            break outer;
+          }
+        }
+      } while ((count1 | count2) < minGallop);
+
+      // gallop, until neither run wins by much
+      do {
+        count1 = gallopRight(array[cursor2], tmp, cursor1, length1, 0, comp);
+        if (count1 != 0) {
+          copy(tmp, cursor1, array, dest, count1);
+          dest += count1;
+          cursor1 += count1;
+          length1 -= count1;
+          if (length1 <= 1) {
+            break outer;
+          }
+        }
+        array[dest++] = array[cursor2++];
+        if (--length2 == 0) {
+          break outer;
+        }
+
+        count2 = gallopLeft(tmp[cursor1], array, cursor2, length2, 0, comp);
+        if (count2 != 0) {
+          copy(array, cursor2, array, dest, count2);
+          dest += count2;
+          cursor2 += count2;
+          length2 -= count2;
+          if (length2 == 0) {
+            break outer;
+          }
+        }
+        array[dest++] = tmp[cursor1++];
+        if (--length1 == 1) {
+          break outer;
+        }
+        minGallop--;
+      } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+      if (minGallop < 0) {
+        minGallop = 0;
+      }
+      // make galloping harder to get back to
+      minGallop += 2;
+    }
+    this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+    if (length1 == 1) {
+      copy(array, cursor2, array, dest, length2);
+      array[dest + length2] = tmp[cursor1];
+    } else if (length1 == 0) {
+      throw new IllegalArgumentException("Comparison method violates its general contract!");
+    } else {
+      copy(tmp, cursor1, array, dest, length1);
+    }
+  }
+
+  /**
+   * Merges two adjacent runs from the right, copying the second, and shorter,
+   * one aside. The same preconditions as for {@link #mergeLow} apply.
+   */
+  private void mergeHigh(int base1, int length1, int base2, int length2) {
+    Object[] array = this.array;
+    Object[] tmp = ensureCapacity(length2);
+    copy(array, base2, tmp, 0, length2);
+
+    int cursor1 = base1 + length1 - 1;
+    int cursor2 = length2 - 1;
+    int dest = base2 + length2 - 1;
+
+    array[dest--] = array[cursor1--];
+    if (--length1 == 0) {
+      copy(tmp, 0, array, dest - (length2 - 1), length2);
+      return;
+    }
+    if (length2 == 1) {
+      dest -= length1;
+      cursor1 -= length1;
+      copy(array, cursor1 + 1, array, dest + 1, length1);
+      array[dest] = tmp[cursor2];
+      return;
+    }
+
+    Comparator<Object> comp = this.comp;
+    int minGallop = this.minGallop;
+    outer: while (true) {
+      int count1 = 0;
+      int count2 = 0;
+
+      // one element at a time, until a run keeps winning
+      do {
+        if (comp.compare(tmp[cursor2], array[cursor1]) < 0) {
+          array[dest--] = array[cursor1--];
+          count1++;
+          count2 = 0;
+          if (--length1 == 0) {
+            break outer;
+          }
+        } else {
+          array[dest--] = tmp[cursor2--];
+          count2++;
+          count1 = 0;
+          if (--length2 == 1) {
+            break outer;
+          }
+        }
+      } while ((count1 | count2) < minGallop);
+
+      // gallop, until neither run wins by much
+      do {
+        count1 = length1 - gallopRight(tmp[cursor2], array, base1, length1, length1 - 1, comp);
+        if (count1 != 0) {
+          dest -= count1;
+          cursor1 -= count1;
+          length1 -= count1;
+          copy(array, cursor1 + 1, array, dest + 1, count1);
+          if (length1 == 0) {
+            break outer;
+          }
+        }
+        array[dest--] = tmp[cursor2--];
+        if (--length2 == 1) {
+          break outer;
+        }
+
+        count2 = length2 - gallopLeft(array[cursor1], tmp, 0, length2, length2 - 1, comp);
+        if (count2 != 0) {
+          dest -= count2;
+          cursor2 -= count2;
+          length2 -= count2;
+          copy(tmp, cursor2 + 1, array, dest + 1, count2);
+          if (length2 <= 1) {
+            break outer;
+          }
+        }
+        array[dest--] = array[cursor1--];
+        if (--length1 == 0) {
+          break outer;
+        }
+        minGallop--;
+      } while (count1 >= MIN_GALLOP || count2 >= MIN_GALLOP);
+      if (minGallop < 0) {
+        minGallop = 0;
+      }
+      // make galloping harder to get back to
+      minGallop += 2;
+    }
+    this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+    if (length2 == 1) {
+      dest -= length1;
+      cursor1 -= length1;
+      copy(array, cursor1 + 1, array, dest + 1, length1);
+      array[dest] = tmp[cursor2];
+    } else if (length2 == 0) {
+      throw new IllegalArgumentException("Comparison method violates its general contract!");
+    } else {
+      copy(tmp, 0, array, dest - (length2 - 1), length2);
+    }
+  }
+
+  private Object[] ensureCapacity(int minCapacity) {
+    if (tmp.length < minCapacity) {
+      tmp = new Object[Math.max(minCapacity, Math.min(tmp.length * 2, maxTmpLength))];
+    }
+    return tmp;
+  }
+}
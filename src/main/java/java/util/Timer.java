@@ -1,15 +1,42 @@
 package java.util;
 
-import def.js.Array;
-
-import static def.dom.Globals.*;
-import static jsweet.util.Lang.function;
+import static jsweet.util.Lang.$insert;
 
+/**
+ * Runs its tasks from a binary heap ordered by execution time, with a single
+ * host timer armed for the earliest one, so that many scheduled tasks cost no
+ * more host timers than one.
+ * <p>
+ * Cancelling a task only marks it; cancelled tasks leave the heap when they
+ * come due, when {@link #purge()} is called, or when they make up more than
+ * half of the heap.
+ */
 public class Timer {
     static int nextSerialNumber = 0;
+
+    /**
+     * The longest delay the host timers take: longer ones would fire at once.
+     */
+    private static final long MAX_HOST_DELAY = 2147483647L;
+
     private final String name;
-    Array<TimerTask> timeouts = new Array<>();
-    Array<TimerTask> intervals = new Array<>();
+
+    /**
+     * The scheduled tasks: queue[0] comes first, and queue[i] before
+     * queue[2 * i + 1] and queue[2 * i + 2].
+     */
+    private TimerTask[] queue = new TimerTask[16];
+    private int size = 0;
+    private int cancelledCount = 0;
+    private long nextSequenceNumber = 0L;
+    private boolean cancelled = false;
+
+    /**
+     * The armed host timer, if any, and when it fires.
+     */
+    private Object hostTimer;
+    private long wakeupTime;
+    private final Runnable wakeup = () -> runDueTasks();
 
     public Timer() {
         this("Timer-" + ++nextSerialNumber, true);
@@ -30,121 +57,211 @@ public class Timer {
     public void schedule(TimerTask task, long delay) {
         if (delay < 0L) {
             throw new IllegalArgumentException("Negative delay.");
-        } else {
-            schedule(task, new Date(System.currentTimeMillis() + delay));
         }
+        scheduleAt(task, System.currentTimeMillis() + delay, 0L);
     }
 
     public void schedule(TimerTask task, Date time) {
-        task.nextExecutionTime = time.getTime();
-
-        task.handle = (int) window.setTimeout(function(() -> {
-            if (task.state != TimerTask.CANCELLED) {
-                task.run();
-                task.state = TimerTask.EXECUTED;
-            }
-            timeouts.splice(timeouts.indexOf(task), 1);
-        }), time.getTime() - System.currentTimeMillis());
-        timeouts.push(task);
-
-        task.state = TimerTask.SCHEDULED;
+        scheduleAt(task, time.getTime(), 0L);
     }
 
     public void schedule(TimerTask task, long delay, long period) {
         if (delay < 0L) {
             throw new IllegalArgumentException("Negative delay.");
-        } else {
-            schedule(task, new Date(System.currentTimeMillis() + delay), period);
         }
+        if (period <= 0L) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        scheduleAt(task, System.currentTimeMillis() + delay, -period);
     }
 
     public void schedule(TimerTask task, Date time, long period) {
         if (period <= 0L) {
             throw new IllegalArgumentException("Non-positive period.");
-        } else {
-            task.period = period;
-            task.nextExecutionTime = time.getTime();
-
-            task.handle = (int) window.setTimeout(function(() -> {
-                if (task.state != TimerTask.CANCELLED) {
-                    task.run();
-                    schedule(task, period, period);
-                } else {
-                    timeouts.splice(timeouts.indexOf(task), 1);
-                }
-            }), time.getTime() - System.currentTimeMillis());
-            timeouts.push(task);
-
-            task.state = TimerTask.SCHEDULED;
         }
+        scheduleAt(task, time.getTime(), -period);
     }
 
     public void scheduleAtFixedRate(TimerTask task, long delay, long period) {
         if (delay < 0L) {
             throw new IllegalArgumentException("Negative delay.");
-        } else {
-            scheduleAtFixedRate(task, new Date(System.currentTimeMillis() + delay), period);
         }
+        if (period <= 0L) {
+            throw new IllegalArgumentException("Non-positive period.");
+        }
+        scheduleAt(task, System.currentTimeMillis() + delay, period);
     }
 
     public void scheduleAtFixedRate(TimerTask task, Date time, long period) {
         if (period <= 0L) {
             throw new IllegalArgumentException("Non-positive period.");
-        } else {
-            task.period = period;
-            task.nextExecutionTime = time.getTime();
-
-            TimerTask start = new TimerTask() {
-                @Override
-                public void run() {
-                    if (task.state != TimerTask.CANCELLED) {
-                        task.nextExecutionTime = System.currentTimeMillis() + task.period;
-
-                        task.handle = (int) window.setInterval(function(() -> {
-                            if (task.state != TimerTask.CANCELLED) {
-                                task.nextExecutionTime = System.currentTimeMillis() + task.period;
-                                task.run();
-                            } else {
-                                clearInterval(task.handle);
-                                intervals.splice(intervals.indexOf(task), 1);
-                            }
-                        }), task.period);
-                        intervals.push(task);
-
-                        task.run(); // first run
-                    }
-                }
-            };
-
-            schedule(start, time);
-            task.handle = start.handle;
         }
+        scheduleAt(task, time.getTime(), period);
     }
 
     public void cancel() {
-        for (TimerTask task : timeouts) {
-            clearTimeout(task.handle);
+        cancelled = true;
+        disarm();
+        Arrays.fill(queue, 0, size, null);
+        size = 0;
+        cancelledCount = 0;
+    }
+
+    public int purge() {
+        int purged = 0;
+        // the tasks after i have been checked already, the last one included
+        for (int i = size - 1; i >= 0; i--) {
+            if (queue[i].state == TimerTask.CANCELLED) {
+                queue[i] = queue[--size];
+                queue[size] = null;
+                purged++;
+            }
         }
+        if (purged != 0) {
+            for (int i = (size >> 1) - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+        cancelledCount = 0;
+        return purged;
+    }
 
-        for (TimerTask task : intervals) {
-            clearInterval(task.handle);
+    private void scheduleAt(TimerTask task, long time, long period) {
+        if (time < 0L) {
+            throw new IllegalArgumentException("Illegal execution time.");
         }
+        if (cancelled) {
+            throw new IllegalStateException("Timer already cancelled.");
+        }
+        if (task.state != TimerTask.VIRGIN) {
+            throw new IllegalStateException("Task already scheduled or cancelled");
+        }
+        task.nextExecutionTime = time;
+        task.period = period;
+        task.sequenceNumber = nextSequenceNumber++;
+        task.timer = this;
+        task.state = TimerTask.SCHEDULED;
 
-        intervals = new Array<>();
-        timeouts = new Array<>();
+        if (size == queue.length) {
+            queue = Arrays.copyOf(queue, size * 2);
+        }
+        queue[size] = task;
+        siftUp(size++);
+        if (queue[0] == task) {
+            arm();
+        }
     }
 
-    public int purge() {
-        Array<TimerTask> newTimeouts = timeouts.filter(timerTask -> timerTask.handle != TimerTask.EXECUTED &&
-                timerTask.handle != TimerTask.CANCELLED);
-        Array<TimerTask> newIntervals = intervals.filter(timerTask -> timerTask.handle != TimerTask.EXECUTED &&
-                timerTask.handle != TimerTask.CANCELLED);
+    /**
+     * Called when a scheduled task is cancelled.
+     */
+    void taskCancelled() {
+        if (++cancelledCount > size >> 1) {
+            purge();
+        }
+    }
+
+    /**
+     * Runs the tasks that are due, in order, and arms the host timer for the
+     * next one.
+     */
+    private void runDueTasks() {
+        hostTimer = null;
+        try {
+            long now = System.currentTimeMillis();
+            while (size > 0) {
+                TimerTask task = queue[0];
+                if (task.state == TimerTask.CANCELLED) {
+                    removeFirst();
+                    cancelledCount--;
+                    continue;
+                }
+                long executionTime = task.nextExecutionTime;
+                if (executionTime > now) {
+                    break;
+                }
+                if (task.period == 0L) {
+                    removeFirst();
+                    task.state = TimerTask.EXECUTED;
+                } else {
+                    task.nextExecutionTime = task.period < 0L ? now - task.period : executionTime + task.period;
+                    siftDown(0);
+                }
+                task.run();
+            }
+        } finally {
+            // a failing task leaves the others for the next wakeup
+            arm();
+        }
+    }
+
+    private void arm() {
+        if (cancelled || size == 0) {
+            disarm();
+            return;
+        }
+        long time = queue[0].nextExecutionTime;
+        if (hostTimer != null) {
+            if (wakeupTime <= time) {
+                return;
+            }
+            disarm();
+        }
+        long now = System.currentTimeMillis();
+        long delay = Math.min(Math.max(time - now, 0L), MAX_HOST_DELAY);
+        wakeupTime = now + delay;
+        Runnable wakeup = this.wakeup;
+        hostTimer = $insert("setTimeout(wakeup, delay)");
+    }
 
-        int purged = timeouts.length - newTimeouts.length + intervals.length - newIntervals.length;
+    private void disarm() {
+        if (hostTimer != null) {
+            Object hostTimer = this.hostTimer;
+            $insert("clearTimeout(hostTimer)");
+            this.hostTimer = null;
+        }
+    }
 
-        timeouts = newTimeouts;
-        intervals = newIntervals;
+    private void removeFirst() {
+        queue[0] = queue[--size];
+        queue[size] = null;
+        if (size > 1) {
+            siftDown(0);
+        }
+    }
 
-        return purged;
+    private void siftUp(int i) {
+        TimerTask task = queue[i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!before(task, queue[parent])) {
+                break;
+            }
+            queue[i] = queue[parent];
+            i = parent;
+        }
+        queue[i] = task;
+    }
+
+    private void siftDown(int i) {
+        TimerTask task = queue[i];
+        int half = size >> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && before(queue[child + 1], queue[child])) {
+                child++;
+            }
+            if (!before(queue[child], task)) {
+                break;
+            }
+            queue[i] = queue[child];
+            i = child;
+        }
+        queue[i] = task;
+    }
+
+    private static boolean before(TimerTask task1, TimerTask task2) {
+        return task1.nextExecutionTime < task2.nextExecutionTime
+                || task1.nextExecutionTime == task2.nextExecutionTime && task1.sequenceNumber < task2.sequenceNumber;
     }
 }
@@ -7,8 +7,16 @@ public abstract class TimerTask implements Runnable {
     static final int CANCELLED = 3;
     int state = VIRGIN;
     long nextExecutionTime;
+    /**
+     * Positive for fixed-rate executions, negative for fixed-delay ones, zero
+     * for a single execution.
+     */
     long period = 0L;
-    int handle;
+    /**
+     * Breaks the ties between tasks due at the same time, in scheduling order.
+     */
+    long sequenceNumber;
+    Timer timer;
 
     protected TimerTask() {
     }
@@ -19,8 +27,10 @@ public abstract class TimerTask implements Runnable {
         boolean success = this.state == SCHEDULED;
 
         this.state = CANCELLED;
-        this.nextExecutionTime = 0L;
-        this.period = 0L;
+        if (success) {
+            // the task stays in the timer's queue until it is due or purged
+            timer.taskCancelled();
+        }
 
         return success;
     }
@@ -15,7 +15,12 @@
  */
 package java.util;
 
+import static java.util.ConcurrentModificationDetector.checkStructuralChange;
+import static java.util.ConcurrentModificationDetector.recordLastKnownStructure;
+import static java.util.ConcurrentModificationDetector.structureChanged;
+import static javaemul.internal.InternalPreconditions.checkElement;
 import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static javaemul.internal.InternalPreconditions.checkState;
 
 import java.io.Serializable;
 
@@ -39,94 +44,129 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
    */
 
   /**
-   * Iterator for <code>descendingMap().entrySet()</code>.
+   * Iterator for <code>EntrySet</code> and <code>descendingMap().entrySet()</code>.
+   *
+   * The tree is walked incrementally: the iterator keeps the stack of nodes
+   * still to visit along the current path, so that it is created in O(log n)
+   * and never holds more than O(height) nodes, whatever the size of the
+   * (sub)map.
    */
-  private final class DescendingEntryIterator implements Iterator<Entry<K, V>> {
-    private final ListIterator<Entry<K, V>> iter;
-    private Entry<K, V> last;
+  private final class EntryIterator implements Iterator<Entry<K, V>> {
+    private final boolean descending;
+
+    // the child visited first: LEFT in ascending order, RIGHT in descending order
+    private final int first;
+
+    private final boolean hasEnd;
+    private final K endKey;
+    private final boolean endInclusive;
+
+    private final List<Node<K, V>> stack = new ArrayList<Node<K, V>>();
+    private Node<K, V> last;
 
     /**
-     * Constructor for <code>DescendingEntryIterator</code>.
+     * Constructor for <code>EntrySetIterator</code>.
      */
-    public DescendingEntryIterator() {
-      this(SubMapType_All, null, false, null, false);
+    public EntryIterator(boolean descending) {
+      this(descending, SubMapType_All, null, false, null, false);
     }
 
     /**
      * Create an iterator which may return only a restricted range.
      *
-     * @param fromKey the first key to return in the iterator.
+     * @param descending true to iterate from the highest key to the lowest.
+     * @param fromKey the lower bound of keys to return.
      * @param toKey the upper bound of keys to return.
      */
-    public DescendingEntryIterator(SubMapType type,
+    public EntryIterator(boolean descending, SubMapType type,
         K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
-      List<Entry<K, V>> list = new ArrayList<Entry<K, V>>();
-      inOrderAdd(list, type, TreeMap.this.root,
-          fromKey, fromInclusive, toKey, toInclusive);
-      this.iter = list.listIterator(list.size());
+      this.descending = descending;
+      this.first = descending ? RIGHT : LEFT;
+      boolean hasStart;
+      K startKey;
+      boolean startInclusive;
+      if (descending) {
+        hasStart = type.toKeyValid();
+        startKey = toKey;
+        startInclusive = toInclusive;
+        hasEnd = type.fromKeyValid();
+        endKey = fromKey;
+        endInclusive = fromInclusive;
+      } else {
+        hasStart = type.fromKeyValid();
+        startKey = fromKey;
+        startInclusive = fromInclusive;
+        hasEnd = type.toKeyValid();
+        endKey = toKey;
+        endInclusive = toInclusive;
+      }
+      if (hasStart) {
+        seek(startKey, startInclusive);
+      } else {
+        pushPath(root);
+      }
+      recordLastKnownStructure(TreeMap.this, this);
     }
 
     @Override
     public boolean hasNext() {
-      return iter.hasPrevious();
+      return !stack.isEmpty()
+          && !(hasEnd && precedes(endKey, stack.get(stack.size() - 1).getKey(), endInclusive));
     }
 
     @Override
     public Entry<K, V> next() {
-      return last = iter.previous();
+      checkStructuralChange(TreeMap.this, this);
+      checkElement(hasNext());
+      Node<K, V> node = stack.remove(stack.size() - 1);
+      pushPath(node.child[otherChild(first)]);
+      return last = node;
     }
 
     @Override
     public void remove() {
-      iter.remove();
+      checkState(last != null);
+      checkStructuralChange(TreeMap.this, this);
       removeEntry(last);
+      // removal rebalances the tree, so find our way back from the root
+      seek(last.getKey(), false);
+      recordLastKnownStructure(TreeMap.this, this);
       last = null;
     }
-  }
-
-  /**
-   * Iterator for <code>EntrySet</code>.
-   */
-  private final class EntryIterator implements Iterator<Entry<K, V>> {
-    private final ListIterator<Entry<K, V>> iter;
-    private Entry<K, V> last;
 
     /**
-     * Constructor for <code>EntrySetIterator</code>.
+     * Returns true if <code>a</code> comes before <code>b</code> in the
+     * iteration order (or is equal to it, when <code>inclusive</code> is false).
      */
-    public EntryIterator() {
-      this(SubMapType_All, null, false, null, false);
+    private boolean precedes(K a, K b, boolean inclusive) {
+      return descending ? larger(a, b, !inclusive) : smaller(a, b, !inclusive);
     }
 
     /**
-     * Create an iterator which may return only a restricted range.
-     *
-     * @param fromKey the first key to return in the iterator.
-     * @param toKey the upper bound of keys to return.
+     * Pushes <code>node</code> and its descendants on the first-visited side.
      */
-    public EntryIterator(SubMapType type,
-        K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
-      List<Entry<K, V>> list = new ArrayList<Entry<K, V>>();
-      inOrderAdd(list, type, TreeMap.this.root,
-          fromKey, fromInclusive, toKey, toInclusive);
-      this.iter = list.listIterator();
-    }
-
-    @Override
-    public boolean hasNext() {
-      return iter.hasNext();
-    }
-
-    @Override
-    public Entry<K, V> next() {
-      return last = iter.next();
+    private void pushPath(Node<K, V> node) {
+      while (node != null) {
+        stack.add(node);
+        node = node.child[first];
+      }
     }
 
-    @Override
-    public void remove() {
-      iter.remove();
-      removeEntry(last);
-      last = null;
+    /**
+     * Resets the stack so that the next node is the first one not preceding
+     * <code>key</code>.
+     */
+    private void seek(K key, boolean inclusive) {
+      stack.clear();
+      Node<K, V> node = root;
+      while (node != null) {
+        if (precedes(node.getKey(), key, inclusive)) {
+          node = node.child[otherChild(first)];
+        } else {
+          stack.add(node);
+          node = node.child[first];
+        }
+      }
     }
   }
 
@@ -331,12 +371,12 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
 
     @Override
     Iterator<Entry<K, V>> descendingEntryIterator() {
-      return new DescendingEntryIterator(type, fromKey, fromInclusive, toKey, toInclusive);
+      return new EntryIterator(true, type, fromKey, fromInclusive, toKey, toInclusive);
     }
 
     @Override
     Iterator<Entry<K, V>> entryIterator() {
-      return new EntryIterator(type, fromKey, fromInclusive, toKey, toInclusive);
+      return new EntryIterator(false, type, fromKey, fromInclusive, toKey, toInclusive);
     }
 
     @Override
@@ -517,6 +557,7 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
   public void clear() {
     root = null;
     size = 0;
+    structureChanged(this);
   }
 
   @Override
@@ -544,6 +585,7 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
     root = insert(root, node, state);
     if (!state.found) {
       ++size;
+      structureChanged(this);
     }
     root.isRed = false;
     return state.value;
@@ -640,12 +682,12 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
 
   @Override
   Iterator<Entry<K, V>> descendingEntryIterator() {
-    return new DescendingEntryIterator();
+    return new EntryIterator(true);
   }
 
   @Override
   Iterator<Entry<K, V>> entryIterator() {
-    return new EntryIterator();
+    return new EntryIterator(false);
   }
 
   /**
@@ -766,27 +808,6 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
     return removeWithState(entry.getKey(), state);
   }
 
-  private void inOrderAdd(List<Entry<K, V>> list, SubMapType type, Node<K, V> current,
-      K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
-    if (current == null) {
-      return;
-    }
-    // TODO: truncate this recursion if the whole subtree is known to be
-    // outside of bounds?
-    Node<K, V> leftNode = current.child[LEFT];
-    if (leftNode != null) {
-      inOrderAdd(list, type, leftNode,
-          fromKey, fromInclusive, toKey, toInclusive);
-    }
-    if (inRange(type, current.getKey(), fromKey, fromInclusive, toKey, toInclusive)) {
-      list.add(current);
-    }
-    Node<K, V> rightNode = current.child[RIGHT];
-    if (rightNode != null) {
-      inOrderAdd(list, type, rightNode, fromKey, fromInclusive, toKey, toInclusive);
-    }
-  }
-
   private boolean inRange(SubMapType type, K key,
       K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
     if (type.fromKeyValid() && smaller(key, fromKey, !fromInclusive)) {
@@ -946,6 +967,7 @@ public class TreeMap<K, V> extends AbstractNavigableMap<K, V> implements Seriali
       parent.child[parent.child[RIGHT] == node ? RIGHT : LEFT] = node.child[node.child[LEFT] == null
           ? RIGHT : LEFT];
       size--;
+      structureChanged(this);
     }
 
     root = head.child[RIGHT];
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/UnknownFormatConversionException.html">
+ * the official Java API doc</a> for details.
+ */
+public class UnknownFormatConversionException extends IllegalFormatException {
+
+  private final String conversion;
+
+  public UnknownFormatConversionException(String conversion) {
+    super("Conversion = '" + Objects.requireNonNull(conversion) + "'");
+    this.conversion = conversion;
+  }
+
+  public String getConversion() {
+    return conversion;
+  }
+}
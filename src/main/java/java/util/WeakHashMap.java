@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util;
+
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkState;
+import static jsweet.util.Lang.$insert;
+
+import java.util.function.Consumer;
+
+import javaemul.internal.JsUtils;
+import jsweet.util.Lang;
+
+/**
+ * A map whose object keys are held weakly: once a key is only reachable from
+ * the map, the engine may collect it, and the entry disappears.
+ * <p>
+ * Object keys live in a native <code>WeakMap</code>, which only keeps a value
+ * as long as its key, and which matches keys by identity rather than with
+ * <code>equals</code>. The map also keeps a <code>WeakRef</code> to each of
+ * these keys, for iteration, and a <code>FinalizationRegistry</code> drops
+ * them, and decrements the size, once their keys are collected. As the
+ * registry reports from the event loop, {@link #size()} may still count
+ * collected keys for a while; iteration skips them.
+ * <p>
+ * Keys that cannot be held weakly (null, strings, numbers and booleans), and
+ * all keys on engines without these APIs, are held strongly in a
+ * {@link HashMap}.
+ */
+public class WeakHashMap<K, V> extends AbstractMap<K, V> implements Map<K, V> {
+
+	private static final boolean WEAK_KEYS = Lang.<Boolean> $insert("typeof WeakMap === 'function'"
+			+ " && typeof WeakRef === 'function' && typeof FinalizationRegistry === 'function'");
+
+	private static final class WeakEntry<V> {
+		final Object keyRef;
+		V value;
+
+		WeakEntry(Object keyRef, V value) {
+			this.keyRef = keyRef;
+			this.value = value;
+		}
+	}
+
+	private final HashMap<K, V> strongEntries = new HashMap<>();
+
+	/**
+	 * The native <code>WeakMap</code> of the object keys onto their entries.
+	 */
+	private final Object weakEntries;
+
+	/**
+	 * The native <code>Set</code> of the <code>WeakRef</code>s to the object
+	 * keys.
+	 */
+	private final Object keyRefs;
+
+	private final Object registry;
+
+	private int weakSize;
+
+	public WeakHashMap() {
+		if (WEAK_KEYS) {
+			Consumer<Object> cleanup = keyRef -> expunge(keyRef);
+			weakEntries = $insert("new WeakMap()");
+			keyRefs = $insert("new Set()");
+			registry = $insert("new FinalizationRegistry(cleanup)");
+		} else {
+			weakEntries = null;
+			keyRefs = null;
+			registry = null;
+		}
+	}
+
+	public WeakHashMap(int ignored) {
+		this(ignored, 0);
+	}
+
+	public WeakHashMap(int ignored, float alsoIgnored) {
+		this();
+		checkArgument(ignored >= 0, "Negative initial capacity");
+		checkArgument(alsoIgnored >= 0, "Non-positive load factor");
+	}
+
+	public WeakHashMap(Map<? extends K, ? extends V> toBeCopied) {
+		this();
+		putAll(toBeCopied);
+	}
+
+	@Override
+	public void clear() {
+		strongEntries.clear();
+		if (weakSize > 0) {
+			Object weakEntries = this.weakEntries;
+			Object keyRefs = this.keyRefs;
+			Object registry = this.registry;
+			$insert("keyRefs.forEach(function(keyRef) {"
+					+ " var key = keyRef.deref(); if (key !== undefined) { weakEntries.delete(key); }"
+					+ " registry.unregister(keyRef); }); keyRefs.clear()");
+			weakSize = 0;
+		}
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return isWeak(key) ? getWeakEntry(key) != null : strongEntries.containsKey(key);
+	}
+
+	@Override
+	public V get(Object key) {
+		if (!isWeak(key)) {
+			return strongEntries.get(key);
+		}
+		WeakEntry<V> entry = getWeakEntry(key);
+		return entry == null ? null : entry.value;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		if (!isWeak(key)) {
+			return strongEntries.put(key, value);
+		}
+		WeakEntry<V> entry = getWeakEntry(key);
+		if (entry != null) {
+			V oldValue = entry.value;
+			entry.value = value;
+			return oldValue;
+		}
+		Object keyRef = $insert("new WeakRef(key)");
+		entry = new WeakEntry<V>(keyRef, value);
+		Object weakEntries = this.weakEntries;
+		Object keyRefs = this.keyRefs;
+		Object registry = this.registry;
+		$insert("weakEntries.set(key, entry); keyRefs.add(keyRef); registry.register(key, keyRef, keyRef)");
+		weakSize++;
+		return null;
+	}
+
+	@Override
+	public V remove(Object key) {
+		if (!isWeak(key)) {
+			return strongEntries.remove(key);
+		}
+		WeakEntry<V> entry = getWeakEntry(key);
+		if (entry == null) {
+			return null;
+		}
+		Object keyRef = entry.keyRef;
+		Object weakEntries = this.weakEntries;
+		Object keyRefs = this.keyRefs;
+		Object registry = this.registry;
+		$insert("weakEntries.delete(key); keyRefs.delete(keyRef); registry.unregister(keyRef)");
+		weakSize--;
+		return entry.value;
+	}
+
+	@Override
+	public int size() {
+		return strongEntries.size() + weakSize;
+	}
+
+	/**
+	 * Iterates over a snapshot of the keys taken when the iterator is created;
+	 * values are read from the map as the entries are visited.
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		return new AbstractSet<Entry<K, V>>() {
+			@Override
+			public Iterator<Entry<K, V>> iterator() {
+				return new EntryIterator(liveKeys().iterator());
+			}
+
+			@Override
+			public int size() {
+				return WeakHashMap.this.size();
+			}
+
+			@Override
+			public void clear() {
+				WeakHashMap.this.clear();
+			}
+		};
+	}
+
+	private final class EntryIterator implements Iterator<Entry<K, V>> {
+		private final Iterator<K> keys;
+		private K lastKey;
+		private boolean hasLast;
+
+		EntryIterator(Iterator<K> keys) {
+			this.keys = keys;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return keys.hasNext();
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			final K key = keys.next();
+			lastKey = key;
+			hasLast = true;
+			return new AbstractMapEntry<K, V>() {
+				@Override
+				public K getKey() {
+					return key;
+				}
+
+				@Override
+				public V getValue() {
+					return get(key);
+				}
+
+				@Override
+				public V setValue(V value) {
+					return put(key, value);
+				}
+			};
+		}
+
+		@Override
+		public void remove() {
+			checkState(hasLast);
+			WeakHashMap.this.remove(lastKey);
+			hasLast = false;
+		}
+	}
+
+	/**
+	 * Returns the keys that have not been collected, holding them strongly.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<K> liveKeys() {
+		List<K> keys = new ArrayList<>(strongEntries.keySet());
+		if (weakSize > 0) {
+			Consumer<Object> collect = keyRef -> {
+				Object key = $insert("keyRef.deref()");
+				if (!JsUtils.isUndefined(key)) {
+					keys.add((K) key);
+				}
+			};
+			Object keyRefs = this.keyRefs;
+			$insert("keyRefs.forEach(collect)");
+		}
+		return keys;
+	}
+
+	/**
+	 * Called by the registry once the key of the given <code>WeakRef</code>
+	 * has been collected.
+	 */
+	private void expunge(Object keyRef) {
+		Object keyRefs = this.keyRefs;
+		if (Lang.<Boolean> $insert("keyRefs.delete(keyRef)")) {
+			weakSize--;
+		}
+	}
+
+	private boolean isWeak(Object key) {
+		String type = JsUtils.typeOf(key);
+		return WEAK_KEYS && key != null && ("object".equals(type) || "function".equals(type));
+	}
+
+	@SuppressWarnings("unchecked")
+	private WeakEntry<V> getWeakEntry(Object key) {
+		Object weakEntries = this.weakEntries;
+		Object entry = $insert("weakEntries.get(key)");
+		return JsUtils.isUndefined(entry) ? null : (WeakEntry<V>) entry;
+	}
+}
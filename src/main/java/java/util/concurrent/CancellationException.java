@@ -0,0 +1,21 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/CancellationException.html">
+ * the official Java API doc</a> for details.
+ */
+public class CancellationException extends IllegalStateException {
+
+  public CancellationException() {
+  }
+
+  public CancellationException(String message) {
+    super(message);
+  }
+}
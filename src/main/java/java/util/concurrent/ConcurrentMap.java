@@ -0,0 +1,37 @@
+/*
+ * Copyright 2016 Google Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package java.util.concurrent;
+
+import java.util.Map;
+
+/**
+ * A {@link Map} providing atomic operations. See
+ * <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ConcurrentMap.html">
+ * the official Java API doc</a> for details.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public interface ConcurrentMap<K, V> extends Map<K, V> {
+
+  V putIfAbsent(K key, V value);
+
+  boolean remove(Object key, Object value);
+
+  V replace(K key, V value);
+
+  boolean replace(K key, V oldValue, V newValue);
+}
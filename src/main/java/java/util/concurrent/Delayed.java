@@ -0,0 +1,16 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/Delayed.html">
+ * the official Java API doc</a> for details.
+ */
+public interface Delayed extends Comparable<Delayed> {
+
+  long getDelay(TimeUnit unit);
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutionException.html">
+ * the official Java API doc</a> for details.
+ */
+public class ExecutionException extends Exception {
+
+  protected ExecutionException() {
+  }
+
+  protected ExecutionException(String message) {
+    super(message);
+  }
+
+  public ExecutionException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ExecutionException(Throwable cause) {
+    super(cause);
+  }
+}
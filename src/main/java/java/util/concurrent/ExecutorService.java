@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+import java.util.List;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ExecutorService.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * As JavaScript cannot block, {@link #awaitTermination(long, TimeUnit)} returns
+ * at once, and the <code>invokeAll</code> and <code>invokeAny</code> methods are
+ * not supported.
+ */
+public interface ExecutorService extends Executor {
+
+  void shutdown();
+
+  List<Runnable> shutdownNow();
+
+  boolean isShutdown();
+
+  boolean isTerminated();
+
+  boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException;
+
+  <T> Future<T> submit(Callable<T> task);
+
+  <T> Future<T> submit(Runnable task, T result);
+
+  Future<?> submit(Runnable task);
+}
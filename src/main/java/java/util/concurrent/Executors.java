@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/Executors.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * Only the scheduled executors are supported; they run their tasks one at a
+ * time, from the event loop.
+ */
+public class Executors {
+
+  public static ScheduledExecutorService newScheduledThreadPool(int corePoolSize) {
+    return new ScheduledThreadPoolExecutor(corePoolSize);
+  }
+
+  public static ScheduledExecutorService newSingleThreadScheduledExecutor() {
+    return new ScheduledThreadPoolExecutor(1);
+  }
+
+  public static <T> Callable<T> callable(Runnable task, T result) {
+    checkNotNull(task);
+    return () -> {
+      task.run();
+      return result;
+    };
+  }
+
+  public static Callable<Object> callable(Runnable task) {
+    return callable(task, null);
+  }
+
+  // Hides the constructor for this static utility class.
+  private Executors() { }
+}
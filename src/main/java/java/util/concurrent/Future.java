@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/Future.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * As JavaScript cannot block, {@link #get()} fails on a task that is not done
+ * with an {@link IllegalStateException}, and {@link #get(long, TimeUnit)} with
+ * a {@link TimeoutException}.
+ */
+public interface Future<V> {
+
+  boolean cancel(boolean mayInterruptIfRunning);
+
+  boolean isCancelled();
+
+  boolean isDone();
+
+  V get() throws InterruptedException, ExecutionException;
+
+  V get(long timeout, TimeUnit unit)
+      throws InterruptedException, ExecutionException, TimeoutException;
+}
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ScheduledExecutorService.html">
+ * the official Java API doc</a> for details.
+ */
+public interface ScheduledExecutorService extends ExecutorService {
+
+  ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit);
+
+  <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit);
+
+  ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+      TimeUnit unit);
+
+  ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+      TimeUnit unit);
+}
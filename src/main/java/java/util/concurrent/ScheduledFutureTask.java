@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+import java.util.TimerTask;
+
+/**
+ * The future of a task scheduled by a {@link ScheduledThreadPoolExecutor}, and
+ * the {@link TimerTask} that runs it.
+ */
+final class ScheduledFutureTask<V> implements ScheduledFuture<V>, Runnable {
+  private static final int NEW = 0;
+  private static final int COMPLETED = 1;
+  private static final int FAILED = 2;
+  private static final int CANCELLED = 3;
+
+  private final ScheduledThreadPoolExecutor executor;
+  private final Callable<V> callable;
+
+  /**
+   * In milliseconds: positive for fixed-rate executions, negative for
+   * fixed-delay ones, zero for a single execution, as in {@link TimerTask}.
+   */
+  private final long period;
+
+  /**
+   * The time of the next execution.
+   */
+  private long time;
+
+  private int state = NEW;
+  private V result;
+  private Throwable exception;
+
+  final TimerTask timerTask = new TimerTask() {
+    @Override
+    public void run() {
+      ScheduledFutureTask.this.run();
+    }
+  };
+
+  ScheduledFutureTask(ScheduledThreadPoolExecutor executor, Callable<V> callable, long time,
+      long period) {
+    this.executor = executor;
+    this.callable = callable;
+    this.time = time;
+    this.period = period;
+  }
+
+  boolean isPeriodic() {
+    return period != 0;
+  }
+
+  @Override
+  public void run() {
+    if (state != NEW) {
+      return;
+    }
+    if (period == 0) {
+      try {
+        result = callable.call();
+        state = COMPLETED;
+      } catch (Throwable e) {
+        exception = e;
+        state = FAILED;
+      }
+      executor.finished(this);
+      return;
+    }
+    // the timer computes the next execution time the same way
+    time = period > 0 ? time + period : System.currentTimeMillis() - period;
+    try {
+      callable.call();
+    } catch (Throwable e) {
+      // a failed execution suppresses the next ones
+      exception = e;
+      state = FAILED;
+      timerTask.cancel();
+      executor.finished(this);
+    }
+  }
+
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (state != NEW) {
+      return false;
+    }
+    state = CANCELLED;
+    timerTask.cancel();
+    executor.finished(this);
+    return true;
+  }
+
+  @Override
+  public boolean isCancelled() {
+    return state == CANCELLED;
+  }
+
+  @Override
+  public boolean isDone() {
+    return state != NEW;
+  }
+
+  @Override
+  public V get() throws ExecutionException {
+    if (state == NEW) {
+      throw new IllegalStateException("Cannot wait for the task to complete");
+    }
+    return report();
+  }
+
+  @Override
+  public V get(long timeout, TimeUnit unit) throws ExecutionException, TimeoutException {
+    if (state == NEW) {
+      throw new TimeoutException();
+    }
+    return report();
+  }
+
+  private V report() throws ExecutionException {
+    if (state == CANCELLED) {
+      throw new CancellationException();
+    }
+    if (state == FAILED) {
+      throw new ExecutionException(exception);
+    }
+    return result;
+  }
+
+  @Override
+  public long getDelay(TimeUnit unit) {
+    return unit.convert(time - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public int compareTo(Delayed other) {
+    if (other == this) {
+      return 0;
+    }
+    long diff = getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
+    return diff < 0 ? -1 : diff > 0 ? 1 : 0;
+  }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+import static javaemul.internal.InternalPreconditions.checkArgument;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static jsweet.util.Lang.$insert;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+
+import javaemul.internal.JsUtils;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/ScheduledThreadPoolExecutor.html">
+ * the official Java API doc</a> for details.
+ * <p>
+ * The tasks run from the heap of a {@link Timer}, one at a time, on the event
+ * loop; the pool size is ignored. Times are in milliseconds: shorter delays
+ * round down, and shorter periods up to one millisecond. After
+ * {@link #shutdown()}, delayed tasks still run, and periodic ones are
+ * cancelled.
+ * <p>
+ * Runnable and Callable lambdas are both plain functions in JavaScript, so
+ * the overloads taking either cannot tell them apart: the result of a function
+ * is the result of its future, whichever overload was called.
+ */
+public class ScheduledThreadPoolExecutor implements ScheduledExecutorService {
+
+  private final Timer timer = new Timer();
+
+  /**
+   * The tasks that may still run.
+   */
+  private final Set<ScheduledFutureTask<?>> pending = new HashSet<>();
+
+  private boolean shutdown;
+
+  public ScheduledThreadPoolExecutor(int corePoolSize) {
+    checkArgument(corePoolSize >= 0);
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    scheduleTask(callable(command), 0, 0, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public <T> Future<T> submit(Callable<T> task) {
+    return scheduleTask(task, 0, 0, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public <T> Future<T> submit(Runnable task, T result) {
+    return scheduleTask(Executors.callable(task, result), 0, 0, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Future<?> submit(Runnable task) {
+    return scheduleTask(callable(task), 0, 0, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return scheduleTask(callable(command), delay, 0, unit);
+  }
+
+  @Override
+  public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+    return scheduleTask(callable, delay, 0, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+      TimeUnit unit) {
+    checkArgument(period > 0);
+    return scheduleTask(Executors.callable(command), initialDelay, period, unit);
+  }
+
+  @Override
+  public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay,
+      long delay, TimeUnit unit) {
+    checkArgument(delay > 0);
+    return scheduleTask(Executors.callable(command), initialDelay, -delay, unit);
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    for (ScheduledFutureTask<?> task : new ArrayList<>(pending)) {
+      if (task.isPeriodic()) {
+        task.cancel(false);
+      }
+    }
+    terminateIfDone();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    List<Runnable> tasks = new ArrayList<Runnable>(pending);
+    for (Runnable task : tasks) {
+      ((ScheduledFutureTask<?>) task).cancel(false);
+    }
+    terminateIfDone();
+    return tasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return shutdown && pending.isEmpty();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) {
+    return isTerminated();
+  }
+
+  /**
+   * Schedules a task; the period is positive for fixed-rate executions,
+   * negative for fixed-delay ones, zero for a single execution.
+   */
+  private <V> ScheduledFutureTask<V> scheduleTask(Callable<V> callable, long delay, long period,
+      TimeUnit unit) {
+    checkNotNull(callable);
+    checkNotNull(unit);
+    if (shutdown) {
+      throw new RejectedExecutionException("Executor has been shut down");
+    }
+    long delayMillis = Math.max(unit.toMillis(delay), 0L);
+    long periodMillis = period == 0 ? 0L
+        : period > 0 ? Math.max(unit.toMillis(period), 1L) : -Math.max(unit.toMillis(-period), 1L);
+    ScheduledFutureTask<V> task = new ScheduledFutureTask<V>(this, callable,
+        System.currentTimeMillis() + delayMillis, periodMillis);
+    pending.add(task);
+    if (periodMillis == 0) {
+      timer.schedule(task.timerTask, delayMillis);
+    } else if (periodMillis > 0) {
+      timer.scheduleAtFixedRate(task.timerTask, delayMillis, periodMillis);
+    } else {
+      timer.schedule(task.timerTask, delayMillis, -periodMillis);
+    }
+    return task;
+  }
+
+  /**
+   * Adapts a task given as a Runnable, keeping the result of a function.
+   */
+  private static Callable<Object> callable(Runnable command) {
+    checkNotNull(command);
+    if (!"function".equals(JsUtils.typeOf(command))) {
+      return Executors.callable(command);
+    }
+    return () -> {
+      Object result = $insert("command()");
+      return JsUtils.isUndefined(result) ? null : result;
+    };
+  }
+
+  /**
+   * Called once a task has completed, failed or been cancelled.
+   */
+  void finished(ScheduledFutureTask<?> task) {
+    pending.remove(task);
+    terminateIfDone();
+  }
+
+  private void terminateIfDone() {
+    if (isTerminated()) {
+      timer.cancel();
+    }
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package java.util.concurrent;
+
+/**
+ * See <a href="https://docs.oracle.com/javase/8/docs/api/java/util/concurrent/TimeUnit.html">
+ * the official Java API doc</a> for details.
+ */
+public enum TimeUnit {
+  NANOSECONDS(1L),
+  MICROSECONDS(1000L),
+  MILLISECONDS(1000000L),
+  SECONDS(1000000000L),
+  MINUTES(60000000000L),
+  HOURS(3600000000000L),
+  DAYS(86400000000000L);
+
+  /**
+   * The length of the unit, in nanoseconds.
+   */
+  private final long nanos;
+
+  private TimeUnit(long nanos) {
+    this.nanos = nanos;
+  }
+
+  public long convert(long sourceDuration, TimeUnit sourceUnit) {
+    return sourceUnit.nanos <= nanos ? sourceDuration / (nanos / sourceUnit.nanos)
+        : sourceDuration * (sourceUnit.nanos / nanos);
+  }
+
+  public long toNanos(long duration) {
+    return NANOSECONDS.convert(duration, this);
+  }
+
+  public long toMicros(long duration) {
+    return MICROSECONDS.convert(duration, this);
+  }
+
+  public long toMillis(long duration) {
+    return MILLISECONDS.convert(duration, this);
+  }
+
+  public long toSeconds(long duration) {
+    return SECONDS.convert(duration, this);
+  }
+
+  public long toMinutes(long duration) {
+    return MINUTES.convert(duration, this);
+  }
+
+  public long toHours(long duration) {
+    return HOURS.convert(duration, this);
+  }
+
+  public long toDays(long duration) {
+    return DAYS.convert(duration, this);
+  }
+}
@@ -10,6 +10,7 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 
 import static def.js.Globals.undefined;
+import static jsweet.util.Lang.$insert;
 import static jsweet.util.Lang.any;
 import static jsweet.util.Lang.array;
 import static jsweet.util.Lang.string;
@@ -43,63 +44,50 @@ public class Matcher implements MatchResult {
             throw new IllegalStateException("No match available");
     }
 
-    private static class IndexGetter implements Function<def.js.String[], def.js.String> {
-        private final String regexString;
-        private final int[] parenthesisStart;
-        private final int[] parenthesisEnd;
-        private final int[] starts;
-        private final int[] ends;
-        private final int startLastIndex;
-
-        private IndexGetter(String regexString, int[] parenthesisStart, int[] parenthesisEnd, int[] starts, int[] ends, int startLastIndex) {
-            this.regexString = regexString;
-            this.parenthesisStart = parenthesisStart;
-            this.parenthesisEnd = parenthesisEnd;
-            this.starts = starts;
-            this.ends = ends;
-            this.startLastIndex = startLastIndex;
-        }
-
-        @Override
-        public def.js.String apply(def.js.String[] args) {
-            array(starts).push(any(args[args.length - 2]));
-            array(ends).push((starts[0]) + args[0].length);
-
-            Stack<Integer> lastIndices = new Stack<>();
-            lastIndices.push(ends[0]);
-            lastIndices.push(starts[0]);
-            int countEndsFrom = 0;
-            for (int i = 0; i < args.length-3; ++i) {
-                int pl = parenthesisStart[i];
-
-                while (parenthesisEnd[countEndsFrom] < pl) {
-                    countEndsFrom += 1;
-                    lastIndices.pop();
-                }
-
-                int start = lastIndices.pop();
-                int len = args[i+1] != null ? args[i+1].length : 0;
+    /**
+     * Computes the offsets of the groups of a match of the all-captures
+     * translation of a pattern, where every part of the original pattern is
+     * in a group: each group starts where the previous one at the same level
+     * ended.
+     */
+    private static void computeOffsets(Pattern pattern, String[] match, int index, int[] starts, int[] ends) {
+        String regexString = pattern.pattern();
+        int[] parenthesisStart = pattern.parenthesisStarts;
+        int[] parenthesisEnd = pattern.parenthesisEnds;
+
+        array(starts).push(index);
+        array(ends).push((starts[0]) + match[0].length());
+
+        Stack<Integer> lastIndices = new Stack<>();
+        lastIndices.push(ends[0]);
+        lastIndices.push(starts[0]);
+        int countEndsFrom = 0;
+        for (int i = 0; i < match.length - 1; ++i) {
+            int pl = parenthesisStart[i];
+
+            while (parenthesisEnd[countEndsFrom] < pl) {
+                countEndsFrom += 1;
+                lastIndices.pop();
+            }
 
-                lastIndices.push(start + len);
-                lastIndices.push(start);
+            int start = lastIndices.pop();
+            int len = match[i+1] != null ? match[i+1].length() : 0;
 
-                if (regexString.charAt(pl+1) == '?') {
-                    continue;
-                }
+            lastIndices.push(start + len);
+            lastIndices.push(start);
 
-                if (len == 0) {
-                    array(starts).push(-1);
-                    array(ends).push(-1);
-                } else {
-                    start += startLastIndex;
-                    array(starts).push(start);
-                    array(ends).push(start + len);
-                }
+            if (regexString.charAt(pl+1) == '?') {
+                continue;
+            }
 
+            if (len == 0) {
+                array(starts).push(-1);
+                array(ends).push(-1);
+            } else {
+                array(starts).push(start);
+                array(ends).push(start + len);
             }
-            starts[0] += startLastIndex;
-            ends[0] += startLastIndex;
-            return args[0];
+
         }
     }
 
@@ -130,22 +118,17 @@ public class Matcher implements MatchResult {
         }
     }
 
-    private boolean searchWith(RegExp regExp) {
-        int startLastIndex = (int) regExp.lastIndex;
-        RegExpExecArray exec = regExp.exec(text);
-        groups = any(exec);
-        if (groups == null) {
-            reset();
-            return false;
-        }
-        starts = new int[0];
-        ends = new int[0];
-
+    /**
+     * Translates the pattern so that all its groups capture, once for all
+     * the matchers of the pattern; the translation is sticky, to match again
+     * where the pattern matched.
+     */
+    private static void translateToAllCaptures(Pattern pattern) {
         int[] parenthesisStart = new int[0];
         int[] parenthesisEnds = new int[0];
         NonCapturesToCaptures nonCapturesToCaptures = new NonCapturesToCaptures(parenthesisStart, parenthesisEnds);
 
-        String regExpStringWithAllCaptures = string(string(regExp.source).replace(new RegExp("" +
+        String regExpStringWithAllCaptures = string(string(pattern.regexp.source).replace(new RegExp("" +
                         "((?:" + // non modifiable params $1
                             "\\\\.|" + // escaped characters
                             "\\[\\^?\\]\\]|" + // []] and [^]] special brackets
@@ -159,13 +142,49 @@ public class Matcher implements MatchResult {
                         "", "g"),
                 Lang.<Supplier<def.js.String>> any((Function<def.js.String[], def.js.String>)
                         (def.js.String ... args) -> nonCapturesToCaptures.apply(args))));
-        RegExp regExpWithAllCaptures = new RegExp(regExpStringWithAllCaptures);
+        RegExp regexp = pattern.regexp;
+        pattern.allCapturesRegExp = $insert("new RegExp(regExpStringWithAllCaptures, regexp.flags.replace('g', '') + 'y')");
+        pattern.parenthesisStarts = parenthesisStart;
+        pattern.parenthesisEnds = parenthesisEnds;
+    }
 
-        IndexGetter indexGetter = new IndexGetter(regExp.source, parenthesisStart, parenthesisEnds, starts, ends, startLastIndex);
-        string(text.substring(startLastIndex)).replace(regExpWithAllCaptures,
-                Lang.<Supplier<def.js.String>> any((Function<def.js.String[], def.js.String>)
-                        (def.js.String ... args) -> indexGetter.apply(args)));
+    /**
+     * Searches for the next match of the given pattern from the given index,
+     * without copying the text: the group offsets come from the match
+     * indices when the engine has them, or else from matching the
+     * all-captures translation of the pattern at the same place.
+     */
+    private boolean searchWith(Pattern pattern, int from) {
+        RegExp regExp = pattern.searchRegExp();
+        regExp.lastIndex = from;
+        RegExpExecArray exec = regExp.exec(text);
+        if (exec == null) {
+            reset();
+            return false;
+        }
+        groups = any(exec);
+        first = (int) exec.index;
+        last = first + groups[0].length();
+
+        if (Pattern.HAS_INDICES) {
+            int n = groups.length;
+            int[] starts = new int[n];
+            int[] ends = new int[n];
+            $insert("for (var i = 0; i < n; i++) { var pair = exec.indices[i];"
+                    + " starts[i] = pair ? pair[0] : -1; ends[i] = pair ? pair[1] : -1; }");
+            this.starts = starts;
+            this.ends = ends;
+            return true;
+        }
 
+        if (pattern.allCapturesRegExp == null) {
+            translateToAllCaptures(pattern);
+        }
+        RegExp regExpWithAllCaptures = pattern.allCapturesRegExp;
+        regExpWithAllCaptures.lastIndex = first;
+        starts = new int[0];
+        ends = new int[0];
+        computeOffsets(pattern, any(regExpWithAllCaptures.exec(text)), first, starts, ends);
         return true;
     }
 
@@ -185,12 +204,24 @@ public class Matcher implements MatchResult {
     }
 
     public boolean find() {
-        return searchWith(_pattern.regexp);
+        int from = last;
+        if (groups != null && first == last) {
+            // move past an empty match, as the regexp itself would not
+            from++;
+            if (from > text.length()) {
+                reset();
+                return false;
+            }
+        }
+        return searchWith(_pattern, from);
     }
 
     public boolean find(int start) {
-        _pattern.regexp.lastIndex = start;
-        return find();
+        if (start < 0 || start > text.length()) {
+            throw new IndexOutOfBoundsException("Illegal start index");
+        }
+        reset();
+        return searchWith(_pattern, start);
     }
 
     @Override
@@ -217,14 +248,31 @@ public class Matcher implements MatchResult {
         return end() == text.length();
     }
 
-    public boolean lookingAt() {
+    /**
+     * Searches with the given anchored pattern from the start of the text,
+     * and keeps only a match there: with MULTILINE, the leading
+     * <code>^</code> also matches at the start of the later lines.
+     */
+    private boolean searchFromStart(Pattern anchored) {
+        reset();
+        if (searchWith(anchored, 0) && first == 0) {
+            return true;
+        }
         reset();
-        return searchWith(Pattern.compile("^(?:" + _pattern.pattern() + ")").regexp);
+        return false;
     }
 
+    public boolean lookingAt() {
+        return searchFromStart(Pattern.compile("^(?:" + _pattern.pattern() + ")", _pattern._flags));
+    }
+
+    /**
+     * The whole text must match: the end is a lookahead for no character at
+     * all, which, unlike <code>$</code>, does not match at line ends with
+     * MULTILINE.
+     */
     public boolean matches() {
-        reset();
-        return searchWith(Pattern.compile("^(?:" + _pattern.pattern() + ")$").regexp);
+        return searchFromStart(Pattern.compile("^(?:" + _pattern.pattern() + ")(?![\\s\\S])", _pattern._flags));
     }
 
     public Pattern pattern() {
@@ -241,37 +289,76 @@ public class Matcher implements MatchResult {
         return 1;
     }
 
-    public String replaceAll(String replacement) {
-        reset();
-        text = string(string(text).replace(_pattern.regexp, replacement));
-        return text;
+    /**
+     * Whether a literal pattern can replace with the given replacement
+     * without the regexp, as it refers to no group and escapes nothing.
+     */
+    private boolean replacesLiterally(String replacement) {
+        return _pattern.literal != null && replacement.indexOf('$') < 0 && replacement.indexOf('\\') < 0;
     }
 
-    private static class FirstReplacer implements Function<def.js.String[], def.js.String> {
-        private final def.js.String replacement;
-        boolean first = true;
-
-
-        private FirstReplacer(def.js.String replacement) {
-            this.replacement = replacement;
+    /**
+     * Translates a replacement to the JavaScript syntax: a backslash escapes
+     * the next character, <code>$0</code> becomes <code>$&amp;</code>, and
+     * named groups become numbered ones, as the pattern has no names left.
+     */
+    private String toJsReplacement(String replacement) {
+        if (replacement.indexOf('\\') < 0 && replacement.indexOf('$') < 0) {
+            return replacement;
         }
-
-        @Override
-        public def.js.String apply(def.js.String[] args) {
-            if (first) {
-                first = false;
-                return replacement;
+        StringBuilder jsReplacement = new StringBuilder();
+        for (int i = 0; i < replacement.length(); i++) {
+            char c = replacement.charAt(i);
+            if (c == '\\') {
+                if (++i == replacement.length()) {
+                    throw new IllegalArgumentException("character to be escaped is missing");
+                }
+                c = replacement.charAt(i);
+                jsReplacement.append(c == '$' ? "$$" : String.valueOf(c));
+            } else if (c == '$' && replacement.startsWith("{", i + 1)) {
+                int end = replacement.indexOf('}', i);
+                if (end < 0) {
+                    throw new IllegalArgumentException("named capturing group is missing trailing '}'");
+                }
+                Integer group = _pattern.namedGroupsNames.get(replacement.substring(i + 2, end));
+                if (group == null) {
+                    throw new IllegalArgumentException("No group with name " + replacement.substring(i + 1, end + 1));
+                }
+                jsReplacement.append('$').append(group);
+                i = end;
+            } else if (c == '$' && replacement.startsWith("0", i + 1) && (i + 2 == replacement.length()
+                    || replacement.charAt(i + 2) < '0' || replacement.charAt(i + 2) > '9')) {
+                jsReplacement.append("$&");
+                i++;
+            } else {
+                jsReplacement.append(c);
             }
-            return args[0];
         }
+        return jsReplacement.toString();
     }
 
-    public String replaceFirst(String replacement) {
+    public String replaceAll(String replacement) {
         reset();
-        FirstReplacer firstReplacer = new FirstReplacer(string(replacement));
-        text = string(string(text).replace(_pattern.regexp, Lang. <Supplier<def.js.String>> any(
-                (Function<def.js.String[], def.js.String>) ((def.js.String[] args) -> firstReplacer.apply(args)))));
+        if (replacesLiterally(replacement)) {
+            String text = this.text;
+            String literal = _pattern.literal;
+            this.text = $insert("text.split(literal).join(replacement)");
+            return this.text;
+        }
+        text = string(string(text).replace(_pattern.regexp, toJsReplacement(replacement)));
+        return text;
+    }
 
+    public String replaceFirst(String replacement) {
+        reset();
+        if (replacesLiterally(replacement)) {
+            int at = text.indexOf(_pattern.literal);
+            if (at >= 0) {
+                text = text.substring(0, at) + replacement + text.substring(at + _pattern.literal.length());
+            }
+            return text;
+        }
+        text = string(string(text).replace(_pattern.firstRegExp(), toJsReplacement(replacement)));
         return text;
     }
 
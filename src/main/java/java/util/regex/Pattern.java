@@ -3,7 +3,9 @@ package java.util.regex;
 import def.js.Array;
 import def.js.JSON;
 import def.js.RegExp;
+import def.js.RegExpExecArray;
 import def.js.SyntaxError;
+import javaemul.internal.PatternCache;
 import jsweet.util.Lang;
 
 import java.io.Serializable;
@@ -23,14 +25,52 @@ public class Pattern implements Serializable {
     public static final int UNICODE_CASE = 64;
     public static final int UNICODE_CHARACTER_CLASS = 256;
 
+    /**
+     * Whether the engine has the "d" flag, for the offsets of the groups of a
+     * match.
+     */
+    static final boolean HAS_INDICES = Lang.<Boolean> $insert(
+            "(function() { try { return new RegExp('', 'd').hasIndices === true; } catch (e) { return false; } })()");
+
+    /**
+     * The characters that have a meaning in a regex.
+     */
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+
     final RegExp regexp;
     final int _flags;
     final Map<String, Integer> namedGroupsNames;
 
-    private Pattern(RegExp regexp, int _flags, Map<String, Integer> namedGroupsNames) {
+    /**
+     * The only string the regex matches, if it is a non-empty literal, for
+     * splitting and replacing without the regexp; null otherwise.
+     */
+    final String literal;
+
+    /**
+     * The regexp, with the "d" flag, that matchers search with.
+     */
+    private RegExp indicesRegExp;
+
+    /**
+     * The regexp without the "g" flag, which replaces the first match only.
+     */
+    private RegExp firstRegExp;
+
+    /**
+     * Without the "d" flag, the translation of the regexp where all groups
+     * capture, and where these groups open and close in the regexp; see
+     * {@link Matcher}.
+     */
+    RegExp allCapturesRegExp;
+    int[] parenthesisStarts;
+    int[] parenthesisEnds;
+
+    private Pattern(RegExp regexp, int _flags, Map<String, Integer> namedGroupsNames, String literal) {
         this.regexp = regexp;
         this._flags = _flags;
         this.namedGroupsNames = namedGroupsNames;
+        this.literal = literal;
     }
 
     private static class GroupNameRemover implements Function<def.js.String[], def.js.String> {
@@ -81,7 +121,41 @@ public class Pattern implements Serializable {
         return compile(regexp, 0);
     }
 
+    /**
+     * Compiled patterns are cached by {@link PatternCache}, so compiling a
+     * regex again with the same flags returns the same pattern.
+     */
     public static Pattern compile(String regexpString, int flags) {
+        Pattern pattern = PatternCache.get(regexpString, flags);
+        if (pattern == null) {
+            pattern = translate(regexpString, flags);
+            PatternCache.put(regexpString, flags, pattern);
+        }
+        return pattern;
+    }
+
+    /**
+     * Returns the string matched by the given regex, if it is a non-empty
+     * literal matched case-sensitively: either a string without
+     * metacharacters or a single escaped metacharacter.
+     */
+    private static String toLiteral(String regex, int flags) {
+        if ((flags & (CASE_INSENSITIVE | UNICODE_CASE)) != 0 || regex.isEmpty()) {
+            return null;
+        }
+        if (regex.length() == 2 && regex.charAt(0) == '\\' && METACHARACTERS.indexOf(regex.charAt(1)) >= 0) {
+            return regex.substring(1);
+        }
+        for (int i = 0; i < regex.length(); i++) {
+            if (METACHARACTERS.indexOf(regex.charAt(i)) >= 0) {
+                return null;
+            }
+        }
+        return regex;
+    }
+
+    private static Pattern translate(String regexpString, int flags) {
+        String literal = toLiteral(regexpString, flags);
         String jsFlags = "g";
         if ((flags & MULTILINE) > 0) {
             jsFlags += "m";
@@ -151,12 +225,37 @@ public class Pattern implements Serializable {
                         ")*)", "g"), mapper));
 
         try {
-            return new Pattern(new RegExp(regexpString, jsFlags), flags, namedGroupsNames);
+            return new Pattern(new RegExp(regexpString, jsFlags), flags, namedGroupsNames, literal);
         } catch (SyntaxError e) {
             throw new PatternSyntaxException(e, regexpString);
         }
     }
 
+    /**
+     * Returns the regexp that matchers search with.
+     */
+    RegExp searchRegExp() {
+        if (!HAS_INDICES) {
+            return regexp;
+        }
+        if (indicesRegExp == null) {
+            RegExp regexp = this.regexp;
+            indicesRegExp = $insert("new RegExp(regexp.source, regexp.flags + 'd')");
+        }
+        return indicesRegExp;
+    }
+
+    /**
+     * Returns the regexp that replaces the first match only.
+     */
+    RegExp firstRegExp() {
+        if (firstRegExp == null) {
+            RegExp regexp = this.regexp;
+            firstRegExp = $insert("new RegExp(regexp.source, regexp.flags.replace('g', ''))");
+        }
+        return firstRegExp;
+    }
+
     public int flags() {
         return _flags;
     }
@@ -177,8 +276,59 @@ public class Pattern implements Serializable {
         return JSON.stringify(s);
     }
 
+    /**
+     * Splits with the semantics of the JRE, which differ from those of the
+     * JavaScript <code>split</code>: a positive limit keeps the rest of the
+     * input in the last string, a zero limit drops the trailing empty strings,
+     * and an empty match at the beginning gives no leading empty string.
+     * Literal patterns are split with <code>indexOf</code>.
+     */
     public String[] split(CharSequence input, int limit) {
-        return any(string(input.toString()).split(regexp, limit).toArray());
+        String text = input.toString();
+        String[] pieces = new String[0];
+        int index = 0;
+        if (literal != null) {
+            for (int at = text.indexOf(literal); at >= 0 && (limit <= 0 || pieces.length < limit - 1);
+                    at = text.indexOf(literal, index)) {
+                array(pieces).push(text.substring(index, at));
+                index = at + literal.length();
+            }
+        } else {
+            RegExp regExp = regexp;
+            regExp.lastIndex = 0;
+            while (limit <= 0 || pieces.length < limit - 1) {
+                RegExpExecArray exec = regExp.exec(text);
+                if (exec == null) {
+                    break;
+                }
+                int start = (int) exec.index;
+                int end = start + Lang.<String[]> any(exec)[0].length();
+                if (start == end) {
+                    // move past the empty match
+                    regExp.lastIndex = end + 1;
+                    if (start == 0) {
+                        continue;
+                    }
+                }
+                array(pieces).push(text.substring(index, start));
+                index = end;
+            }
+            regExp.lastIndex = 0;
+        }
+        if (index == 0) {
+            return new String[] { text };
+        }
+        array(pieces).push(text.substring(index));
+        if (limit == 0) {
+            int length = pieces.length;
+            while (length > 0 && pieces[length - 1].isEmpty()) {
+                length--;
+            }
+            if (length < pieces.length) {
+                pieces = Arrays.copyOf(pieces, length);
+            }
+        }
+        return pieces;
     }
 
     public String[] split(CharSequence input) {
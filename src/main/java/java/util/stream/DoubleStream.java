@@ -1,4 +1,89 @@
 package java.util.stream;
 
+import java.util.DoubleSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+
+import javaemul.internal.stream.DoubleStreamHelper;
+
 public interface DoubleStream {
+    DoubleStream filter(DoublePredicate predicate);
+    DoubleStream map(DoubleUnaryOperator mapper);
+    <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper);
+    IntStream mapToInt(DoubleToIntFunction mapper);
+    LongStream mapToLong(DoubleToLongFunction mapper);
+    DoubleStream distinct();
+    DoubleStream sorted();
+    DoubleStream peek(DoubleConsumer action);
+    DoubleStream limit(long maxSize);
+    DoubleStream skip(long n);
+    void forEach(DoubleConsumer action);
+    void forEachOrdered(DoubleConsumer action);
+    double[] toArray();
+    double reduce(double identity, DoubleBinaryOperator op);
+    OptionalDouble reduce(DoubleBinaryOperator op);
+    <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner);
+    double sum();
+    OptionalDouble min();
+    OptionalDouble max();
+    long count();
+    OptionalDouble average();
+    DoubleSummaryStatistics summaryStatistics();
+    boolean anyMatch(DoublePredicate predicate);
+    boolean allMatch(DoublePredicate predicate);
+    boolean noneMatch(DoublePredicate predicate);
+    OptionalDouble findFirst();
+    OptionalDouble findAny();
+    Stream<Double> boxed();
+    PrimitiveIterator.OfDouble iterator();
+    boolean isParallel();
+    DoubleStream sequential();
+    DoubleStream parallel();
+    DoubleStream unordered();
+    DoubleStream onClose(Runnable closeHandler);
+    void close();
+
+    static DoubleStream empty() {
+        return new DoubleStreamHelper(head -> {
+        });
+    }
+
+    static DoubleStream of(double t) {
+        return new DoubleStreamHelper(head -> head.item(t));
+    }
+
+    static DoubleStream of(double... values) {
+        return new DoubleStreamHelper(head -> {
+            for (int i = 0; i < values.length; ++i) {
+                if (!head.item(values[i])) {
+                    break;
+                }
+            }
+        });
+    }
+
+    static DoubleStream iterate(double seed, DoubleUnaryOperator f) {
+        return new DoubleStreamHelper(head -> {
+            for (double t = seed; head.item(t); t = f.applyAsDouble(t)) {
+            }
+        });
+    }
+
+    static DoubleStream generate(DoubleSupplier s) {
+        return new DoubleStreamHelper(head -> {
+            while (head.item(s.getAsDouble())) {
+            }
+        });
+    }
 }
@@ -1,19 +1,113 @@
 package java.util.stream;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.IntSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntSupplier;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+
+import javaemul.internal.stream.IntStreamHelper;
 
 public interface IntStream {
-    static Stream<Integer> range(int startInclusive, int endExclusive) {
-        if (startInclusive >= endExclusive) {
-            return Collections.<Integer>emptyList().stream();
-        } else {
-            List<Integer> result = new ArrayList<>();
-            for (;startInclusive < endExclusive; ++startInclusive) {
-                result.add(startInclusive);
+    IntStream filter(IntPredicate predicate);
+    IntStream map(IntUnaryOperator mapper);
+    <U> Stream<U> mapToObj(IntFunction<? extends U> mapper);
+    LongStream mapToLong(IntToLongFunction mapper);
+    DoubleStream mapToDouble(IntToDoubleFunction mapper);
+    IntStream distinct();
+    IntStream sorted();
+    IntStream peek(IntConsumer action);
+    IntStream limit(long maxSize);
+    IntStream skip(long n);
+    void forEach(IntConsumer action);
+    void forEachOrdered(IntConsumer action);
+    int[] toArray();
+    int reduce(int identity, IntBinaryOperator op);
+    OptionalInt reduce(IntBinaryOperator op);
+    <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner);
+    int sum();
+    OptionalInt min();
+    OptionalInt max();
+    long count();
+    OptionalDouble average();
+    IntSummaryStatistics summaryStatistics();
+    boolean anyMatch(IntPredicate predicate);
+    boolean allMatch(IntPredicate predicate);
+    boolean noneMatch(IntPredicate predicate);
+    OptionalInt findFirst();
+    OptionalInt findAny();
+    LongStream asLongStream();
+    DoubleStream asDoubleStream();
+    Stream<Integer> boxed();
+    PrimitiveIterator.OfInt iterator();
+    boolean isParallel();
+    IntStream sequential();
+    IntStream parallel();
+    IntStream unordered();
+    IntStream onClose(Runnable closeHandler);
+    void close();
+
+    static IntStream empty() {
+        return new IntStreamHelper(head -> {
+        });
+    }
+
+    static IntStream of(int t) {
+        return new IntStreamHelper(head -> head.item(t));
+    }
+
+    static IntStream of(int... values) {
+        return new IntStreamHelper(head -> {
+            for (int i = 0; i < values.length; ++i) {
+                if (!head.item(values[i])) {
+                    break;
+                }
+            }
+        });
+    }
+
+    static IntStream iterate(int seed, IntUnaryOperator f) {
+        return new IntStreamHelper(head -> {
+            for (int t = seed; head.item(t); t = f.applyAsInt(t)) {
+            }
+        });
+    }
+
+    static IntStream generate(IntSupplier s) {
+        return new IntStreamHelper(head -> {
+            while (head.item(s.getAsInt())) {
+            }
+        });
+    }
+
+    static IntStream range(int startInclusive, int endExclusive) {
+        return new IntStreamHelper(head -> {
+            for (int i = startInclusive; i < endExclusive; ++i) {
+                if (!head.item(i)) {
+                    break;
+                }
+            }
+        });
+    }
+
+    static IntStream rangeClosed(int startInclusive, int endInclusive) {
+        return new IntStreamHelper(head -> {
+            if (startInclusive > endInclusive) {
+                return;
+            }
+            // stops on the bound itself so that endInclusive == MAX_VALUE cannot overflow
+            for (int i = startInclusive; head.item(i) && i != endInclusive; ++i) {
             }
-            return result.stream();
-        }
+        });
     }
 }
@@ -1,4 +1,112 @@
 package java.util.stream;
 
+import java.util.LongSummaryStatistics;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongSupplier;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+import javaemul.internal.stream.LongStreamHelper;
+
 public interface LongStream {
+    LongStream filter(LongPredicate predicate);
+    LongStream map(LongUnaryOperator mapper);
+    <U> Stream<U> mapToObj(LongFunction<? extends U> mapper);
+    IntStream mapToInt(LongToIntFunction mapper);
+    DoubleStream mapToDouble(LongToDoubleFunction mapper);
+    LongStream distinct();
+    LongStream sorted();
+    LongStream peek(LongConsumer action);
+    LongStream limit(long maxSize);
+    LongStream skip(long n);
+    void forEach(LongConsumer action);
+    void forEachOrdered(LongConsumer action);
+    long[] toArray();
+    long reduce(long identity, LongBinaryOperator op);
+    OptionalLong reduce(LongBinaryOperator op);
+    <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner);
+    long sum();
+    OptionalLong min();
+    OptionalLong max();
+    long count();
+    OptionalDouble average();
+    LongSummaryStatistics summaryStatistics();
+    boolean anyMatch(LongPredicate predicate);
+    boolean allMatch(LongPredicate predicate);
+    boolean noneMatch(LongPredicate predicate);
+    OptionalLong findFirst();
+    OptionalLong findAny();
+    DoubleStream asDoubleStream();
+    Stream<Long> boxed();
+    PrimitiveIterator.OfLong iterator();
+    boolean isParallel();
+    LongStream sequential();
+    LongStream parallel();
+    LongStream unordered();
+    LongStream onClose(Runnable closeHandler);
+    void close();
+
+    static LongStream empty() {
+        return new LongStreamHelper(head -> {
+        });
+    }
+
+    static LongStream of(long t) {
+        return new LongStreamHelper(head -> head.item(t));
+    }
+
+    static LongStream of(long... values) {
+        return new LongStreamHelper(head -> {
+            for (int i = 0; i < values.length; ++i) {
+                if (!head.item(values[i])) {
+                    break;
+                }
+            }
+        });
+    }
+
+    static LongStream iterate(long seed, LongUnaryOperator f) {
+        return new LongStreamHelper(head -> {
+            for (long t = seed; head.item(t); t = f.applyAsLong(t)) {
+            }
+        });
+    }
+
+    static LongStream generate(LongSupplier s) {
+        return new LongStreamHelper(head -> {
+            while (head.item(s.getAsLong())) {
+            }
+        });
+    }
+
+    static LongStream range(long startInclusive, long endExclusive) {
+        return new LongStreamHelper(head -> {
+            for (long i = startInclusive; i < endExclusive; ++i) {
+                if (!head.item(i)) {
+                    break;
+                }
+            }
+        });
+    }
+
+    static LongStream rangeClosed(long startInclusive, long endInclusive) {
+        return new LongStreamHelper(head -> {
+            if (startInclusive > endInclusive) {
+                return;
+            }
+            // stops on the bound itself so that endInclusive == MAX_VALUE cannot overflow
+            for (long i = startInclusive; head.item(i) && i != endInclusive; ++i) {
+            }
+        });
+    }
 }
@@ -9,10 +9,16 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.IntFunction;
 import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 
 public interface Stream<T> {
     Stream<T> filter(Predicate<? super T> predicate);
     <R> Stream<R> map(Function<? super T, ? extends R> mapper);
+    IntStream mapToInt(ToIntFunction<? super T> mapper);
+    LongStream mapToLong(ToLongFunction<? super T> mapper);
+    DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper);
     <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper);
     Stream<T> distinct();
     Stream<T> sorted();
@@ -47,7 +53,4 @@ public interface Stream<T> {
 	static<T> Stream<T> of(T... values) {
         return Arrays.asList(values).stream();
     }
-
-    // lazy hack for int stream
-    <U> Stream<U> mapToObj(IntFunction<? extends U> mapper);
 }
@@ -22,11 +22,80 @@ import jsweet.util.Lang;
 
 /**
  * Provides utilities to perform operations on Arrays.
+ *
+ * <p>
+ * When the <code>jre.arrays.typed</code> system property is "true", the
+ * primitive arrays allocated by the JRE through the <code>newXxxArray</code>
+ * factories are typed arrays: <code>Int8Array</code> for <code>byte[]</code>,
+ * <code>Int16Array</code> for <code>short[]</code>, <code>Int32Array</code>
+ * for <code>int[]</code>, <code>Float32Array</code> for <code>float[]</code>
+ * and <code>Float64Array</code> for <code>double[]</code>. The property is read
+ * on the first allocation. Copies, fills and sorts detect typed arrays, from
+ * either origin, and use their native bulk operations.
  */
 public class ArrayHelper {
 
 	public static final int ARRAY_PROCESS_BATCH_SIZE = 10000;
 
+	public static final String TYPED_ARRAYS_PROPERTY = "jre.arrays.typed";
+
+	private static boolean typedArraysChecked;
+
+	private static boolean typedArrays;
+
+	public static byte[] newByteArray(int length) {
+		return useTypedArrays() ? $insert("new Int8Array(length)") : new byte[length];
+	}
+
+	public static short[] newShortArray(int length) {
+		return useTypedArrays() ? $insert("new Int16Array(length)") : new short[length];
+	}
+
+	public static int[] newIntArray(int length) {
+		return useTypedArrays() ? $insert("new Int32Array(length)") : new int[length];
+	}
+
+	public static float[] newFloatArray(int length) {
+		return useTypedArrays() ? $insert("new Float32Array(length)") : new float[length];
+	}
+
+	public static double[] newDoubleArray(int length) {
+		return useTypedArrays() ? $insert("new Float64Array(length)") : new double[length];
+	}
+
+	/**
+	 * Returns whether the <code>newXxxArray</code> factories allocate typed
+	 * arrays.
+	 */
+	static boolean useTypedArrays() {
+		if (!typedArraysChecked) {
+			typedArraysChecked = true;
+			typedArrays = "true".equals(System.getProperty(TYPED_ARRAYS_PROPERTY))
+					&& Lang.<Boolean> $insert("typeof Int8Array === 'function'");
+		}
+		return typedArrays;
+	}
+
+	public static boolean isTypedArray(Object array) {
+		return $insert("typeof ArrayBuffer === 'function' && ArrayBuffer.isView(array)");
+	}
+
+	/**
+	 * Fills a range of a typed array with its native <code>fill</code>.
+	 */
+	public static void fillTypedArray(Object array, int fromIndex, int toIndex, double value) {
+		$insert("array.fill(value, fromIndex, toIndex)");
+	}
+
+	/**
+	 * Sorts a range of a typed array in place with its native
+	 * <code>sort</code>, which orders numbers as the JDK does, -0.0 before 0.0
+	 * and NaN last.
+	 */
+	public static void sortTypedArray(Object array, int fromIndex, int toIndex) {
+		$insert("array.subarray(fromIndex, toIndex).sort()");
+	}
+
 	public static <T> T[] clone(T[] array, int fromIndex, int toIndex) {
 		Object result = unsafeClone(array, fromIndex, toIndex);
 		return ArrayStamper.stampJavaTypeInfo(result, array);
@@ -86,6 +155,23 @@ public class ArrayHelper {
 	}
 
 	private static void copy(Object src, int srcOfs, Object dest, int destOfs, int len, boolean overwrite) {
+		if (overwrite && isTypedArray(dest)) {
+			// set() copies as if through a temporary array when both share a
+			// buffer, and takes plain arrays as well
+			if (isTypedArray(src)) {
+				$insert("dest.set(src.subarray(srcOfs, srcOfs + len), destOfs)");
+			} else {
+				$insert("dest.set(src.slice(srcOfs, srcOfs + len), destOfs)");
+			}
+			return;
+		}
+		if (overwrite && isTypedArray(src)) {
+			for (int i = 0; i < len; i++) {
+				$insert("dest[destOfs + i] = src[srcOfs + i]");
+			}
+			return;
+		}
+
 		/*
 		 * Array.prototype.splice is not used directly to overcome the limits
 		 * imposed to the number of function parameters by browsers.
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package javaemul.internal;
+
+import static def.dom.Globals.console;
+import static javaemul.internal.InternalPreconditions.checkNotNull;
+import static javaemul.internal.InternalPreconditions.checkPositionIndexes;
+import static jsweet.util.Lang.$insert;
+
+import java.io.OutputStream;
+
+/**
+ * The buffered sink behind <code>System.out</code> and <code>System.err</code>.
+ *
+ * <p>
+ * Bytes are collected in a fixed-size buffer and handed over in bulk. On Node,
+ * they are written as is through <code>process.stdout.write</code> (or
+ * <code>process.stderr.write</code>). Elsewhere, they are decoded as UTF-8 and
+ * logged line by line through the console, which always appends a line break
+ * of its own.
+ *
+ * <p>
+ * The buffer is flushed when full, on {@link #flush()} and, unless the
+ * <code>jre.console.autoFlush</code> system property is "false", after each
+ * line separator. Its size is given by the <code>jre.console.bufferSize</code>
+ * system property. Both properties are read on the first write.
+ */
+public final class ConsoleOutputStream extends OutputStream {
+
+	public static final String BUFFER_SIZE_PROPERTY = "jre.console.bufferSize";
+
+	public static final String AUTO_FLUSH_PROPERTY = "jre.console.autoFlush";
+
+	private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+	/**
+	 * Leaves room for an incomplete UTF-8 sequence carried over by the console
+	 * fallback.
+	 */
+	private static final int MIN_BUFFER_SIZE = 16;
+
+	private final boolean error;
+
+	private byte[] buffer;
+
+	private int count;
+
+	private boolean autoFlush;
+
+	/**
+	 * Console fallback only: the decoded text of the current, unterminated
+	 * line.
+	 */
+	private String pendingLine = "";
+
+	public ConsoleOutputStream(boolean error) {
+		this.error = error;
+	}
+
+	@Override
+	public void write(int oneByte) {
+		ensureBuffer();
+		if (count == buffer.length) {
+			flushBuffer();
+		}
+		buffer[count++] = (byte) oneByte;
+		if (autoFlush && oneByte == '\n') {
+			flushBuffer();
+		}
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) {
+		checkNotNull(bytes);
+		checkPositionIndexes(offset, offset + length, bytes.length);
+		ensureBuffer();
+		boolean newLine = false;
+		if (autoFlush) {
+			for (int i = offset + length - 1; i >= offset; i--) {
+				if (bytes[i] == '\n') {
+					newLine = true;
+					break;
+				}
+			}
+		}
+		if (length >= buffer.length) {
+			flushBuffer();
+			if (count == 0) {
+				// large chunk: hand it over without copying it first
+				int written = emit(bytes, offset, length);
+				offset += written;
+				length -= written;
+			}
+		}
+		while (length > 0) {
+			if (count == buffer.length) {
+				flushBuffer();
+			}
+			int n = Math.min(length, buffer.length - count);
+			System.arraycopy(bytes, offset, buffer, count, n);
+			count += n;
+			offset += n;
+			length -= n;
+		}
+		if (newLine) {
+			flushBuffer();
+		}
+	}
+
+	@Override
+	public void flush() {
+		flushBuffer();
+		if (!pendingLine.isEmpty()) {
+			log(pendingLine);
+			pendingLine = "";
+		}
+	}
+
+	private void ensureBuffer() {
+		if (buffer != null) {
+			return;
+		}
+		int size = DEFAULT_BUFFER_SIZE;
+		try {
+			size = Integer.parseInt(System.getProperty(BUFFER_SIZE_PROPERTY, String.valueOf(DEFAULT_BUFFER_SIZE)));
+		} catch (NumberFormatException e) {
+			// keep the default
+		}
+		buffer = ArrayHelper.newByteArray(Math.max(size, MIN_BUFFER_SIZE));
+		autoFlush = !"false".equals(System.getProperty(AUTO_FLUSH_PROPERTY));
+		if (System.ENVIRONMENT_IS_NODE) {
+			// whatever is still buffered is lost otherwise
+			Runnable hook = this::flush;
+			$insert("process.on('exit', hook)");
+		}
+	}
+
+	/**
+	 * Hands the buffered bytes over; the console fallback may keep the bytes
+	 * of an incomplete UTF-8 sequence for the next round.
+	 */
+	private void flushBuffer() {
+		if (count == 0) {
+			return;
+		}
+		int written = emit(buffer, 0, count);
+		if (written < count) {
+			System.arraycopy(buffer, written, buffer, 0, count - written);
+		}
+		count -= written;
+	}
+
+	/**
+	 * Writes out the given bytes and returns how many of them were consumed.
+	 */
+	private int emit(byte[] bytes, int offset, int length) {
+		if (System.ENVIRONMENT_IS_NODE) {
+			Object chunk = $insert("Buffer.from(bytes.slice(offset, offset + length))");
+			if (error) {
+				$insert("process.stderr.write(chunk)");
+			} else {
+				$insert("process.stdout.write(chunk)");
+			}
+			return length;
+		}
+		int complete = EmulatedCharset.completeUtf8Length(bytes, offset, length);
+		String decoded;
+		try {
+			decoded = EmulatedCharset.UTF_8.decodeToString(bytes, offset, complete);
+		} catch (IllegalArgumentException e) {
+			// not UTF-8 after all: show the bytes as Latin-1 rather than fail
+			decoded = EmulatedCharset.ISO_8859_1.decodeToString(bytes, offset, complete);
+		}
+		String text = pendingLine + decoded;
+		int start = 0;
+		for (int end = text.indexOf('\n'); end >= 0; end = text.indexOf('\n', start)) {
+			log(text.substring(start, end > start && text.charAt(end - 1) == '\r' ? end - 1 : end));
+			start = end + 1;
+		}
+		pendingLine = text.substring(start);
+		return complete;
+	}
+
+	private void log(String line) {
+		if (error) {
+			console.error(line);
+		} else {
+			console.info(line);
+		}
+	}
+}
@@ -33,4 +33,38 @@ public class DateUtil {
 	$insert("if (Date.now) { return Date.now(); } ");
 	return $insert("(new Date()).getTime()");
     };
+
+    private static final boolean HAS_HRTIME = $insert(
+	    "typeof process === 'object' && !!process.hrtime && typeof process.hrtime.bigint === 'function'");
+
+    private static final boolean HAS_PERFORMANCE = $insert(
+	    "typeof performance === 'object' && typeof performance.now === 'function'");
+
+    /**
+     * The first reading of <code>process.hrtime.bigint()</code>, which counts
+     * from an arbitrary point that can be far enough in the past to lose
+     * precision once converted to a number.
+     */
+    private static Object hrtimeOrigin;
+
+    /**
+     * Returns the value of a monotonic clock in nanoseconds, counted from an
+     * arbitrary origin: <code>process.hrtime</code> on Node,
+     * <code>performance.now()</code> (microsecond resolution at best)
+     * elsewhere, and {@link #now()} when neither is available.
+     */
+    public static double nanoTime() {
+	if (HAS_HRTIME) {
+	    if (hrtimeOrigin == null) {
+		hrtimeOrigin = $insert("process.hrtime.bigint()");
+	    }
+	    Object origin = hrtimeOrigin;
+	    return $insert("Number(process.hrtime.bigint() - origin)");
+	}
+	if (HAS_PERFORMANCE) {
+	    double millis = $insert("performance.now()");
+	    return Math.floor(millis * 1000000.0);
+	}
+	return now() * 1000000.0;
+    }
 }
\ No newline at end of file
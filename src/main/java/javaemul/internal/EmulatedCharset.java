@@ -15,13 +15,40 @@
  */
 package javaemul.internal;
 
+import static jsweet.util.Lang.$insert;
+
 import java.nio.charset.Charset;
 
+import jsweet.util.Lang;
+
 /**
  * Provides Charset implementations.
  */
 public abstract class EmulatedCharset extends Charset {
 
+  static final boolean HAS_TEXT_DECODER = Lang.<Boolean> $insert("typeof TextDecoder === 'function'");
+
+  static final boolean HAS_TEXT_ENCODER = Lang.<Boolean> $insert(
+      "typeof TextEncoder === 'function' && typeof TextEncoder.prototype.encodeInto === 'function'");
+
+  /**
+   * The native UTF-8 codecs of the one-shot conversions. As
+   * {@link #decodeString} reports malformed input, the decoder is fatal; it
+   * keeps byte order marks, as the JRE does.
+   */
+  private static final Object TEXT_ENCODER = HAS_TEXT_ENCODER ? $insert("new TextEncoder()") : null;
+
+  private static final Object UTF8_DECODER =
+      HAS_TEXT_DECODER ? $insert("new TextDecoder('utf-8', { fatal: true, ignoreBOM: true })") : null;
+
+  /**
+   * The <code>Uint8Array</code> that bytes held in plain arrays are copied to
+   * for the native codecs; it grows as needed.
+   */
+  private static Object scratch;
+
+  private static int scratchLength;
+
   public static final EmulatedCharset UTF_8 = new UtfCharset("UTF-8");
 
   public static final EmulatedCharset ISO_LATIN_1 = new LatinCharset("ISO-LATIN-1");
@@ -36,7 +63,7 @@ public abstract class EmulatedCharset extends Charset {
     @Override
     public byte[] getBytes(String str) {
       int n = str.length();
-      byte[] bytes = new byte[n];
+      byte[] bytes = ArrayHelper.newByteArray(n);
       for (int i = 0; i < n; ++i) {
         bytes[i] = (byte) (str.charAt(i) & 255);
       }
@@ -45,11 +72,20 @@ public abstract class EmulatedCharset extends Charset {
 
     @Override
     public char[] decodeString(byte[] bytes, int ofs, int len) {
-      char[] chars = new char[len];
-      for (int i = 0; i < len; ++i) {
-        chars[i] = (char) (bytes[ofs + i] & 255);
-      }
-      return chars;
+      return decodeToString(bytes, ofs, len).toCharArray();
+    }
+
+    /**
+     * Decodes with <code>String.fromCharCode</code>, in batches of unsigned
+     * bytes. <code>TextDecoder</code> has no ISO-8859-1 decoder: its "latin1"
+     * label is windows-1252.
+     */
+    @Override
+    public String decodeToString(byte[] bytes, int ofs, int len) {
+      Object view = toUint8Array(bytes, ofs, len);
+      int batchSize = ArrayHelper.ARRAY_PROCESS_BATCH_SIZE;
+      return $insert("(function() { var s = ''; for (var i = 0; i < len; i += batchSize) {"
+          + " s += String.fromCharCode.apply(null, view.subarray(i, i + batchSize)); } return s; })()");
     }
   }
 
@@ -58,9 +94,36 @@ public abstract class EmulatedCharset extends Charset {
       super(name);
     }
 
+    @Override
+    public Decoder newDecoder() {
+      return HAS_TEXT_DECODER ? new TextDecoderUtf8(this) : new Utf8Decoder(this);
+    }
+
+    @Override
+    public Encoder newEncoder() {
+      return HAS_TEXT_ENCODER ? new TextEncoderUtf8(this) : new Encoder(this);
+    }
+
     @Override
     public char[] decodeString(byte[] bytes, int ofs, int len) {
-      // TODO(jat): consider using decodeURIComponent(escape(bytes)) instead
+      return HAS_TEXT_DECODER ? decodeToString(bytes, ofs, len).toCharArray() : decodeUtf8(bytes, ofs, len);
+    }
+
+    @Override
+    public String decodeToString(byte[] bytes, int ofs, int len) {
+      if (!HAS_TEXT_DECODER) {
+        return String.valueOf(decodeUtf8(bytes, ofs, len));
+      }
+      Object decoder = UTF8_DECODER;
+      Object view = toUint8Array(bytes, ofs, len);
+      String text = $insert("(function() { try { return decoder.decode(view); } catch (e) { return null; } })()");
+      if (text == null) {
+        throw new IllegalArgumentException("Invalid UTF8 sequence");
+      }
+      return text;
+    }
+
+    private char[] decodeUtf8(byte[] bytes, int ofs, int len) {
       int charCount = 0;
       for (int i = 0; i < len; ) {
         ++charCount;
@@ -117,9 +180,22 @@ public abstract class EmulatedCharset extends Charset {
       return chars;
     }
 
+    /**
+     * Encodes with <code>TextEncoder</code> when available: the result is an
+     * <code>Int8Array</code> over the encoded bytes when the JRE allocates
+     * typed arrays, and a plain array of signed bytes otherwise, as
+     * {@link ArrayHelper#newByteArray} would give.
+     */
     @Override
     public byte[] getBytes(String str) {
-      // TODO(jat): consider using unescape(encodeURIComponent(bytes)) instead
+      if (HAS_TEXT_ENCODER) {
+        Object encoder = TEXT_ENCODER;
+        Object encoded = $insert("encoder.encode(str)");
+        if (ArrayHelper.useTypedArrays()) {
+          return $insert("new Int8Array(encoded.buffer, encoded.byteOffset, encoded.length)");
+        }
+        return $insert("Array.from(encoded, function(b) { return b << 24 >> 24; })");
+      }
       int n = str.length();
       int byteCount = 0;
       for (int i = 0; i < n;) {
@@ -137,7 +213,7 @@ public abstract class EmulatedCharset extends Charset {
           byteCount += 5;
         }
       }
-      byte[] bytes = new byte[byteCount];
+      byte[] bytes = ArrayHelper.newByteArray(byteCount);
       int out = 0;
       for (int i = 0; i < n;) {
         int ch = str.codePointAt(i);
@@ -191,6 +267,209 @@ public abstract class EmulatedCharset extends Charset {
     }
   }
 
+  /**
+   * Decodes a stream of bytes chunk by chunk. This base decoder suits the
+   * charsets where each byte is a character.
+   */
+  public static class Decoder {
+    final EmulatedCharset charset;
+
+    Decoder(EmulatedCharset charset) {
+      this.charset = charset;
+    }
+
+    /**
+     * Decodes the next chunk of the stream; the bytes of a character split
+     * between two chunks are kept for the next one, or replaced by U+FFFD at
+     * the end of input.
+     */
+    public String decode(byte[] bytes, int ofs, int len, boolean endOfInput) {
+      return charset.decodeToString(bytes, ofs, len);
+    }
+  }
+
+  /**
+   * Encodes a stream of characters chunk by chunk, into a byte buffer that the
+   * encoder may reuse from one chunk to the next.
+   */
+  public static class Encoder {
+    final EmulatedCharset charset;
+
+    byte[] bytes;
+
+    /**
+     * A high surrogate ending the previous chunk, or the empty string.
+     */
+    private String highSurrogate = "";
+
+    Encoder(EmulatedCharset charset) {
+      this.charset = charset;
+    }
+
+    /**
+     * Encodes the next chunk of the stream and returns the number of bytes
+     * written at the start of {@link #getBytes()}. A high surrogate ending
+     * the chunk is kept for the next one, unless at the end of input.
+     */
+    public int encode(String chars, boolean endOfInput) {
+      chars = highSurrogate + chars;
+      highSurrogate = "";
+      int length = chars.length();
+      if (!endOfInput && length > 0 && Character.isHighSurrogate(chars.charAt(length - 1))) {
+        highSurrogate = chars.substring(length - 1);
+        chars = chars.substring(0, length - 1);
+      }
+      return encodeChunk(chars);
+    }
+
+    int encodeChunk(String chars) {
+      bytes = charset.getBytes(chars);
+      return bytes.length;
+    }
+
+    public byte[] getBytes() {
+      return bytes;
+    }
+  }
+
+  /**
+   * Decodes UTF-8 with the native <code>TextDecoder</code>, which keeps split
+   * sequences itself in streaming mode.
+   */
+  private static class TextDecoderUtf8 extends Decoder {
+    private final Object textDecoder = $insert("new TextDecoder('utf-8', { ignoreBOM: true })");
+
+    TextDecoderUtf8(EmulatedCharset charset) {
+      super(charset);
+    }
+
+    @Override
+    public String decode(byte[] bytes, int ofs, int len, boolean endOfInput) {
+      Object textDecoder = this.textDecoder;
+      Object view = toUint8Array(bytes, ofs, len);
+      return $insert("textDecoder.decode(view, { stream: !endOfInput })");
+    }
+  }
+
+  /**
+   * Decodes UTF-8 without <code>TextDecoder</code>, carrying the bytes of a
+   * trailing incomplete sequence over to the next chunk.
+   */
+  private static class Utf8Decoder extends Decoder {
+    private final byte[] carried = ArrayHelper.newByteArray(4);
+
+    private int carriedCount;
+
+    Utf8Decoder(EmulatedCharset charset) {
+      super(charset);
+    }
+
+    @Override
+    public String decode(byte[] bytes, int ofs, int len, boolean endOfInput) {
+      if (carriedCount > 0) {
+        byte[] joined = ArrayHelper.newByteArray(carriedCount + len);
+        System.arraycopy(carried, 0, joined, 0, carriedCount);
+        System.arraycopy(bytes, ofs, joined, carriedCount, len);
+        bytes = joined;
+        ofs = 0;
+        len = joined.length;
+        carriedCount = 0;
+      }
+      int complete = completeUtf8Length(bytes, ofs, len);
+      String text = charset.decodeToString(bytes, ofs, complete);
+      if (complete < len) {
+        if (endOfInput) {
+          return text + "\uFFFD";
+        }
+        carriedCount = len - complete;
+        System.arraycopy(bytes, ofs + complete, carried, 0, carriedCount);
+      }
+      return text;
+    }
+  }
+
+  /**
+   * Encodes UTF-8 with <code>TextEncoder.encodeInto</code> into a reused
+   * <code>Uint8Array</code> that grows as needed. The bytes are an
+   * <code>Int8Array</code> over the same memory when the JRE allocates typed
+   * arrays, and otherwise a reused plain array that the encoded bytes are
+   * copied to, so that streams only get the arrays they would get elsewhere.
+   */
+  private static class TextEncoderUtf8 extends Encoder {
+    private final Object textEncoder = $insert("new TextEncoder()");
+
+    /**
+     * The unsigned array that the encoder writes into.
+     */
+    private Object view;
+
+    TextEncoderUtf8(EmulatedCharset charset) {
+      super(charset);
+    }
+
+    @Override
+    int encodeChunk(String chars) {
+      // at most 3 bytes per UTF-16 unit
+      int capacity = chars.length() * 3;
+      boolean typed = ArrayHelper.useTypedArrays();
+      if (bytes == null || bytes.length < capacity) {
+        int length = Math.max(capacity, 1024);
+        Object unsigned = $insert("new Uint8Array(length)");
+        view = unsigned;
+        if (typed) {
+          bytes = $insert("new Int8Array(unsigned.buffer)");
+        } else {
+          bytes = new byte[length];
+        }
+      }
+      Object textEncoder = this.textEncoder;
+      Object view = this.view;
+      int written = $insert("textEncoder.encodeInto(chars, view).written");
+      if (!typed) {
+        byte[] bytes = this.bytes;
+        $insert("for (var i = 0; i < written; i++) { bytes[i] = view[i] << 24 >> 24; }");
+      }
+      return written;
+    }
+  }
+
+  /**
+   * Returns the given bytes as a <code>Uint8Array</code>: a view on the same
+   * memory when they are held in a typed array, or else a copy in the scratch
+   * array, which is only valid until the next call.
+   */
+  static Object toUint8Array(byte[] bytes, int ofs, int len) {
+    if (Lang.<Boolean> $insert("ArrayBuffer.isView(bytes)")) {
+      return $insert("new Uint8Array(bytes.buffer, bytes.byteOffset + ofs, len)");
+    }
+    if (scratchLength < len) {
+      scratchLength = Math.max(len, 1024);
+      int length = scratchLength;
+      scratch = $insert("new Uint8Array(length)");
+    }
+    Object scratch = EmulatedCharset.scratch;
+    $insert("for (var i = 0; i < len; i++) { scratch[i] = bytes[ofs + i]; }");
+    return $insert("scratch.subarray(0, len)");
+  }
+
+  /**
+   * Returns the length of the given bytes without a trailing incomplete
+   * UTF-8 sequence.
+   */
+  static int completeUtf8Length(byte[] bytes, int offset, int length) {
+    int end = offset + length;
+    int lead = end - 1;
+    while (lead >= offset && lead > end - 4 && (bytes[lead] & 0xC0) == 0x80) {
+      lead--;
+    }
+    if (lead < offset) {
+      return length;
+    }
+    int b = bytes[lead] & 0xFF;
+    int needed = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+    return end - lead < needed ? lead - offset : length;
+  }
+
   public EmulatedCharset(String name) {
     super(name, null);
   }
@@ -198,4 +477,20 @@ public abstract class EmulatedCharset extends Charset {
   public abstract byte[] getBytes(String string);
 
   public abstract char[] decodeString(byte[] bytes, int ofs, int len);
+
+  /**
+   * Decodes the given bytes to a string, without the intermediate char array
+   * of {@link #decodeString}.
+   */
+  public String decodeToString(byte[] bytes, int ofs, int len) {
+    return String.valueOf(decodeString(bytes, ofs, len));
+  }
+
+  public Decoder newDecoder() {
+    return new Decoder(this);
+  }
+
+  public Encoder newEncoder() {
+    return new Encoder(this);
+  }
 }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package javaemul.internal;
+
+import static jsweet.util.Lang.$insert;
+
+/**
+ * A cache of values computed from strings, in two generations of native Maps
+ * keyed by the strings themselves. A lookup checks the "front" generation,
+ * then the "back" one; values found in back or put are moved to front. When
+ * front is full, it becomes back, and the strings left in the previous back
+ * are evicted.
+ * <p>
+ * A generation holds up to the given capacity of strings; 0 disables the
+ * cache. The hit, miss and eviction counts since creation help sizing it from
+ * real traffic.
+ */
+public final class GenerationalCache<V> {
+
+  /**
+   * The maximum number of entries of a generation.
+   */
+  private final int capacity;
+
+  /**
+   * The "old" generation; it will be dumped when front is full. It holds no
+   * string of front.
+   */
+  private Object back = createNativeMap();
+
+  /**
+   * Tracks the number of entries in front.
+   */
+  private int count;
+
+  /**
+   * The "new" generation; it will become back when it becomes full.
+   */
+  private Object front = createNativeMap();
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public GenerationalCache(int capacity) {
+    this.capacity = capacity;
+  }
+
+  /**
+   * Returns the value cached for the given string, or null if it must be
+   * computed and {@link #put}.
+   */
+  public V get(String key) {
+    if (capacity <= 0) {
+      misses++;
+      return null;
+    }
+    Object front = this.front;
+    V value = $insert("front.get(key)");
+    if (!JsUtils.isUndefined(value)) {
+      hits++;
+      return value;
+    }
+    Object back = this.back;
+    value = $insert("back.get(key)");
+    if (JsUtils.isUndefined(value)) {
+      misses++;
+      return null;
+    }
+    hits++;
+    $insert("back.delete(key)");
+    put(key, value);
+    return value;
+  }
+
+  /**
+   * Caches the value of a string that {@link #get} did not find.
+   */
+  public void put(String key, V value) {
+    if (capacity <= 0) {
+      return;
+    }
+    if (count == capacity) {
+      Object back = this.back;
+      int evicted = $insert("back.size");
+      evictions += evicted;
+      this.back = this.front;
+      this.front = createNativeMap();
+      count = 0;
+    }
+    ++count;
+    Object front = this.front;
+    $insert("front.set(key, value)");
+  }
+
+  /**
+   * Returns the number of values found in the cache.
+   */
+  public long getHits() {
+    return hits;
+  }
+
+  /**
+   * Returns the number of values that were not in the cache.
+   */
+  public long getMisses() {
+    return misses;
+  }
+
+  /**
+   * Returns the number of strings dropped from the cache.
+   */
+  public long getEvictions() {
+    return evictions;
+  }
+
+  private static Object createNativeMap() {
+    return $insert("new Map()");
+  }
+}
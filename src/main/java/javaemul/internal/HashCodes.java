@@ -15,8 +15,11 @@
  */
 package javaemul.internal;
 
+import static jsweet.util.Lang.$insert;
 import static jsweet.util.Lang.object;
 
+import jsweet.util.Lang;
+
 /**
  * Contains logics for calculating hash codes in JavaScript.
  */
@@ -25,6 +28,19 @@ public class HashCodes {
 	private static int sNextHashId = 0;
 	private static final String HASH_CODE_PROPERTY = "$H";
 
+	/**
+	 * The identity hash codes of objects, when they are kept in a
+	 * <code>WeakMap</code>. This is the default, as stamping a
+	 * {@value #HASH_CODE_PROPERTY} property on objects changes their shape,
+	 * which deoptimizes the code that sees them, and fails on frozen objects.
+	 * Setting the <code>jre.identityHashCodes</code> system property to
+	 * "property" selects the stamping strategy, which is also the fallback on
+	 * engines without <code>WeakMap</code>.
+	 */
+	private static final Object identityHashCodes = !"property"
+			.equals(System.getProperty("jre.identityHashCodes", "weakmap"))
+			&& Lang.<Boolean> $insert("typeof WeakMap === 'function'") ? $insert("new WeakMap()") : null;
+
 	public static int hashCodeForString(String s) {
 		return StringHashCache.getHashCode(s);
 	}
@@ -37,6 +53,9 @@ public class HashCodes {
 	}
 
 	public static int getObjectIdentityHashCode(Object o) {
+		if (identityHashCodes != null) {
+			return getWeakMapIdentityHashCode(o);
+		}
 		if (object(o).$get(HASH_CODE_PROPERTY) != null) {
 			return object(o).$get(HASH_CODE_PROPERTY);
 		} else {
@@ -44,6 +63,22 @@ public class HashCodes {
 		}
 	};
 
+	private static int getWeakMapIdentityHashCode(Object o) {
+		String type = JsUtils.typeOf(o);
+		if (!"object".equals(type) && !"function".equals(type)) {
+			// numbers and booleans cannot be keys of a WeakMap, and are values
+			return o.hashCode();
+		}
+		Object hashCodes = identityHashCodes;
+		Object hashCode = $insert("hashCodes.get(o)");
+		if (JsUtils.isUndefined(hashCode)) {
+			int id = getNextHashId();
+			$insert("hashCodes.set(o, id)");
+			return id;
+		}
+		return (Integer) hashCode;
+	}
+
 	/**
 	 * Called from JSNI. Do not change this implementation without updating:
 	 * <ul>
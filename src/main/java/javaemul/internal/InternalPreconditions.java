@@ -19,17 +19,38 @@ import java.util.NoSuchElementException;
 
 /**
  * A utility class that provides utility functions to do precondition checks inside GWT-SDK.
+ * <p>
+ * The {@code jre.checks.checkLevel} property sets how much is checked:
+ * <ul>
+ * <li>{@code FULL} (default): all the checks, as further tuned by {@code jre.checkedMode} and the
+ * {@code jre.checks.type}, {@code jre.checks.api} and {@code jre.checks.bounds} properties.
+ * <li>{@code CRITICAL}: only the {@code checkCritical*} checks; the others, and the concurrent
+ * modification checks, are no-ops.
+ * <li>{@code NONE}: no checks at all, for code known not to rely on them.
+ * </ul>
+ * As this class is initialized along with {@link System}, the level is in practice the default
+ * built into the bundle; see the {@code unchecked} Maven profile.
  */
 // Some parts adapted from Guava
 public final class InternalPreconditions {
-  private static final boolean CHECKED_MODE =
-      System.getProperty("jre.checkedMode", "ENABLED").equals("ENABLED");
-  private static final boolean TYPE_CHECK =
-      System.getProperty("jre.checks.type", "ENABLED").equals("ENABLED");
-  private static final boolean API_CHECK =
-      System.getProperty("jre.checks.api", "ENABLED").equals("ENABLED");
-  private static final boolean BOUND_CHECK =
-      System.getProperty("jre.checks.bounds", "ENABLED").equals("ENABLED");
+  private static final String CHECK_LEVEL = System.getProperty("jre.checks.checkLevel", "FULL");
+  private static final boolean FULL_CHECK = CHECK_LEVEL.equals("FULL");
+  private static final boolean CRITICAL_CHECK = !CHECK_LEVEL.equals("NONE");
+  private static final boolean CHECKED_MODE = FULL_CHECK
+      && System.getProperty("jre.checkedMode", "ENABLED").equals("ENABLED");
+  private static final boolean TYPE_CHECK = FULL_CHECK
+      && System.getProperty("jre.checks.type", "ENABLED").equals("ENABLED");
+  private static final boolean API_CHECK = FULL_CHECK
+      && System.getProperty("jre.checks.api", "ENABLED").equals("ENABLED");
+  private static final boolean BOUND_CHECK = FULL_CHECK
+      && System.getProperty("jre.checks.bounds", "ENABLED").equals("ENABLED");
+
+  /**
+   * Returns whether the API checks, including the concurrent modification checks, are enabled.
+   */
+  public static boolean isApiChecked() {
+    return API_CHECK;
+  }
 
   public static void checkType(boolean expression) {
     if (TYPE_CHECK) {
@@ -44,7 +65,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalType(boolean expression) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new ClassCastException();
     }
   }
@@ -65,7 +86,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalArrayType(boolean expression) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new ArrayStoreException();
     }
   }
@@ -86,7 +107,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalArrayType(boolean expression, Object errorMessage) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new ArrayStoreException(String.valueOf(errorMessage));
     }
   }
@@ -113,7 +134,7 @@ public final class InternalPreconditions {
    * are much harder to debug.
    */
   public static void checkCriticalElement(boolean expression) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new NoSuchElementException();
     }
   }
@@ -140,7 +161,7 @@ public final class InternalPreconditions {
    * are much harder to debug.
    */
   public static void checkCriticalElement(boolean expression, Object errorMessage) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new NoSuchElementException(String.valueOf(errorMessage));
     }
   }
@@ -167,7 +188,7 @@ public final class InternalPreconditions {
    * are much harder to debug.
    */
   public static void checkCriticalArgument(boolean expression) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new IllegalArgumentException();
     }
   }
@@ -194,7 +215,7 @@ public final class InternalPreconditions {
    * are much harder to debug.
    */
   public static void checkCriticalArgument(boolean expression, Object errorMessage) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new IllegalArgumentException(String.valueOf(errorMessage));
     }
   }
@@ -223,7 +244,7 @@ public final class InternalPreconditions {
    */
   public static void checkCriticalArgument(boolean expression, String errorMessageTemplate,
       Object... errorMessageArgs) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new IllegalArgumentException(format(errorMessageTemplate, errorMessageArgs));
     }
   }
@@ -255,7 +276,7 @@ public final class InternalPreconditions {
    * are much harder to debug.
    */
   public static void checkCritcalState(boolean expression) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new IllegalStateException();
     }
   }
@@ -281,7 +302,7 @@ public final class InternalPreconditions {
    * involving any parameters to the calling method.
    */
   public static void checkCriticalState(boolean expression, Object errorMessage) {
-    if (!expression) {
+    if (CRITICAL_CHECK && !expression) {
       throw new IllegalStateException(String.valueOf(errorMessage));
     }
   }
@@ -304,7 +325,7 @@ public final class InternalPreconditions {
   }
 
   public static <T> T checkCriticalNotNull(T reference) {
-    if (reference == null) {
+    if (CRITICAL_CHECK && reference == null) {
       throw new NullPointerException();
     }
     return reference;
@@ -326,7 +347,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalNotNull(Object reference, Object errorMessage) {
-    if (reference == null) {
+    if (CRITICAL_CHECK && reference == null) {
       throw new NullPointerException(String.valueOf(errorMessage));
     }
   }
@@ -347,7 +368,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalArraySize(int size) {
-    if (size < 0) {
+    if (CRITICAL_CHECK && size < 0) {
       throw new NegativeArraySizeException("Negative array size: " + size);
     }
   }
@@ -369,7 +390,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalElementIndex(int index, int size) {
-    if (index < 0 || index >= size) {
+    if (CRITICAL_CHECK && (index < 0 || index >= size)) {
       throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
     }
   }
@@ -391,7 +412,7 @@ public final class InternalPreconditions {
   }
 
   public static void checkCriticalPositionIndex(int index, int size) {
-    if (index < 0 || index > size) {
+    if (CRITICAL_CHECK && (index < 0 || index > size)) {
       throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
     }
   }
@@ -419,6 +440,9 @@ public final class InternalPreconditions {
    * {@code size}, inclusive.
    */
   public static void checkCriticalPositionIndexes(int start, int end, int size) {
+    if (!CRITICAL_CHECK) {
+      return;
+    }
     if (start < 0) {
       throw new IndexOutOfBoundsException("fromIndex: " + start + " < 0");
     }
@@ -436,6 +460,9 @@ public final class InternalPreconditions {
    * @throw StringIndexOutOfBoundsException if the range is not legal
    */
   public static void checkStringBounds(int start, int end, int size) {
+    if (!CRITICAL_CHECK) {
+      return;
+    }
     if (start < 0) {
       throw new StringIndexOutOfBoundsException("fromIndex: " + start + " < 0");
     }
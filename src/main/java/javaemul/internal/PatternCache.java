@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, CINCHEO, renaud.pawlak@cincheo.fr
+ *
+ * Apache 2 license.
+ */
+
+package javaemul.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The compiled patterns most recently used by {@link Pattern#compile}, so that
+ * code compiling the same regex over and over translates it to a
+ * <code>RegExp</code> once. Patterns are keyed by their flags and source, and
+ * the least recently used one is evicted when the cache is full.
+ * <p>
+ * The cache holds up to <code>jre.regex.cacheSize</code> patterns, 64 by
+ * default; 0 disables it. The hit, miss and eviction counts since startup help
+ * sizing it from real traffic.
+ */
+public final class PatternCache {
+
+  private static final int CAPACITY =
+      Integer.parseInt(System.getProperty("jre.regex.cacheSize", "64"));
+
+  private static final Map<String, Pattern> patterns =
+      new LinkedHashMap<String, Pattern>(CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+          if (size() > CAPACITY) {
+            evictions++;
+            return true;
+          }
+          return false;
+        }
+      };
+
+  private static long hits;
+  private static long misses;
+  private static long evictions;
+
+  /**
+   * Returns the cached pattern for the given regex and flags, or null.
+   */
+  public static Pattern get(String regex, int flags) {
+    Pattern pattern = CAPACITY > 0 ? patterns.get(key(regex, flags)) : null;
+    if (pattern == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return pattern;
+  }
+
+  public static void put(String regex, int flags, Pattern pattern) {
+    if (CAPACITY > 0) {
+      patterns.put(key(regex, flags), pattern);
+    }
+  }
+
+  public static void clear() {
+    patterns.clear();
+  }
+
+  public static int size() {
+    return patterns.size();
+  }
+
+  public static long getHits() {
+    return hits;
+  }
+
+  public static long getMisses() {
+    return misses;
+  }
+
+  public static long getEvictions() {
+    return evictions;
+  }
+
+  private static String key(String regex, int flags) {
+    return flags + "/" + regex;
+  }
+
+  private PatternCache() {
+  }
+}
@@ -16,49 +16,48 @@
 package javaemul.internal;
 
 import static javaemul.internal.Coercions.ensureInt;
-import static jsweet.util.Lang.$insert;
 
 /**
- * Hashcode caching for strings.
+ * Hashcode caching for strings, in a {@link GenerationalCache} keyed by the
+ * strings themselves.
+ * <p>
+ * A generation holds up to <code>jre.stringHashCache.size</code> strings, 256
+ * by default; 0 disables the cache. The hit, miss and eviction counts since
+ * startup help sizing it from real traffic.
  */
-class StringHashCache {
-    /**
-     * The "old" cache; it will be dumped when front is full.
-     */
-    private static Object back = createNativeObject();
+public class StringHashCache {
+    private static final GenerationalCache<Integer> cache = new GenerationalCache<>(
+	    Integer.parseInt(System.getProperty("jre.stringHashCache.size", "256")));
+
+    public static int getHashCode(String str) {
+	Integer hashCode = cache.get(str);
+	if (hashCode == null) {
+	    hashCode = compute(str);
+	    cache.put(str, hashCode);
+	}
+	return hashCode;
+    }
+
     /**
-     * Tracks the number of entries in front.
+     * Returns the number of hash codes found in the cache.
      */
-    private static int count = 0;
+    public static long getHits() {
+	return cache.getHits();
+    }
+
     /**
-     * The "new" cache; it will become back when it becomes full.
+     * Returns the number of hash codes computed, as they were not in the
+     * cache.
      */
-    private static Object front = createNativeObject();
+    public static long getMisses() {
+	return cache.getMisses();
+    }
+
     /**
-     * Pulled this number out of thin air.
+     * Returns the number of strings dropped from the cache.
      */
-    private static final int MAX_CACHE = 256;
-
-    public static int getHashCode(String str) {
-	// Accesses must to be prefixed with ':' to prevent conflict with
-	// built-in
-	// JavaScript properties.
-	String key = ":" + str;
-
-	// Check the front store.
-	Object result = getProperty(front, key);
-	if (!JsUtils.isUndefined(result)) {
-	    return unsafeCastToInt(result);
-	}
-	// Check the back store.
-	result = getProperty(back, key);
-	int hashCode = JsUtils.isUndefined(result) ? compute(str) : unsafeCastToInt(result);
-	// Increment can trigger the swap/flush; call after checking back but
-	// before writing to front.
-	increment();
-	JsUtils.setIntProperty(front, key, hashCode);
-
-	return hashCode;
+    public static long getEvictions() {
+	return cache.getEvictions();
     }
 
     private static int compute(String str) {
@@ -85,25 +84,4 @@ class StringHashCache {
 
 	return hashCode;
     }
-
-    private static void increment() {
-	if (count == MAX_CACHE) {
-	    back = front;
-	    front = createNativeObject();
-	    count = 0;
-	}
-	++count;
-    }
-
-    private static Object getProperty(Object map, String key) {
-	return $insert("map[key]");
-    }
-
-    private static Object createNativeObject() {
-	return $insert("{}");
-    }
-
-    private static int unsafeCastToInt(Object o) {
-	return $insert("o");
-    }
 }
@@ -25,11 +25,11 @@ import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.Comparator;
+import java.util.Formatter;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.StringJoiner;
 
-//import def.sprintf_js.Globals;
-
 /**
  * Intrinsic string class.
  */
@@ -45,8 +45,7 @@ public final class StringHelper {
      * other methods <ul> <li>copyValueOf(char[] data) <li>copyValueOf(char[]
      * data, int offset, int count) </ul> <li>methods added in Java 1.6 (the
      * issue is how will it impact users building against Java 1.5) <ul>
-     * <li>isEmpty() </ul> <li>other methods which are not straightforward in JS
-     * <ul> <li>format(String format, Object... args) </ul> </ul>
+     * <li>isEmpty() </ul> </ul>
      *
      * <p>Also, in general, we need to improve our support of non-ASCII
      * characters. The problem is that correct support requires large tables,
@@ -186,9 +185,11 @@ public final class StringHelper {
     }
     
     public static String format(String formatString, Object... args) {
-        return "";
-        // TODO: reactivate
-        // return Globals.sprintf(formatString, args);
+        return new Formatter().format(formatString, args).toString();
+    }
+
+    public static String format(Locale locale, String formatString, Object... args) {
+        return new Formatter(locale).format(formatString, args).toString();
     }
 
     public static String join(CharSequence delimiter, CharSequence... elements) {
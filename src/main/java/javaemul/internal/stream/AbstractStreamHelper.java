@@ -0,0 +1,50 @@
+package javaemul.internal.stream;
+
+/**
+ * Pipeline state shared by the object and primitive stream helpers. The
+ * helpers returned by {@code mapToInt}, {@code boxed}, {@code asLongStream}...
+ * are typed views over the same row chain, source and close handlers, so
+ * switching between object and primitive stages never copies the items.
+ */
+abstract class AbstractStreamHelper {
+    protected final StreamRow head;
+    protected final StreamRow end;
+    protected final StreamSource source;
+    private final RunnableChain onCloseChain;
+
+    protected AbstractStreamHelper(StreamSource source) {
+        head = new StreamRowMap(o -> o);
+        end = new StreamRowEnd(head);
+        head.chain(end);
+        this.source = source;
+        this.onCloseChain = new RunnableChain(VoidRunnable.dryRun);
+    }
+
+    protected AbstractStreamHelper(AbstractStreamHelper upstream) {
+        head = upstream.head;
+        end = upstream.end;
+        source = upstream.source;
+        onCloseChain = upstream.onCloseChain;
+    }
+
+    protected void append(StreamRow streamRow) {
+        end.chain(streamRow);
+    }
+
+    protected void play() {
+        source.play(head);
+        head.end();
+    }
+
+    protected void addCloseHandler(Runnable closeHandler) {
+        onCloseChain.chain(new RunnableChain(new QuiteRunnable(closeHandler)));
+    }
+
+    public boolean isParallel() {
+        return false;
+    }
+
+    public void close() {
+        onCloseChain.runChain();
+    }
+}
@@ -0,0 +1,247 @@
+package javaemul.internal.stream;
+
+import static javaemul.internal.InternalPreconditions.checkElement;
+
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoublePredicate;
+import java.util.function.DoubleToIntFunction;
+import java.util.function.DoubleToLongFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javaemul.internal.ArrayHelper;
+
+/**
+ * {@link DoubleStream} over the {@link StreamRow} chain. Items travel as plain
+ * numbers and sources are played lazily, so no backing collection is built
+ * unless an operation needs one (sorted, distinct, toArray, iterator).
+ */
+public class DoubleStreamHelper extends AbstractStreamHelper implements DoubleStream {
+    private DoubleStream chain(StreamRow streamRow) {
+        append(streamRow);
+        return this;
+    }
+
+    private StreamRowFold fold(StreamRowFold rowFold) {
+        append(rowFold);
+        play();
+        return rowFold;
+    }
+
+    public DoubleStreamHelper(StreamSource source) {
+        super(source);
+    }
+
+    DoubleStreamHelper(AbstractStreamHelper upstream) {
+        super(upstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream filter(DoublePredicate predicate) {
+        return chain(new StreamRowFilter(n -> predicate.test((Double) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream map(DoubleUnaryOperator mapper) {
+        return chain(new StreamRowMap(n -> mapper.applyAsDouble((Double) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <U> Stream<U> mapToObj(DoubleFunction<? extends U> mapper) {
+        append(new StreamRowMap(n -> mapper.apply((Double) n)));
+        return new StreamHelper<U>(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream mapToInt(DoubleToIntFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsInt((Double) n)));
+        return new IntStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream mapToLong(DoubleToLongFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsLong((Double) n)));
+        return new LongStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream distinct() {
+        return chain(new StreamRowCollector(new LinkedHashSet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream sorted() {
+        return chain(new StreamRowSortingCollector(new ArrayList(),
+                (a, b) -> Double.compare((Double) a, (Double) b)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream peek(DoubleConsumer action) {
+        return chain(new StreamRowMap(new ConsumingFunction(n -> action.accept((Double) n))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream limit(long maxSize) {
+        return chain(new StreamRowLimit(maxSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream skip(long n) {
+        CountingPredicate p = new CountingPredicate(n);
+        return chain(new StreamRowFilter(v -> !p.test(v)));
+    }
+
+    public void forEach(DoubleConsumer action) {
+        peek(action);
+        play();
+    }
+
+    public void forEachOrdered(DoubleConsumer action) {
+        forEach(action);
+    }
+
+    @SuppressWarnings("unchecked")
+    public double[] toArray() {
+        List<Double> result = new ArrayList<>();
+        append(new StreamRowCollector(result));
+        play();
+        double[] array = ArrayHelper.newDoubleArray(result.size());
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = result.get(i);
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    public double reduce(double identity, DoubleBinaryOperator op) {
+        return (Double) fold(new StreamRowFold(identity,
+                (a, b) -> op.applyAsDouble((Double) a, (Double) b))).getResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    public OptionalDouble reduce(DoubleBinaryOperator op) {
+        StreamRowFold rowFold = fold(new StreamRowFold((a, b) -> op.applyAsDouble((Double) a, (Double) b)));
+        return rowFold.isPresent() ? OptionalDouble.of((Double) rowFold.getResult()) : OptionalDouble.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R collect(Supplier<R> supplier, ObjDoubleConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        R container = supplier.get();
+        append(new StreamRowMap(new ConsumingFunction(n -> accumulator.accept(container, (Double) n))));
+        play();
+        return container;
+    }
+
+    public double sum() {
+        return reduce(0, (a, b) -> a + b);
+    }
+
+    public OptionalDouble min() {
+        return reduce((a, b) -> Math.min(a, b));
+    }
+
+    public OptionalDouble max() {
+        return reduce((a, b) -> Math.max(a, b));
+    }
+
+    public long count() {
+        final StreamRowCount counter = new StreamRowCount();
+        append(counter);
+        play();
+        return counter.getCount();
+    }
+
+    public OptionalDouble average() {
+        DoubleSummaryStatistics statistics = summaryStatistics();
+        return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+    }
+
+    public DoubleSummaryStatistics summaryStatistics() {
+        DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+        forEach(n -> statistics.accept(n));
+        return statistics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean anyMatch(DoublePredicate predicate) {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(n -> predicate.test((Double) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean allMatch(DoublePredicate predicate) {
+        StreamRowAllFilter streamRow = new StreamRowAllFilter(n -> predicate.test((Double) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    public boolean noneMatch(DoublePredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public OptionalDouble findFirst() {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(o -> true);
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue() ? OptionalDouble.of((Double) streamRow.getFirstMatch().get())
+                : OptionalDouble.empty();
+    }
+
+    public OptionalDouble findAny() {
+        return findFirst();
+    }
+
+    public Stream<Double> boxed() {
+        return new StreamHelper<Double>(this);
+    }
+
+    public PrimitiveIterator.OfDouble iterator() {
+        final double[] values = toArray();
+        return new PrimitiveIterator.OfDouble() {
+            private int index;
+
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            public double nextDouble() {
+                checkElement(hasNext());
+                return values[index++];
+            }
+        };
+    }
+
+    public DoubleStream sequential() {
+        return this;
+    }
+
+    public DoubleStream parallel() {
+        return this;
+    }
+
+    public DoubleStream unordered() {
+        return this;
+    }
+
+    public DoubleStream onClose(Runnable closeHandler) {
+        addCloseHandler(closeHandler);
+        return this;
+    }
+}
@@ -0,0 +1,258 @@
+package javaemul.internal.stream;
+
+import static javaemul.internal.InternalPreconditions.checkElement;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalInt;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import javaemul.internal.ArrayHelper;
+
+/**
+ * {@link IntStream} over the {@link StreamRow} chain. Items travel as plain
+ * numbers and sources are played lazily, so no backing collection is built
+ * unless an operation needs one (sorted, distinct, toArray, iterator).
+ */
+public class IntStreamHelper extends AbstractStreamHelper implements IntStream {
+    private IntStream chain(StreamRow streamRow) {
+        append(streamRow);
+        return this;
+    }
+
+    private StreamRowFold fold(StreamRowFold rowFold) {
+        append(rowFold);
+        play();
+        return rowFold;
+    }
+
+    public IntStreamHelper(StreamSource source) {
+        super(source);
+    }
+
+    IntStreamHelper(AbstractStreamHelper upstream) {
+        super(upstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream filter(IntPredicate predicate) {
+        return chain(new StreamRowFilter(n -> predicate.test((Integer) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream map(IntUnaryOperator mapper) {
+        return chain(new StreamRowMap(n -> mapper.applyAsInt((Integer) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
+        append(new StreamRowMap(n -> mapper.apply((Integer) n)));
+        return new StreamHelper<U>(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream mapToLong(IntToLongFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsLong((Integer) n)));
+        return new LongStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream mapToDouble(IntToDoubleFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsDouble((Integer) n)));
+        return new DoubleStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream distinct() {
+        return chain(new StreamRowCollector(new LinkedHashSet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream sorted() {
+        return chain(new StreamRowSortingCollector(new ArrayList(),
+                (a, b) -> Integer.compare((Integer) a, (Integer) b)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream peek(IntConsumer action) {
+        return chain(new StreamRowMap(new ConsumingFunction(n -> action.accept((Integer) n))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream limit(long maxSize) {
+        return chain(new StreamRowLimit(maxSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream skip(long n) {
+        CountingPredicate p = new CountingPredicate(n);
+        return chain(new StreamRowFilter(v -> !p.test(v)));
+    }
+
+    public void forEach(IntConsumer action) {
+        peek(action);
+        play();
+    }
+
+    public void forEachOrdered(IntConsumer action) {
+        forEach(action);
+    }
+
+    @SuppressWarnings("unchecked")
+    public int[] toArray() {
+        List<Integer> result = new ArrayList<>();
+        append(new StreamRowCollector(result));
+        play();
+        int[] array = ArrayHelper.newIntArray(result.size());
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = result.get(i);
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    public int reduce(int identity, IntBinaryOperator op) {
+        return (Integer) fold(new StreamRowFold(identity,
+                (a, b) -> op.applyAsInt((Integer) a, (Integer) b))).getResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    public OptionalInt reduce(IntBinaryOperator op) {
+        StreamRowFold rowFold = fold(new StreamRowFold((a, b) -> op.applyAsInt((Integer) a, (Integer) b)));
+        return rowFold.isPresent() ? OptionalInt.of((Integer) rowFold.getResult()) : OptionalInt.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R collect(Supplier<R> supplier, ObjIntConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        R container = supplier.get();
+        append(new StreamRowMap(new ConsumingFunction(n -> accumulator.accept(container, (Integer) n))));
+        play();
+        return container;
+    }
+
+    public int sum() {
+        return reduce(0, (a, b) -> a + b);
+    }
+
+    public OptionalInt min() {
+        return reduce((a, b) -> Math.min(a, b));
+    }
+
+    public OptionalInt max() {
+        return reduce((a, b) -> Math.max(a, b));
+    }
+
+    public long count() {
+        final StreamRowCount counter = new StreamRowCount();
+        append(counter);
+        play();
+        return counter.getCount();
+    }
+
+    public OptionalDouble average() {
+        IntSummaryStatistics statistics = summaryStatistics();
+        return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+    }
+
+    public IntSummaryStatistics summaryStatistics() {
+        IntSummaryStatistics statistics = new IntSummaryStatistics();
+        forEach(n -> statistics.accept(n));
+        return statistics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean anyMatch(IntPredicate predicate) {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(n -> predicate.test((Integer) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean allMatch(IntPredicate predicate) {
+        StreamRowAllFilter streamRow = new StreamRowAllFilter(n -> predicate.test((Integer) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    public boolean noneMatch(IntPredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public OptionalInt findFirst() {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(o -> true);
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue() ? OptionalInt.of((Integer) streamRow.getFirstMatch().get())
+                : OptionalInt.empty();
+    }
+
+    public OptionalInt findAny() {
+        return findFirst();
+    }
+
+    public LongStream asLongStream() {
+        append(new StreamRowMap(n -> (long) (Integer) n));
+        return new LongStreamHelper(this);
+    }
+
+    public DoubleStream asDoubleStream() {
+        append(new StreamRowMap(n -> (double) (Integer) n));
+        return new DoubleStreamHelper(this);
+    }
+
+    public Stream<Integer> boxed() {
+        return new StreamHelper<Integer>(this);
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        final int[] values = toArray();
+        return new PrimitiveIterator.OfInt() {
+            private int index;
+
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            public int nextInt() {
+                checkElement(hasNext());
+                return values[index++];
+            }
+        };
+    }
+
+    public IntStream sequential() {
+        return this;
+    }
+
+    public IntStream parallel() {
+        return this;
+    }
+
+    public IntStream unordered() {
+        return this;
+    }
+
+    public IntStream onClose(Runnable closeHandler) {
+        addCloseHandler(closeHandler);
+        return this;
+    }
+}
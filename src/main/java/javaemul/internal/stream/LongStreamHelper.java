@@ -0,0 +1,251 @@
+package javaemul.internal.stream;
+
+import static javaemul.internal.InternalPreconditions.checkElement;
+
+import java.util.ArrayList;
+import java.util.LongSummaryStatistics;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.PrimitiveIterator;
+import java.util.function.BiConsumer;
+import java.util.function.LongBinaryOperator;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+import java.util.function.LongToDoubleFunction;
+import java.util.function.LongToIntFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link LongStream} over the {@link StreamRow} chain. Items travel as plain
+ * numbers and sources are played lazily, so no backing collection is built
+ * unless an operation needs one (sorted, distinct, toArray, iterator).
+ */
+public class LongStreamHelper extends AbstractStreamHelper implements LongStream {
+    private LongStream chain(StreamRow streamRow) {
+        append(streamRow);
+        return this;
+    }
+
+    private StreamRowFold fold(StreamRowFold rowFold) {
+        append(rowFold);
+        play();
+        return rowFold;
+    }
+
+    public LongStreamHelper(StreamSource source) {
+        super(source);
+    }
+
+    LongStreamHelper(AbstractStreamHelper upstream) {
+        super(upstream);
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream filter(LongPredicate predicate) {
+        return chain(new StreamRowFilter(n -> predicate.test((Long) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream map(LongUnaryOperator mapper) {
+        return chain(new StreamRowMap(n -> mapper.applyAsLong((Long) n)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <U> Stream<U> mapToObj(LongFunction<? extends U> mapper) {
+        append(new StreamRowMap(n -> mapper.apply((Long) n)));
+        return new StreamHelper<U>(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IntStream mapToInt(LongToIntFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsInt((Long) n)));
+        return new IntStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public DoubleStream mapToDouble(LongToDoubleFunction mapper) {
+        append(new StreamRowMap(n -> mapper.applyAsDouble((Long) n)));
+        return new DoubleStreamHelper(this);
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream distinct() {
+        return chain(new StreamRowCollector(new LinkedHashSet()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream sorted() {
+        return chain(new StreamRowSortingCollector(new ArrayList(),
+                (a, b) -> Long.compare((Long) a, (Long) b)));
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream peek(LongConsumer action) {
+        return chain(new StreamRowMap(new ConsumingFunction(n -> action.accept((Long) n))));
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream limit(long maxSize) {
+        return chain(new StreamRowLimit(maxSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public LongStream skip(long n) {
+        CountingPredicate p = new CountingPredicate(n);
+        return chain(new StreamRowFilter(v -> !p.test(v)));
+    }
+
+    public void forEach(LongConsumer action) {
+        peek(action);
+        play();
+    }
+
+    public void forEachOrdered(LongConsumer action) {
+        forEach(action);
+    }
+
+    @SuppressWarnings("unchecked")
+    public long[] toArray() {
+        List<Long> result = new ArrayList<>();
+        append(new StreamRowCollector(result));
+        play();
+        long[] array = new long[result.size()];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = result.get(i);
+        }
+        return array;
+    }
+
+    @SuppressWarnings("unchecked")
+    public long reduce(long identity, LongBinaryOperator op) {
+        return (Long) fold(new StreamRowFold(identity,
+                (a, b) -> op.applyAsLong((Long) a, (Long) b))).getResult();
+    }
+
+    @SuppressWarnings("unchecked")
+    public OptionalLong reduce(LongBinaryOperator op) {
+        StreamRowFold rowFold = fold(new StreamRowFold((a, b) -> op.applyAsLong((Long) a, (Long) b)));
+        return rowFold.isPresent() ? OptionalLong.of((Long) rowFold.getResult()) : OptionalLong.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R collect(Supplier<R> supplier, ObjLongConsumer<R> accumulator, BiConsumer<R, R> combiner) {
+        R container = supplier.get();
+        append(new StreamRowMap(new ConsumingFunction(n -> accumulator.accept(container, (Long) n))));
+        play();
+        return container;
+    }
+
+    public long sum() {
+        return reduce(0, (a, b) -> a + b);
+    }
+
+    public OptionalLong min() {
+        return reduce((a, b) -> Math.min(a, b));
+    }
+
+    public OptionalLong max() {
+        return reduce((a, b) -> Math.max(a, b));
+    }
+
+    public long count() {
+        final StreamRowCount counter = new StreamRowCount();
+        append(counter);
+        play();
+        return counter.getCount();
+    }
+
+    public OptionalDouble average() {
+        LongSummaryStatistics statistics = summaryStatistics();
+        return statistics.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(statistics.getAverage());
+    }
+
+    public LongSummaryStatistics summaryStatistics() {
+        LongSummaryStatistics statistics = new LongSummaryStatistics();
+        forEach(n -> statistics.accept(n));
+        return statistics;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean anyMatch(LongPredicate predicate) {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(n -> predicate.test((Long) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean allMatch(LongPredicate predicate) {
+        StreamRowAllFilter streamRow = new StreamRowAllFilter(n -> predicate.test((Long) n));
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue();
+    }
+
+    public boolean noneMatch(LongPredicate predicate) {
+        return !anyMatch(predicate);
+    }
+
+    public OptionalLong findFirst() {
+        StreamRowOnceFilter streamRow = new StreamRowOnceFilter(o -> true);
+        append(streamRow);
+        play();
+        return streamRow.getPredicateValue() ? OptionalLong.of((Long) streamRow.getFirstMatch().get())
+                : OptionalLong.empty();
+    }
+
+    public OptionalLong findAny() {
+        return findFirst();
+    }
+
+    public DoubleStream asDoubleStream() {
+        append(new StreamRowMap(n -> (double) (Long) n));
+        return new DoubleStreamHelper(this);
+    }
+
+    public Stream<Long> boxed() {
+        return new StreamHelper<Long>(this);
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        final long[] values = toArray();
+        return new PrimitiveIterator.OfLong() {
+            private int index;
+
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            public long nextLong() {
+                checkElement(hasNext());
+                return values[index++];
+            }
+        };
+    }
+
+    public LongStream sequential() {
+        return this;
+    }
+
+    public LongStream parallel() {
+        return this;
+    }
+
+    public LongStream unordered() {
+        return this;
+    }
+
+    public LongStream onClose(Runnable closeHandler) {
+        addCloseHandler(closeHandler);
+        return this;
+    }
+}
@@ -7,7 +7,6 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.PriorityQueue;
 import java.util.Spliterator;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
@@ -26,26 +25,12 @@ import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
-public class StreamHelper<T> implements Stream<T> {
-    private RunnableChain onCloseChain;
-    private final StreamRow head;
-    private final StreamRow end;
-    private final Collection<T> data;
-
+public class StreamHelper<T> extends AbstractStreamHelper implements Stream<T> {
     private Stream chain(StreamRow streamRow) {
-        end.chain(streamRow);
+        append(streamRow);
         return this;
     }
 
-    private void play() {
-        for (Object item : data) {
-            if (!head.item(item)) {
-                break;
-            }
-        }
-        head.end();
-    }
-
     @SuppressWarnings("unchecked")
     private Optional foldRight(Optional<T> identity, BinaryOperator accumulator) {
         StreamRowReduce rowReduce = new StreamRowReduce(identity, accumulator);
@@ -55,10 +40,21 @@ public class StreamHelper<T> implements Stream<T> {
     }
 
     public StreamHelper(Collection<T> data) {
-        head = new StreamRowMap(o -> o);
-        end = new StreamRowEnd(head);
-        head.chain(end);
-        this.data = data;
+        super(head -> {
+            for (Object item : data) {
+                if (!head.item(item)) {
+                    break;
+                }
+            }
+        });
+    }
+
+    public StreamHelper(StreamSource source) {
+        super(source);
+    }
+
+    StreamHelper(AbstractStreamHelper upstream) {
+        super(upstream);
     }
 
     @SuppressWarnings("unchecked")
@@ -71,11 +67,6 @@ public class StreamHelper<T> implements Stream<T> {
         return chain(new StreamRowMap(mapper));
     }
 
-    @SuppressWarnings("unchecked")
-    public <U> Stream<U> mapToObj(IntFunction<? extends U> mapper) {
-        return chain(new StreamRowMap(n -> mapper.apply((Integer) n)));
-    }
-
     @SuppressWarnings("unchecked")
     public <R> Stream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper) {
         return chain(new StreamRowFlatMap(mapper));
@@ -103,7 +94,7 @@ public class StreamHelper<T> implements Stream<T> {
 
     @SuppressWarnings("unchecked")
     public Stream<T> limit(long maxSize) {
-        return chain(new StreamRowFilterFlop(new CountingPredicate(maxSize)));
+        return chain(new StreamRowLimit(maxSize));
     }
 
     @SuppressWarnings("unchecked")
@@ -154,7 +145,7 @@ public class StreamHelper<T> implements Stream<T> {
         BiConsumer accumulator = collector.accumulator();
         chain(new StreamRowMap(new ConsumingFunction(item -> accumulator.accept(container, item))));
         play();
-        return (R) container;
+        return (R) collector.finisher().apply(container);
     }
 
     @SuppressWarnings("unchecked")
@@ -217,10 +208,6 @@ public class StreamHelper<T> implements Stream<T> {
         return result.iterator();
     }
 
-    public boolean isParallel() {
-        return false;
-    }
-
     public Stream<T> sequential() {
         return this;
     }
@@ -234,36 +221,30 @@ public class StreamHelper<T> implements Stream<T> {
     }
 
     public Stream<T> onClose(Runnable closeHandler) {
-        RunnableChain chainItem = new RunnableChain(new QuiteRunnable(closeHandler));
-        if (onCloseChain == null) {
-            onCloseChain = chainItem;
-        } else {
-            onCloseChain.chain(chainItem);
-        }
+        addCloseHandler(closeHandler);
         return this;
     }
 
-    public void close() {
-        if (onCloseChain == null) {
-            return;
-        }
-        onCloseChain.runChain();
-    }
-
-    // not implemented
-
+    @SuppressWarnings("unchecked")
     public IntStream mapToInt(ToIntFunction<? super T> mapper) {
-        throw new IllegalStateException();
+        append(new StreamRowMap(o -> mapper.applyAsInt((T) o)));
+        return new IntStreamHelper(this);
     }
 
+    @SuppressWarnings("unchecked")
     public LongStream mapToLong(ToLongFunction<? super T> mapper) {
-        throw new IllegalStateException();
+        append(new StreamRowMap(o -> mapper.applyAsLong((T) o)));
+        return new LongStreamHelper(this);
     }
 
+    @SuppressWarnings("unchecked")
     public DoubleStream mapToDouble(ToDoubleFunction<? super T> mapper) {
-        throw new IllegalStateException();
+        append(new StreamRowMap(o -> mapper.applyAsDouble((T) o)));
+        return new DoubleStreamHelper(this);
     }
 
+    // not implemented
+
     public IntStream flatMapToInt(Function<? super T, ? extends IntStream> mapper) {
         throw new IllegalStateException();
     }
@@ -5,7 +5,7 @@ import java.util.function.Predicate;
 
 public class StreamRowAllFilter extends TerminalStreamRow {
     private final Predicate predicate;
-    private boolean predicateValue;
+    private boolean predicateValue = true;
     private long attempts;
 
     public boolean getPredicateValue() {
@@ -0,0 +1,42 @@
+package javaemul.internal.stream;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Reduces the items without wrapping intermediate results, so that primitive
+ * reductions ({@code sum}, {@code min}, ...) do not allocate per item.
+ */
+public class StreamRowFold extends TerminalStreamRow {
+    private final BinaryOperator operator;
+    private Object result;
+    private boolean present;
+
+    public StreamRowFold(BinaryOperator operator) {
+        this.operator = operator;
+    }
+
+    public StreamRowFold(Object identity, BinaryOperator operator) {
+        this(operator);
+        this.result = identity;
+        this.present = true;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    public boolean item(Object a) {
+        if (present) {
+            result = operator.apply(result, a);
+        } else {
+            result = a;
+            present = true;
+        }
+        return true;
+    }
+}
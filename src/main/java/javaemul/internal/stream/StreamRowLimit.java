@@ -0,0 +1,29 @@
+package javaemul.internal.stream;
+
+/**
+ * Lets the first items through and asks the source to stop as soon as the
+ * last of them has passed, rather than refusing the next item once the
+ * source has produced it.
+ */
+public class StreamRowLimit extends TransientStreamRow {
+    private long remaining;
+
+    public StreamRowLimit(long maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException(String.valueOf(maxSize));
+        }
+        remaining = maxSize;
+    }
+
+    public boolean item(Object a) {
+        if (remaining <= 0) {
+            return false;
+        }
+        --remaining;
+        return next.item(a) && remaining > 0;
+    }
+
+    public void end() {
+        next.end();
+    }
+}
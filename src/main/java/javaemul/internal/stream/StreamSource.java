@@ -0,0 +1,11 @@
+package javaemul.internal.stream;
+
+/**
+ * Pushes the items of a stream into the head of a {@link StreamRow} chain.
+ * Sources are lazy: nothing is materialized, and the source must stop as soon
+ * as the head refuses an item, which is what makes infinite sources usable
+ * with {@code limit}.
+ */
+public interface StreamSource {
+    void play(StreamRow head);
+}
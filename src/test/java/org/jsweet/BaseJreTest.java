@@ -3,6 +3,7 @@ package org.jsweet;
 import static java.util.Arrays.asList;
 import static java.util.stream.Collectors.toList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Ignore;
@@ -17,6 +18,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalInt;
 import java.util.PriorityQueue;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -126,8 +128,24 @@ public abstract class BaseJreTest {
 	@Test
 	public void testIntStreamRange() {
 		List<String> result = new ArrayList<>();
-		//IntStream.range(0, 3).mapToObj(String::valueOf).forEach(result::add);
-		//assertEquals(asList("0", "1", "2"), result);
+		IntStream.range(0, 3).mapToObj(String::valueOf).forEach(result::add);
+		assertEquals(asList("0", "1", "2"), result);
+	}
+
+	@Test
+	public void testStreamMapToInt() {
+		assertEquals(6, stream(asList("a", "bb", "ccc")).mapToInt(String::length).sum());
+		assertEquals(OptionalInt.of(3), stream(asList("a", "bb", "ccc")).mapToInt(String::length).max());
+		assertEquals(2.0, stream(asList(1, 2, 3)).mapToInt(x -> x).average().getAsDouble(), 0);
+		assertEquals(asList(2, 4, 6), stream(asList(1, 2, 3)).mapToInt(x -> x * 2).boxed().collect(toList()));
+		assertEquals(0, stream(asList()).mapToInt(x -> 1).count());
+	}
+
+	@Test
+	public void testStreamAllMatch() {
+		assertTrue(stream(asList(2, 4, 6)).allMatch(x -> x % 2 == 0));
+		assertFalse(stream(asList(2, 3, 6)).allMatch(x -> x % 2 == 0));
+		assertTrue(stream(asList()).allMatch(x -> false));
 	}
 
 	@Test